@@ -2,6 +2,7 @@ import React, { useEffect, useMemo, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { tripsOversightService } from '../../services';
 import notificationService from '../../services/admin/notificationService';
+import notificationClient from '../../services/notificationClient';
 import './admin.css';
 
 const statusOptions = ['ALL', 'PENDING', 'ASSIGNED', 'IN_TRANSIT', 'DELIVERED', 'CANCELLED'];
@@ -95,9 +96,12 @@ const AdminTripsOversightPage = () => {
     };
     loadUnreadCount();
 
-    // Refresh count periodically every 30 seconds
-    const interval = setInterval(loadUnreadCount, 30000);
-    return () => clearInterval(interval);
+    // Later changes are pushed by the server
+    notificationClient.addUnreadCountListener(setUnreadCount);
+    notificationClient.connect().catch(err => {
+      console.error('Failed to connect to notification service:', err);
+    });
+    return () => notificationClient.removeUnreadCountListener(setUnreadCount);
   }, []);
 
   const handleOverride = async (tripId, targetStatus = 'ASSIGNED') => {
@@ -1,5 +1,6 @@
-import React, { useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { orderService } from '../../services';
+import notificationClient from '../../services/notificationClient';
 import './dispatch.css';
 import * as XLSX from 'xlsx';
 
@@ -9,6 +10,49 @@ const OrderImportPage = () => {
   const [result, setResult] = useState(null);
   const [error, setError] = useState(null);
   const [preview, setPreview] = useState(null);
+  const pollTimer = useRef(null);
+
+  const jobIdRef = useRef(null);
+
+  // Returns true once the job has finished
+  const applyJob = (job) => {
+    setResult(job);
+    if (job.status === 'COMPLETED' || job.status === 'FAILED') {
+      jobIdRef.current = null;
+      clearTimeout(pollTimer.current);
+      setLoading(false);
+      if (job.status === 'FAILED') setError(job.message || 'Import failed');
+      return true;
+    }
+    return false;
+  };
+
+  // The server pushes each committed chunk of the user's own jobs
+  useEffect(() => {
+    const onImportJob = (job) => {
+      if (job.jobId === jobIdRef.current) applyJob(job);
+    };
+    notificationClient.addImportJobListener(onImportJob);
+    notificationClient.connect().catch((err) => console.error('Notification connection failed', err));
+    return () => {
+      notificationClient.removeImportJobListener(onImportJob);
+      clearTimeout(pollTimer.current);
+    };
+  }, []);
+
+  // The import runs as a background job; poll it until it finishes, less often while progress is pushed
+  const pollJob = (jobId) => {
+    pollTimer.current = setTimeout(async () => {
+      if (jobIdRef.current !== jobId) return;
+      try {
+        const job = await orderService.getImportJob(jobId);
+        if (jobIdRef.current !== jobId || applyJob(job)) return;
+      } catch (err) {
+        console.error('Import job poll failed', err);
+      }
+      pollJob(jobId);
+    }, notificationClient.isConnected ? 5000 : 1500);
+  };
 
   const onFileChange = (e) => {
     const f = e.target.files[0];
@@ -71,13 +115,16 @@ const OrderImportPage = () => {
     }
 
     setLoading(true);
+    jobIdRef.current = null;
+    clearTimeout(pollTimer.current);
     try {
-      const res = await orderService.importOrders(file);
-      setResult(res);
+      const job = await orderService.submitImportJob(file);
+      jobIdRef.current = job.jobId;
+      setResult(job);
+      pollJob(job.jobId);
     } catch (err) {
       console.error(err);
-      setError(err?.message || 'Import failed');
-    } finally {
+      setError(err?.response?.data?.error || err?.message || 'Import failed');
       setLoading(false);
     }
   };
@@ -148,9 +195,11 @@ const OrderImportPage = () => {
 
       {result && (
         <div style={{ marginTop: 12 }}>
-          <div>Total rows: {result.totalRows}</div>
-          <div>Success: {result.successCount}</div>
-          <div>Failed: {result.failureCount}</div>
+          <div>Status: {result.status}</div>
+          <div>Rows read: {result.rowsParsed}</div>
+          <div>Valid: {result.rowsValidated}</div>
+          <div>Imported: {result.rowsInserted}</div>
+          <div>Failed: {result.rowsFailed}</div>
           {result.errors && result.errors.length > 0 && (
             <div>
               <h4>Errors</h4>
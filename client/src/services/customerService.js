@@ -10,9 +10,19 @@ const trackOrder = async (orderId) => {
   return response.data;
 };
 
+// One page of the customer's notification feed ({ notifications, hasNext, nextCursor });
+// pass the previous page's nextCursor to get the next one
+const getMyNotifications = async (size = 50, cursor = null) => {
+  const response = await api.get('/customer/me/notifications', {
+    params: { size, ...(cursor || {}) },
+  });
+  return response.data;
+};
+
 const customerService = {
   getMyOrders,
   trackOrder,
+  getMyNotifications,
 };
 
 export default customerService;
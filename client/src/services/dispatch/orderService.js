@@ -21,6 +21,20 @@ const importOrders = async (file) => {
   return response.data;
 };
 
+const submitImportJob = async (file) => {
+  const formData = new FormData();
+  formData.append('file', file);
+  const response = await api.post(`${basePath}/orders/import/jobs`, formData, {
+    headers: { 'Content-Type': 'multipart/form-data' }
+  });
+  return response.data;
+};
+
+const getImportJob = async (jobId) => {
+  const response = await api.get(`${basePath}/orders/import/jobs/${jobId}`);
+  return response.data;
+};
+
 const downloadTemplate = async (format = 'csv') => {
   const response = await api.get(`${basePath}/orders/import/template`, {
     params: { format },
@@ -53,6 +67,8 @@ const orderService = {
   getOrders,
   createOrder,
   importOrders,
+  submitImportJob,
+  getImportJob,
   downloadTemplate,
   getOrderById,
   updateOrder,
@@ -8,6 +8,8 @@ class NotificationClient {
     this.client = null;
     this.subscriptions = [];
     this.listeners = [];
+    this.unreadCountListeners = [];
+    this.importJobListeners = [];
     this.isConnected = false;
     this.connectPromise = null;
   }
@@ -23,10 +25,12 @@ class NotificationClient {
     }
 
     this.connectPromise = new Promise((resolve, reject) => {
+      // The token names the session's user on the server, which is what /user destinations are sent to
+      const token = localStorage.getItem('token');
       const socketUrl = `${backendBaseUrl}/ws/notifications`;
 
       console.log('Connecting to SockJS:', socketUrl);
-      const socket = new SockJS(socketUrl);
+      const socket = new SockJS(token ? `${socketUrl}?token=${encodeURIComponent(token)}` : socketUrl);
 
       // Determine topic based on user role
       const user = authService.getCurrentUser();
@@ -77,6 +81,28 @@ class NotificationClient {
           });
 
           this.subscriptions.push(subscription);
+
+          // Server pushes the role's unread count whenever it changes
+          const countSubscription = this.client.subscribe(`${topic}/unread-count`, (message) => {
+            try {
+              const { unreadCount } = JSON.parse(message.body);
+              this.notifyUnreadCountListeners(unreadCount);
+            } catch (e) {
+              console.error('Error parsing unread count:', e);
+            }
+          });
+          this.subscriptions.push(countSubscription);
+
+          // Progress of the order imports this user submitted
+          const importJobSubscription = this.client.subscribe('/user/queue/import-jobs', (message) => {
+            try {
+              this.notifyImportJobListeners(JSON.parse(message.body));
+            } catch (e) {
+              console.error('Error parsing import job progress:', e);
+            }
+          });
+          this.subscriptions.push(importJobSubscription);
+
           this.connectPromise = null;
           resolve();
         },
@@ -146,6 +172,42 @@ class NotificationClient {
     });
   }
 
+  addUnreadCountListener(callback) {
+    this.unreadCountListeners.push(callback);
+  }
+
+  removeUnreadCountListener(callback) {
+    this.unreadCountListeners = this.unreadCountListeners.filter(cb => cb !== callback);
+  }
+
+  notifyUnreadCountListeners(unreadCount) {
+    this.unreadCountListeners.forEach(callback => {
+      try {
+        callback(unreadCount);
+      } catch (error) {
+        console.error('Error in unread count listener:', error);
+      }
+    });
+  }
+
+  addImportJobListener(callback) {
+    this.importJobListeners.push(callback);
+  }
+
+  removeImportJobListener(callback) {
+    this.importJobListeners = this.importJobListeners.filter(cb => cb !== callback);
+  }
+
+  notifyImportJobListeners(job) {
+    this.importJobListeners.forEach(callback => {
+      try {
+        callback(job);
+      } catch (error) {
+        console.error('Error in import job listener:', error);
+      }
+    });
+  }
+
   /**
    * Allow other parts of the app to push a notification
    * (e.g., chat popup raising a bell badge for driver messages)
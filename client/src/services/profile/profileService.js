@@ -1,9 +1,11 @@
 import api from '../api';
 
 const changePassword = async (currentPassword, newPassword) => {
-  await api.put('/user/profile/password', null, {
+  const response = await api.put('/user/profile/password', null, {
     params: { currentPassword, newPassword }
   });
+  // The change revokes the old token; keep the session with the one it returns
+  localStorage.setItem('token', response.data.token);
 };
 
 const profileService = {
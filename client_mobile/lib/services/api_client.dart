@@ -20,6 +20,12 @@ class ApiClient {
     return headers;
   }
 
+  // Replace the stored token, e.g. with the one returned by a password change
+  Future<void> saveToken(String token) async {
+    final prefs = await SharedPreferences.getInstance();
+    await prefs.setString('token', token);
+  }
+
   Future<http.Response> get(String endpoint) async {
     final url = Uri.parse('$baseUrl$endpoint');
     final headers = await getHeaders();
@@ -3,6 +3,7 @@ import 'dart:convert';
 import 'package:http/http.dart' as http;
 import 'package:shared_preferences/shared_preferences.dart';
 import '../api_client.dart';
+import '../sync/sync_service.dart';
 import '../../models/user.dart';
 
 class AuthService {
@@ -90,6 +91,7 @@ class AuthService {
     final prefs = await SharedPreferences.getInstance();
     await prefs.remove(_tokenKey);
     await prefs.remove(_userKey);
+    await syncService.clear();
     _notifyUserUpdate(null);
     print('AuthService: Logout completed, notified stream');
   }
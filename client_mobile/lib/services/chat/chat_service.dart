@@ -1,9 +1,19 @@
 import 'dart:convert';
 import '../api_client.dart';
+import '../sync/sync_service.dart';
 import '../../models/chat/chat_message.dart';
 
 class ChatService {
+  /// Messages of a trip, oldest first, from the synced local copy: only messages that changed since the last
+  /// sync are downloaded. Falls back to the full list when sync is unavailable.
   Future<List<ChatMessage>> getTripMessages(int tripId) async {
+    try {
+      await syncService.refresh();
+      return syncService.chatOfTrip(tripId).map((e) => ChatMessage.fromJson(e)).toList();
+    } catch (e) {
+      print('Chat sync failed, loading the full list: $e');
+    }
+
     final response = await apiClient.get('/chat/trips/$tripId/messages');
     final data = jsonDecode(response.body) as List;
     return data.map((e) => ChatMessage.fromJson(e)).toList();
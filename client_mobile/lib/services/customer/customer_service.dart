@@ -145,6 +145,8 @@ class CustomerService {
       if (response.statusCode != 200) {
         throw Exception('Failed to change password: ${response.body}');
       }
+      // The change revokes the old token; keep the session with the one it returns
+      await apiClient.saveToken(jsonDecode(response.body)['token'] as String);
     } catch (e) {
       throw Exception('Failed to change password: $e');
     }
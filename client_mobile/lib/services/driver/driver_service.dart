@@ -1,4 +1,5 @@
 import '../api_client.dart';
+import '../sync/sync_service.dart';
 import 'dart:convert';
 import '../../models/driver/driver_profile.dart';
 import '../../models/driver/trip.dart';
@@ -7,7 +8,21 @@ import '../../models/driver/compliance.dart';
 import '../../models/driver/update_driver_profile_request.dart';
 
 class DriverService {
+  /// The driver's trips, newest departure first, from the synced local copy: only trips that changed since
+  /// the last sync are downloaded. Falls back to the full list when sync is unavailable.
   Future<List<DriverTrip>> getMyTrips({String? status}) async {
+    try {
+      await syncService.refresh();
+      final trips = syncService.trips
+          .where((item) => status == null || item['status'] == status)
+          .toList()
+        ..sort((a, b) => (b['scheduledDeparture']?.toString() ?? '')
+            .compareTo(a['scheduledDeparture']?.toString() ?? ''));
+      return trips.map((item) => DriverTrip.fromJson(item)).toList();
+    } catch (e) {
+      print('Trip sync failed, loading the full list: $e');
+    }
+
     final endpoint = status != null
         ? '/driver/me/trips?status=$status'
         : '/driver/me/trips';
@@ -186,6 +201,8 @@ class DriverService {
       if (response.statusCode != 200) {
         throw Exception('Failed to change password: ${response.body}');
       }
+      // The change revokes the old token; keep the session with the one it returns
+      await apiClient.saveToken(jsonDecode(response.body)['token'] as String);
     } catch (e) {
       throw Exception('Failed to change password: $e');
     }
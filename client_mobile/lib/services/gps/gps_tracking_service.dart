@@ -1,10 +1,12 @@
 import 'dart:async';
 import 'dart:convert';
 import 'dart:io' show Platform;
+import 'dart:math';
 import 'package:flutter/services.dart';
 import 'package:geolocator/geolocator.dart';
 import 'package:stomp_dart_client/stomp_dart_client.dart';
 import '../api_client.dart';
+import 'location_frame_encoder.dart';
 import 'package:shared_preferences/shared_preferences.dart';
 import 'package:flutter_local_notifications/flutter_local_notifications.dart';
 
@@ -23,6 +25,18 @@ class GpsTrackingService {
   final Set<String> _loggedDisabledTrips = {}; // Track trips we've already logged as disabled
   DateTime? _lastGpsCheck; // Prevent excessive GPS checks
 
+  // Batched location protocol: points are buffered and sent as compact binary frames.
+  // Unacknowledged points stay buffered so they can be replayed after a reconnect.
+  static const int _batchSize = 6;
+  static const Duration _flushInterval = Duration(seconds: 30);
+  static const int _maxBufferedPoints = 2000;
+  static const int _pointsPerFrame = 100;
+  final List<BufferedLocation> _pendingLocations = [];
+  int _streamId = 0;
+  int _nextSeq = 0;
+  Timer? _flushTimer;
+  String? _username;
+
   Future<void> connectAndStartTracking(String tripId, [String? driverId]) async {
     // Rate limiting: Don't check GPS settings more than once every 5 seconds
     final now = DateTime.now();
@@ -35,6 +49,9 @@ class GpsTrackingService {
 
     _tripId = tripId;
     _driverId = driverId ?? '';
+    _streamId = Random().nextInt(0x7FFFFFFF);
+    _nextSeq = 0;
+    _pendingLocations.clear();
 
     // Check if GPS tracking is enabled in user settings
     final prefs = await SharedPreferences.getInstance();
@@ -120,7 +137,7 @@ class GpsTrackingService {
     _positionSubscription = _positionStream!.listen(
       (Position position) {
         if (_isTracking) {
-          _sendLocation(position.latitude, position.longitude);
+          _recordLocation(position.latitude, position.longitude);
         }
       },
       onError: (error) {
@@ -128,19 +145,26 @@ class GpsTrackingService {
       },
     );
 
-    // Also send periodic updates (backup, in case position doesn't change much)
+    // Heartbeat fix only when the distance filter produced nothing for a minute (driver stationary)
     _locationTimer = Timer.periodic(const Duration(seconds: 60), (timer) async {
       if (!_isTracking) return;
+      if (_lastLocationUpdate != null &&
+          DateTime.now().difference(_lastLocationUpdate!).inSeconds < 60) return;
 
       try {
         Position position = await Geolocator.getCurrentPosition(
           desiredAccuracy: LocationAccuracy.high,
         );
-        _sendLocation(position.latitude, position.longitude);
+        _recordLocation(position.latitude, position.longitude);
       } catch (e) {
         print('Error getting periodic location: $e');
       }
     });
+
+    // Flush partially filled batches so the live map never lags more than the flush interval
+    _flushTimer = Timer.periodic(_flushInterval, (timer) {
+      if (_isTracking) _flushLocations();
+    });
   }
 
   Future<void> _connectWebSocket() async {
@@ -151,6 +175,10 @@ class GpsTrackingService {
     if (token == null) {
       throw Exception('No authentication token found');
     }
+    final userJson = prefs.getString('user');
+    if (userJson != null) {
+      _username = jsonDecode(userJson)['username'];
+    }
 
     // Build WebSocket URL for GPS tracking - use SockJS URL pattern with JWT token
     final baseUrl = ApiClient.baseUrl.replaceFirst('/api', '');
@@ -175,6 +203,9 @@ class GpsTrackingService {
           print('GPS DEBUG: WebSocket connected successfully');
           _isWebSocketConnected = true;
           _reconnectTimer?.cancel();
+          _subscribeToAcks();
+          // Replay anything buffered while offline
+          _flushLocations();
         },
         onWebSocketError: (dynamic err) {
           print('GPS DEBUG: WebSocket error: $err');
@@ -212,34 +243,77 @@ class GpsTrackingService {
     });
   }
 
-  void _sendLocation(double latitude, double longitude) {
+  void _subscribeToAcks() {
+    if (_username == null || _username!.isEmpty) return;
+    _stompClient?.subscribe(
+      destination: '/topic/driver/$_username/tracking-ack',
+      callback: (StompFrame frame) {
+        if (frame.body == null) return;
+        try {
+          final ack = jsonDecode(frame.body!);
+          if (ack['streamId'] != _streamId || ack['tripId']?.toString() != _tripId) return;
+          final ackSeq = ack['ackSeq'] as int;
+          _pendingLocations.removeWhere((p) => p.seq <= ackSeq);
+        } catch (e) {
+          print('Failed to decode tracking ack: $e');
+        }
+      },
+    );
+  }
+
+  void _recordLocation(double latitude, double longitude) {
     if (!_isTracking || _tripId == null) return;
 
-    // Throttle updates - don't send more than once per 10 seconds
+    // Throttle samples - don't record more than once per 10 seconds
     final now = DateTime.now();
     if (_lastLocationUpdate != null &&
         now.difference(_lastLocationUpdate!).inSeconds < 10) return;
+    _lastLocationUpdate = now;
+
+    _pendingLocations.add(BufferedLocation(_nextSeq++, latitude, longitude, now.millisecondsSinceEpoch));
+    if (_pendingLocations.length > _maxBufferedPoints) {
+      // Offline for too long: keep the most recent points only
+      _pendingLocations.removeRange(0, _pendingLocations.length - _maxBufferedPoints);
+    }
+
+    if (_pendingLocations.length >= _batchSize) {
+      _flushLocations();
+    }
+  }
+
+  void _flushLocations() {
+    if (_pendingLocations.isEmpty || _tripId == null) return;
 
     if (!_isWebSocketConnected || _stompClient == null) {
-      print('GPS WebSocket not connected, skipping location update');
+      print('GPS WebSocket not connected, buffering ${_pendingLocations.length} locations');
       return;
     }
 
-    final locationMessage = {
-      'tripId': _tripId!,
-      'latitude': latitude,
-      'longitude': longitude,
-    };
+    final tripId = int.tryParse(_tripId!);
+    if (tripId == null) return;
 
+    // Points stay buffered until acknowledged; the server drops sequence numbers it has already seen.
+    // Sequences may have gaps after overflow trimming, so split frames on gaps as well as size.
     try {
-      _stompClient?.send(
-        destination: '/app/tracking',
-        body: jsonEncode(locationMessage),
-      );
-      _lastLocationUpdate = now;
-      print('Location sent: lat=$latitude, lng=$longitude');
+      int start = 0;
+      while (start < _pendingLocations.length) {
+        int end = start + 1;
+        while (end < _pendingLocations.length &&
+            end - start < _pointsPerFrame &&
+            _pendingLocations[end].seq == _pendingLocations[end - 1].seq + 1) {
+          end++;
+        }
+        final frame = LocationFrameEncoder.encode(tripId, _streamId, _pendingLocations.sublist(start, end));
+        _stompClient?.send(
+          destination: '/app/tracking/batch',
+          binaryBody: frame,
+          headers: {'content-type': 'application/octet-stream'},
+        );
+        start = end;
+      }
+      print('Location batch sent: ${_pendingLocations.length} points');
     } catch (e) {
-      print('Error sending location: $e');
+      print('Error sending location batch: $e');
     }
   }
 
@@ -271,11 +345,16 @@ class GpsTrackingService {
       _stopForegroundService();
     }
 
+    // Best-effort send of the remaining points before the socket goes away
+    _flushLocations();
+
     _positionSubscription?.cancel();
     _locationTimer?.cancel();
+    _flushTimer?.cancel();
     _positionStream = null;
     _tripId = null;
     _driverId = null;
+    _pendingLocations.clear();
 
     // Disconnect WebSocket
     _isWebSocketConnected = false;
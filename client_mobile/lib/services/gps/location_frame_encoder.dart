@@ -0,0 +1,65 @@
+import 'dart:typed_data';
+
+/// A GPS fix waiting to be sent to the tracking endpoint.
+class BufferedLocation {
+  final int seq;
+  final double latitude;
+  final double longitude;
+  final int timestamp; // epoch millis
+
+  const BufferedLocation(this.seq, this.latitude, this.longitude, this.timestamp);
+}
+
+/// Encodes batched location frames for /app/tracking/batch.
+///
+/// Layout (big-endian), mirrored by the server's LocationFrameCodec:
+///   u8 version, i32 tripId, i32 streamId, i32 firstSeq, i64 baseTimeMs, u16 count,
+///   then per point: zigzag varint dLat*1e6, zigzag varint dLng*1e6, varint dTimeMs.
+/// Points must have consecutive sequence numbers starting at firstSeq.
+class LocationFrameEncoder {
+  static const int version = 1;
+  static const int maxPointsPerFrame = 512;
+
+  static Uint8List encode(int tripId, int streamId, List<BufferedLocation> points) {
+    if (points.isEmpty || points.length > maxPointsPerFrame) {
+      throw ArgumentError('Invalid point count: ${points.length}');
+    }
+
+    final bytes = BytesBuilder(copy: false);
+    final header = ByteData(23);
+    final baseTime = points.first.timestamp;
+    header.setUint8(0, version);
+    header.setInt32(1, tripId);
+    header.setInt32(5, streamId);
+    header.setUint32(9, points.first.seq);
+    header.setInt64(13, baseTime);
+    header.setUint16(21, points.length);
+    bytes.add(header.buffer.asUint8List());
+
+    int prevLat = 0;
+    int prevLng = 0;
+    int prevTime = baseTime;
+    for (final point in points) {
+      final lat = (point.latitude * 1e6).round();
+      final lng = (point.longitude * 1e6).round();
+      _writeVarint(bytes, _zigZag(lat - prevLat));
+      _writeVarint(bytes, _zigZag(lng - prevLng));
+      final dt = point.timestamp - prevTime;
+      _writeVarint(bytes, dt > 0 ? dt : 0);
+      prevLat = lat;
+      prevLng = lng;
+      if (point.timestamp > prevTime) prevTime = point.timestamp;
+    }
+    return bytes.takeBytes();
+  }
+
+  static int _zigZag(int value) => (value << 1) ^ (value >> 63);
+
+  static void _writeVarint(BytesBuilder bytes, int value) {
+    while ((value & ~0x7F) != 0) {
+      bytes.addByte((value & 0x7F) | 0x80);
+      value = value >>> 7;
+    }
+    bytes.addByte(value);
+  }
+}
@@ -5,6 +5,7 @@ import 'package:shared_preferences/shared_preferences.dart';
 import 'package:stomp_dart_client/stomp_dart_client.dart';
 
 import '../api_client.dart';
+import '../sync/sync_service.dart';
 
 class NotificationService {
   StompClient? _stompClient;
@@ -16,40 +17,87 @@ class NotificationService {
   // Store notifications in memory (both read and unread)
   final List<Map<String, dynamic>> _notifications = [];
 
+  // Ids taken from the synced copy, replaced on every load; older feed pages are kept
+  final Set<dynamic> _syncedIds = {};
+
+  // Position in the paged notification feed, for history older than what sync delivered
+  Map<String, dynamic>? _feedCursor;
+  bool _feedHasMore = true;
+
   /// Load persisted notifications for the current user from the backend.
+  /// Only changes since the previous sync (also of an earlier launch) are transferred.
   Future<void> loadPersistedNotifications() async {
     if (_userType == null) return;
 
     try {
-      final endpoint = _userType == 'driver'
-          ? '/driver/me/notifications'
-          : '/customer/me/notifications';
-
-      final response = await apiClient.get(endpoint);
-      if (response.statusCode == 200) {
-        final List<dynamic> data = jsonDecode(response.body);
-        _notifications.clear();
-
-        for (final item in data) {
-          if (item is Map<String, dynamic>) {
-            final notif = <String, dynamic>{
-              'id': item['notificationId'],
-              'message': item['message'],
-              'type': item['notificationType'],
-              'timestamp': item['createdAt'],
-              'tripId': item['relatedEntityId'],
-              'isRead': item['isRead'] == true,
-            };
-            _notifications.add(notif);
-          }
-        }
+      await syncService.refresh();
+      final synced = syncService.notifications;
+      final ids = synced.map((item) => item['notificationId']).toSet();
+      // Drop what sync no longer has (deleted) and what it is about to replace
+      _notifications.removeWhere((n) => _syncedIds.contains(n['id']) || ids.contains(n['id']));
+      _syncedIds
+        ..clear()
+        ..addAll(ids);
+
+      for (final item in synced) {
+        final notif = <String, dynamic>{
+          'id': item['notificationId'],
+          'message': item['message'],
+          'type': item['notificationType'],
+          'timestamp': item['createdAt'],
+          'tripId': item['relatedEntityId'],
+          'isRead': item['isRead'] == true,
+        };
+        _notifications.add(notif);
       }
+      _notifications.sort((a, b) => (b['timestamp']?.toString() ?? '')
+          .compareTo(a['timestamp']?.toString() ?? ''));
     } catch (e) {
       // If loading fails, just keep whatever is currently in memory
       print('Failed to load persisted notifications: $e');
     }
   }
 
+  bool get hasOlderNotifications => _feedHasMore;
+
+  /// Load the next page of the notification feed (newest first). Each call continues from the
+  /// nextCursor of the previous page until the server reports hasNext = false.
+  Future<void> loadOlderNotifications({int size = 50}) async {
+    if (_userType == null || !_feedHasMore) return;
+
+    final params = <String, String>{'size': '$size'};
+    final cursor = _feedCursor;
+    if (cursor != null) {
+      params['beforeCreatedAt'] = cursor['beforeCreatedAt'].toString();
+      params['beforeId'] = cursor['beforeId'].toString();
+    }
+
+    try {
+      final response = await apiClient.get(
+        '/$_userType/me/notifications?${Uri(queryParameters: params).query}',
+      );
+      final data = jsonDecode(response.body) as Map<String, dynamic>;
+      for (final item in (data['notifications'] as List? ?? const [])) {
+        final id = item['notificationId'];
+        if (_notifications.any((n) => n['id'] == id)) continue;
+        _notifications.add({
+          'id': id,
+          'message': item['message'],
+          'type': item['notificationType'] ?? item['type'],
+          'timestamp': item['createdAt'],
+          'tripId': item['relatedEntityId'],
+          'isRead': item['isRead'] == true,
+        });
+      }
+      _notifications.sort((a, b) => (b['timestamp']?.toString() ?? '')
+          .compareTo(a['timestamp']?.toString() ?? ''));
+      _feedHasMore = data['hasNext'] == true;
+      _feedCursor = data['nextCursor'] as Map<String, dynamic>?;
+    } catch (e) {
+      print('Failed to load older notifications: $e');
+    }
+  }
+
   Future<void> connect(String userId, {String userType = 'driver'}) async {
     if (_isConnected && _userId == userId && _userType == userType) {
       print(
@@ -204,6 +252,9 @@ class NotificationService {
     _stompClient = null;
     _isConnected = false;
     _notifications.clear();
+    _syncedIds.clear();
+    _feedCursor = null;
+    _feedHasMore = true;
     print('Notification service disconnected');
   }
 
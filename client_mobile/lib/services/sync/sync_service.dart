@@ -0,0 +1,184 @@
+import 'dart:convert';
+
+import 'package:shared_preferences/shared_preferences.dart';
+
+import '../api_client.dart';
+import '../auth/auth_service.dart';
+
+/// Upserted rows and deleted ids of one entity type in a sync response.
+class SyncChanges {
+  final List<Map<String, dynamic>> upserts;
+  final List<int> deleted;
+
+  const SyncChanges(this.upserts, this.deleted);
+
+  static const empty = SyncChanges([], []);
+
+  factory SyncChanges.fromJson(dynamic json) {
+    if (json is! Map<String, dynamic>) return empty;
+    return SyncChanges(
+      (json['upserts'] as List? ?? []).whereType<Map<String, dynamic>>().toList(),
+      (json['deleted'] as List? ?? []).map((e) => (e as num).toInt()).toList(),
+    );
+  }
+
+  SyncChanges merge(SyncChanges other) =>
+      SyncChanges([...upserts, ...other.upserts], [...deleted, ...other.deleted]);
+}
+
+/// Result of [SyncService.sync]: everything that changed since the given cursor.
+class SyncResult {
+  final int cursor;
+  final bool full; // drop local copies before applying
+  final SyncChanges trips;
+  final SyncChanges notifications;
+  final SyncChanges chat;
+
+  const SyncResult(this.cursor, this.full, this.trips, this.notifications, this.chat);
+}
+
+/// Local copy of the logged-in user's trips, notifications and chat messages, kept current with GET /api/sync.
+///
+/// The copy and its cursor are saved in SharedPreferences per user, so a launch only transfers what changed
+/// since the last sync. Every entity type of a response is applied here, whichever screen asked for it, so
+/// advancing the one cursor never skips trip or chat changes.
+class SyncService {
+  static const int _maxPages = 20;
+  static const String _storagePrefix = 'sync_state_';
+
+  String? _username; // owner of the loaded copy
+  int _cursor = 0;
+  final Map<int, Map<String, dynamic>> _trips = {};
+  final Map<int, Map<String, dynamic>> _notifications = {};
+  final Map<int, Map<String, dynamic>> _chat = {};
+  Future<void>? _refreshing;
+
+  List<Map<String, dynamic>> get trips => List.unmodifiable(_trips.values);
+  List<Map<String, dynamic>> get notifications => List.unmodifiable(_notifications.values);
+
+  List<Map<String, dynamic>> chatOfTrip(int tripId) {
+    final messages = _chat.values.where((m) => m['tripId'] == tripId).toList();
+    messages.sort((a, b) => (a['createdAt']?.toString() ?? '').compareTo(b['createdAt']?.toString() ?? ''));
+    return messages;
+  }
+
+  /// Bring the local copy up to date. Callers arriving while a sync runs wait for that one.
+  Future<void> refresh() {
+    return _refreshing ??= _refresh().whenComplete(() => _refreshing = null);
+  }
+
+  Future<void> _refresh() async {
+    final user = await authService.getCurrentUser();
+    if (user == null || user.username.isEmpty) {
+      throw Exception('Not logged in');
+    }
+    if (_username != user.username) {
+      await _load(user.username);
+    }
+
+    final result = await sync(_cursor);
+    if (result.full) {
+      _trips.clear();
+      _notifications.clear();
+      _chat.clear();
+    }
+    _apply(_trips, result.trips, 'tripId');
+    _apply(_notifications, result.notifications, 'notificationId');
+    _apply(_chat, result.chat, 'messageId');
+    _cursor = result.cursor;
+    await _save();
+  }
+
+  /// Forget the local copy of the current user (on logout).
+  Future<void> clear() async {
+    final username = _username;
+    _username = null;
+    _cursor = 0;
+    _trips.clear();
+    _notifications.clear();
+    _chat.clear();
+    if (username != null) {
+      final prefs = await SharedPreferences.getInstance();
+      await prefs.remove('$_storagePrefix$username');
+    }
+  }
+
+  static void _apply(Map<int, Map<String, dynamic>> rows, SyncChanges changes, String idField) {
+    for (final id in changes.deleted) {
+      rows.remove(id);
+    }
+    for (final row in changes.upserts) {
+      final id = (row[idField] as num?)?.toInt();
+      if (id != null) rows[id] = row;
+    }
+  }
+
+  Future<void> _load(String username) async {
+    _username = username;
+    _cursor = 0;
+    _trips.clear();
+    _notifications.clear();
+    _chat.clear();
+
+    final prefs = await SharedPreferences.getInstance();
+    final stored = prefs.getString('$_storagePrefix$username');
+    if (stored == null) return;
+    try {
+      final data = jsonDecode(stored) as Map<String, dynamic>;
+      _readRows(_trips, data['trips'], 'tripId');
+      _readRows(_notifications, data['notifications'], 'notificationId');
+      _readRows(_chat, data['chat'], 'messageId');
+      _cursor = (data['cursor'] as num?)?.toInt() ?? 0;
+    } catch (e) {
+      // Unreadable copy: start over with a full sync
+      _trips.clear();
+      _notifications.clear();
+      _chat.clear();
+      _cursor = 0;
+    }
+  }
+
+  static void _readRows(Map<int, Map<String, dynamic>> rows, dynamic json, String idField) {
+    for (final row in (json as List? ?? const []).whereType<Map<String, dynamic>>()) {
+      final id = (row[idField] as num?)?.toInt();
+      if (id != null) rows[id] = row;
+    }
+  }
+
+  Future<void> _save() async {
+    final username = _username;
+    if (username == null) return;
+    final prefs = await SharedPreferences.getInstance();
+    await prefs.setString('$_storagePrefix$username', jsonEncode({
+      'cursor': _cursor,
+      'trips': _trips.values.toList(),
+      'notifications': _notifications.values.toList(),
+      'chat': _chat.values.toList(),
+    }));
+  }
+
+  /// Client for GET /api/sync. Pass 0 for a full sync, then the cursor of the previous result;
+  /// when nothing changed the server answers 204 and no rows are transferred.
+  Future<SyncResult> sync(int cursor) async {
+    var result = SyncResult(cursor, false, SyncChanges.empty, SyncChanges.empty, SyncChanges.empty);
+    for (var page = 0; page < _maxPages; page++) {
+      final response = await apiClient.get('/sync?cursor=${result.cursor}');
+      if (response.statusCode == 204) break;
+      if (response.statusCode != 200) {
+        throw Exception('Sync failed: ${response.statusCode}');
+      }
+      final data = jsonDecode(response.body) as Map<String, dynamic>;
+      result = SyncResult(
+        (data['cursor'] as num?)?.toInt() ?? result.cursor,
+        result.full || data['full'] == true,
+        result.trips.merge(SyncChanges.fromJson(data['trips'])),
+        result.notifications.merge(SyncChanges.fromJson(data['notifications'])),
+        result.chat.merge(SyncChanges.fromJson(data['chat'])),
+      );
+      if (data['hasMore'] != true) break;
+    }
+    return result;
+  }
+}
+
+final syncService = SyncService();
@@ -109,7 +109,7 @@ class _NotificationBellState extends State<NotificationBell> {
 }
 
 /// Full-screen notifications view
-class _NotificationsScreen extends StatelessWidget {
+class _NotificationsScreen extends StatefulWidget {
   final NotificationService notificationService;
   final Function({String? tripId})? onNavigateToTripDetail;
   final VoidCallback onMarkAllRead;
@@ -121,10 +121,28 @@ class _NotificationsScreen extends StatelessWidget {
     required this.onMarkAllRead,
   }) : super(key: key);
 
+  @override
+  State<_NotificationsScreen> createState() => _NotificationsScreenState();
+}
+
+class _NotificationsScreenState extends State<_NotificationsScreen> {
+  bool _loadingOlder = false;
+
+  NotificationService get notificationService => widget.notificationService;
+  Function({String? tripId})? get onNavigateToTripDetail => widget.onNavigateToTripDetail;
+  VoidCallback get onMarkAllRead => widget.onMarkAllRead;
+
+  Future<void> _loadOlder() async {
+    setState(() => _loadingOlder = true);
+    await notificationService.loadOlderNotifications();
+    if (mounted) setState(() => _loadingOlder = false);
+  }
+
   @override
   Widget build(BuildContext context) {
     final notifications = notificationService.getAllNotifications();
     final unreadCount = notificationService.getUnreadNotificationCount();
+    final hasOlder = notificationService.hasOlderNotifications;
 
     return Scaffold(
       appBar: AppBar(
@@ -144,11 +162,25 @@ class _NotificationsScreen extends StatelessWidget {
             ),
         ],
       ),
-      body: notifications.isEmpty
+      body: notifications.isEmpty && !hasOlder
           ? _buildEmptyState(context)
           : ListView.builder(
-              itemCount: notifications.length,
+              // One extra row at the end pages further back in the feed
+              itemCount: notifications.length + (hasOlder ? 1 : 0),
               itemBuilder: (context, index) {
+                if (index == notifications.length) {
+                  return Padding(
+                    padding: const EdgeInsets.all(16),
+                    child: Center(
+                      child: _loadingOlder
+                          ? const CircularProgressIndicator()
+                          : TextButton(
+                              onPressed: _loadOlder,
+                              child: const Text('Load older notifications'),
+                            ),
+                    ),
+                  );
+                }
                 final notification = notifications[index];
                 return _buildNotificationItem(context, notification);
               },
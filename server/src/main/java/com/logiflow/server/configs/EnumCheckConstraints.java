@@ -0,0 +1,63 @@
+package com.logiflow.server.configs;
+
+import com.logiflow.server.models.TripProgressEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate guards {@code @Enumerated(EnumType.STRING)} columns with a check constraint listing the enum's values,
+ * but {@code ddl-auto=update} never touches a constraint once the table exists. Columns whose enum has gained
+ * values are listed here; their constraint is dropped and recreated from the current enum on startup so inserts
+ * of the new values don't fail on existing databases. Like {@link IdSequences} it depends on the
+ * EntityManagerFactory so it runs after the schema update and before any request writes.
+ */
+@Component
+public class EnumCheckConstraints {
+    private static final Logger log = LoggerFactory.getLogger(EnumCheckConstraints.class);
+
+    private record EnumColumn(String table, String column, Class<? extends Enum<?>> type) {
+        String constraint() {
+            // PostgreSQL's default name, which is what Hibernate's generated constraint gets
+            return table + "_" + column + "_check";
+        }
+    }
+
+    private static final List<EnumColumn> COLUMNS = List.of(
+            new EnumColumn("trip_progress_events", "event_type", TripProgressEvent.EventType.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EnumCheckConstraints(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (EnumColumn column : COLUMNS) {
+            try {
+                migrate(column);
+            } catch (Exception e) {
+                log.error("Could not update {} on {}: {}", column.constraint(), column.table(), e.getMessage());
+            }
+        }
+    }
+
+    private void migrate(EnumColumn column) {
+        String values = Arrays.stream(column.type().getEnumConstants())
+                .map(value -> "'" + value.name() + "'")
+                .collect(Collectors.joining(", "));
+        // One statement, so the column is never left without its constraint
+        jdbcTemplate.execute("ALTER TABLE " + column.table()
+                + " DROP CONSTRAINT IF EXISTS " + column.constraint()
+                + ", ADD CONSTRAINT " + column.constraint() + " CHECK (" + column.column() + " IN (" + values + "))");
+        log.debug("Recreated {} with {}", column.constraint(), values);
+    }
+}
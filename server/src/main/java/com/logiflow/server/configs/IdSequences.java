@@ -0,0 +1,110 @@
+package com.logiflow.server.configs;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary keys come from one pooled sequence per table ({@code <table>_seq}, increment {@value #ALLOCATION_SIZE})
+ * instead of identity columns: Hibernate takes a block of ids per {@code nextval} (pooled-lo) and can batch
+ * inserts, which identity columns prevent.
+ *
+ * Hibernate creates missing sequences on startup; this component then migrates tables that were created with
+ * identity columns. It drops the identity, makes {@code nextval('<table>_seq')} the column default so plain SQL
+ * inserts share the sequence, and moves the sequence past the largest existing id. It depends on the
+ * EntityManagerFactory so it runs after the schema update and before the seeder or any request writes.
+ */
+@Component
+public class IdSequences {
+    private static final Logger log = LoggerFactory.getLogger(IdSequences.class);
+
+    /** Must match {@code allocationSize} of the entities' {@code @SequenceGenerator}. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private record IdSequence(String table, String column) {
+        String sequence() {
+            return table + "_seq";
+        }
+    }
+
+    private static final List<IdSequence> SEQUENCES = List.of(
+            new IdSequence("audit_logs", "id"),
+            new IdSequence("chat_messages", "message_id"),
+            new IdSequence("customers", "customer_id"),
+            new IdSequence("delivery_confirmations", "confirmation_id"),
+            new IdSequence("domain_event_dead_letters", "dead_letter_id"),
+            new IdSequence("drivers", "driver_id"),
+            new IdSequence("driver_work_logs", "log_id"),
+            new IdSequence("notifications", "notification_id"),
+            new IdSequence("orders", "order_id"),
+            new IdSequence("order_import_jobs", "job_id"),
+            new IdSequence("order_import_job_errors", "error_id"),
+            new IdSequence("payments", "payment_id"),
+            new IdSequence("registration_requests", "request_id"),
+            new IdSequence("roles", "role_id"),
+            new IdSequence("routes", "route_id"),
+            new IdSequence("system_settings", "setting_id"),
+            new IdSequence("trips", "trip_id"),
+            new IdSequence("trip_assignments", "assignment_id"),
+            new IdSequence("trip_progress_events", "event_id"),
+            new IdSequence("users", "user_id"),
+            new IdSequence("vehicles", "vehicle_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequences(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (IdSequence id : SEQUENCES) {
+            try {
+                migrate(id);
+            } catch (Exception e) {
+                log.error("Could not migrate {}.{} to {}: {}", id.table(), id.column(), id.sequence(), e.getMessage());
+            }
+        }
+    }
+
+    private void migrate(IdSequence id) {
+        String seq = id.sequence();
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + seq + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        jdbcTemplate.execute("ALTER TABLE " + id.table() + " ALTER COLUMN " + id.column() + " DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + id.table() + " ALTER COLUMN " + id.column() + " SET DEFAULT nextval('" + seq + "')");
+
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + id.column() + "), 0) FROM " + id.table(), Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + seq);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        // With pooled-lo, a nextval of v hands out v .. v + ALLOCATION_SIZE - 1
+        long nextFree = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + ALLOCATION_SIZE : lastValue;
+        if (maxId >= nextFree) {
+            jdbcTemplate.queryForObject("SELECT setval('" + seq + "', ?, false)", Long.class, maxId + 1);
+            log.info("Moved {} past existing {} ids (next {})", seq, id.table(), maxId + 1);
+        }
+    }
+
+    /**
+     * Reserve {@code count} ids from a pooled sequence in one round trip, for plain JDBC batch inserts. Ids
+     * taken this way never collide with Hibernate's, which reserves its blocks from the same sequence.
+     */
+    public static List<Long> allocate(JdbcTemplate jdbcTemplate, String sequence, int count) {
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        List<Long> starts = jdbcTemplate.queryForList(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : starts) {
+            for (int i = 0; i < ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids;
+    }
+}
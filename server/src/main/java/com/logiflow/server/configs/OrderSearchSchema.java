@@ -0,0 +1,126 @@
+package com.logiflow.server.configs;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The columns and indexes behind the order search: a weighted {@code search_vector} with a GIN index, and a
+ * lower-case {@code search_text} with a {@code pg_trgm} GIN index for digit fragments. Both columns are stored
+ * generated columns, which Hibernate does not model. Misspelt words are corrected against
+ * {@code order_search_words}, the distinct words of the orders with a trigram GiST index; statement-level
+ * triggers add the words of inserted and updated rows, one insert per statement so an import batch pays once.
+ * Like {@link IdSequences} it depends on the EntityManagerFactory so it runs after the schema update and before
+ * the server accepts requests.
+ * <p>
+ * A missing column is added with one table rewrite under an exclusive lock, and the word table is filled while
+ * order writes wait for its triggers; both happen once per database. Indexes are built {@code CONCURRENTLY} so
+ * other instances keep writing orders meanwhile; a build that was interrupted leaves an invalid index behind,
+ * which is dropped and built again.
+ */
+@Component
+public class OrderSearchSchema {
+    private static final Logger log = LoggerFactory.getLogger(OrderSearchSchema.class);
+
+    /** Shorter words are left to prefix matching; a trigram correction of two letters is noise. */
+    public static final int MIN_WORD_LENGTH = 3;
+
+    private static final String SEARCH_TEXT =
+            "lower(coalesce(customer_name, '') || ' ' || coalesce(customer_phone, '') || ' ' || coalesce(container_number, '')" +
+            " || ' ' || coalesce(terminal_name, '') || ' ' || coalesce(warehouse_name, '') || ' ' || coalesce(dock_number, '')" +
+            " || ' ' || coalesce(pickup_address, '') || ' ' || coalesce(delivery_address, ''))";
+    private static final String SEARCH_VECTOR =
+            "setweight(to_tsvector('simple'::regconfig, coalesce(customer_name, '') || ' ' || coalesce(container_number, '')), 'A')" +
+            " || setweight(to_tsvector('simple'::regconfig, coalesce(customer_phone, '') || ' ' || coalesce(terminal_name, '')" +
+            " || ' ' || coalesce(warehouse_name, '') || ' ' || coalesce(dock_number, '')), 'B')" +
+            " || setweight(to_tsvector('simple'::regconfig, coalesce(pickup_address, '') || ' ' || coalesce(delivery_address, '')), 'C')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean searchReady;
+    private volatile boolean fuzzyReady;
+
+    public OrderSearchSchema(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        try {
+            addColumn("search_vector", "tsvector", SEARCH_VECTOR);
+            createIndex("orders", "idx_orders_search_vector", "gin (search_vector)");
+            searchReady = true;
+        } catch (Exception e) {
+            log.error("Order search disabled, could not create the search vector: {}", e.getMessage());
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            addColumn("search_text", "text", SEARCH_TEXT);
+            createIndex("orders", "idx_orders_search_text_trgm", "gin (search_text gin_trgm_ops)");
+            createWords();
+            createIndex("order_search_words", "idx_order_search_words_trgm", "gist (word gist_trgm_ops)");
+            fuzzyReady = true;
+        } catch (Exception e) {
+            log.warn("Order search without typo tolerance, pg_trgm is not available: {}", e.getMessage());
+        }
+    }
+
+    /** Full-text search can run: the vector column and its index exist. */
+    public boolean isSearchReady() {
+        return searchReady;
+    }
+
+    /** Typo-tolerant matching can run as well: pg_trgm, the text column, the word table and their indexes exist. */
+    public boolean isFuzzyReady() {
+        return fuzzyReady;
+    }
+
+    private void addColumn(String column, String type, String expression) {
+        // Checked first: ALTER TABLE takes its exclusive lock even when IF NOT EXISTS turns it into a no-op
+        Integer present = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE table_schema = current_schema() AND table_name = 'orders' AND column_name = ?", Integer.class, column);
+        if (present != null && present > 0) return;
+        log.info("Adding orders.{}, rewriting the orders table once", column);
+        jdbcTemplate.execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS " + column + " " + type
+                + " GENERATED ALWAYS AS (" + expression + ") STORED");
+    }
+
+    private void createWords() {
+        // Words of letters only: numbers are matched as fragments of search_text instead, and would make the table as
+        // big as orders; the words are also safe to put into a tsquery as they are
+        String words = " SELECT DISTINCT w FROM %1$s, unnest(tsvector_to_array(%1$s.search_vector)) w"
+                + " WHERE length(w) >= " + MIN_WORD_LENGTH + " AND w ~ '^[[:alpha:]]+$' ORDER BY w ON CONFLICT (word) DO NOTHING";
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION order_search_words_add() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN"
+                + " INSERT INTO order_search_words (word)" + words.formatted("new_rows") + "; RETURN NULL; END $$");
+        // One transaction: the triggers cover every write from here on and the backfill every earlier row, and
+        // a failed first run leaves no empty table behind. A trigger with a transition table serves one event.
+        jdbcTemplate.execute("DO $$ BEGIN"
+                + " IF to_regclass('order_search_words') IS NULL THEN"
+                + " CREATE TABLE order_search_words (word TEXT PRIMARY KEY);"
+                + " CREATE TRIGGER trg_orders_search_words_insert AFTER INSERT ON orders REFERENCING NEW TABLE AS new_rows"
+                + " FOR EACH STATEMENT EXECUTE FUNCTION order_search_words_add();"
+                + " CREATE TRIGGER trg_orders_search_words_update AFTER UPDATE ON orders REFERENCING NEW TABLE AS new_rows"
+                + " FOR EACH STATEMENT EXECUTE FUNCTION order_search_words_add();"
+                + " INSERT INTO order_search_words (word)" + words.formatted("orders") + ";"
+                + " END IF; END $$");
+    }
+
+    private void createIndex(String table, String name, String definition) {
+        List<Boolean> valid = jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid"
+                + " WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace", Boolean.class, name);
+        if (!valid.isEmpty() && valid.get(0)) return;
+        if (!valid.isEmpty()) {
+            log.warn("Rebuilding {}, an earlier build did not finish", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        // Outside a transaction (JdbcTemplate autocommits here), which CONCURRENTLY requires
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + table + " USING " + definition);
+        log.info("Built {}", name);
+    }
+}
@@ -2,7 +2,11 @@ package com.logiflow.server.controllers.admin;
 
 import com.logiflow.server.dtos.admin.dashboard.AdminDashboardDto;
 import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDto;
+import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDeltaDto;
 import com.logiflow.server.services.admin.AdminDashboardService;
+import com.logiflow.server.services.tracking.LiveFleetService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,9 +17,11 @@ import java.util.List;
 public class AdminDashboardController {
 
     private final AdminDashboardService adminDashboardService;
+    private final LiveFleetService liveFleetService;
 
-    public AdminDashboardController(AdminDashboardService adminDashboardService) {
+    public AdminDashboardController(AdminDashboardService adminDashboardService, LiveFleetService liveFleetService) {
         this.adminDashboardService = adminDashboardService;
+        this.liveFleetService = liveFleetService;
     }
 
     @GetMapping
@@ -24,7 +30,19 @@ public class AdminDashboardController {
     }
 
     @GetMapping("/active-drivers")
-    public ResponseEntity<List<ActiveDriverLocationDto>> getActiveDriverLocations() {
-        return ResponseEntity.ok(adminDashboardService.getActiveDriverLocations());
+    public ResponseEntity<List<ActiveDriverLocationDto>> getActiveDriverLocations(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        LiveFleetService.Snapshot snapshot = liveFleetService.snapshot();
+        if (snapshot.getETag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(snapshot.getETag()).body(snapshot.getDrivers());
+    }
+
+    // Cheap polling for the live map: only drivers changed since the given snapshot version
+    @GetMapping("/active-drivers/delta")
+    public ResponseEntity<ActiveDriverLocationDeltaDto> getActiveDriverLocationChanges(
+            @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(liveFleetService.changesSince(since));
     }
 }
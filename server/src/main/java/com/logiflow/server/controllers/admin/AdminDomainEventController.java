@@ -0,0 +1,43 @@
+package com.logiflow.server.controllers.admin;
+
+import com.logiflow.server.models.DomainEventDeadLetter;
+import com.logiflow.server.services.events.DomainEventBus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/events")
+public class AdminDomainEventController {
+
+    private final DomainEventBus domainEventBus;
+
+    public AdminDomainEventController(DomainEventBus domainEventBus) {
+        this.domainEventBus = domainEventBus;
+    }
+
+    // GET /api/admin/events/stats - Per-subscriber queue depth, handled/retried/dead-lettered counts
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(domainEventBus.getStats());
+    }
+
+    // GET /api/admin/events/dead-letters?limit=100 - Events a subscriber gave up on, newest first
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<DomainEventDeadLetter>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(domainEventBus.findDeadLetters(limit));
+    }
+
+    // POST /api/admin/events/dead-letters/{id}/replay - Re-queue a dead-lettered event to its subscriber
+    @PostMapping("/dead-letters/{id}/replay")
+    public ResponseEntity<?> replay(@PathVariable Long id) {
+        try {
+            domainEventBus.replay(id);
+            return ResponseEntity.accepted().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
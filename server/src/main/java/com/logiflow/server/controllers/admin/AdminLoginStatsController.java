@@ -0,0 +1,26 @@
+package com.logiflow.server.controllers.admin;
+
+import com.logiflow.server.services.auth.LoginExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/auth")
+public class AdminLoginStatsController {
+
+    private final LoginExecutor loginExecutor;
+
+    public AdminLoginStatsController(LoginExecutor loginExecutor) {
+        this.loginExecutor = loginExecutor;
+    }
+
+    // GET /api/admin/auth/login-stats - Login pool saturation, outcomes, throughput and latency percentiles
+    @GetMapping("/login-stats")
+    public ResponseEntity<Map<String, Object>> getLoginStats() {
+        return ResponseEntity.ok(loginExecutor.getStats());
+    }
+}
@@ -1,13 +1,19 @@
 package com.logiflow.server.controllers.admin;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logiflow.server.dtos.admin.notification.NotificationDto;
 import com.logiflow.server.models.Notification;
 import com.logiflow.server.repositories.notification.NotificationRepository;
+import com.logiflow.server.services.notification.NotificationArchiveService;
+import com.logiflow.server.websocket.NotificationCoalescer;
+import com.logiflow.server.websocket.NotificationOutbox;
+import com.logiflow.server.websocket.UnreadNotificationCounters;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,34 +23,35 @@ import java.util.stream.Collectors;
 public class AdminNotificationController {
 
     private final NotificationRepository notificationRepository;
-
-    public AdminNotificationController(NotificationRepository notificationRepository) {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationOutbox notificationOutbox;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationArchiveService notificationArchiveService;
+    private final NotificationCoalescer notificationCoalescer;
+
+    public AdminNotificationController(NotificationRepository notificationRepository,
+                                       NotificationOutbox notificationOutbox,
+                                       UnreadNotificationCounters unreadCounters,
+                                       NotificationArchiveService notificationArchiveService,
+                                       NotificationCoalescer notificationCoalescer) {
         this.notificationRepository = notificationRepository;
+        this.notificationOutbox = notificationOutbox;
+        this.unreadCounters = unreadCounters;
+        this.notificationArchiveService = notificationArchiveService;
+        this.notificationCoalescer = notificationCoalescer;
     }
 
-    // GET /api/admin/notifications?page=0&size=20 - Get all notifications
+    // GET /api/admin/notifications?size=20[&beforeCreatedAt=...&beforeId=...] - Get notifications, newest first.
+    // Pass the createdAt/notificationId of the last item received to get the next page (page=N still works).
     @GetMapping
     public ResponseEntity<List<NotificationDto>> getNotifications(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-
-        // IMPORTANT: Admin UI must not see driver-targeted notifications.
-        // Use repository filtering rather than returning all rows.
-        List<Notification> allAdminNotifications = notificationRepository.findAllForAdmins();
-
-        int safePage = Math.max(0, page);
-        int safeSize = Math.max(1, size);
-        int fromIndex = safePage * safeSize;
-
-        List<Notification> pageItems;
-        if (fromIndex >= allAdminNotifications.size()) {
-            pageItems = new ArrayList<>();
-        } else {
-            int toIndex = Math.min(fromIndex + safeSize, allAdminNotifications.size());
-            pageItems = allAdminNotifications.subList(fromIndex, toIndex);
-        }
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
 
-        List<NotificationDto> notificationDtos = pageItems.stream()
+        List<NotificationDto> notificationDtos = notificationRepository
+                .findAdminFeed(beforeCreatedAt, beforeId, page, size).stream()
                 .map(NotificationDto::new)
                 .collect(Collectors.toList());
 
@@ -66,10 +73,55 @@ public class AdminNotificationController {
     // GET /api/admin/notifications/count - Get unread count
     @GetMapping("/count")
     public ResponseEntity<Map<String, Long>> getUnreadCount() {
-        Long unreadCount = notificationRepository.countUnreadForAdmins();
+        Long unreadCount = unreadCounters.adminUnread();
         return ResponseEntity.ok(Map.of("unreadCount", unreadCount));
     }
 
+    // GET /api/admin/notifications/outbox - Notification write-behind queue metrics
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(notificationOutbox.getStats());
+    }
+
+    // GET /api/admin/notifications/coalescer - Digest/coalescing metrics
+    @GetMapping("/coalescer")
+    public ResponseEntity<Map<String, Object>> getCoalescerStats() {
+        return ResponseEntity.ok(notificationCoalescer.getStats());
+    }
+
+    // GET /api/admin/notifications/archive[?username=...]&size=20[&beforeCreatedAt=...&beforeId=...] - Archived notifications
+    // of one user, or of the admin feed audience when no username is given
+    @GetMapping("/archive")
+    public ResponseEntity<List<NotificationDto>> getArchivedNotifications(
+            @RequestParam(required = false) String username,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
+        return ResponseEntity.ok(notificationArchiveService.findArchived(username, beforeCreatedAt, beforeId, size));
+    }
+
+    // POST /api/admin/notifications/archive/run - Run the retention job now
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        return ResponseEntity.ok(notificationArchiveService.archive());
+    }
+
+    // GET /api/admin/notifications/{id}/items - Individual notifications summarised by a digest
+    @GetMapping("/{id}/items")
+    public ResponseEntity<?> getDigestItems(@PathVariable Long id) {
+        Notification notification = notificationRepository.findById(id).orElse(null);
+        if (notification == null || notification.getDigestItems() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            List<Map<String, Object>> items = objectMapper.readValue(
+                    notification.getDigestItems(), new TypeReference<List<Map<String, Object>>>() {});
+            return ResponseEntity.ok(items);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to read digest items"));
+        }
+    }
+
     // POST /api/admin/notifications/{id}/read - Mark notification as read
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
@@ -77,6 +129,7 @@ public class AdminNotificationController {
         if (notification != null && !notification.getIsRead()) {
             notification.setIsRead(true);
             notificationRepository.save(notification);
+            unreadCounters.onRead(notification);
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -91,21 +144,16 @@ public class AdminNotificationController {
         }
 
         notificationRepository.markAsReadForAdmins(notificationIds);
+        unreadCounters.recountShared();
         return ResponseEntity.ok().build();
     }
 
     // POST /api/admin/notifications/mark-all-read - Mark all notifications as read
     @PostMapping("/mark-all-read")
     public ResponseEntity<Void> markAllAsRead() {
-        // Get all unread notification IDs for admins
-        List<Long> unreadIds = notificationRepository.findUnreadForAdmins().stream()
-                .map(Notification::getNotificationId)
-                .collect(Collectors.toList());
-
-        if (!unreadIds.isEmpty()) {
-            notificationRepository.markAsReadForAdmins(unreadIds);
+        if (notificationRepository.markAllAsReadForAdmins() > 0) {
+            unreadCounters.recountShared();
         }
-
         return ResponseEntity.ok().build();
     }
 
@@ -0,0 +1,26 @@
+package com.logiflow.server.controllers.admin;
+
+import com.logiflow.server.filters.RateLimitFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+public class AdminRateLimitController {
+
+    private final RateLimitFilter rateLimitFilter;
+
+    public AdminRateLimitController(RateLimitFilter rateLimitFilter) {
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    // GET /api/admin/rate-limits/stats - Tracked buckets and 429 rejections by role and endpoint group
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(rateLimitFilter.getStats());
+    }
+}
@@ -0,0 +1,81 @@
+package com.logiflow.server.controllers.admin;
+
+import com.logiflow.server.websocket.OutboundLagMonitor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/websocket")
+public class AdminWebSocketController {
+
+    private final OutboundLagMonitor outboundLagMonitor;
+    private final ThreadPoolTaskExecutor inboundExecutor;
+    private final ThreadPoolTaskExecutor outboundExecutor;
+    private final WebSocketMessageBrokerStats brokerStats;
+
+    public AdminWebSocketController(OutboundLagMonitor outboundLagMonitor,
+                                    @Qualifier("clientInboundChannelExecutor") ThreadPoolTaskExecutor inboundExecutor,
+                                    @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor,
+                                    WebSocketMessageBrokerStats brokerStats) {
+        this.outboundLagMonitor = outboundLagMonitor;
+        this.inboundExecutor = inboundExecutor;
+        this.outboundExecutor = outboundExecutor;
+        this.brokerStats = brokerStats;
+    }
+
+    // GET /api/admin/websocket/stats - Channel executor, per-session backlog and eviction metrics
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inboundExecutor", executorStats(inboundExecutor));
+        stats.put("outboundExecutor", executorStats(outboundExecutor));
+        stats.put("outboundSessions", outboundLagMonitor.getStats());
+        stats.put("sessions", sessionStats(brokerStats.getWebSocketSessionStats()));
+        stats.put("stompBroker", relayStats(brokerStats.getStompBrokerRelayStats()));
+        return ResponseEntity.ok(stats);
+    }
+
+    private static Map<String, Object> sessionStats(SubProtocolWebSocketHandler.Stats sessions) {
+        if (sessions == null) return null;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", sessions.getTotalSessions());
+        stats.put("webSocket", sessions.getWebSocketSessions());
+        stats.put("httpStreaming", sessions.getHttpStreamingSessions());
+        stats.put("httpPolling", sessions.getHttpPollingSessions());
+        stats.put("limitExceeded", sessions.getLimitExceededSessions());
+        stats.put("noMessagesReceived", sessions.getNoMessagesReceivedSessions());
+        stats.put("transportErrors", sessions.getTransportErrorSessions());
+        return stats;
+    }
+
+    // Null with the simple in-memory broker, which has no relay
+    private static Map<String, Object> relayStats(StompBrokerRelayMessageHandler.Stats relay) {
+        if (relay == null) return null;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("handlers", relay.getTotalHandlers());
+        stats.put("connect", relay.getTotalConnect());
+        stats.put("connected", relay.getTotalConnected());
+        stats.put("disconnect", relay.getTotalDisconnect());
+        return stats;
+    }
+
+    private static Map<String, Object> executorStats(ThreadPoolTaskExecutor executor) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueueSize());
+        stats.put("maxPoolSize", executor.getMaxPoolSize());
+        stats.put("completedTasks", executor.getThreadPoolExecutor().getCompletedTaskCount());
+        return stats;
+    }
+}
@@ -3,32 +3,50 @@ package com.logiflow.server.controllers.auth;
 import com.logiflow.server.dtos.auth.AuthResponse;
 import com.logiflow.server.dtos.auth.LoginRequest;
 import com.logiflow.server.dtos.auth.RegisterRequest;
+import com.logiflow.server.exceptions.ServiceBusyException;
 import com.logiflow.server.services.auth.AuthService;
+import com.logiflow.server.services.auth.LoginExecutor;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginExecutor loginExecutor;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginExecutor loginExecutor) {
         this.authService = authService;
+        this.loginExecutor = loginExecutor;
     }
 
+    // POST /api/auth/login - Password check runs on the login pool; the request thread is released while it waits
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        try {
-            AuthResponse response = authService.login(loginRequest);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return loginExecutor.submit(() -> authService.login(loginRequest))
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(AuthController::loginFailure);
+    }
+
+    private static ResponseEntity<AuthResponse> loginFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ServiceBusyException busy) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()))
+                    .body(new AuthResponse(null, null, null, null, busy.getMessage()));
+        }
+        if (cause instanceof RuntimeException) {
             // Return the specific error message (rejection, pending, etc.)
-            return ResponseEntity.badRequest().body(new AuthResponse(null, null, null, null, e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AuthResponse(null, null, null, null, "Invalid credentials"));
+            return ResponseEntity.badRequest().body(new AuthResponse(null, null, null, null, cause.getMessage()));
         }
+        return ResponseEntity.badRequest().body(new AuthResponse(null, null, null, null, "Invalid credentials"));
     }
 
     @PostMapping("/register")
@@ -1,11 +1,14 @@
 package com.logiflow.server.controllers.customer;
 
 import com.logiflow.server.dtos.customer.CustomerDtos.*;
+import com.logiflow.server.dtos.notification.NotificationFeedResponse;
 import com.logiflow.server.services.customer.CustomerService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -84,10 +87,26 @@ public class CustomerController {
         return ResponseEntity.ok(result);
     }
 
-    // 8) GET /api/customer/me/notifications - Get customer notifications
+    // 8) GET /api/customer/me/notifications[?size=50&beforeCreatedAt=...&beforeId=...] - Get customer notifications,
+    // newest first; while hasNext is true, pass the fields of nextCursor to get the next page
     @GetMapping("/notifications")
-    public ResponseEntity<List<Map<String, Object>>> getNotifications(Authentication authentication) {
-        var result = customerService.getNotifications(authentication.getName());
+    public ResponseEntity<NotificationFeedResponse<Map<String, Object>>> getNotifications(
+            Authentication authentication,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
+        var result = customerService.getNotifications(authentication.getName(), beforeCreatedAt, beforeId, size);
+        return ResponseEntity.ok(result);
+    }
+
+    // GET /api/customer/me/notifications/archive[?size=50&beforeCreatedAt=...&beforeId=...] - Archived (older, read) notifications
+    @GetMapping("/notifications/archive")
+    public ResponseEntity<List<Map<String, Object>>> getArchivedNotifications(
+            Authentication authentication,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
+        var result = customerService.getArchivedNotifications(authentication.getName(), beforeCreatedAt, beforeId, size);
         return ResponseEntity.ok(result);
     }
 
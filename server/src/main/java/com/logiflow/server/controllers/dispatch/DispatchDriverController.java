@@ -1,6 +1,11 @@
 package com.logiflow.server.controllers.dispatch;
 
+import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDeltaDto;
+import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDto;
 import com.logiflow.server.services.dispatch.DispatchDriverService;
+import com.logiflow.server.services.tracking.LiveFleetService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,9 +16,11 @@ import java.util.List;
 public class DispatchDriverController {
 
     private final DispatchDriverService dispatchDriverService;
+    private final LiveFleetService liveFleetService;
 
-    public DispatchDriverController(DispatchDriverService dispatchDriverService) {
+    public DispatchDriverController(DispatchDriverService dispatchDriverService, LiveFleetService liveFleetService) {
         this.dispatchDriverService = dispatchDriverService;
+        this.liveFleetService = liveFleetService;
     }
 
     @GetMapping
@@ -25,4 +32,21 @@ public class DispatchDriverController {
     public ResponseEntity<List<?>> getAvailableDrivers() {
         return ResponseEntity.ok(dispatchDriverService.getAvailableDriversList());
     }
+
+    // Live driver positions for the dispatch map (served from memory, supports If-None-Match)
+    @GetMapping("/live")
+    public ResponseEntity<List<ActiveDriverLocationDto>> getLiveDriverLocations(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        LiveFleetService.Snapshot snapshot = liveFleetService.snapshot();
+        if (snapshot.getETag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(snapshot.getETag()).body(snapshot.getDrivers());
+    }
+
+    @GetMapping("/live/delta")
+    public ResponseEntity<ActiveDriverLocationDeltaDto> getLiveDriverLocationChanges(
+            @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(liveFleetService.changesSince(since));
+    }
 }
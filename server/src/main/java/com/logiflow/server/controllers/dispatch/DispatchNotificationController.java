@@ -1,13 +1,16 @@
 package com.logiflow.server.controllers.dispatch;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logiflow.server.dtos.admin.notification.NotificationDto;
 import com.logiflow.server.models.Notification;
 import com.logiflow.server.repositories.notification.NotificationRepository;
+import com.logiflow.server.websocket.UnreadNotificationCounters;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,33 +20,26 @@ import java.util.stream.Collectors;
 public class DispatchNotificationController {
 
     private final NotificationRepository notificationRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UnreadNotificationCounters unreadCounters;
 
-    public DispatchNotificationController(NotificationRepository notificationRepository) {
+    public DispatchNotificationController(NotificationRepository notificationRepository,
+                                          UnreadNotificationCounters unreadCounters) {
         this.notificationRepository = notificationRepository;
+        this.unreadCounters = unreadCounters;
     }
 
-    // GET /api/dispatch/notifications?page=0&size=20 - Get all notifications
+    // GET /api/dispatch/notifications?size=20[&beforeCreatedAt=...&beforeId=...] - Get notifications, newest first.
+    // Pass the createdAt/notificationId of the last item received to get the next page (page=N still works).
     @GetMapping
     public ResponseEntity<List<NotificationDto>> getNotifications(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
 
-        // Dispatcher should only see dispatcher notifications (NEW_ORDER)
-        List<Notification> allDispatcherNotifications = notificationRepository.findAllForDispatchers();
-
-        int safePage = Math.max(0, page);
-        int safeSize = Math.max(1, size);
-        int fromIndex = safePage * safeSize;
-
-        List<Notification> pageItems;
-        if (fromIndex >= allDispatcherNotifications.size()) {
-            pageItems = new ArrayList<>();
-        } else {
-            int toIndex = Math.min(fromIndex + safeSize, allDispatcherNotifications.size());
-            pageItems = allDispatcherNotifications.subList(fromIndex, toIndex);
-        }
-
-        List<NotificationDto> notificationDtos = pageItems.stream()
+        List<NotificationDto> notificationDtos = notificationRepository
+                .findDispatcherFeed(beforeCreatedAt, beforeId, page, size).stream()
                 .map(NotificationDto::new)
                 .collect(Collectors.toList());
 
@@ -65,10 +61,26 @@ public class DispatchNotificationController {
     // GET /api/dispatch/notifications/count - Get unread count
     @GetMapping("/count")
     public ResponseEntity<Map<String, Long>> getUnreadCount() {
-        Long unreadCount = notificationRepository.countUnreadForDispatchers();
+        Long unreadCount = unreadCounters.dispatcherUnread();
         return ResponseEntity.ok(Map.of("unreadCount", unreadCount));
     }
 
+    // GET /api/dispatch/notifications/{id}/items - Individual notifications summarised by a digest
+    @GetMapping("/{id}/items")
+    public ResponseEntity<?> getDigestItems(@PathVariable Long id) {
+        Notification notification = notificationRepository.findById(id).orElse(null);
+        if (notification == null || notification.getDigestItems() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            List<Map<String, Object>> items = objectMapper.readValue(
+                    notification.getDigestItems(), new TypeReference<List<Map<String, Object>>>() {});
+            return ResponseEntity.ok(items);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to read digest items"));
+        }
+    }
+
     // POST /api/dispatch/notifications/{id}/read - Mark notification as read
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
@@ -76,6 +88,7 @@ public class DispatchNotificationController {
         if (notification != null && !notification.getIsRead()) {
             notification.setIsRead(true);
             notificationRepository.save(notification);
+            unreadCounters.onRead(notification);
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -90,21 +103,16 @@ public class DispatchNotificationController {
         }
 
         notificationRepository.markAsReadForDispatchers(notificationIds);
+        unreadCounters.recountShared();
         return ResponseEntity.ok().build();
     }
 
     // POST /api/dispatch/notifications/mark-all-read - Mark all notifications as read
     @PostMapping("/mark-all-read")
     public ResponseEntity<Void> markAllAsRead() {
-        // Get all unread notification IDs for dispatchers
-        List<Long> unreadIds = notificationRepository.findUnreadForDispatchers().stream()
-                .map(Notification::getNotificationId)
-                .collect(Collectors.toList());
-
-        if (!unreadIds.isEmpty()) {
-            notificationRepository.markAsReadForDispatchers(unreadIds);
+        if (notificationRepository.markAllAsReadForDispatchers() > 0) {
+            unreadCounters.recountShared();
         }
-
         return ResponseEntity.ok().build();
     }
 
@@ -2,9 +2,15 @@ package com.logiflow.server.controllers.dispatch;
 
 import com.logiflow.server.dtos.dispatch.OrderCreateRequest;
 import com.logiflow.server.dtos.dispatch.OrderDto;
+import com.logiflow.server.dtos.dispatch.OrderImportJobDto;
 import com.logiflow.server.dtos.dispatch.OrderImportResponse;
 import com.logiflow.server.dtos.dispatch.OrderListResponse;
 import com.logiflow.server.dtos.dispatch.OrderUpdateRequest;
+import com.logiflow.server.exceptions.BusinessRuleException;
+import com.logiflow.server.exceptions.ResourceNotFoundException;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.services.dispatch.OrderImportJobService;
+import com.logiflow.server.services.dispatch.OrderSearchService;
 import com.logiflow.server.services.dispatch.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
@@ -15,14 +21,22 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dispatch")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderImportJobService orderImportJobService;
+    private final OrderSearchService orderSearchService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderImportJobService orderImportJobService,
+                           OrderSearchService orderSearchService) {
         this.orderService = orderService;
+        this.orderImportJobService = orderImportJobService;
+        this.orderSearchService = orderSearchService;
     }
 
     @GetMapping("/orders")
@@ -40,6 +54,38 @@ public class OrderController {
     }
 
 
+    // GET /api/dispatch/orders/scroll - newest orders first, paged by an opaque cursor instead of a page number
+    @GetMapping("/orders/scroll")
+    public ResponseEntity<?> scrollOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderService.scrollOrders(status, date, cursor, size));
+        } catch (BusinessRuleException e) {
+            // An unreadable cursor; anything else is a server error
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+
+    // GET /api/dispatch/orders/search?q= - ranked, typo-tolerant search over customer, phone, container, site and addresses
+    @GetMapping("/orders/search")
+    public ResponseEntity<?> searchOrders(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(orderSearchService.search(query, page, size));
+        } catch (ServiceBusyException e) {
+            // The search indexes could not be created; anything else is a server error
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/orders")
     public ResponseEntity<OrderDto> createOrder(
             @Valid @RequestBody OrderCreateRequest request,
@@ -76,6 +122,59 @@ public class OrderController {
     }
 
 
+    // POST /api/dispatch/orders/import/jobs - queue a background import; progress on the submitter's /user/queue/import-jobs
+    @PostMapping(value = "/orders/import/jobs")
+    public ResponseEntity<?> submitImportJob(
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
+        }
+        try {
+            OrderImportJobDto job = orderImportJobService.submit(file, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/dispatch/orders/import/jobs - the current user's recent import jobs
+    @GetMapping("/orders/import/jobs")
+    public ResponseEntity<List<OrderImportJobDto>> getImportJobs(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        return ResponseEntity.ok(orderImportJobService.getRecentJobs(authentication.getName(), limit));
+    }
+
+    // GET /api/dispatch/orders/import/jobs/{jobId} - progress, counters and the first errors of one of the user's jobs
+    @GetMapping("/orders/import/jobs/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable Long jobId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(orderImportJobService.getJob(jobId, authentication.getName()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // GET /api/dispatch/orders/import/jobs/{jobId}/errors - all stored row errors of one of the user's jobs, paged
+    @GetMapping("/orders/import/jobs/{jobId}/errors")
+    public ResponseEntity<?> getImportJobErrors(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            Authentication authentication) {
+        try {
+            return ResponseEntity.ok(orderImportJobService.getErrors(jobId, authentication.getName(), page, size));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+
     @GetMapping("/orders/import/template")
     public ResponseEntity<byte[]> downloadTemplate(
             @RequestParam(defaultValue = "csv") String format,
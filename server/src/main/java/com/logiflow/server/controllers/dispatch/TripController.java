@@ -8,6 +8,7 @@ import com.logiflow.server.dtos.dispatch.TripStatusUpdateRequest;
 import com.logiflow.server.dtos.dispatch.TripCancelRequest;
 import com.logiflow.server.dtos.dispatch.TripRerouteRequest;
 import com.logiflow.server.services.dispatch.TripService;
+import com.logiflow.server.services.tracking.LiveEtaService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,9 +20,11 @@ import java.util.Map;
 public class TripController {
 
     private final TripService tripService;
+    private final LiveEtaService liveEtaService;
 
-    public TripController(TripService tripService) {
+    public TripController(TripService tripService, LiveEtaService liveEtaService) {
         this.tripService = tripService;
+        this.liveEtaService = liveEtaService;
     }
 
     @GetMapping("/trips")
@@ -51,6 +54,16 @@ public class TripController {
         }
     }
 
+    // Live GPS-based ETA (updates are also pushed to /topic/trips/{tripId}/eta)
+    @GetMapping("/trips/{tripId}/eta")
+    public ResponseEntity<?> getTripEta(@PathVariable Integer tripId) {
+        var eta = liveEtaService.getEta(tripId);
+        if (eta == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(eta);
+    }
+
     // Proof of delivery (POD) / delivery confirmation
     @GetMapping("/trips/{tripId}/delivery-confirmation")
     public ResponseEntity<?> getDeliveryConfirmation(@PathVariable Integer tripId) {
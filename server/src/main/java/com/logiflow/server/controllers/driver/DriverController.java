@@ -36,8 +36,8 @@ public class DriverController {
             @RequestParam(required = false) String status,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        var result = driverService.getMyTrips(driver.getDriverId(), status);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        var result = driverService.getMyTrips(driverId, status);
         return ResponseEntity.ok(result);
     }
 
@@ -47,8 +47,8 @@ public class DriverController {
             @PathVariable Integer tripId,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        var result = driverService.getMyTripDetail(driver.getDriverId(), tripId);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        var result = driverService.getMyTripDetail(driverId, tripId);
         return ResponseEntity.ok(result);
     }
 
@@ -61,8 +61,8 @@ public class DriverController {
         if (body == null || body.getLatitude() == null || body.getLongitude() == null) {
             return ResponseEntity.badRequest().build();
         }
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.updateMyLocation(driver.getDriverId(), body.getLatitude(), body.getLongitude());
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.updateMyLocation(driverId, body.getLatitude(), body.getLongitude());
         return ResponseEntity.ok().build();
     }
 
@@ -76,16 +76,16 @@ public class DriverController {
         if (endDate.isBefore(startDate)) {
             return ResponseEntity.badRequest().build();
         }
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        var result = driverService.getMySchedule(driver.getDriverId(), startDate, endDate);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        var result = driverService.getMySchedule(driverId, startDate, endDate);
         return ResponseEntity.ok(result);
     }
 
     // 5) GET /api/driver/me/compliance/rest-periods
     @GetMapping("/compliance/rest-periods")
     public ResponseEntity<ComplianceDto> getMyCompliance(Authentication authentication) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        var result = driverService.getMyCompliance(driver.getDriverId());
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        var result = driverService.getMyCompliance(driverId);
         return ResponseEntity.ok(result);
     }
 
@@ -95,8 +95,8 @@ public class DriverController {
             @PathVariable Integer tripId,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.acceptTripAssignment(driver.getDriverId(), tripId);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.acceptTripAssignment(driverId, tripId);
         return ResponseEntity.ok().build();
     }
 
@@ -106,8 +106,8 @@ public class DriverController {
             @PathVariable Integer tripId,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.declineTripAssignment(driver.getDriverId(), tripId);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.declineTripAssignment(driverId, tripId);
         return ResponseEntity.ok().build();
     }
 
@@ -117,8 +117,8 @@ public class DriverController {
             @PathVariable Integer tripId,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.cancelTripAssignment(driver.getDriverId(), tripId);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.cancelTripAssignment(driverId, tripId);
         return ResponseEntity.ok().build();
     }
 
@@ -133,8 +133,8 @@ public class DriverController {
         if (status == null || status.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.updateTripStatus(driver.getDriverId(), tripId, status);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.updateTripStatus(driverId, tripId, status);
         return ResponseEntity.ok().build();
     }
 
@@ -150,8 +150,8 @@ public class DriverController {
         if (status == null || status.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.updateOrderStatus(driver.getDriverId(), tripId, orderId, status);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.updateOrderStatus(driverId, tripId, orderId, status);
         return ResponseEntity.ok().build();
     }
 
@@ -162,8 +162,8 @@ public class DriverController {
             @RequestBody com.logiflow.server.dtos.delivery.DeliveryConfirmationDto confirmationDto,
             Authentication authentication
     ) {
-        var driver = driverService.getCurrentDriver(authentication.getName());
-        driverService.confirmDelivery(driver.getDriverId(), tripId, confirmationDto);
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
+        driverService.confirmDelivery(driverId, tripId, confirmationDto);
         return ResponseEntity.ok().build();
     }
 
@@ -194,9 +194,9 @@ public class DriverController {
         if (request == null || request.getDelayReason() == null || request.getDelayReason().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        var driver = driverService.getCurrentDriver(authentication.getName());
+        Integer driverId = driverService.getCurrentDriverId(authentication.getName());
         // Delay minutes are now included in the text description, no hardcoded minutes needed
-        driverService.reportTripDelay(driver.getDriverId(), tripId, request.getDelayReason(), null);
+        driverService.reportTripDelay(driverId, tripId, request.getDelayReason(), null);
         return ResponseEntity.ok().build();
     }
 
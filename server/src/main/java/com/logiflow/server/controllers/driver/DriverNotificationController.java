@@ -1,13 +1,18 @@
 package com.logiflow.server.controllers.driver;
 
 import com.logiflow.server.dtos.admin.notification.NotificationDto;
+import com.logiflow.server.dtos.notification.NotificationFeedResponse;
 import com.logiflow.server.models.Notification;
 import com.logiflow.server.repositories.notification.NotificationRepository;
-import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.notification.NotificationArchiveService;
+import com.logiflow.server.services.user.IdentityDirectory;
+import com.logiflow.server.websocket.UnreadNotificationCounters;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,23 +21,42 @@ import java.util.stream.Collectors;
 public class DriverNotificationController {
 
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final IdentityDirectory identityDirectory;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationArchiveService notificationArchiveService;
 
     public DriverNotificationController(NotificationRepository notificationRepository,
-                                        UserRepository userRepository) {
+                                        IdentityDirectory identityDirectory,
+                                        UnreadNotificationCounters unreadCounters,
+                                        NotificationArchiveService notificationArchiveService) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.identityDirectory = identityDirectory;
+        this.unreadCounters = unreadCounters;
+        this.notificationArchiveService = notificationArchiveService;
     }
 
-    // GET /api/driver/me/notifications - all notifications for current driver user
+    // GET /api/driver/me/notifications[?size=50&beforeCreatedAt=...&beforeId=...] - notifications for current
+    // driver user, newest first; while hasNext is true, pass the fields of nextCursor to get the next page
     @GetMapping
-    public ResponseEntity<List<NotificationDto>> getMyNotifications(Authentication authentication) {
+    public ResponseEntity<NotificationFeedResponse<NotificationDto>> getMyNotifications(
+            Authentication authentication,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
         String username = authentication.getName();
-        List<Notification> notifications = notificationRepository.findAllForUser(username);
-        List<NotificationDto> dtos = notifications.stream()
-                .map(NotificationDto::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        List<Notification> notifications = notificationRepository.findUserFeedWithLookahead(username, beforeCreatedAt, beforeId, size);
+        return ResponseEntity.ok(NotificationFeedResponse.of(notifications, size, NotificationDto::new));
+    }
+
+    // GET /api/driver/me/notifications/archive[?size=50&beforeCreatedAt=...&beforeId=...] - archived (older, read) notifications
+    @GetMapping("/archive")
+    public ResponseEntity<List<NotificationDto>> getMyArchivedNotifications(
+            Authentication authentication,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId) {
+        return ResponseEntity.ok(notificationArchiveService.findArchived(
+                authentication.getName(), beforeCreatedAt, beforeId, size));
     }
 
     // GET /api/driver/me/notifications/unread - unread notifications
@@ -50,7 +74,7 @@ public class DriverNotificationController {
     @GetMapping("/count")
     public ResponseEntity<?> getMyUnreadCount(Authentication authentication) {
         String username = authentication.getName();
-        Long count = notificationRepository.countUnreadForUser(username);
+        long count = unreadCounters.userUnread(username);
         return ResponseEntity.ok(java.util.Map.of("unreadCount", count));
     }
 
@@ -58,20 +82,21 @@ public class DriverNotificationController {
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id, Authentication authentication) {
         String username = authentication.getName();
-        var userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
+        var identity = identityDirectory.byUsername(username);
+        if (identity.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
         Notification notification = notificationRepository.findById(id).orElse(null);
         if (notification == null || notification.getTargetUser() == null ||
-            !notification.getTargetUser().getUserId().equals(userOpt.get().getUserId())) {
+            !notification.getTargetUser().getUserId().equals(identity.get().userId())) {
             return ResponseEntity.notFound().build();
         }
 
         if (!notification.getIsRead()) {
             notification.setIsRead(true);
             notificationRepository.save(notification);
+            unreadCounters.onUserRead(username);
         }
 
         return ResponseEntity.ok().build();
@@ -81,15 +106,12 @@ public class DriverNotificationController {
     @PostMapping("/mark-all-read")
     public ResponseEntity<Void> markAllAsRead(Authentication authentication) {
         String username = authentication.getName();
-        var userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) {
+        if (identityDirectory.byUsername(username).isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<Notification> notifications = notificationRepository.findUnreadForUser(username);
-        if (!notifications.isEmpty()) {
-            notifications.forEach(n -> n.setIsRead(true));
-            notificationRepository.saveAll(notifications);
+        if (notificationRepository.markAllAsReadForUser(username) > 0) {
+            unreadCounters.onUserReadAll(username);
         }
 
         return ResponseEntity.ok().build();
@@ -8,6 +8,10 @@
  *
  * LocationMessage fields: driverId (ignored, set by backend), tripId, latitude, longitude
  *
+ * Mobile clients send batched binary frames to /app/tracking/batch instead (see LocationFrameCodec).
+ * Each frame carries sequence numbers; the highest processed sequence is acknowledged on
+ * /topic/driver/{username}/tracking-ack so the device can drop points it buffered while offline.
+ *
  * Updates both in-memory storage (real-time) and database (consistency).
  *
  * See also: /api/maps/gps/latest and /api/maps/gps/history for REST access.
@@ -15,15 +19,26 @@
 package com.logiflow.server.controllers.maps;
 
 import com.logiflow.server.services.driver.DriverService;
+import com.logiflow.server.services.tracking.GeofenceEngine;
+import com.logiflow.server.services.tracking.LiveEtaService;
+import com.logiflow.server.services.tracking.LiveFleetService;
+import com.logiflow.server.utils.LocationFrameCodec;
+import com.logiflow.server.utils.LocationFrameCodec.LocationFrame;
+import com.logiflow.server.utils.LocationFrameCodec.LocationPoint;
+import com.logiflow.server.websocket.SessionIdentity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Controller;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -33,23 +48,39 @@ public class GpsTrackingController {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final DriverService driverService;
+    private final GeofenceEngine geofenceEngine;
+    private final LiveEtaService liveEtaService;
+    private final LiveFleetService liveFleetService;
+    private final long streamIdleEvictMs;
 
-    public GpsTrackingController(SimpMessagingTemplate messagingTemplate, DriverService driverService) {
+    public GpsTrackingController(SimpMessagingTemplate messagingTemplate, DriverService driverService,
+                                 GeofenceEngine geofenceEngine, LiveEtaService liveEtaService,
+                                 LiveFleetService liveFleetService,
+                                 @Value("${app.tracking.stream-idle-evict-ms:3600000}") long streamIdleEvictMs) {
         this.messagingTemplate = messagingTemplate;
         this.driverService = driverService;
+        this.geofenceEngine = geofenceEngine;
+        this.liveEtaService = liveEtaService;
+        this.liveFleetService = liveFleetService;
+        this.streamIdleEvictMs = streamIdleEvictMs;
     }
     // In-memory storage for latest driver/trip locations: driverId_tripId -> LocationMessage
     private static final Map<String, LocationMessage> latestLocations = new ConcurrentHashMap<>();
     // In-memory storage for location history: driverId_tripId -> List<LocationMessage>
     private static final Map<String, java.util.List<LocationMessage>> locationHistory = new ConcurrentHashMap<>();
 
+    // Last processed batch sequence per driverId_tripId, used to drop replayed frames after reconnects;
+    // dropped once the stream has been idle for a while (evictIdleStreamCursors)
+    private static final Map<String, StreamCursor> streamCursors = new ConcurrentHashMap<>();
+
     @MessageMapping("/tracking") // Client sends to /app/tracking
     @SendTo("/topic/locations")  // Broadcast to /topic/locations
     public LocationMessage receiveLocation(LocationMessage message, SimpMessageHeaderAccessor headerAccessor) {
         log.debug("GPS WebSocket message received: {}", message);
 
-        // Get authenticated driverId from session attributes (set by JwtHandshakeInterceptor as "userId")
-        String driverId = (String) headerAccessor.getSessionAttributes().get("userId");
+        // Authenticated identity resolved once at handshake by JwtHandshakeInterceptor
+        SessionIdentity identity = SessionIdentity.from(headerAccessor.getSessionAttributes());
+        String driverId = identity != null && identity.getDriverId() != null ? identity.getUsername() : null;
         log.debug("Authenticated driverId from session: {}", driverId);
 
         if (driverId != null && message != null && message.getTripId() != null) {
@@ -58,40 +89,8 @@ public class GpsTrackingController {
 
             // Ignore driverId from client, use authenticated one
             LocationMessage serverMessage = new LocationMessage(driverId, message.getTripId(), message.getLatitude(), message.getLongitude());
-
-            // Use a composite key: driverId_tripId
-            String key = driverId + "_" + message.getTripId();
-            latestLocations.put(key, serverMessage);
-            // Add to location history
-            locationHistory.computeIfAbsent(key, k -> new java.util.ArrayList<>()).add(serverMessage);
-
-            // Update database for consistency (don't let DB errors break WebSocket)
-            try {
-                log.debug("Updating database for driver {}", driverId);
-                // Get driver by username first, then update location
-                com.logiflow.server.models.Driver driver = driverService.getCurrentDriver(driverId);
-                if (driver != null) {
-                    Integer driverIntId = driver.getDriverId();
-                    String driverUsername = driver.getUser().getUsername();
-                    log.debug("Found driver - ID: {}, Username: {}", driverIntId, driverUsername);
-
-                    driverService.updateMyLocation(
-                        driverIntId,  // Use integer driver ID
-                        BigDecimal.valueOf(message.getLatitude()),
-                        BigDecimal.valueOf(message.getLongitude())
-                    );
-                    log.debug("Database updated successfully for driver: {}", driverUsername);
-                } else {
-                    log.warn("Driver lookup returned null for username: {}", driverId);
-                }
-            } catch (Exception e) {
-                // Log error but don't fail the WebSocket response
-                log.error("Failed to update driver location in database: {}", e.getMessage());
-                // Don't print full stack trace for LazyInitializationException
-                if (e.getMessage() != null && !e.getMessage().contains("LazyInitializationException")) {
-                    log.error("Stack trace:", e);
-                }
-            }
+            recordLocation(identity.getDriverId(), serverMessage);
+            persistLatestLocation(identity.getDriverId(), serverMessage);
 
             // Also publish to trip-scoped topic so dispatch can subscribe by trip
             messagingTemplate.convertAndSend("/topic/trips/" + message.getTripId() + "/location", serverMessage);
@@ -102,6 +101,125 @@ public class GpsTrackingController {
         }
         return null;
     }
+
+    @MessageMapping("/tracking/batch") // Client sends binary frames to /app/tracking/batch
+    public void receiveLocationBatch(@Payload byte[] payload, SimpMessageHeaderAccessor headerAccessor) {
+        SessionIdentity identity = SessionIdentity.from(headerAccessor.getSessionAttributes());
+        if (identity == null || identity.getDriverId() == null) {
+            log.warn("GPS batch received without authenticated driver");
+            return;
+        }
+        String driverId = identity.getUsername();
+
+        LocationFrame frame;
+        try {
+            frame = LocationFrameCodec.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid GPS batch frame from driver {}: {}", driverId, e.getMessage());
+            return;
+        }
+
+        String tripId = String.valueOf(frame.tripId());
+        String key = driverId + "_" + tripId;
+        StreamCursor cursor = streamCursors.compute(key, (k, existing) ->
+                existing == null || existing.streamId != frame.streamId()
+                        ? new StreamCursor(frame.streamId())
+                        : existing);
+        cursor.lastSeenAt = System.currentTimeMillis();
+
+        LocationMessage latest = null;
+        long ackSeq;
+        synchronized (cursor) {
+            for (LocationPoint point : frame.points()) {
+                if (point.seq() <= cursor.lastSeq) {
+                    continue; // Already processed (replayed after reconnect)
+                }
+                latest = new LocationMessage(driverId, tripId, point.latitude(), point.longitude(), point.timestamp());
+                recordLocation(identity.getDriverId(), latest);
+                cursor.lastSeq = point.seq();
+            }
+            // Read under the same lock: a concurrent batch on this stream may advance lastSeq
+            ackSeq = cursor.lastSeq;
+        }
+        log.debug("GPS batch from driver {} trip {}: {} points, seq {}..{}",
+            driverId, tripId, frame.points().size(), frame.firstSeq(), frame.lastSeq());
+
+        if (latest != null) {
+            // Only the newest point of the batch is persisted and broadcast; history keeps every point
+            persistLatestLocation(identity.getDriverId(), latest);
+            messagingTemplate.convertAndSend("/topic/locations", latest);
+            messagingTemplate.convertAndSend("/topic/trips/" + tripId + "/location", latest);
+        }
+
+        Map<String, Object> ack = new LinkedHashMap<>();
+        ack.put("tripId", frame.tripId());
+        ack.put("streamId", frame.streamId());
+        ack.put("ackSeq", ackSeq);
+        messagingTemplate.convertAndSend("/topic/driver/" + driverId + "/tracking-ack", ack);
+    }
+
+    // A stream that went quiet (trip finished, app reinstalled) would otherwise keep its cursor forever. A device
+    // that resumes after the cursor is gone only resends points it never got an ack for, which are all new
+    @Scheduled(fixedDelayString = "${app.tracking.stream-evict-interval-ms:300000}")
+    public void evictIdleStreamCursors() {
+        long cutoff = System.currentTimeMillis() - streamIdleEvictMs;
+        int before = streamCursors.size();
+        streamCursors.values().removeIf(cursor -> cursor.lastSeenAt < cutoff);
+        log.debug("Evicted {} idle GPS stream cursors, {} tracked", before - streamCursors.size(), streamCursors.size());
+    }
+
+    private void recordLocation(Integer driverId, LocationMessage location) {
+        // Use a composite key: driverId_tripId
+        String key = location.getDriverId() + "_" + location.getTripId();
+        latestLocations.put(key, location);
+        // Add to location history
+        locationHistory.computeIfAbsent(key, k -> java.util.Collections.synchronizedList(new java.util.ArrayList<>())).add(location);
+
+        // Automatic pickup/delivery arrival detection and live ETA (in-memory, no DB access on this path). The trip
+        // id comes from the client; both engines drop the point unless this driver is assigned to that trip
+        Integer tripId = parseTripId(location.getTripId());
+        if (tripId != null) {
+            geofenceEngine.onLocation(tripId, driverId, location.getLatitude(), location.getLongitude());
+            liveEtaService.onLocation(tripId, driverId, location.getLatitude(), location.getLongitude(), location.getTimestamp());
+        }
+    }
+
+    private static Integer parseTripId(String tripId) {
+        try {
+            return Integer.valueOf(tripId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void persistLatestLocation(Integer driverId, LocationMessage location) {
+        liveFleetService.onLocation(driverId, location.getLatitude(), location.getLongitude());
+
+        // Update database for consistency (don't let DB errors break WebSocket)
+        try {
+            log.debug("Updating database for driver {}", driverId);
+            driverService.updateMyLocation(
+                driverId,
+                BigDecimal.valueOf(location.getLatitude()),
+                BigDecimal.valueOf(location.getLongitude())
+            );
+        } catch (Exception e) {
+            // Log error but don't fail the WebSocket response
+            log.error("Failed to update driver location in database: {}", e.getMessage());
+        }
+    }
+
+    private static class StreamCursor {
+        private final int streamId;
+        private long lastSeq = -1;
+        private volatile long lastSeenAt;
+
+        StreamCursor(int streamId) {
+            this.streamId = streamId;
+            this.lastSeenAt = System.currentTimeMillis();
+        }
+    }
+
     // Get location history for a driver/trip
     public static java.util.List<LocationMessage> getLocationHistory(String driverId, String tripId) {
         String key = driverId + "_" + tripId;
@@ -120,13 +238,18 @@ public class GpsTrackingController {
         private String tripId;
         private double latitude;
         private double longitude;
+        private long timestamp;
 
         public LocationMessage() {}
         public LocationMessage(String driverId, String tripId, double latitude, double longitude) {
+            this(driverId, tripId, latitude, longitude, System.currentTimeMillis());
+        }
+        public LocationMessage(String driverId, String tripId, double latitude, double longitude, long timestamp) {
             this.driverId = driverId;
             this.tripId = tripId;
             this.latitude = latitude;
             this.longitude = longitude;
+            this.timestamp = timestamp;
         }
 
         public String getDriverId() { return driverId; }
@@ -137,6 +260,8 @@ public class GpsTrackingController {
         public void setLatitude(double latitude) { this.latitude = latitude; }
         public double getLongitude() { return longitude; }
         public void setLongitude(double longitude) { this.longitude = longitude; }
+        public long getTimestamp() { return timestamp; }
+        public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
 
         @Override
         public String toString() {
@@ -145,6 +270,7 @@ public class GpsTrackingController {
                     ", tripId='" + tripId + '\'' +
                     ", latitude=" + latitude +
                     ", longitude=" + longitude +
+                    ", timestamp=" + timestamp +
                     '}';
         }
     }
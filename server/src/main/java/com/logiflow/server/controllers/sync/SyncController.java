@@ -0,0 +1,46 @@
+package com.logiflow.server.controllers.sync;
+
+import com.logiflow.server.dtos.sync.SyncResponseDto;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.services.sync.SyncService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // GET /api/sync?cursor=N - Trips, notifications and chat changed since the cursor (204 when nothing changed).
+    // Omit the cursor (or pass 0) for a full sync; store the returned cursor for the next call.
+    // 503 while change tracking is not installed; an unknown user is 404 and anything else a 500 (GlobalExceptionHandler).
+    @GetMapping
+    public ResponseEntity<?> sync(@RequestParam(defaultValue = "0") long cursor, Authentication authentication) {
+        try {
+            String role = authentication.getAuthorities().stream()
+                    .findFirst().map(a -> a.getAuthority()).orElse(null);
+            SyncResponseDto changes = syncService.sync(authentication.getName(), role, cursor);
+            if (changes == null) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(changes);
+        } catch (ServiceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
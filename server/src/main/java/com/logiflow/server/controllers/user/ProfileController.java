@@ -1,5 +1,6 @@
 package com.logiflow.server.controllers.user;
 
+import com.logiflow.server.dtos.auth.AuthResponse;
 import com.logiflow.server.dtos.user.ProfileDto;
 import com.logiflow.server.dtos.user.ProfileUpdateDto;
 import com.logiflow.server.services.user.ProfileService;
@@ -34,11 +35,11 @@ public class ProfileController {
         return ResponseEntity.ok(profileService.updateProfile(authentication.getName(), profileUpdateDto));
     }
 
+    // PUT /api/user/profile/password - older tokens stop working; the response carries the caller's new token
     @PutMapping("/profile/password")
-    public ResponseEntity<Void> changePassword(Authentication authentication,
-                                             @RequestParam String currentPassword,
-                                             @RequestParam String newPassword) {
-        profileService.changePassword(authentication.getName(), currentPassword, newPassword);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<AuthResponse> changePassword(Authentication authentication,
+                                                       @RequestParam String currentPassword,
+                                                       @RequestParam String newPassword) {
+        return ResponseEntity.ok(profileService.changePassword(authentication.getName(), currentPassword, newPassword));
     }
 }
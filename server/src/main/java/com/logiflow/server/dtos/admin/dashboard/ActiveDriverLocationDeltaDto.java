@@ -0,0 +1,19 @@
+package com.logiflow.server.dtos.admin.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Changes to the live fleet map since a given snapshot version.
+ * When full is true the client's version was too old and drivers holds the complete fleet.
+ */
+@Data
+@AllArgsConstructor
+public class ActiveDriverLocationDeltaDto {
+    private long version;
+    private boolean full;
+    private List<ActiveDriverLocationDto> drivers;
+    private List<Integer> removedDriverIds;
+}
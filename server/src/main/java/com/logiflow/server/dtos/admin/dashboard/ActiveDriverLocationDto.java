@@ -10,7 +10,7 @@ import java.math.BigDecimal;
  * DTO for active driver location data on admin dashboard map.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 public class ActiveDriverLocationDto {
     private final Integer driverId;
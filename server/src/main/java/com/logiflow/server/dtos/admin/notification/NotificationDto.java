@@ -15,6 +15,7 @@ public class NotificationDto {
     private Integer relatedEntityId;
     private Boolean isRead;
     private LocalDateTime createdAt;
+    private Integer digestCount;    // set when this row summarises several coalesced notifications
 
     public NotificationDto() {}
 
@@ -29,6 +30,7 @@ public class NotificationDto {
         this.relatedEntityId = notification.getRelatedEntityId();
         this.isRead = notification.getIsRead();
         this.createdAt = notification.getCreatedAt();
+        this.digestCount = notification.getDigestCount();
     }
 
     // Getters and setters
@@ -61,4 +63,7 @@ public class NotificationDto {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Integer getDigestCount() { return digestCount; }
+    public void setDigestCount(Integer digestCount) { this.digestCount = digestCount; }
 }
@@ -105,6 +105,7 @@ public class CustomerDtos {
         private String tripStatus;
         private LocalDateTime estimatedPickupTime;
         private LocalDateTime estimatedDeliveryTime;
+        private LocalDateTime liveEstimatedDeliveryTime; // GPS-based trip ETA, null when not tracked
         private LocalDateTime actualPickupTime;
         private LocalDateTime actualDeliveryTime;
         private BigDecimal currentLat;
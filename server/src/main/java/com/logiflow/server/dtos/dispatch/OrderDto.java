@@ -1,6 +1,7 @@
 package com.logiflow.server.dtos.dispatch;
 
 import com.logiflow.server.models.Order;
+import com.logiflow.server.repositories.order.OrderListRow;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -70,4 +71,36 @@ public class OrderDto {
         dto.setCreatedAt(order.getCreatedAt());
         return dto;
     }
+
+    public static OrderDto fromListRow(OrderListRow row) {
+        OrderDto dto = new OrderDto();
+        dto.setOrderId(row.getOrderId());
+        dto.setTripId(row.getTripId());
+        dto.setCustomerId(row.getCustomerUserId());
+        dto.setCustomerUserId(row.getCustomerUserId());
+        dto.setCustomerName(row.getCustomerName());
+        dto.setCustomerPhone(row.getCustomerPhone());
+        dto.setPickupAddress(row.getPickupAddress());
+        dto.setPickupLat(row.getPickupLat());
+        dto.setPickupLng(row.getPickupLng());
+        dto.setDeliveryAddress(row.getDeliveryAddress());
+        dto.setDeliveryLat(row.getDeliveryLat());
+        dto.setDeliveryLng(row.getDeliveryLng());
+        dto.setPackageDetails(row.getPackageDetails());
+        dto.setDistanceKm(row.getDistanceKm());
+        dto.setWeightTons(row.getWeightTons());
+        dto.setPickupType(row.getPickupType());
+        dto.setContainerNumber(row.getContainerNumber());
+        dto.setTerminalName(row.getTerminalName());
+        dto.setWarehouseName(row.getWarehouseName());
+        dto.setDockNumber(row.getDockNumber());
+        dto.setPackageValue(row.getPackageValue());
+        dto.setShippingFee(row.getShippingFee());
+        dto.setCreatedByUserId(row.getCreatedByUserId());
+        dto.setCreatedByUsername(row.getCreatedByUsername());
+        dto.setPriorityLevel(row.getPriorityLevel());
+        dto.setOrderStatus(row.getOrderStatus());
+        dto.setCreatedAt(row.getCreatedAt());
+        return dto;
+    }
 }
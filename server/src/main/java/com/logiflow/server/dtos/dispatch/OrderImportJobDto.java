@@ -0,0 +1,51 @@
+package com.logiflow.server.dtos.dispatch;
+
+import com.logiflow.server.models.OrderImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderImportJobDto {
+    private Long jobId;
+    private String fileName;
+    private String status;
+    private int rowsParsed;
+    private int rowsValidated;
+    private int rowsInserted;
+    private int rowsFailed;
+    private int lastCommittedRow;
+    private int attempts;
+    private String message;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+    private List<String> errors; // First errors with row numbers; the full list is paged separately
+
+    public static OrderImportJobDto fromJob(OrderImportJob job) {
+        OrderImportJobDto dto = new OrderImportJobDto();
+        dto.setJobId(job.getJobId());
+        dto.setFileName(job.getFileName());
+        dto.setStatus(job.getStatus().name());
+        dto.setRowsParsed(job.getRowsParsed());
+        dto.setRowsValidated(job.getRowsValidated());
+        dto.setRowsInserted(job.getRowsInserted());
+        dto.setRowsFailed(job.getRowsFailed());
+        dto.setLastCommittedRow(job.getLastCommittedRow());
+        dto.setAttempts(job.getAttempts());
+        dto.setMessage(job.getMessage());
+        dto.setCreatedBy(job.getCreatedBy());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package com.logiflow.server.dtos.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderScrollResponse {
+    private List<OrderDto> orders;
+    private int pageSize;
+    private long totalItems; // May lag behind by the count cache TTL
+    private boolean hasNext;
+    private String nextCursor; // Pass back as ?cursor= for the next page; null on the last page
+}
@@ -0,0 +1,19 @@
+package com.logiflow.server.dtos.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSearchResponse {
+    private String query;
+    private List<OrderDto> orders; // Best matches first
+    private int currentPage;
+    private int pageSize;
+    private long totalMatches;
+    private boolean moreMatches; // More orders match than were ranked; refine the query to see them
+}
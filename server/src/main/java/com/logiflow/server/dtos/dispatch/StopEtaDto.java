@@ -0,0 +1,21 @@
+package com.logiflow.server.dtos.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live ETA of one remaining pickup/delivery stop of a trip.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StopEtaDto {
+    private Integer orderId;
+    private String stopType; // pickup | delivery
+    private LocalDateTime estimatedArrival;
+    private Integer remainingSeconds;
+    private Integer remainingMeters;
+}
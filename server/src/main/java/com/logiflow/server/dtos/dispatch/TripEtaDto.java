@@ -0,0 +1,25 @@
+package com.logiflow.server.dtos.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Live ETA of an active trip, pushed to /topic/trips/{tripId}/eta. The top-level fields are for the final
+ * stop; {@code stops} holds every remaining stop in route order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripEtaDto {
+    private Integer tripId;
+    private LocalDateTime estimatedArrival;
+    private Integer remainingSeconds;
+    private Integer remainingMeters;
+    private Boolean offRoute;
+    private LocalDateTime updatedAt;
+    private List<StopEtaDto> stops;
+}
@@ -0,0 +1,48 @@
+package com.logiflow.server.dtos.notification;
+
+import com.logiflow.server.models.Notification;
+import com.logiflow.server.repositories.notification.NotificationRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a driver/customer notification feed. When {@code hasNext} is true, pass the fields of
+ * {@code nextCursor} as the beforeCreatedAt/beforeId query parameters to get the following page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationFeedResponse<T> {
+    private List<T> notifications;
+    private boolean hasNext;
+    private Cursor nextCursor;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Cursor {
+        private LocalDateTime beforeCreatedAt;
+        private Long beforeId;
+    }
+
+    /**
+     * Build a page from rows fetched with one lookahead row
+     * ({@link NotificationRepository#findUserFeedWithLookahead}).
+     */
+    public static <T> NotificationFeedResponse<T> of(List<Notification> rows, int size, Function<Notification, T> mapper) {
+        int pageSize = NotificationRepository.feedSize(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<Notification> page = hasNext ? rows.subList(0, pageSize) : rows;
+        Cursor next = null;
+        if (hasNext) {
+            Notification last = page.get(page.size() - 1);
+            next = new Cursor(last.getCreatedAt(), last.getNotificationId());
+        }
+        return new NotificationFeedResponse<>(page.stream().map(mapper).toList(), hasNext, next);
+    }
+}
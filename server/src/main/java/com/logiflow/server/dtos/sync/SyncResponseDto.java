@@ -0,0 +1,38 @@
+package com.logiflow.server.dtos.sync;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logiflow.server.dtos.admin.notification.NotificationDto;
+import com.logiflow.server.dtos.chat.ChatMessageDto;
+import com.logiflow.server.dtos.driver.DriverDtos.TripSummaryDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes visible to the calling user since a sync cursor.
+ * When full is true the client's cursor was unknown or too old: it should drop its local copies before
+ * applying the upserts. When hasMore is true the client should sync again right away with the new cursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SyncResponseDto {
+    private long cursor;
+    private boolean full;
+    private boolean hasMore;
+    private Changes<TripSummaryDto> trips;
+    private Changes<NotificationDto> notifications;
+    private Changes<ChatMessageDto> chat;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class Changes<T> {
+        private List<T> upserts;
+        private List<Long> deleted;
+    }
+}
@@ -0,0 +1,17 @@
+package com.logiflow.server.exceptions;
+
+/**
+ * A bounded subsystem is saturated; the client should retry after the given delay.
+ */
+public class ServiceBusyException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
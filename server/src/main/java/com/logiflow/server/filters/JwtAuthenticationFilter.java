@@ -1,5 +1,6 @@
 package com.logiflow.server.filters;
 
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
 import com.logiflow.server.utils.JwtUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,9 +21,11 @@ import io.jsonwebtoken.JwtException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, TokenRevocationRegistry tokenRevocationRegistry) {
         this.jwtUtils = jwtUtils;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     @Override
@@ -34,31 +37,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String token = request.getHeader("Authorization");
-        String jwtToken = null;
-        String userId = null;
-        String role = null;
 
-        if (token != null && token.startsWith("Bearer ")) {
-            jwtToken = token.substring(7);
+        if (token != null && token.startsWith("Bearer ") && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                userId = jwtUtils.extractUsername(jwtToken);
-                role = jwtUtils.extractRole(jwtToken);
-            } catch (JwtException | IllegalArgumentException exception) {
-                SecurityContextHolder.clearContext();
-            }
-        }
-
-        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtils.validateToken(jwtToken, userId)) {
+                // One verification yields every claim we need (served from JwtUtils' cache for repeat tokens)
+                JwtUtils.VerifiedToken claims = jwtUtils.verify(token.substring(7));
+                // Disabled account or token issued before a password change/deactivation: stay anonymous,
+                // which the entry point answers with 401 on protected endpoints
+                if (tokenRevocationRegistry.isRevoked(claims.username(), claims.issuedAtMs())) {
+                    SecurityContextHolder.clearContext();
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                if (role != null && !role.isEmpty()) {
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+                if (claims.role() != null && !claims.role().isEmpty()) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + claims.role()));
                 }
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userId, null, authorities);
+                        claims.username(), null, authorities);
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (JwtException | IllegalArgumentException exception) {
+                SecurityContextHolder.clearContext();
             }
         }
         filterChain.doFilter(request, response);
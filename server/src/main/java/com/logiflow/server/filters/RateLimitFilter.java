@@ -0,0 +1,213 @@
+package com.logiflow.server.filters;
+
+import com.logiflow.server.utils.StripedTokenBuckets;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user, per-endpoint-group request limits, applied after {@link JwtAuthenticationFilter}.
+ *
+ * The endpoint group is the path below {@code /api} up to three segments, cut at the first segment
+ * containing a digit ({@code /api/driver/me/trips/12} and {@code /api/driver/me/trips} share
+ * {@code driver/me/trips}). Every (username, group) pair has its own token bucket sized by the user's
+ * role ({@code app.ratelimit.role-limits}) or by a group override ({@code app.ratelimit.group-limits});
+ * a request without a token gets {@code 429} with {@code Retry-After}. Unauthenticated requests are not
+ * limited here: login has its own bounded pool and the public maps endpoints their own quota.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final int MAX_GROUP_SEGMENTS = 3;
+    private static final int MAX_GROUP_LENGTH = 64;
+    private static final int MAX_REPORTED_GROUPS = 256;
+
+    record Limit(int ratePerSecond, int burst) {
+    }
+
+    private final boolean enabled;
+    private final Map<String, Limit> roleLimits;
+    private final Map<String, Limit> groupLimits;
+    private final Limit defaultLimit;
+    private final long idleEvictMs;
+    private final StripedTokenBuckets buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final Map<String, LongAdder> rejectedByRole = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejectedByGroup = new ConcurrentHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+
+    public RateLimitFilter(@Value("${app.ratelimit.enabled:true}") boolean enabled,
+                           @Value("${app.ratelimit.role-limits:ADMIN:50/100,DISPATCHER:50/100,DRIVER:10/30,CUSTOMER:10/30}") String roleLimits,
+                           @Value("${app.ratelimit.group-limits:}") String groupLimits,
+                           @Value("${app.ratelimit.default-limit:10/30}") String defaultLimit,
+                           @Value("${app.ratelimit.stripes:64}") int stripes,
+                           @Value("${app.ratelimit.max-keys:200000}") int maxKeys,
+                           @Value("${app.ratelimit.idle-evict-ms:120000}") long idleEvictMs) {
+        this.enabled = enabled;
+        this.roleLimits = parseLimits(roleLimits);
+        this.groupLimits = parseLimits(groupLimits);
+        this.defaultLimit = parseLimit(defaultLimit);
+        this.buckets = new StripedTokenBuckets(stripes, maxKeys);
+        // A bucket may only be dropped once it has certainly refilled, or eviction would reset a throttled client
+        long slowestRefillMs = 0;
+        for (Limit limit : allLimits()) {
+            slowestRefillMs = Math.max(slowestRefillMs, 1000L * limit.burst() / limit.ratePerSecond());
+        }
+        this.idleEvictMs = Math.max(idleEvictMs, slowestRefillMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String role = roleOf(authentication);
+        String group = groupOf(request.getRequestURI());
+        Limit limit = groupLimits.getOrDefault(group, roleLimits.getOrDefault(role, defaultLimit));
+
+        long waitMs = buckets.tryAcquire(authentication.getName() + ' ' + group, limit.ratePerSecond(), limit.burst());
+        if (waitMs <= 0) {
+            if (waitMs < 0) untracked.increment();
+            allowed.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejectedByRole.computeIfAbsent(role, k -> new LongAdder()).increment();
+        // Groups come from request paths; stop naming new ones once the map is large
+        String groupKey = rejectedByGroup.containsKey(group) || rejectedByGroup.size() < MAX_REPORTED_GROUPS ? group : "(other)";
+        rejectedByGroup.computeIfAbsent(groupKey, k -> new LongAdder()).increment();
+        long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfterSeconds + " s\"}");
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        int count = buckets.evictIdle(idleEvictMs);
+        evicted.add(count);
+        if (count > 0) {
+            logger.debug("Rate limiter evicted {} idle buckets, {} tracked", count, buckets.size());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("trackedKeys", buckets.size());
+        stats.put("allowed", allowed.sum());
+        stats.put("untracked", untracked.sum());
+        stats.put("evicted", evicted.sum());
+        long rejected = 0;
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> e : rejectedByRole.entrySet()) {
+            byRole.put(e.getKey(), e.getValue().sum());
+            rejected += e.getValue().sum();
+        }
+        Map<String, Long> byGroup = new LinkedHashMap<>();
+        rejectedByGroup.forEach((group, count) -> byGroup.put(group, count.sum()));
+        stats.put("rejected", rejected);
+        stats.put("rejectedByRole", byRole);
+        stats.put("rejectedByGroup", byGroup);
+        return stats;
+    }
+
+    static String groupOf(String uri) {
+        StringBuilder group = new StringBuilder();
+        int segments = 0;
+        int start = "/api/".length();
+        while (segments < MAX_GROUP_SEGMENTS && start < uri.length()) {
+            int end = uri.indexOf('/', start);
+            if (end < 0) end = uri.length();
+            if (end > start) {
+                String segment = uri.substring(start, end);
+                if (segment.chars().anyMatch(Character::isDigit)) break;
+                if (group.length() + segment.length() + 1 > MAX_GROUP_LENGTH) break;
+                if (segments > 0) group.append('/');
+                group.append(segment);
+                segments++;
+            }
+            start = end + 1;
+        }
+        return group.toString();
+    }
+
+    private static String roleOf(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith("ROLE_")) return name.substring(5);
+        }
+        return "";
+    }
+
+    private Iterable<Limit> allLimits() {
+        Map<String, Limit> all = new HashMap<>(roleLimits);
+        groupLimits.forEach((group, limit) -> all.put("group:" + group, limit));
+        all.put("", defaultLimit);
+        return all.values();
+    }
+
+    // "KEY:rate/burst,KEY:rate/burst" with rate in requests per second
+    private static Map<String, Limit> parseLimits(String spec) {
+        Map<String, Limit> limits = new HashMap<>();
+        if (spec == null || spec.isBlank()) return limits;
+        for (String entry : spec.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit entry: " + entry);
+            }
+            limits.put(entry.substring(0, colon).trim(), parseLimit(entry.substring(colon + 1)));
+        }
+        return limits;
+    }
+
+    private static Limit parseLimit(String spec) {
+        String[] parts = spec.trim().split("/");
+        try {
+            int rate = Integer.parseInt(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : rate;
+            if (rate < 1 || burst < 1 || burst > StripedTokenBuckets.MAX_BURST) {
+                throw new IllegalArgumentException("Rate limit out of range: " + spec);
+            }
+            return new Limit(rate, burst);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate limit: " + spec, e);
+        }
+    }
+}
@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 @Table(name = "delivery_confirmations")
 public class DeliveryConfirmation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_confirmations_seq")
+    @SequenceGenerator(name = "delivery_confirmations_seq", sequenceName = "delivery_confirmations_seq", allocationSize = 50)
     @Column(name = "confirmation_id")
     private Integer confirmationId;
 
@@ -0,0 +1,46 @@
+package com.logiflow.server.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A domain event a subscriber could not handle after all retries (or could not even queue).
+ * The JSON payload can be replayed to the same subscriber from the admin API.
+ */
+@Data
+@Entity
+@Table(name = "domain_event_dead_letters", indexes = {
+    @Index(name = "idx_domain_event_dead_letters_failed_at", columnList = "failed_at")
+})
+public class DomainEventDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "domain_event_dead_letters_seq")
+    @SequenceGenerator(name = "domain_event_dead_letters_seq", sequenceName = "domain_event_dead_letters_seq", allocationSize = 50)
+    @Column(name = "dead_letter_id")
+    private Long deadLetterId;
+
+    @Column(nullable = false, length = 100)
+    private String subscriber;
+
+    @Column(name = "event_type", nullable = false, length = 255)
+    private String eventType;
+
+    @Column(name = "aggregate_key", nullable = false, length = 100)
+    private String aggregateKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt = LocalDateTime.now();
+
+    @Column(name = "replayed_at")
+    private LocalDateTime replayedAt;
+}
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class DriverWorkLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "driver_work_logs_seq")
+    @SequenceGenerator(name = "driver_work_logs_seq", sequenceName = "driver_work_logs_seq", allocationSize = 50)
     @Column(name = "log_id")
     private Integer logId;
 
@@ -4,11 +4,21 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Keyset feeds: (created_at, notification_id) per audience, see NotificationRepository
+        @Index(name = "idx_notifications_created_at_id", columnList = "created_at, notification_id"),
+        @Index(name = "idx_notifications_type_created_at_id", columnList = "notification_type, created_at, notification_id"),
+        @Index(name = "idx_notifications_target_created_at_id", columnList = "target_user_id, created_at, notification_id"),
+        // Unread counts and mark-all-read
+        @Index(name = "idx_notifications_target_is_read", columnList = "target_user_id, is_read"),
+        // Retention: oldest read rows first, see NotificationArchiveServiceImpl
+        @Index(name = "idx_notifications_is_read_created_at", columnList = "is_read, created_at")
+})
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     @Column(name = "notification_id")
     private Long notificationId;
 
@@ -40,6 +50,13 @@ public class Notification {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set on digests only: number of coalesced notifications and their JSON items (see NotificationCoalescer)
+    @Column(name = "digest_count")
+    private Integer digestCount;
+
+    @Column(name = "digest_items", columnDefinition = "TEXT")
+    private String digestItems;
+
     // Optional: Link to specific user if not broadcast
     @ManyToOne
     @JoinColumn(name = "target_user_id")
@@ -116,6 +133,12 @@ public class Notification {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public Integer getDigestCount() { return digestCount; }
+    public void setDigestCount(Integer digestCount) { this.digestCount = digestCount; }
+
+    public String getDigestItems() { return digestItems; }
+    public void setDigestItems(String digestItems) { this.digestItems = digestItems; }
+
     public User getTargetUser() { return targetUser; }
     public void setTargetUser(User targetUser) { this.targetUser = targetUser; }
 }
@@ -10,11 +10,16 @@ import jakarta.persistence.Enumerated;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Keyset order list: seek on (created_at, order_id), optionally within one status
+    @Index(name = "idx_orders_created_at_id", columnList = "created_at, order_id"),
+    @Index(name = "idx_orders_status_created_at_id", columnList = "order_status, created_at, order_id")
+})
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Integer orderId;
 
@@ -0,0 +1,83 @@
+package com.logiflow.server.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A background order import. The uploaded file is kept on disk until the job finishes; the counters and
+ * {@code lastCommittedRow} are written in the same transaction as each chunk of orders, so an interrupted
+ * job resumes after the last committed row.
+ *
+ * A RUNNING job is leased by the instance in {@code owner}, which refreshes {@code updatedAt} while it works;
+ * only that instance may record progress, and another instance takes the job over once the lease expires.
+ */
+@Data
+@Entity
+@Table(name = "order_import_jobs", indexes = {
+    @Index(name = "idx_order_import_jobs_status", columnList = "status, created_at")
+})
+public class OrderImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_import_jobs_seq")
+    @SequenceGenerator(name = "order_import_jobs_seq", sequenceName = "order_import_jobs_seq", allocationSize = 50)
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "file_format", nullable = false, length = 10)
+    private String fileFormat;
+
+    @Column(name = "stored_file", nullable = false, length = 255)
+    private String storedFile;
+
+    @Column(name = "created_by", nullable = false, length = 100)
+    private String createdBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "rows_parsed", nullable = false)
+    private Integer rowsParsed = 0;
+
+    @Column(name = "rows_validated", nullable = false)
+    private Integer rowsValidated = 0;
+
+    @Column(name = "rows_inserted", nullable = false)
+    private Integer rowsInserted = 0;
+
+    @Column(name = "rows_failed", nullable = false)
+    private Integer rowsFailed = 0;
+
+    @Column(name = "last_committed_row", nullable = false)
+    private Integer lastCommittedRow = 0;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // Instance id of the server running the job; null while queued
+    @Column(length = 100)
+    private String owner;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
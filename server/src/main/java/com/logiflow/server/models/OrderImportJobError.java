@@ -0,0 +1,26 @@
+package com.logiflow.server.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name = "order_import_job_errors", indexes = {
+    @Index(name = "idx_order_import_job_errors_job", columnList = "job_id, row_num")
+})
+public class OrderImportJobError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_import_job_errors_seq")
+    @SequenceGenerator(name = "order_import_job_errors_seq", sequenceName = "order_import_job_errors_seq", allocationSize = 50)
+    @Column(name = "error_id")
+    private Long errorId;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "row_num", nullable = false)
+    private Integer rowNumber;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+}
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "registration_requests")
 public class RegistrationRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_requests_seq")
+    @SequenceGenerator(name = "registration_requests_seq", sequenceName = "registration_requests_seq", allocationSize = 50)
     @Column(name = "request_id")
     private Integer requestId;
 
@@ -0,0 +1,24 @@
+package com.logiflow.server.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A username whose JWTs issued before {@code validAfter} are refused although no account carries it any more
+ * (renamed accounts: users.tokens_valid_after moves with the row to the new name). Rows are pruned once the
+ * token lifetime has passed, see TokenRevocationRegistry.
+ */
+@Data
+@Entity
+@Table(name = "revoked_subjects", indexes = {
+    @Index(name = "idx_revoked_subjects_valid_after", columnList = "valid_after")
+})
+public class RevokedSubject {
+    @Id
+    @Column(name = "username", length = 50)
+    private String username;
+
+    @Column(name = "valid_after", nullable = false)
+    private LocalDateTime validAfter;
+}
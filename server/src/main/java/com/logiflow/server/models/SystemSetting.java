@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 public class SystemSetting {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "system_settings_seq")
+    @SequenceGenerator(name = "system_settings_seq", sequenceName = "system_settings_seq", allocationSize = 50)
     @Column(name = "setting_id")
     private Integer settingId;
 
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class TripAssignment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_assignments_seq")
+    @SequenceGenerator(name = "trip_assignments_seq", sequenceName = "trip_assignments_seq", allocationSize = 50)
     @Column(name = "assignment_id")
     private Integer assignmentId;
 
@@ -16,11 +16,14 @@ public class TripProgressEvent {
         STATUS_CHANGED,
         REROUTED,
         CANCELLED,
-        NOTE
+        NOTE,
+        ARRIVED,   // Driver entered a pickup/delivery geofence (auto-detected from GPS)
+        DEPARTED   // Driver left a pickup/delivery geofence (auto-detected from GPS)
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_progress_events_seq")
+    @SequenceGenerator(name = "trip_progress_events_seq", sequenceName = "trip_progress_events_seq", allocationSize = 50)
     @Column(name = "event_id")
     private Integer eventId;
 
@@ -23,6 +23,11 @@ public interface DriverRepository extends JpaRepository<Driver, Integer> {
     @Query("SELECT DISTINCT d FROM Driver d JOIN FETCH d.user ORDER BY d.driverId")
     List<Driver> findAllDriversWithUser();
 
+    @Query("SELECT d.driverId AS driverId, u.fullName AS fullName, u.phone AS phone, d.status AS status, " +
+           "d.currentLocationLat AS latitude, d.currentLocationLng AS longitude " +
+           "FROM Driver d JOIN d.user u")
+    List<FleetDriverRow> findFleetRows();
+
     /**
      * Calculate average driver rating
      */
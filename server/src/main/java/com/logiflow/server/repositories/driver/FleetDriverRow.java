@@ -0,0 +1,15 @@
+package com.logiflow.server.repositories.driver;
+
+import java.math.BigDecimal;
+
+/**
+ * Driver fields needed by the live fleet map (loaded without hydrating Driver/User entities).
+ */
+public interface FleetDriverRow {
+    Integer getDriverId();
+    String getFullName();
+    String getPhone();
+    String getStatus();
+    BigDecimal getLatitude();
+    BigDecimal getLongitude();
+}
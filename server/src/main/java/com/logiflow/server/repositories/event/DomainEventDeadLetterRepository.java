@@ -0,0 +1,18 @@
+package com.logiflow.server.repositories.event;
+
+import com.logiflow.server.models.DomainEventDeadLetter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DomainEventDeadLetterRepository extends JpaRepository<DomainEventDeadLetter, Long> {
+
+    @Query("SELECT d FROM DomainEventDeadLetter d WHERE d.replayedAt IS NULL ORDER BY d.failedAt DESC, d.deadLetterId DESC")
+    List<DomainEventDeadLetter> findPending(Pageable pageable);
+
+    long countByReplayedAtIsNull();
+}
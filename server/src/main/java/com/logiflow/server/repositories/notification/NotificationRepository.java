@@ -1,10 +1,14 @@
 package com.logiflow.server.repositories.notification;
 
 import com.logiflow.server.models.Notification;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -12,9 +16,69 @@ import java.util.List;
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
-    // Get all notifications for admin users (broadcast + user-specific)
-    @Query("SELECT n FROM Notification n LEFT JOIN n.targetUser tu LEFT JOIN tu.role r WHERE tu IS NULL OR r.roleName IN ('ADMIN', 'DISPATCHER') ORDER BY n.createdAt DESC")
-    List<Notification> findAllForAdmins();
+    int MAX_FEED_PAGE_SIZE = 100;
+
+    // ===== Keyset-paginated feeds =====
+    // Newest first, ordered by (createdAt, notificationId). A page after the first is requested with the
+    // createdAt/notificationId of the last row already seen, so the database seeks into the index instead of
+    // skipping rows; cost does not grow with history size.
+
+    // Rows strictly after the cursor. The redundant leading bound is what PostgreSQL turns into an index condition;
+    // the OR alone is only a filter, and a deep cursor would walk the index from the newest row like an OFFSET does
+    String BEFORE_CURSOR = "n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.notificationId < :id)) ";
+
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.targetUser tu LEFT JOIN tu.role r WHERE tu IS NULL OR r.roleName IN ('ADMIN', 'DISPATCHER') ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findAdminFeed(Pageable pageable);
+
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.targetUser tu LEFT JOIN tu.role r WHERE (tu IS NULL OR r.roleName IN ('ADMIN', 'DISPATCHER')) AND " + BEFORE_CURSOR + "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findAdminFeedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long notificationId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.targetUser tu LEFT JOIN tu.role r WHERE n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (tu IS NULL OR r.roleName = 'DISPATCHER') ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findDispatcherFeed(Pageable pageable);
+
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.targetUser tu LEFT JOIN tu.role r WHERE n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (tu IS NULL OR r.roleName = 'DISPATCHER') AND " + BEFORE_CURSOR + "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findDispatcherFeedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long notificationId, Pageable pageable);
+
+    // Driver and customer feeds (notifications targeted at one user)
+    @Query("SELECT n FROM Notification n JOIN n.targetUser tu WHERE tu.username = :username ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findUserFeed(@Param("username") String username, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n JOIN n.targetUser tu WHERE tu.username = :username AND " + BEFORE_CURSOR + "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findUserFeedBefore(@Param("username") String username, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long notificationId, Pageable pageable);
+
+    /**
+     * Admin feed page: after the given cursor when present, otherwise the {@code page}-th page (legacy offset paging).
+     */
+    default List<Notification> findAdminFeed(LocalDateTime beforeCreatedAt, Long beforeId, int page, int size) {
+        return beforeCreatedAt != null && beforeId != null
+                ? findAdminFeedBefore(beforeCreatedAt, beforeId, feedPage(0, size))
+                : findAdminFeed(feedPage(page, size));
+    }
+
+    default List<Notification> findDispatcherFeed(LocalDateTime beforeCreatedAt, Long beforeId, int page, int size) {
+        return beforeCreatedAt != null && beforeId != null
+                ? findDispatcherFeedBefore(beforeCreatedAt, beforeId, feedPage(0, size))
+                : findDispatcherFeed(feedPage(page, size));
+    }
+
+    /**
+     * Driver/customer feed page plus one lookahead row: up to {@code feedSize(size) + 1} rows, the extra row telling
+     * the caller that another page follows (see {@code NotificationFeedResponse}).
+     */
+    default List<Notification> findUserFeedWithLookahead(String username, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        Pageable lookahead = PageRequest.of(0, feedSize(size) + 1);
+        return beforeCreatedAt != null && beforeId != null
+                ? findUserFeedBefore(username, beforeCreatedAt, beforeId, lookahead)
+                : findUserFeed(username, lookahead);
+    }
+
+    static int feedSize(int size) {
+        return Math.min(Math.max(1, size), MAX_FEED_PAGE_SIZE);
+    }
+
+    private static Pageable feedPage(int page, int size) {
+        return PageRequest.of(Math.max(0, page), feedSize(size));
+    }
 
     // Get unread notifications for admins
     @Query("SELECT n FROM Notification n LEFT JOIN n.targetUser tu LEFT JOIN tu.role r WHERE (tu IS NULL OR r.roleName IN ('ADMIN', 'DISPATCHER')) AND n.isRead = false ORDER BY n.createdAt DESC")
@@ -37,33 +101,42 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime since);
 
     // Mark notifications as read for admin users (bulk operation)
+    @Transactional
+    @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.notificationId IN :ids AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName IN ('ADMIN', 'DISPATCHER')))")
     void markAsReadForAdmins(@Param("ids") List<Long> notificationIds);
 
+    // Mark every unread admin-visible notification as read in one statement
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.isRead = false AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName IN ('ADMIN', 'DISPATCHER')))")
+    int markAllAsReadForAdmins();
+
     // Mark single notification as read
+    @Transactional
+    @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.notificationId = :id AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName IN ('ADMIN', 'DISPATCHER')))")
     void markAsRead(@Param("id") Long notificationId);
 
     // ===== Dispatcher-facing queries =====
 
-    // Dispatcher should only see NEW_ORDER broadcasts and dispatcher-targeted notifications
-    @Query("SELECT n FROM Notification n LEFT JOIN n.targetUser tu LEFT JOIN tu.role r WHERE n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (tu IS NULL OR r.roleName = 'DISPATCHER') ORDER BY n.createdAt DESC")
-    List<Notification> findAllForDispatchers();
-
     @Query("SELECT n FROM Notification n LEFT JOIN n.targetUser tu LEFT JOIN tu.role r WHERE n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (tu IS NULL OR r.roleName = 'DISPATCHER') AND n.isRead = false ORDER BY n.createdAt DESC")
     List<Notification> findUnreadForDispatchers();
 
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND n.isRead = false AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName = 'DISPATCHER'))")
     Long countUnreadForDispatchers();
 
+    @Transactional
+    @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.notificationId IN :ids AND n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName = 'DISPATCHER'))")
     void markAsReadForDispatchers(@Param("ids") List<Long> notificationIds);
 
-    // ===== Driver-facing queries =====
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.isRead = false AND n.notificationType = com.logiflow.server.models.Notification$NotificationType.NEW_ORDER AND (n.targetUser IS NULL OR n.targetUser IN (SELECT u FROM User u JOIN u.role r WHERE r.roleName = 'DISPATCHER'))")
+    int markAllAsReadForDispatchers();
 
-    // All notifications for a specific user (driver)
-    @Query("SELECT n FROM Notification n WHERE n.targetUser.username = :username ORDER BY n.createdAt DESC")
-    List<Notification> findAllForUser(@Param("username") String username);
+    // ===== Driver-facing queries =====
 
     // Unread notifications for a specific user (driver)
     @Query("SELECT n FROM Notification n WHERE n.targetUser.username = :username AND n.isRead = false ORDER BY n.createdAt DESC")
@@ -73,11 +146,17 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.targetUser.username = :username AND n.isRead = false")
     Long countUnreadForUser(@Param("username") String username);
 
-    // ===== Customer-facing queries =====
+    // Mark all notifications of a user (driver or customer) as read in one statement
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.isRead = false AND n.targetUser IN (SELECT u FROM User u WHERE u.username = :username)")
+    int markAllAsReadForUser(@Param("username") String username);
+
+    // Unread counts of every user with targeted notifications (seeds the in-memory unread counters)
+    @Query("SELECT u.username AS username, COUNT(n) AS unread FROM Notification n JOIN n.targetUser u WHERE n.isRead = false GROUP BY u.username")
+    List<UnreadCountRow> countUnreadPerUser();
 
-    // All notifications for a specific customer user
-    @Query("SELECT n FROM Notification n WHERE n.targetUser.username = :username ORDER BY n.createdAt DESC")
-    List<Notification> findAllForCustomer(@Param("username") String username);
+    // ===== Customer-facing queries =====
 
     // Unread notifications for a specific customer user
     @Query("SELECT n FROM Notification n WHERE n.targetUser.username = :username AND n.isRead = false ORDER BY n.createdAt DESC")
@@ -88,10 +167,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     Long countUnreadForCustomer(@Param("username") String username);
 
     // Mark notifications as read for a specific customer user
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.targetUser.username = :username AND n.notificationId IN :ids")
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.notificationId IN :ids AND n.targetUser IN (SELECT u FROM User u WHERE u.username = :username)")
     void markAsReadForCustomer(@Param("username") String username, @Param("ids") List<Long> notificationIds);
 
     // Mark all notifications as read for a specific customer user
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.targetUser.username = :username AND n.isRead = false")
-    void markAllAsReadForCustomer(@Param("username") String username);
+    default int markAllAsReadForCustomer(String username) {
+        return markAllAsReadForUser(username);
+    }
 }
@@ -0,0 +1,9 @@
+package com.logiflow.server.repositories.notification;
+
+/**
+ * Unread notification count of one target user.
+ */
+public interface UnreadCountRow {
+    String getUsername();
+    Long getUnread();
+}
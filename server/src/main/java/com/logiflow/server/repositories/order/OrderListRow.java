@@ -0,0 +1,39 @@
+package com.logiflow.server.repositories.order;
+
+import com.logiflow.server.models.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an order shown in the dispatch order list ({@code OrderDto}), selected without loading
+ * the entity or its trip/assignment graph.
+ */
+public interface OrderListRow {
+    Integer getOrderId();
+    Integer getTripId();
+    Integer getCustomerUserId();
+    String getCustomerName();
+    String getCustomerPhone();
+    String getPickupAddress();
+    BigDecimal getPickupLat();
+    BigDecimal getPickupLng();
+    String getDeliveryAddress();
+    BigDecimal getDeliveryLat();
+    BigDecimal getDeliveryLng();
+    String getPackageDetails();
+    BigDecimal getDistanceKm();
+    BigDecimal getWeightTons();
+    Order.PickupType getPickupType();
+    String getContainerNumber();
+    String getTerminalName();
+    String getWarehouseName();
+    String getDockNumber();
+    BigDecimal getPackageValue();
+    BigDecimal getShippingFee();
+    Integer getCreatedByUserId();
+    String getCreatedByUsername();
+    Order.PriorityLevel getPriorityLevel();
+    Order.OrderStatus getOrderStatus();
+    LocalDateTime getCreatedAt();
+}
@@ -36,42 +36,61 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query("SELECT o FROM Order o WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate")
     List<Order> findByOrderStatusAndDateRange(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
-    // Find by status only
-    @Query("SELECT o FROM Order o " +
-           "LEFT JOIN FETCH o.trip t " +
-           "LEFT JOIN FETCH o.customer c " +
-           "LEFT JOIN FETCH o.createdBy " +
-           "LEFT JOIN FETCH t.vehicle " +
-           "LEFT JOIN FETCH t.tripAssignments ta " +
-           "LEFT JOIN FETCH ta.driver " +
-           "WHERE o.orderStatus = :status " +
-           "ORDER BY o.createdAt DESC")
-    Page<Order> findByOrderStatus(@Param("status") Order.OrderStatus orderStatus, Pageable pageable);
+    String LIST_SELECT = "SELECT o.orderId AS orderId, t.tripId AS tripId, c.userId AS customerUserId, " +
+           "o.customerName AS customerName, o.customerPhone AS customerPhone, " +
+           "o.pickupAddress AS pickupAddress, o.pickupLat AS pickupLat, o.pickupLng AS pickupLng, " +
+           "o.deliveryAddress AS deliveryAddress, o.deliveryLat AS deliveryLat, o.deliveryLng AS deliveryLng, " +
+           "o.packageDetails AS packageDetails, o.distanceKm AS distanceKm, o.weightTons AS weightTons, " +
+           "o.pickupType AS pickupType, o.containerNumber AS containerNumber, o.terminalName AS terminalName, " +
+           "o.warehouseName AS warehouseName, o.dockNumber AS dockNumber, o.packageValue AS packageValue, " +
+           "o.shippingFee AS shippingFee, u.userId AS createdByUserId, u.username AS createdByUsername, " +
+           "o.priorityLevel AS priorityLevel, o.orderStatus AS orderStatus, o.createdAt AS createdAt " +
+           "FROM Order o LEFT JOIN o.trip t LEFT JOIN o.customer c LEFT JOIN o.createdBy u ";
+    String NEWEST_FIRST = "ORDER BY o.createdAt DESC, o.orderId DESC ";
+    // Keyset: rows strictly after the last row of the previous page in NEWEST_FIRST order. The redundant
+    // leading bound is what PostgreSQL turns into an index condition; the OR alone is only a filter, so
+    // a deep cursor would walk the index from the newest row like an OFFSET does
+    String BEFORE_CURSOR = "o.createdAt <= :beforeCreatedAt AND (o.createdAt < :beforeCreatedAt OR (o.createdAt = :beforeCreatedAt AND o.orderId < :beforeOrderId)) ";
 
-    // Find by date only
-    @Query("SELECT o FROM Order o " +
-           "LEFT JOIN FETCH o.trip t " +
-           "LEFT JOIN FETCH o.customer c " +
-           "LEFT JOIN FETCH o.createdBy " +
-           "LEFT JOIN FETCH t.vehicle " +
-           "LEFT JOIN FETCH t.tripAssignments ta " +
-           "LEFT JOIN FETCH ta.driver " +
-           "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate " +
-           "ORDER BY CASE WHEN o.orderStatus = 'PENDING' THEN 1 ELSE 2 END, " +
-           "o.createdAt DESC")
-    Page<Order> findByCreatedAtDate(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    // ===== Order list (offset pages): projections without collection fetches, so the limit runs in the database =====
 
-    // Find by status and date
-    @Query("SELECT o FROM Order o " +
-           "LEFT JOIN FETCH o.trip t " +
-           "LEFT JOIN FETCH o.customer c " +
-           "LEFT JOIN FETCH o.createdBy " +
-           "LEFT JOIN FETCH t.vehicle " +
-           "LEFT JOIN FETCH t.tripAssignments ta " +
-           "LEFT JOIN FETCH ta.driver " +
-           "WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate " +
-           "ORDER BY o.createdAt DESC")
-    Page<Order> findByOrderStatusAndCreatedAtDate(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    @Query(LIST_SELECT + "WHERE o.orderStatus = :status " + NEWEST_FIRST)
+    List<OrderListRow> listByOrderStatus(@Param("status") Order.OrderStatus orderStatus, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate " + NEWEST_FIRST)
+    List<OrderListRow> listByOrderStatusAndCreatedAtDate(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+
+    // The orders after the pending ones of a pending-first list; the offset counts from the first of them, so it
+    // is not a multiple of the page size
+    @Query(LIST_SELECT + "WHERE o.orderStatus <> :status " + NEWEST_FIRST + "LIMIT :limit OFFSET :offset")
+    List<OrderListRow> listExcludingOrderStatus(@Param("status") Order.OrderStatus status, @Param("offset") int offset, @Param("limit") int limit);
+
+    @Query(LIST_SELECT + "WHERE o.orderStatus <> :status AND o.createdAt >= :startDate AND o.createdAt < :endDate " + NEWEST_FIRST + "LIMIT :limit OFFSET :offset")
+    List<OrderListRow> listExcludingOrderStatusAndCreatedAtDate(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("offset") int offset, @Param("limit") int limit);
+
+    // ===== Order list (keyset pages, newest first): each page seeks on (created_at, order_id) =====
+
+    @Query(LIST_SELECT + "WHERE " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderListRow> scrollAll(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt, @Param("beforeOrderId") Integer beforeOrderId, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE o.orderStatus = :status AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderListRow> scrollByOrderStatus(@Param("status") Order.OrderStatus status, @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt, @Param("beforeOrderId") Integer beforeOrderId, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderListRow> scrollByCreatedAtDate(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt, @Param("beforeOrderId") Integer beforeOrderId, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderListRow> scrollByOrderStatusAndCreatedAtDate(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt, @Param("beforeOrderId") Integer beforeOrderId, Pageable pageable);
+
+    // Rows for ids found by the order search, in no particular order
+    @Query(LIST_SELECT + "WHERE o.orderId IN :orderIds")
+    List<OrderListRow> listByIds(@Param("orderIds") List<Integer> orderIds);
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
+    long countByCreatedAtRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate")
+    long countByOrderStatusAndCreatedAtRange(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
     // Find by status without relations (for admin payment review to avoid collection fetch warnings)
     @Query("SELECT o FROM Order o WHERE o.orderStatus = :status")
@@ -81,11 +100,6 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query("SELECT o FROM Order o WHERE o.orderStatus = :status AND o.createdAt >= :startDate AND o.createdAt < :endDate")
     Page<Order> findByOrderStatusAndCreatedAtDateWithoutRelations(@Param("status") Order.OrderStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
 
-    @Query("SELECT o FROM Order o " +
-           "ORDER BY CASE WHEN o.orderStatus = 'PENDING' THEN 1 ELSE 2 END, " +
-           "o.createdAt DESC")
-    Page<Order> findAllWithRelations(Pageable pageable);
-
     // Find by ID with relations
     @Query("SELECT o FROM Order o " +
            "LEFT JOIN FETCH o.trip t " +
@@ -118,4 +132,16 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
 
     @Query("SELECT COUNT(o) FROM Order o WHERE o.customer.userId = :customerId")
     int countByCustomerId(@Param("customerId") Integer customerId);
+
+    // Stop coordinates of orders on trips in the given statuses (geofence index rebuild)
+    @Query("SELECT o.orderId AS orderId, t.tripId AS tripId, " +
+           "o.pickupLat AS pickupLat, o.pickupLng AS pickupLng, " +
+           "o.deliveryLat AS deliveryLat, o.deliveryLng AS deliveryLng " +
+           "FROM Order o JOIN o.trip t WHERE LOWER(t.status) IN :statuses")
+    List<OrderStopCoordinates> findStopCoordinatesByTripStatuses(@Param("statuses") List<String> statuses);
+
+    // Statuses of orders on trips in the given statuses (live ETA skips completed pickups/deliveries)
+    @Query("SELECT o.orderId AS orderId, o.orderStatus AS orderStatus " +
+           "FROM Order o JOIN o.trip t WHERE LOWER(t.status) IN :statuses")
+    List<TripOrderStatus> findOrderStatusesByTripStatuses(@Param("statuses") List<String> statuses);
 }
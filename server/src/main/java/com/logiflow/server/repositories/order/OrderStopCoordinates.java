@@ -0,0 +1,16 @@
+package com.logiflow.server.repositories.order;
+
+import java.math.BigDecimal;
+
+/**
+ * Pickup/delivery coordinates of an order on an active trip (used to build in-memory geofences).
+ */
+public interface OrderStopCoordinates {
+    Integer getOrderId();
+    Integer getTripId();
+
+    BigDecimal getPickupLat();
+    BigDecimal getPickupLng();
+    BigDecimal getDeliveryLat();
+    BigDecimal getDeliveryLng();
+}
@@ -0,0 +1,11 @@
+package com.logiflow.server.repositories.order;
+
+import com.logiflow.server.models.Order;
+
+/**
+ * Status of an order on an active trip (used by the live ETA to skip stops that are already done).
+ */
+public interface TripOrderStatus {
+    Integer getOrderId();
+    Order.OrderStatus getOrderStatus();
+}
@@ -0,0 +1,16 @@
+package com.logiflow.server.repositories.order_import;
+
+import com.logiflow.server.models.OrderImportJobError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderImportJobErrorRepository extends JpaRepository<OrderImportJobError, Long> {
+
+    List<OrderImportJobError> findByJobIdOrderByRowNumberAscErrorIdAsc(Long jobId, Pageable pageable);
+
+    long countByJobId(Long jobId);
+}
@@ -0,0 +1,68 @@
+package com.logiflow.server.repositories.order_import;
+
+import com.logiflow.server.models.OrderImportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderImportJobRepository extends JpaRepository<OrderImportJob, Long> {
+
+    @Query("SELECT j.jobId FROM OrderImportJob j WHERE j.status = com.logiflow.server.models.OrderImportJob$Status.QUEUED ORDER BY j.createdAt ASC, j.jobId ASC")
+    List<Long> findQueuedIds(Pageable pageable);
+
+    long countByStatus(OrderImportJob.Status status);
+
+    List<OrderImportJob> findByCreatedByOrderByCreatedAtDesc(String createdBy, Pageable pageable);
+
+    Optional<OrderImportJob> findByJobIdAndCreatedBy(Long jobId, String createdBy);
+
+    boolean existsByJobIdAndCreatedBy(Long jobId, String createdBy);
+
+    // Take a queued job and its lease; 0 when another worker got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING, j.owner = :owner, j.attempts = j.attempts + 1, j.startedAt = COALESCE(j.startedAt, :now), j.updatedAt = :now WHERE j.jobId = :jobId AND j.status = com.logiflow.server.models.OrderImportJob$Status.QUEUED")
+    int claim(@Param("jobId") Long jobId, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Heartbeat of the jobs this instance is running
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.updatedAt = :now WHERE j.jobId IN :jobIds AND j.owner = :owner AND j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING")
+    int renewLeases(@Param("jobIds") Collection<Long> jobIds, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Jobs this instance was running when it stopped go back to the queue and resume after their last committed row
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.status = com.logiflow.server.models.OrderImportJob$Status.QUEUED, j.owner = NULL WHERE j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING AND j.owner = :owner")
+    int requeueOwned(@Param("owner") String owner);
+
+    // Jobs whose owner stopped renewing the lease (a crashed or stopped instance) go back to the queue
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.status = com.logiflow.server.models.OrderImportJob$Status.QUEUED, j.owner = NULL WHERE j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING AND (j.updatedAt IS NULL OR j.updatedAt < :staleBefore)")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore);
+
+    // Joins the chunk transaction of the import, so it commits together with the inserted orders; 0 when the
+    // lease was lost, and the chunk must then be rolled back
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.lastCommittedRow = :lastRow, j.rowsParsed = :parsed, j.rowsValidated = :validated, j.rowsInserted = :inserted, j.rowsFailed = :failed, j.updatedAt = :now WHERE j.jobId = :jobId AND j.owner = :owner AND j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING")
+    int updateProgress(@Param("jobId") Long jobId, @Param("owner") String owner, @Param("lastRow") int lastRow,
+                       @Param("parsed") int parsed, @Param("validated") int validated, @Param("inserted") int inserted,
+                       @Param("failed") int failed, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderImportJob j SET j.status = :status, j.owner = NULL, j.message = :message, j.finishedAt = :now, j.updatedAt = :now WHERE j.jobId = :jobId AND j.owner = :owner AND j.status = com.logiflow.server.models.OrderImportJob$Status.RUNNING")
+    int finish(@Param("jobId") Long jobId, @Param("owner") String owner, @Param("status") OrderImportJob.Status status,
+               @Param("message") String message, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package com.logiflow.server.repositories.trip;
+
+/**
+ * Route waypoints of an active trip (used to resolve the live ETA destination).
+ */
+public interface ActiveTripRoute {
+    Integer getTripId();
+    String getWaypoints();
+}
@@ -45,6 +45,10 @@ public interface TripRepository extends JpaRepository<Trip, Integer> {
     @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.vehicle LEFT JOIN FETCH t.route")
     List<Trip> findAllWithRelations();
 
+    // Waypoints of trips in the given statuses (live ETA destination refresh)
+    @Query("SELECT t.tripId AS tripId, r.waypoints AS waypoints FROM Trip t JOIN t.route r WHERE LOWER(t.status) IN :statuses")
+    List<ActiveTripRoute> findRoutesByStatuses(@Param("statuses") List<String> statuses);
+
     @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.vehicle LEFT JOIN FETCH t.route LEFT JOIN FETCH t.orders WHERE t.status = 'completed'")
     List<Trip> findCompletedTripsWithOrders();
 
@@ -0,0 +1,12 @@
+package com.logiflow.server.repositories.trip_assignment;
+
+/**
+ * Current trip of a driver as shown on the live fleet map.
+ */
+public interface ActiveAssignmentRow {
+    Integer getDriverId();
+    Integer getTripId();
+    String getTripStatus();
+    String getVehiclePlate();
+    String getRouteName();
+}
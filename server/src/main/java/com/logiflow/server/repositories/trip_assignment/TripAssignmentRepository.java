@@ -9,6 +9,8 @@ import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Repository
 public interface TripAssignmentRepository extends JpaRepository<TripAssignment, Integer> {
 
@@ -25,4 +27,17 @@ public interface TripAssignmentRepository extends JpaRepository<TripAssignment,
 
     @Query("SELECT COUNT(ta) FROM TripAssignment ta WHERE ta.driver.driverId = :driverId AND ta.status IN ('assigned', 'accepted', 'in_progress')")
     Long countActiveAssignmentsByDriverId(@Param("driverId") Integer driverId);
+
+    @Query("SELECT ta.driver.driverId AS driverId, t.tripId AS tripId, t.status AS tripStatus, " +
+           "v.licensePlate AS vehiclePlate, r.routeName AS routeName " +
+           "FROM TripAssignment ta JOIN ta.trip t LEFT JOIN t.vehicle v LEFT JOIN t.route r " +
+           "WHERE ta.status IN ('assigned', 'accepted', 'in_progress') AND LOWER(t.status) IN :tripStatuses " +
+           "ORDER BY ta.assignedAt")
+    List<ActiveAssignmentRow> findActiveAssignmentRows(@Param("tripStatuses") List<String> tripStatuses);
+
+    // Drivers of trips in the given statuses (geofence and live ETA ignore GPS from anyone else)
+    @Query("SELECT t.tripId AS tripId, ta.driver.driverId AS driverId " +
+           "FROM TripAssignment ta JOIN ta.trip t " +
+           "WHERE ta.status IN ('assigned', 'accepted', 'in_progress') AND LOWER(t.status) IN :tripStatuses")
+    List<TripDriverRow> findTripDriversByTripStatuses(@Param("tripStatuses") List<String> tripStatuses);
 }
@@ -0,0 +1,23 @@
+package com.logiflow.server.repositories.trip_assignment;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A driver assigned to an active trip (tracking only trusts the GPS of a trip's own drivers).
+ */
+public interface TripDriverRow {
+    Integer getTripId();
+    Integer getDriverId();
+
+    static Map<Integer, Set<Integer>> byTrip(List<TripDriverRow> rows) {
+        Map<Integer, Set<Integer>> drivers = new HashMap<>();
+        for (TripDriverRow row : rows) {
+            drivers.computeIfAbsent(row.getTripId(), k -> new HashSet<>()).add(row.getDriverId());
+        }
+        return drivers;
+    }
+}
@@ -0,0 +1,24 @@
+package com.logiflow.server.repositories.user;
+
+import com.logiflow.server.models.RevokedSubject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedSubjectRepository extends JpaRepository<RevokedSubject, String> {
+
+    @Query("SELECT r.username AS username, r.validAfter AS tokensValidAfter FROM RevokedSubject r WHERE r.validAfter > :since")
+    List<TokenCutoffRow> findCutoffsSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedSubject r WHERE r.validAfter <= :before")
+    int deleteValidAfterBefore(@Param("before") LocalDateTime before);
+}
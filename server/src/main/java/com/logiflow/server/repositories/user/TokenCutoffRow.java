@@ -0,0 +1,11 @@
+package com.logiflow.server.repositories.user;
+
+import java.time.LocalDateTime;
+
+/**
+ * Username and the instant before which its JWTs are no longer accepted.
+ */
+public interface TokenCutoffRow {
+    String getUsername();
+    LocalDateTime getTokensValidAfter();
+}
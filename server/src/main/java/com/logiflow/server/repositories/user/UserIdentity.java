@@ -0,0 +1,13 @@
+package com.logiflow.server.repositories.user;
+
+/**
+ * Numeric identity of an account, resolved once per WebSocket session and cached by IdentityDirectory.
+ * driverId/customerId are null for accounts without a driver/customer profile.
+ */
+public interface UserIdentity {
+    Integer getUserId();
+    String getUsername();
+    Boolean getIsActive();
+    Integer getDriverId();
+    Integer getCustomerId();
+}
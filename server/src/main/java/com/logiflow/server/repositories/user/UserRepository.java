@@ -2,12 +2,15 @@ package com.logiflow.server.repositories.user;
 
 import com.logiflow.server.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,34 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.role WHERE u.userId = :userId")
     Optional<User> findByIdWithRole(@Param("userId") Integer userId);
 
+    String IDENTITY_SELECT = "SELECT u.userId AS userId, u.username AS username, u.isActive AS isActive, " +
+            "d.driverId AS driverId, c.customerId AS customerId " +
+            "FROM User u LEFT JOIN Driver d ON d.user = u LEFT JOIN Customer c ON c.user = u ";
+
+    @Query(IDENTITY_SELECT + "WHERE u.username = :username")
+    Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+
+    @Query(IDENTITY_SELECT + "WHERE u.userId = :userId")
+    Optional<UserIdentity> findIdentityById(@Param("userId") Integer userId);
+
+    @Query(IDENTITY_SELECT + "WHERE d.driverId = :driverId")
+    Optional<UserIdentity> findIdentityByDriverId(@Param("driverId") Integer driverId);
+
+    @Query(IDENTITY_SELECT + "WHERE c.customerId = :customerId")
+    Optional<UserIdentity> findIdentityByCustomerId(@Param("customerId") Integer customerId);
+
+    @Query(IDENTITY_SELECT + "WHERE d.driverId IN :driverIds")
+    List<UserIdentity> findIdentitiesByDriverIds(@Param("driverIds") Collection<Integer> driverIds);
+
+    @Query(IDENTITY_SELECT + "WHERE u.userId IN :userIds")
+    List<UserIdentity> findIdentitiesByIds(@Param("userIds") Collection<Integer> userIds);
+
+    @Query("SELECT u.userId AS userId, u.username AS username, r.roleName AS roleName FROM User u LEFT JOIN u.role r WHERE u.userId = :userId")
+    Optional<UserRoleRow> findRoleRowById(@Param("userId") Integer userId);
+
+    @Query("SELECT u.userId AS userId, u.username AS username, r.roleName AS roleName FROM User u LEFT JOIN u.role r WHERE u.username = :username")
+    Optional<UserRoleRow> findRoleRowByUsername(@Param("username") String username);
+
     int countByRole_RoleIdAndIsActive(Integer roleId, boolean isActive);
     
     int countByIsActive(boolean isActive);
@@ -50,6 +81,19 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT DISTINCT u FROM User u JOIN FETCH u.role ORDER BY u.username")
     List<User> findAllUsersWithRole();
 
+    // Token revocation state, see TokenRevocationRegistry
+    @Query("SELECT u.username FROM User u WHERE u.isActive = false")
+    List<String> findInactiveUsernames();
+
+    @Query("SELECT u.username AS username, u.tokensValidAfter AS tokensValidAfter FROM User u WHERE u.tokensValidAfter > :since")
+    List<TokenCutoffRow> findTokenCutoffsSince(@Param("since") LocalDateTime since);
+
+    // Re-encoded hash of an unchanged password (algorithm/work factor upgrade on login); tokens stay valid
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.username = :username")
+    int updatePasswordHash(@Param("username") String username, @Param("passwordHash") String passwordHash);
+
     // Count how many users reference the given profile picture URL
     int countByProfilePictureUrl(String profilePictureUrl);
 }
@@ -0,0 +1,10 @@
+package com.logiflow.server.repositories.user;
+
+/**
+ * Username and role name of a user, without loading the entity.
+ */
+public interface UserRoleRow {
+    Integer getUserId();
+    String getUsername();
+    String getRoleName();
+}
@@ -12,6 +12,7 @@ import com.logiflow.server.repositories.order.OrderRepository;
 import com.logiflow.server.repositories.driver.DriverRepository;
 import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
 import com.logiflow.server.repositories.payment.PaymentRepository;
+import com.logiflow.server.services.tracking.LiveFleetService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.PageRequest;
@@ -39,6 +40,7 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     private final TripAssignmentRepository tripAssignmentRepository;
     private final com.logiflow.server.repositories.trip.TripRepository tripRepository;
     private final PaymentRepository paymentRepository;
+    private final LiveFleetService liveFleetService;
 
     public AdminDashboardServiceImpl(UserRepository userRepository,
                                     RoleRepository roleRepository,
@@ -47,7 +49,8 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
                                     DriverRepository driverRepository,
                                     TripAssignmentRepository tripAssignmentRepository,
                                     com.logiflow.server.repositories.trip.TripRepository tripRepository,
-                                    PaymentRepository paymentRepository) {
+                                    PaymentRepository paymentRepository,
+                                    LiveFleetService liveFleetService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.vehicleRepository = vehicleRepository;
@@ -56,6 +59,7 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
         this.tripAssignmentRepository = tripAssignmentRepository;
         this.tripRepository = tripRepository;
         this.paymentRepository = paymentRepository;
+        this.liveFleetService = liveFleetService;
     }
 
     @Override
@@ -267,23 +271,9 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
 
 
     @Override
-    @Transactional(readOnly = true)
     public List<ActiveDriverLocationDto> getActiveDriverLocations() {
-        // Get all drivers with current location data
-        return driverRepository.findAll().stream()
-            .filter(driver -> driver.getCurrentLocationLat() != null && driver.getCurrentLocationLng() != null)
-            .map(driver -> ActiveDriverLocationDto.of(
-                driver.getDriverId(),
-                driver.getUser().getFullName(),
-                driver.getUser().getPhone(),
-                null, // tripId - not needed
-                "active", // tripStatus - simplified
-                driver.getCurrentLocationLat(),
-                driver.getCurrentLocationLng(),
-                null, // vehiclePlate - not needed
-                null  // routeName - not needed
-            ))
-            .collect(Collectors.toList());
+        // Served from the in-memory fleet snapshot (fed by GPS ingest and trip status changes)
+        return liveFleetService.snapshot().getDrivers();
     }
 
     // Helper methods for calculations
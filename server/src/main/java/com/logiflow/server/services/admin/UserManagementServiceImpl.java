@@ -7,6 +7,9 @@ import com.logiflow.server.repositories.customer.CustomerRepository;
 import com.logiflow.server.repositories.driver.DriverRepository;
 import com.logiflow.server.repositories.role.RoleRepository;
 import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
+import com.logiflow.server.services.user.IdentityDirectory;
+import com.logiflow.server.websocket.SessionIdentityRegistry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +17,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -31,6 +35,9 @@ public class UserManagementServiceImpl implements UserManagementService {
     private final PasswordEncoder passwordEncoder;
     private final AuditLogService auditLogService;
     private final com.logiflow.server.services.file.FileStorageService fileStorageService;
+    private final SessionIdentityRegistry sessionIdentityRegistry;
+    private final IdentityDirectory identityDirectory;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     public UserManagementServiceImpl(
             UserRepository userRepository,
@@ -39,7 +46,10 @@ public class UserManagementServiceImpl implements UserManagementService {
             DriverRepository driverRepository,
             PasswordEncoder passwordEncoder,
             AuditLogService auditLogService,
-            com.logiflow.server.services.file.FileStorageService fileStorageService) {
+            com.logiflow.server.services.file.FileStorageService fileStorageService,
+            SessionIdentityRegistry sessionIdentityRegistry,
+            IdentityDirectory identityDirectory,
+            TokenRevocationRegistry tokenRevocationRegistry) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.customerRepository = customerRepository;
@@ -47,6 +57,9 @@ public class UserManagementServiceImpl implements UserManagementService {
         this.passwordEncoder = passwordEncoder;
         this.auditLogService = auditLogService;
         this.fileStorageService = fileStorageService;
+        this.sessionIdentityRegistry = sessionIdentityRegistry;
+        this.identityDirectory = identityDirectory;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     @Override
@@ -101,6 +114,8 @@ public class UserManagementServiceImpl implements UserManagementService {
             throw new RuntimeException("Email already exists");
         }
 
+        String oldUsername = user.getUsername();
+        boolean wasActive = Boolean.TRUE.equals(user.getIsActive());
         user.setUsername(userUpdateDto.getUsername());
         user.setEmail(userUpdateDto.getEmail());
         
@@ -128,9 +143,28 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         if (userUpdateDto.getIsActive() != null) {
             user.setIsActive(userUpdateDto.getIsActive());
+            if (!userUpdateDto.getIsActive()) {
+                sessionIdentityRegistry.invalidateUser(user.getUserId());
+            }
+        }
+        boolean nowActive = Boolean.TRUE.equals(user.getIsActive());
+        LocalDateTime now = LocalDateTime.now();
+        if (wasActive && !nowActive) {
+            user.setTokensValidAfter(now);
         }
 
         User savedUser = userRepository.save(user);
+        // Username, role or active flag may have changed
+        identityDirectory.invalidate(savedUser.getUserId());
+        if (!oldUsername.equals(savedUser.getUsername())) {
+            // Tokens carry the username as subject; the old name's tokens must not outlive the rename
+            tokenRevocationRegistry.subjectRenamed(oldUsername, now);
+        }
+        if (wasActive && !nowActive) {
+            tokenRevocationRegistry.accountDisabled(savedUser.getUsername(), now);
+        } else if (!wasActive && nowActive) {
+            tokenRevocationRegistry.accountEnabled(savedUser.getUsername());
+        }
 
         // If profile picture changed and old was only referenced by this user, delete file
         try {
@@ -161,7 +195,19 @@ public class UserManagementServiceImpl implements UserManagementService {
             .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setIsActive(!user.getIsActive());
+        LocalDateTime now = LocalDateTime.now();
+        if (!user.getIsActive()) {
+            user.setTokensValidAfter(now);
+        }
         User savedUser = userRepository.save(user);
+        identityDirectory.invalidate(savedUser.getUserId());
+        if (!savedUser.getIsActive()) {
+            // Reject the user's outstanding JWTs and drop identities cached by open WebSocket sessions
+            tokenRevocationRegistry.accountDisabled(savedUser.getUsername(), now);
+            sessionIdentityRegistry.invalidateUser(savedUser.getUserId());
+        } else {
+            tokenRevocationRegistry.accountEnabled(savedUser.getUsername());
+        }
 
         auditLogService.log(
             AuditActions.TOGGLE_USER_STATUS,
@@ -16,8 +16,6 @@ import com.logiflow.server.services.admin.AuditLogService;
 import com.logiflow.server.utils.JwtUtils;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -58,14 +56,13 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public AuthResponse login(LoginRequest loginRequest) {
-        // Proceed with normal authentication
-        Authentication authentication = authenticationManager.authenticate(
+        // Runs on a LoginExecutor thread: verify the password, but do not touch that thread's SecurityContext
+        authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
         );
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        User user = userRepository.findByUsername(loginRequest.getUsername()).orElseThrow();
+        // No open session on this thread either, so the role is fetched with the user rather than lazily
+        User user = userRepository.findByUsernameWithRole(loginRequest.getUsername()).orElseThrow();
         user.setLastLogin(LocalDateTime.now());
         userRepository.save(user);
 
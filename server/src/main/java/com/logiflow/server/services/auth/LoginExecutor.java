@@ -0,0 +1,155 @@
+package com.logiflow.server.services.auth;
+
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.utils.LatencyHistogram;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs logins (and with them the BCrypt verification) on a small dedicated pool instead of Tomcat threads.
+ *
+ * The pool and its queue are bounded: when the queue is full, or a login has waited longer than the
+ * queue-time limit by the time a worker picks it up (the client has most likely given up), the login fails
+ * fast with {@link ServiceBusyException} rather than burning a hash on it. A login storm at shift change
+ * therefore costs at most {@code threads} cores, and the request threads serving GPS and dispatch traffic
+ * stay free while logins wait.
+ */
+@Component
+public class LoginExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(LoginExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long maxQueueWaitNanos;
+    private final int retryAfterSeconds;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedQueueTime = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram processing = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    // Completions per second over the last minute, indexed by epoch second % 60
+    private final AtomicLongArray completedPerSecond = new AtomicLongArray(60);
+    private final AtomicLongArray slotSecond = new AtomicLongArray(60);
+
+    public LoginExecutor(@Value("${app.auth.login.threads:0}") int threads,
+                         @Value("${app.auth.login.queue-capacity:200}") int queueCapacity,
+                         @Value("${app.auth.login.max-queue-wait-ms:5000}") long maxQueueWaitMs,
+                         @Value("${app.auth.login.retry-after-seconds:2}") int retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = queueCapacity;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "login-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Login executor started: threads={}, queueCapacity={}, maxQueueWaitMs={}",
+                poolSize, queueCapacity, maxQueueWaitMs);
+    }
+
+    /**
+     * Queue a login. The future fails with {@link ServiceBusyException} when the pool is saturated, or
+     * with whatever the login itself threw.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> login) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(login, enqueuedAt, result));
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            result.completeExceptionally(busy());
+        }
+        return result;
+    }
+
+    private <T> void run(Supplier<T> login, long enqueuedAt, CompletableFuture<T> result) {
+        long startedAt = System.nanoTime();
+        queueWait.record((startedAt - enqueuedAt) / 1_000_000);
+        if (startedAt - enqueuedAt > maxQueueWaitNanos) {
+            rejectedQueueTime.increment();
+            result.completeExceptionally(busy());
+            return;
+        }
+        try {
+            T value = login.get();
+            succeeded.increment();
+            result.complete(value);
+        } catch (Throwable t) {
+            failed.increment();
+            result.completeExceptionally(t);
+        } finally {
+            long now = System.nanoTime();
+            processing.record((now - startedAt) / 1_000_000);
+            total.record((now - enqueuedAt) / 1_000_000);
+            countCompletion();
+        }
+    }
+
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Login service is busy, please retry shortly", retryAfterSeconds);
+    }
+
+    private void countCompletion() {
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % 60);
+        long previous = slotSecond.get(slot);
+        if (previous != second && slotSecond.compareAndSet(slot, previous, second)) {
+            completedPerSecond.set(slot, 0);
+        }
+        completedPerSecond.incrementAndGet(slot);
+    }
+
+    private long completedLastMinute() {
+        long now = System.currentTimeMillis() / 1000;
+        long sum = 0;
+        for (int i = 0; i < 60; i++) {
+            if (now - slotSecond.get(i) < 60) sum += completedPerSecond.get(i);
+        }
+        return sum;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejectedQueueFull", rejectedQueueFull.sum());
+        stats.put("rejectedQueueTime", rejectedQueueTime.sum());
+        stats.put("completedLastMinute", completedLastMinute());
+        stats.put("queueWait", queueWait.summary());
+        stats.put("processing", processing.summary());
+        stats.put("total", total.summary());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,200 @@
+package com.logiflow.server.services.auth;
+
+import com.logiflow.server.models.RevokedSubject;
+import com.logiflow.server.repositories.user.RevokedSubjectRepository;
+import com.logiflow.server.repositories.user.TokenCutoffRow;
+import com.logiflow.server.repositories.user.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory account status and token cut-offs, consulted by the JWT filter on every request.
+ *
+ * A token is rejected when its subject is a disabled account, or when it was issued before the subject's
+ * cut-off (set on password change and deactivation, and persisted as {@code users.tokens_valid_after}; the
+ * old name of a renamed account keeps its cut-off in {@code revoked_subjects}).
+ * Lookups are two hash reads; writes come from the user management and profile services once their
+ * transaction commits, and the whole state is reloaded from the database at startup and periodically, so
+ * changes made directly in the database (or by another instance) are picked up within the reconcile interval.
+ */
+@Component
+public class TokenRevocationRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final UserRepository userRepository;
+    private final RevokedSubjectRepository revokedSubjectRepository;
+    private final long tokenLifetimeMs;
+
+    private final Set<String> disabled = ConcurrentHashMap.newKeySet();
+    // Username -> epoch second; tokens with an earlier iat are revoked
+    private final Map<String, Long> validAfterSec = new ConcurrentHashMap<>();
+
+    // Writers (local changes and the apply phase of reconcile) hold this lock; readers never do
+    private final Object lock = new Object();
+    private long changeSeq;
+    private final Map<String, Long> lastLocalChange = new HashMap<>();
+
+    public TokenRevocationRegistry(UserRepository userRepository,
+                                   RevokedSubjectRepository revokedSubjectRepository,
+                                   @Value("${app.jwt.expiration-ms}") long tokenLifetimeMs) {
+        this.userRepository = userRepository;
+        this.revokedSubjectRepository = revokedSubjectRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    /**
+     * Whether a token that passed signature and expiry checks must still be refused.
+     */
+    public boolean isRevoked(String username, long issuedAtMs) {
+        if (disabled.contains(username)) return true;
+        Long cutoff = validAfterSec.get(username);
+        // JWT iat has second precision
+        return cutoff != null && issuedAtMs / 1000 < cutoff;
+    }
+
+    /**
+     * Revoke every token of the user issued up to {@code at} (password change).
+     */
+    public void revokeIssuedBefore(String username, LocalDateTime at) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                raiseCutoff(username, toCutoffSec(at));
+                touch(username);
+            }
+        });
+    }
+
+    /**
+     * The account moved away from {@code oldUsername}: revoke every token issued for that name up to {@code at}.
+     * The user row now carries the new name, so the cut-off is stored in revoked_subjects, in the caller's
+     * transaction, where reconcile finds it after a restart and on other instances.
+     */
+    public void subjectRenamed(String oldUsername, LocalDateTime at) {
+        RevokedSubject revoked = revokedSubjectRepository.findById(oldUsername).orElseGet(RevokedSubject::new);
+        revoked.setUsername(oldUsername);
+        if (revoked.getValidAfter() == null || revoked.getValidAfter().isBefore(at)) {
+            revoked.setValidAfter(at);
+        }
+        revokedSubjectRepository.save(revoked);
+        revokeIssuedBefore(oldUsername, at);
+    }
+
+    /**
+     * Earliest issue time a token may carry and still pass a cut-off set at {@code at}; a token issued for the
+     * same user right after {@link #revokeIssuedBefore} (e.g. the caller's new token after a password change)
+     * must use it, since the cut-off is rounded up to the next whole second.
+     */
+    public static Instant firstValidIssuedAt(LocalDateTime at) {
+        return Instant.ofEpochSecond(toCutoffSec(at));
+    }
+
+    public void accountDisabled(String username, LocalDateTime at) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                disabled.add(username);
+                raiseCutoff(username, toCutoffSec(at));
+                touch(username);
+            }
+        });
+    }
+
+    public void accountEnabled(String username) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                disabled.remove(username);
+                touch(username);
+            }
+        });
+    }
+
+    @PostConstruct
+    void load() {
+        reconcile();
+    }
+
+    /**
+     * Reload disabled accounts and live cut-offs. Users changed locally while the queries ran keep
+     * their local state; the next run sees the committed rows.
+     */
+    @Scheduled(initialDelayString = "${app.auth.revocation.reconcile-ms:300000}",
+               fixedDelayString = "${app.auth.revocation.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            long started;
+            synchronized (lock) {
+                started = changeSeq;
+            }
+            // Cut-offs older than the token lifetime cannot affect any token that is still unexpired
+            long horizonMs = System.currentTimeMillis() - tokenLifetimeMs;
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(horizonMs), ZoneId.systemDefault());
+            Set<String> dbDisabled = new HashSet<>(userRepository.findInactiveUsernames());
+            List<TokenCutoffRow> cutoffs = new ArrayList<>(userRepository.findTokenCutoffsSince(since));
+            cutoffs.addAll(revokedSubjectRepository.findCutoffsSince(since));
+
+            synchronized (lock) {
+                disabled.removeIf(username -> !dbDisabled.contains(username) && !changedSince(username, started));
+                for (String username : dbDisabled) {
+                    if (!changedSince(username, started)) disabled.add(username);
+                }
+                for (TokenCutoffRow row : cutoffs) {
+                    raiseCutoff(row.getUsername(), toCutoffSec(row.getTokensValidAfter()));
+                }
+                validAfterSec.values().removeIf(sec -> sec * 1000 <= horizonMs);
+                lastLocalChange.values().removeIf(seq -> seq <= started);
+            }
+            revokedSubjectRepository.deleteValidAfterBefore(since);
+            logger.debug("Token revocation state reconciled: disabled={}, cutoffs={}", disabled.size(), validAfterSec.size());
+        } catch (Exception e) {
+            logger.error("Failed to reconcile token revocation state: {}", e.getMessage());
+        }
+    }
+
+    private void raiseCutoff(String username, long sec) {
+        validAfterSec.merge(username, sec, Math::max);
+    }
+
+    private void touch(String username) {
+        lastLocalChange.put(username, ++changeSeq);
+    }
+
+    private boolean changedSince(String username, long seq) {
+        Long last = lastLocalChange.get(username);
+        return last != null && last > seq;
+    }
+
+    // Rounded up: a token issued in the same second as the change is revoked too
+    private static long toCutoffSec(LocalDateTime at) {
+        long ms = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.floorDiv(ms + 999, 1000);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.logiflow.server.services.customer;
 
 import com.logiflow.server.dtos.customer.CustomerDtos.*;
+import com.logiflow.server.dtos.notification.NotificationFeedResponse;
 import com.logiflow.server.models.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -23,7 +25,8 @@ public interface CustomerService {
     List<OrderHistoryDto> getOrderHistory(String customerUsername);
 
     // Notifications
-    List<Map<String, Object>> getNotifications(String customerUsername);
+    NotificationFeedResponse<Map<String, Object>> getNotifications(String customerUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size);
+    List<Map<String, Object>> getArchivedNotifications(String customerUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size);
     void markAllNotificationsAsRead(String customerUsername);
 
     // Performance analytics
@@ -1,6 +1,7 @@
 package com.logiflow.server.services.customer;
 
 import com.logiflow.server.dtos.customer.CustomerDtos.*;
+import com.logiflow.server.dtos.notification.NotificationFeedResponse;
 import com.logiflow.server.dtos.maps.DistanceResultDto;
 import com.logiflow.server.models.*;
 import com.logiflow.server.repositories.customer.CustomerRepository;
@@ -8,7 +9,11 @@ import com.logiflow.server.repositories.notification.NotificationRepository;
 import com.logiflow.server.repositories.order.OrderRepository;
 import com.logiflow.server.repositories.user.UserRepository;
 import com.logiflow.server.services.maps.MapsService;
+import com.logiflow.server.services.notification.NotificationArchiveService;
+import com.logiflow.server.services.tracking.LiveEtaService;
+import com.logiflow.server.services.user.IdentityDirectory;
 import com.logiflow.server.websocket.NotificationService;
+import com.logiflow.server.websocket.UnreadNotificationCounters;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +25,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,31 +39,40 @@ public class CustomerServiceImpl implements CustomerService {
     private final NotificationRepository notificationRepository;
     private final MapsService mapsService;
     private final NotificationService notificationService;
+    private final LiveEtaService liveEtaService;
+    private final UnreadNotificationCounters unreadCounters;
+    private final NotificationArchiveService notificationArchiveService;
+    private final IdentityDirectory identityDirectory;
 
     public CustomerServiceImpl(UserRepository userRepository,
                              CustomerRepository customerRepository,
                              OrderRepository orderRepository,
                              NotificationRepository notificationRepository,
                              MapsService mapsService,
-                             NotificationService notificationService) {
+                             NotificationService notificationService,
+                             LiveEtaService liveEtaService,
+                             UnreadNotificationCounters unreadCounters,
+                             NotificationArchiveService notificationArchiveService,
+                             IdentityDirectory identityDirectory) {
         this.userRepository = userRepository;
         this.customerRepository = customerRepository;
         this.orderRepository = orderRepository;
         this.notificationRepository = notificationRepository;
         this.mapsService = mapsService;
         this.notificationService = notificationService;
+        this.liveEtaService = liveEtaService;
+        this.unreadCounters = unreadCounters;
+        this.notificationArchiveService = notificationArchiveService;
+        this.identityDirectory = identityDirectory;
     }
 
     @Override
     public User getCurrentCustomer(String authName) {
-        Optional<User> userOpt;
-        try {
-            Integer id = Integer.parseInt(authName);
-            userOpt = userRepository.findById(id);
-        } catch (NumberFormatException ex) {
-            userOpt = userRepository.findByUsername(authName);
-        }
-        return userOpt.orElseThrow(() -> new RuntimeException("Customer not found"));
+        // Resolved from the identity cache; the returned User is a lazy reference loaded only if a caller reads its fields
+        Integer userId = identityDirectory.byAuthName(authName)
+                .map(IdentityDirectory.Identity::userId)
+                .orElseThrow(() -> new RuntimeException("Customer not found"));
+        return userRepository.getReferenceById(userId);
     }
 
     @Override
@@ -165,6 +178,11 @@ public class CustomerServiceImpl implements CustomerService {
             response.setTripStatus(trip.getStatus());
             response.setEstimatedPickupTime(trip.getScheduledDeparture());
             response.setEstimatedDeliveryTime(trip.getScheduledArrival());
+            // ETA of this order's own delivery stop, not of the trip's final stop
+            var liveEta = liveEtaService.getStopEta(trip.getTripId(), order.getOrderId(), "delivery");
+            if (liveEta != null) {
+                response.setLiveEstimatedDeliveryTime(liveEta.getEstimatedArrival());
+            }
             response.setActualPickupTime(trip.getActualDeparture());
             response.setActualDeliveryTime(trip.getActualArrival());
 
@@ -578,14 +596,28 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public List<Map<String, Object>> getNotifications(String customerUsername) {
-        List<Notification> notifications = notificationRepository.findAllForCustomer(customerUsername);
-        return notifications.stream()
+    public NotificationFeedResponse<Map<String, Object>> getNotifications(String customerUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        List<Notification> notifications = notificationRepository.findUserFeedWithLookahead(customerUsername, beforeCreatedAt, beforeId, size);
+        return NotificationFeedResponse.of(notifications, size, notification -> {
+            Map<String, Object> map = new java.util.HashMap<>();
+            map.put("notificationId", notification.getNotificationId());
+            map.put("message", notification.getMessage());
+            map.put("type", notification.getNotificationType().toString());
+            map.put("createdAt", notification.getCreatedAt().toString());
+            map.put("relatedEntityId", notification.getRelatedEntityId());
+            map.put("isRead", notification.getIsRead());
+            return map;
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> getArchivedNotifications(String customerUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        return notificationArchiveService.findArchived(customerUsername, beforeCreatedAt, beforeId, size).stream()
                 .map(notification -> {
                     Map<String, Object> map = new java.util.HashMap<>();
                     map.put("notificationId", notification.getNotificationId());
                     map.put("message", notification.getMessage());
-                    map.put("type", notification.getNotificationType().toString());
+                    map.put("type", notification.getNotificationType());
                     map.put("createdAt", notification.getCreatedAt().toString());
                     map.put("relatedEntityId", notification.getRelatedEntityId());
                     map.put("isRead", notification.getIsRead());
@@ -596,6 +628,8 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     public void markAllNotificationsAsRead(String customerUsername) {
-        notificationRepository.markAllAsReadForCustomer(customerUsername);
+        if (notificationRepository.markAllAsReadForCustomer(customerUsername) > 0) {
+            unreadCounters.onUserReadAll(customerUsername);
+        }
     }
 }
@@ -0,0 +1,327 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.configs.IdSequences;
+import com.logiflow.server.dtos.dispatch.OrderCreateRequest;
+import com.logiflow.server.dtos.dispatch.OrderDto;
+import com.logiflow.server.dtos.dispatch.OrderImportResponse;
+import com.logiflow.server.models.Order;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.services.events.DomainEvent;
+import com.logiflow.server.services.events.DomainEventBus;
+import com.logiflow.server.utils.OrderFileParser;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming order import: rows are parsed one at a time, validated and priced by the caller's
+ * {@link RowPreparer}, and inserted in chunks with one JDBC batch and one transaction per chunk.
+ *
+ * Only the current chunk, the first few errors and the first few created order ids are kept, so memory
+ * does not grow with the file. A chunk that fails as a whole (e.g. a value too long for its column) is
+ * retried row by row, so only the offending rows are reported. Every committed chunk publishes one
+ * {@link DomainEvent.OrdersImported} instead of a notification per order.
+ *
+ * Background import jobs pass a {@link ProgressListener}: it is called inside each chunk's transaction with
+ * the last row number covered, so a job can record its progress atomically with the rows and later resume
+ * after that row without inserting anything twice.
+ */
+@Component
+public class OrderImportEngine {
+    private static final Logger log = LoggerFactory.getLogger(OrderImportEngine.class);
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (order_id, trip_id, customer_name, customer_phone, "
+            + "pickup_address, pickup_type, container_number, terminal_name, warehouse_name, dock_number, "
+            + "delivery_address, package_details, distance_km, weight_tons, package_value, shipping_fee, "
+            + "created_by, priority_level, order_status, created_at, payment_status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ORDER_SEQUENCE = "orders_seq";
+
+    /**
+     * Turns a parsed row into an order ready to insert, or throws with a message for the import report.
+     */
+    @FunctionalInterface
+    public interface RowPreparer {
+        Order prepare(int rowNumber, OrderCreateRequest request);
+    }
+
+    /** Running totals of an import; a resumed run continues from the totals of its last commit. */
+    public record Progress(int rowsParsed, int rowsValidated, int rowsInserted, int rowsFailed) {
+        public static final Progress NONE = new Progress(0, 0, 0, 0);
+    }
+
+    public record RowError(int rowNumber, String message) {
+    }
+
+    public interface ProgressListener {
+        /**
+         * Called inside the transaction that commits every row up to {@code lastRowNumber}: the inserted
+         * orders plus the rows rejected since the previous call. Throwing rolls that work back and stops the run.
+         */
+        void committed(int lastRowNumber, Progress progress, List<RowError> newErrors);
+
+        /** The file could not be read to the end; rows committed before stay committed. */
+        default void fileUnreadable(String message) {
+        }
+    }
+
+    private static final ProgressListener NO_LISTENER = (lastRowNumber, progress, newErrors) -> {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderRepository orderRepository;
+    private final DomainEventBus domainEventBus;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int maxReturnedOrders;
+
+    public OrderImportEngine(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             OrderRepository orderRepository,
+                             DomainEventBus domainEventBus,
+                             @Value("${app.orders.import.chunk-size:500}") int chunkSize,
+                             @Value("${app.orders.import.max-reported-errors:1000}") int maxReportedErrors,
+                             @Value("${app.orders.import.max-returned-orders:100}") int maxReturnedOrders) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderRepository = orderRepository;
+        this.domainEventBus = domainEventBus;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxReturnedOrders = maxReturnedOrders;
+    }
+
+    /**
+     * Import a CSV or .xlsx file. Chunks committed before a parse error stay committed; the error is
+     * reported with the counts so far.
+     */
+    public OrderImportResponse run(InputStream inputStream, String fileExtension, String importedBy, RowPreparer preparer) {
+        return run(inputStream, fileExtension, importedBy, preparer, 0, Progress.NONE, NO_LISTENER);
+    }
+
+    /**
+     * Import the rows after {@code resumeAfterRow}, continuing the totals of {@code progress}. Exceptions thrown
+     * by the listener, or by a commit that could not be retried row by row, end the run and propagate.
+     */
+    public OrderImportResponse run(InputStream inputStream, String fileExtension, String importedBy, RowPreparer preparer,
+                                   int resumeAfterRow, Progress progress, ProgressListener listener) {
+        Run run = new Run(importedBy, preparer, resumeAfterRow, progress, listener);
+        try (InputStream in = inputStream) {
+            if ("csv".equals(fileExtension)) {
+                OrderFileParser.readCSV(in, run::accept);
+            } else if ("xlsx".equals(fileExtension) || "xls".equals(fileExtension)) {
+                OrderFileParser.readExcel(in, run::accept);
+            } else {
+                throw new RuntimeException("Unsupported file format. Please use CSV or Excel (.xlsx, .xls)");
+            }
+        } catch (IOException | CsvValidationException e) {
+            run.error("Error parsing file: " + e.getMessage());
+            listener.fileUnreadable("Error parsing file: " + e.getMessage());
+        }
+        run.flush();
+        return run.toResponse();
+    }
+
+    private record PreparedRow(int rowNumber, Order order) {
+    }
+
+    // The inserts themselves failed, as opposed to the listener or the commit
+    private static final class BatchRejectedException extends RuntimeException {
+        private BatchRejectedException(RuntimeException cause) {
+            super(cause);
+        }
+    }
+
+    private final class Run {
+        private final String importedBy;
+        private final RowPreparer preparer;
+        private final int resumeAfterRow;
+        private final ProgressListener listener;
+        private final List<PreparedRow> chunk = new ArrayList<>(chunkSize);
+        // Rejected rows not yet handed to the listener
+        private final List<RowError> pendingErrors = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private final List<Integer> sampleOrderIds = new ArrayList<>();
+        private int lastRowNumber;
+        private int totalRows;
+        private int validRows;
+        private int successCount;
+        private int failureCount;
+
+        private Run(String importedBy, RowPreparer preparer, int resumeAfterRow, Progress progress,
+                    ProgressListener listener) {
+            this.importedBy = importedBy;
+            this.preparer = preparer;
+            this.resumeAfterRow = resumeAfterRow;
+            this.listener = listener;
+            this.lastRowNumber = resumeAfterRow;
+            this.totalRows = progress.rowsParsed();
+            this.validRows = progress.rowsValidated();
+            this.successCount = progress.rowsInserted();
+            this.failureCount = progress.rowsFailed();
+        }
+
+        private void accept(int rowNumber, OrderCreateRequest request) {
+            if (rowNumber <= resumeAfterRow) return;
+            lastRowNumber = rowNumber;
+            totalRows++;
+            try {
+                chunk.add(new PreparedRow(rowNumber, preparer.prepare(rowNumber, request)));
+                validRows++;
+            } catch (RuntimeException e) {
+                reject(rowNumber, e.getMessage());
+            }
+            // A file of invalid rows still commits its progress every chunk
+            if (chunk.size() >= chunkSize || pendingErrors.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty() && pendingErrors.isEmpty()) return;
+            try {
+                inserted(transactionTemplate.execute(status -> commit(chunk, lastRowNumber, pendingErrors)));
+                pendingErrors.clear();
+            } catch (BatchRejectedException batchError) {
+                log.warn("Order import chunk of {} rows failed, retrying individually: {}",
+                        chunk.size(), batchError.getCause().getMessage());
+                insertIndividually();
+            }
+            chunk.clear();
+        }
+
+        private void insertIndividually() {
+            for (PreparedRow row : chunk) {
+                // Each row commits its own progress, together with the rejections before it
+                List<RowError> before = pendingErrors.stream().filter(e -> e.rowNumber() < row.rowNumber()).toList();
+                try {
+                    inserted(transactionTemplate.execute(status -> commit(List.of(row), row.rowNumber(), before)));
+                    pendingErrors.removeAll(before);
+                } catch (BatchRejectedException e) {
+                    reject(row.rowNumber(), rootMessage(e));
+                }
+            }
+            List<PreparedRow> none = List.of();
+            transactionTemplate.executeWithoutResult(status -> commit(none, lastRowNumber, pendingErrors));
+            pendingErrors.clear();
+        }
+
+        private void inserted(List<Integer> ids) {
+            for (Integer id : ids) {
+                successCount++;
+                if (sampleOrderIds.size() < maxReturnedOrders) sampleOrderIds.add(id);
+            }
+        }
+
+        private List<Integer> commit(List<PreparedRow> rows, int upToRow, List<RowError> newErrors) {
+            List<Integer> ids;
+            try {
+                ids = rows.isEmpty() ? List.of() : insertBatch(rows);
+            } catch (RuntimeException e) {
+                throw new BatchRejectedException(e);
+            }
+            publishImported(rows, ids);
+            listener.committed(upToRow, new Progress(totalRows, validRows, successCount + ids.size(), failureCount),
+                    List.copyOf(newErrors));
+            return ids;
+        }
+
+        // Published inside the chunk transaction, so the bus dispatches it only once the rows are committed
+        private void publishImported(List<PreparedRow> rows, List<Integer> ids) {
+            if (ids.isEmpty()) return;
+            int urgent = 0;
+            for (PreparedRow row : rows) {
+                if (row.order().getPriorityLevel() == Order.PriorityLevel.URGENT) urgent++;
+            }
+            domainEventBus.publish(new DomainEvent.OrdersImported(
+                    importedBy, ids.size(), urgent, ids.get(0), ids.get(ids.size() - 1)));
+        }
+
+        private void reject(int rowNumber, String message) {
+            failureCount++;
+            pendingErrors.add(new RowError(rowNumber, message));
+            error("Row " + rowNumber + ": " + message);
+        }
+
+        private void error(String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(message);
+            } else if (errors.size() == maxReportedErrors) {
+                errors.add("Further errors omitted");
+            }
+        }
+
+        private OrderImportResponse toResponse() {
+            List<OrderDto> createdOrders = sampleOrderIds.isEmpty()
+                    ? new ArrayList<>()
+                    : orderRepository.findByIdsWithRelations(sampleOrderIds).stream().map(OrderDto::fromOrder).toList();
+            return new OrderImportResponse(totalRows, successCount, failureCount, createdOrders, errors);
+        }
+    }
+
+    // Ids come from the orders sequence up front (one round trip per chunk), so the batch needs no generated keys
+    private List<Integer> insertBatch(List<PreparedRow> rows) {
+        List<Integer> ids = new ArrayList<>(rows.size());
+        for (Long id : IdSequences.allocate(jdbcTemplate, ORDER_SEQUENCE, rows.size())) {
+            ids.add(id.intValue());
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, ids.get(i), rows.get(i).order());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        return ids;
+    }
+
+    private static void bind(PreparedStatement ps, int orderId, Order order) throws SQLException {
+        ps.setInt(1, orderId);
+        ps.setObject(2, order.getTrip() != null ? order.getTrip().getTripId() : null, Types.INTEGER);
+        ps.setString(3, order.getCustomerName());
+        ps.setString(4, order.getCustomerPhone());
+        ps.setString(5, order.getPickupAddress());
+        ps.setString(6, order.getPickupType() != null ? order.getPickupType().name() : null);
+        ps.setString(7, order.getContainerNumber());
+        ps.setString(8, order.getTerminalName());
+        ps.setString(9, order.getWarehouseName());
+        ps.setString(10, order.getDockNumber());
+        ps.setString(11, order.getDeliveryAddress());
+        ps.setString(12, order.getPackageDetails());
+        ps.setBigDecimal(13, order.getDistanceKm());
+        ps.setBigDecimal(14, order.getWeightTons());
+        ps.setBigDecimal(15, order.getPackageValue());
+        ps.setBigDecimal(16, order.getShippingFee());
+        ps.setObject(17, order.getCreatedBy() != null ? order.getCreatedBy().getUserId() : null, Types.INTEGER);
+        ps.setString(18, order.getPriorityLevel().name());
+        ps.setString(19, order.getOrderStatus().name());
+        ps.setTimestamp(20, Timestamp.valueOf(order.getCreatedAt()));
+        ps.setString(21, order.getPaymentStatus().name());
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) cause = cause.getCause();
+        return cause.getMessage();
+    }
+}
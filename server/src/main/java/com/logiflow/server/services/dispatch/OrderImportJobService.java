@@ -0,0 +1,14 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.dtos.dispatch.OrderImportJobDto;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface OrderImportJobService {
+    OrderImportJobDto submit(MultipartFile file, String username);
+    // Jobs are only visible to the user who submitted them
+    OrderImportJobDto getJob(Long jobId, String username);
+    List<String> getErrors(Long jobId, String username, int page, int size);
+    List<OrderImportJobDto> getRecentJobs(String username, int limit);
+}
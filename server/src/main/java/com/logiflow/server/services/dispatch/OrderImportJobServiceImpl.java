@@ -0,0 +1,377 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.dtos.dispatch.OrderImportJobDto;
+import com.logiflow.server.exceptions.ResourceNotFoundException;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.models.OrderImportJob;
+import com.logiflow.server.repositories.order_import.OrderImportJobErrorRepository;
+import com.logiflow.server.repositories.order_import.OrderImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background order imports. An upload is stored on disk and queued as an {@link OrderImportJob}; at most
+ * {@code workers} jobs run at once, the rest wait in the table (up to {@code max-queued-jobs}, beyond which
+ * uploads are refused with a retry hint). Each committed chunk records the job's counters and last row in the
+ * same transaction and pushes them to the submitter's {@code /user/queue/import-jobs}.
+ *
+ * A running job is leased by this instance ({@code instance-id}, the host name by default): {@code updatedAt}
+ * is renewed every {@code heartbeat-ms}, and progress and the final status are only written while the job
+ * still belongs to this instance. At startup the jobs this instance left RUNNING are requeued; jobs of any
+ * instance whose lease is older than {@code lease-ms} are requeued on every poll. Requeued jobs resume after
+ * their last committed row. Stored files live in {@code storage-dir}, which must be shared if several
+ * instances process imports.
+ *
+ * Jobs, their progress and their errors are visible to the user who submitted them only.
+ */
+@Service
+public class OrderImportJobServiceImpl implements OrderImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(OrderImportJobServiceImpl.class);
+
+    private static final String USER_QUEUE = "/queue/import-jobs";
+    private static final String INSERT_ERROR = "INSERT INTO order_import_job_errors (job_id, row_num, message) VALUES (?, ?, ?)";
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_INLINE_ERRORS = 100;
+
+    private final OrderImportJobRepository jobRepository;
+    private final OrderImportJobErrorRepository errorRepository;
+    private final OrderService orderService;
+    private final OrderImportEngine orderImportEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Path storageDir;
+    private final int workers;
+    private final int maxQueuedJobs;
+    private final int maxStoredErrors;
+    private final int retryAfterSeconds;
+    private final String instanceId;
+    private final long leaseMs;
+    private final ExecutorService executor;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopping;
+
+    public OrderImportJobServiceImpl(OrderImportJobRepository jobRepository,
+                                     OrderImportJobErrorRepository errorRepository,
+                                     OrderService orderService,
+                                     OrderImportEngine orderImportEngine,
+                                     JdbcTemplate jdbcTemplate,
+                                     SimpMessagingTemplate messagingTemplate,
+                                     @Value("${app.orders.import.jobs.storage-dir:${java.io.tmpdir}/logiflow-imports}") String storageDir,
+                                     @Value("${app.orders.import.jobs.workers:2}") int workers,
+                                     @Value("${app.orders.import.jobs.max-queued-jobs:50}") int maxQueuedJobs,
+                                     @Value("${app.orders.import.jobs.max-stored-errors:10000}") int maxStoredErrors,
+                                     @Value("${app.orders.import.jobs.retry-after-seconds:30}") int retryAfterSeconds,
+                                     @Value("${app.orders.import.jobs.instance-id:}") String instanceId,
+                                     @Value("${app.orders.import.jobs.lease-ms:300000}") long leaseMs) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.orderService = orderService;
+        this.orderImportEngine = orderImportEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.storageDir = Paths.get(storageDir);
+        this.workers = Math.max(1, workers);
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.maxStoredErrors = maxStoredErrors;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.instanceId = instanceId.isBlank() ? hostName() : instanceId;
+        this.leaseMs = leaseMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread t = new Thread(r, "order-import-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public OrderImportJobDto submit(MultipartFile file, String username) {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+        String fileFormat = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase() : "";
+        if (!"csv".equals(fileFormat) && !"xlsx".equals(fileFormat) && !"xls".equals(fileFormat)) {
+            throw new RuntimeException("Unsupported file format. Please use CSV or Excel (.xlsx, .xls)");
+        }
+        if (jobRepository.countByStatus(OrderImportJob.Status.QUEUED) >= maxQueuedJobs) {
+            throw new ServiceBusyException("Too many imports are waiting, please retry later", retryAfterSeconds);
+        }
+
+        String storedFile = UUID.randomUUID() + "." + fileFormat;
+        try {
+            Files.createDirectories(storageDir);
+            file.transferTo(storageDir.resolve(storedFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store the uploaded file: " + e.getMessage(), e);
+        }
+
+        OrderImportJob job = new OrderImportJob();
+        job.setFileName(fileName.length() > 255 ? fileName.substring(0, 255) : fileName);
+        job.setFileFormat(fileFormat);
+        job.setStoredFile(storedFile);
+        job.setCreatedBy(username);
+        job = jobRepository.save(job);
+        log.info("Order import job {} queued by {}: {} ({} bytes)", job.getJobId(), username, fileName, file.getSize());
+
+        try {
+            dispatchQueued();
+        } catch (RuntimeException e) {
+            log.warn("Could not start order import job {} now, it stays queued: {}", job.getJobId(), e.getMessage());
+        }
+        return OrderImportJobDto.fromJob(job);
+    }
+
+    @Override
+    public OrderImportJobDto getJob(Long jobId, String username) {
+        OrderImportJob job = jobRepository.findByJobIdAndCreatedBy(jobId, username)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found: " + jobId));
+        OrderImportJobDto dto = OrderImportJobDto.fromJob(job);
+        dto.setErrors(errors(jobId, 0, MAX_INLINE_ERRORS));
+        return dto;
+    }
+
+    @Override
+    public List<String> getErrors(Long jobId, String username, int page, int size) {
+        if (!jobRepository.existsByJobIdAndCreatedBy(jobId, username)) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
+        }
+        return errors(jobId, page, size);
+    }
+
+    private List<String> errors(Long jobId, int page, int size) {
+        return errorRepository.findByJobIdOrderByRowNumberAscErrorIdAsc(jobId, PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 1000))))
+                .stream()
+                .map(e -> e.getRowNumber() > 0 ? "Row " + e.getRowNumber() + ": " + e.getMessage() : e.getMessage())
+                .toList();
+    }
+
+    @Override
+    public List<OrderImportJobDto> getRecentJobs(String username, int limit) {
+        return jobRepository.findByCreatedByOrderByCreatedAtDesc(username, PageRequest.of(0, Math.max(1, Math.min(limit, 100))))
+                .stream()
+                .map(OrderImportJobDto::fromJob)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        // Nothing runs here yet, so every job still leased to this instance id was interrupted by a stop
+        int requeued = jobRepository.requeueOwned(instanceId);
+        if (requeued > 0) {
+            log.info("Resuming {} interrupted order import jobs", requeued);
+        }
+        pollQueued();
+    }
+
+    // Takes over jobs of instances that stopped renewing their lease, then picks up jobs that could not start
+    // when they were queued (all workers busy, or queued by another instance)
+    @Scheduled(fixedDelayString = "${app.orders.import.jobs.poll-ms:10000}")
+    public void pollQueued() {
+        int requeued = jobRepository.requeueStale(LocalDateTime.now().minusNanos(leaseMs * 1_000_000));
+        if (requeued > 0) {
+            log.warn("Requeued {} order import jobs whose lease expired", requeued);
+        }
+        dispatchQueued();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.import.jobs.heartbeat-ms:30000}")
+    public void renewLeases() {
+        if (running.isEmpty()) return;
+        jobRepository.renewLeases(List.copyOf(running), instanceId, LocalDateTime.now());
+    }
+
+    private synchronized void dispatchQueued() {
+        while (!stopping && running.size() < workers) {
+            List<Long> next = jobRepository.findQueuedIds(PageRequest.of(0, workers - running.size()));
+            if (next.isEmpty()) return;
+            for (Long jobId : next) {
+                if (jobRepository.claim(jobId, instanceId, LocalDateTime.now()) == 0) continue;
+                running.add(jobId);
+                executor.execute(() -> process(jobId));
+            }
+        }
+    }
+
+    private void process(Long jobId) {
+        try {
+            OrderImportJob job = jobRepository.findById(jobId).orElse(null);
+            if (job == null || job.getStatus() != OrderImportJob.Status.RUNNING || !instanceId.equals(job.getOwner())) return;
+            if (job.getLastCommittedRow() > 0) {
+                log.info("Order import job {} resuming after row {}", jobId, job.getLastCommittedRow());
+            }
+            JobProgress progress = new JobProgress(job);
+            Path file = storageDir.resolve(job.getStoredFile());
+            try {
+                InputStream in = Files.newInputStream(file);
+                orderImportEngine.run(in, job.getFileFormat(), job.getCreatedBy(),
+                        orderService.importRowPreparer(job.getCreatedBy()), job.getLastCommittedRow(),
+                        new OrderImportEngine.Progress(job.getRowsParsed(), job.getRowsValidated(),
+                                job.getRowsInserted(), job.getRowsFailed()),
+                        progress);
+                finish(jobId, progress.fileError == null ? OrderImportJob.Status.COMPLETED : OrderImportJob.Status.FAILED,
+                        progress.fileError, file);
+            } catch (NoSuchFileException e) {
+                finish(jobId, OrderImportJob.Status.FAILED, "The uploaded file is no longer available", null);
+            } catch (LeaseLostException e) {
+                // The chunk was rolled back; the instance that took the job over continues from the last commit
+                log.warn("Order import job {} was taken over by another instance after row {}", jobId, progress.lastRow);
+            } catch (Exception e) {
+                if (stopping) {
+                    // Left RUNNING; requeued at the next startup and resumed after the last committed chunk
+                    log.info("Order import job {} interrupted by shutdown after row {}", jobId, progress.lastRow);
+                    return;
+                }
+                log.warn("Order import job {} failed after row {}: {}", jobId, progress.lastRow, e.getMessage());
+                finish(jobId, OrderImportJob.Status.FAILED, e.getMessage(), file);
+            }
+        } catch (RuntimeException e) {
+            log.error("Order import job {} could not be processed", jobId, e);
+        } finally {
+            running.remove(jobId);
+            if (!stopping) {
+                try {
+                    dispatchQueued();
+                } catch (RuntimeException e) {
+                    log.warn("Could not start queued order imports: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void finish(Long jobId, OrderImportJob.Status status, String message, Path file) {
+        if (jobRepository.finish(jobId, instanceId, status, message, LocalDateTime.now()) == 0) {
+            log.warn("Order import job {} was taken over by another instance, not marking it {}", jobId, status);
+            return;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+        jobRepository.findById(jobId).ifPresent(job -> {
+            log.info("Order import job {} {}: {} rows, {} inserted, {} failed", jobId, status,
+                    job.getRowsParsed(), job.getRowsInserted(), job.getRowsFailed());
+            push(OrderImportJobDto.fromJob(job));
+        });
+    }
+
+    private void push(OrderImportJobDto dto) {
+        try {
+            messagingTemplate.convertAndSendToUser(dto.getCreatedBy(), USER_QUEUE, dto);
+        } catch (Exception e) {
+            log.debug("Could not push progress of import job {}: {}", dto.getJobId(), e.getMessage());
+        }
+    }
+
+    // Records each committed chunk on the job row, inside the chunk's transaction
+    private final class JobProgress implements OrderImportEngine.ProgressListener {
+        private final OrderImportJob job;
+        private long storedErrors;
+        private volatile int lastRow;
+        private String fileError;
+
+        private JobProgress(OrderImportJob job) {
+            this.job = job;
+            this.lastRow = job.getLastCommittedRow();
+            this.storedErrors = errorRepository.countByJobId(job.getJobId());
+        }
+
+        @Override
+        public void committed(int lastRowNumber, OrderImportEngine.Progress progress, List<OrderImportEngine.RowError> newErrors) {
+            if (stopping) {
+                throw new IllegalStateException("Import interrupted by shutdown");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.updateProgress(job.getJobId(), instanceId, lastRowNumber, progress.rowsParsed(),
+                    progress.rowsValidated(), progress.rowsInserted(), progress.rowsFailed(), now) == 0) {
+                throw new LeaseLostException();
+            }
+            List<OrderImportEngine.RowError> toStore = newErrors.subList(0, (int) Math.min(newErrors.size(),
+                    Math.max(0, maxStoredErrors - storedErrors)));
+            if (!toStore.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ERROR, toStore, toStore.size(), (ps, error) -> {
+                    ps.setLong(1, job.getJobId());
+                    ps.setInt(2, error.rowNumber());
+                    ps.setString(3, truncate(error.message()));
+                });
+            }
+
+            OrderImportJobDto dto = OrderImportJobDto.fromJob(job);
+            dto.setStatus(OrderImportJob.Status.RUNNING.name());
+            dto.setLastCommittedRow(lastRowNumber);
+            dto.setRowsParsed(progress.rowsParsed());
+            dto.setRowsValidated(progress.rowsValidated());
+            dto.setRowsInserted(progress.rowsInserted());
+            dto.setRowsFailed(progress.rowsFailed());
+            dto.setUpdatedAt(now);
+            int stored = toStore.size();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastRow = lastRowNumber;
+                    storedErrors += stored;
+                    push(dto);
+                }
+            });
+        }
+
+        @Override
+        public void fileUnreadable(String message) {
+            fileError = message;
+        }
+    }
+
+    // Thrown inside a chunk transaction when the job no longer belongs to this instance, so the chunk rolls back
+    private static final class LeaseLostException extends RuntimeException {
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return "Invalid row";
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
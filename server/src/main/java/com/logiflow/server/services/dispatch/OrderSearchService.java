@@ -0,0 +1,7 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.dtos.dispatch.OrderSearchResponse;
+
+public interface OrderSearchService {
+    OrderSearchResponse search(String query, int page, int size);
+}
@@ -4,42 +4,51 @@ import com.logiflow.server.dtos.dispatch.OrderCreateRequest;
 import com.logiflow.server.dtos.dispatch.OrderDto;
 import com.logiflow.server.dtos.dispatch.OrderImportResponse;
 import com.logiflow.server.dtos.dispatch.OrderListResponse;
+import com.logiflow.server.dtos.dispatch.OrderScrollResponse;
 import com.logiflow.server.dtos.dispatch.OrderUpdateRequest;
+import com.logiflow.server.exceptions.BusinessRuleException;
 import com.logiflow.server.models.Order;
 import com.logiflow.server.models.Trip;
 import com.logiflow.server.models.User;
+import com.logiflow.server.repositories.order.OrderListRow;
 import com.logiflow.server.repositories.order.OrderRepository;
 import com.logiflow.server.repositories.trip.TripRepository;
 import com.logiflow.server.repositories.user.UserRepository;
 import com.logiflow.server.services.dispatch.ShippingFeeCalculator;
 import com.logiflow.server.services.maps.MapsService;
-import com.logiflow.server.utils.OrderFileParser;
-import com.logiflow.server.websocket.NotificationService;
+import com.logiflow.server.services.events.DomainEvent;
+import com.logiflow.server.services.events.DomainEventBus;
 import com.logiflow.server.services.payment.PaymentService;
 import com.opencsv.CSVWriter;
-import com.opencsv.exceptions.CsvException;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -87,8 +96,16 @@ public class OrderServiceImpl implements OrderService {
     private final TripRepository tripRepository;
     private final ShippingFeeCalculator shippingFeeCalculator;
     private final MapsService mapsService;
-    private final NotificationService notificationService;
+    private final DomainEventBus domainEventBus;
     private final PaymentService paymentService;
+    private final OrderImportEngine orderImportEngine;
+
+    private static final int MAX_CACHED_IMPORT_TRIPS = 10_000;
+    private static final int MAX_CACHED_COUNTS = 1_000;
+
+    // Order list totals per filter; counting millions of rows on every page is what made deep lists slow
+    private final Map<String, CachedCount> orderCounts = new ConcurrentHashMap<>();
+    private final long countCacheMs;
 
     public OrderServiceImpl(
             OrderRepository orderRepository,
@@ -96,15 +113,19 @@ public class OrderServiceImpl implements OrderService {
             TripRepository tripRepository,
             ShippingFeeCalculator shippingFeeCalculator,
             @Nullable MapsService mapsService,
-            NotificationService notificationService,
-            PaymentService paymentService) {
+            DomainEventBus domainEventBus,
+            PaymentService paymentService,
+            OrderImportEngine orderImportEngine,
+            @Value("${app.orders.list.count-cache-ms:30000}") long countCacheMs) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.tripRepository = tripRepository;
         this.shippingFeeCalculator = shippingFeeCalculator;
         this.mapsService = mapsService;
-        this.notificationService = notificationService;
+        this.domainEventBus = domainEventBus;
         this.paymentService = paymentService;
+        this.orderImportEngine = orderImportEngine;
+        this.countCacheMs = countCacheMs;
     }
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
@@ -116,61 +137,161 @@ public class OrderServiceImpl implements OrderService {
         if (size > 100) size = 100;
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orderPage;
+        OrderFilter filter = OrderFilter.parse(status, date);
 
-
-        Order.OrderStatus orderStatus = null;
-        if (status != null && !status.trim().isEmpty()) {
-            try {
-                orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                orderStatus = null;
-            }
+        List<OrderListRow> rows;
+        if (filter.status() != null && filter.startDate() != null) {
+            rows = orderRepository.listByOrderStatusAndCreatedAtDate(filter.status(), filter.startDate(), filter.endDate(), pageable);
+        } else if (filter.status() != null) {
+            rows = orderRepository.listByOrderStatus(filter.status(), pageable);
+        } else {
+            rows = listPendingFirst(filter, page, size);
         }
 
+        long totalItems = countOrders(filter);
+        int totalPages = (int) ((totalItems + size - 1) / size);
+        List<OrderDto> orderDtos = rows.stream()
+                .map(OrderDto::fromListRow)
+                .collect(Collectors.toList());
+        OrderListResponse response = new OrderListResponse();
+        response.setOrders(orderDtos);
+        response.setCurrentPage(page);
+        response.setPageSize(size);
+        response.setTotalItems(totalItems);
+        response.setTotalPages(totalPages);
+        response.setHasNext(page + 1 < totalPages);
+        response.setHasPrevious(page > 0);
 
-        LocalDateTime startDate = null;
-        LocalDateTime endDate = null;
-        if (date != null && !date.trim().isEmpty()) {
-            try {
-                LocalDate filterDate = LocalDate.parse(date, DATE_FORMATTER);
-                startDate = filterDate.atStartOfDay();
-                endDate = filterDate.plusDays(1).atStartOfDay();
-            } catch (DateTimeParseException e) {
-                startDate = null;
-                endDate = null;
-            }
-        }
+        return response;
+    }
 
+    // Pending orders first, each part newest first. Both parts are read in (created_at, order_id) order from an
+    // index; ordering by a CASE on the status instead sorted every order of the filter for each page
+    private List<OrderListRow> listPendingFirst(OrderFilter filter, int page, int size) {
+        Order.OrderStatus pending = Order.OrderStatus.PENDING;
+        Pageable pageable = PageRequest.of(page, size);
+        List<OrderListRow> rows = new ArrayList<>(filter.startDate() != null
+                ? orderRepository.listByOrderStatusAndCreatedAtDate(pending, filter.startDate(), filter.endDate(), pageable)
+                : orderRepository.listByOrderStatus(pending, pageable));
+        if (rows.size() == size) {
+            return rows;
+        }
+        // The page runs past the last pending order; only a page with none of them needs to count them
+        long offset = (long) page * size;
+        long pendingCount = !rows.isEmpty() ? offset + rows.size()
+                : filter.startDate() != null
+                        ? orderRepository.countByOrderStatusAndCreatedAtRange(pending, filter.startDate(), filter.endDate())
+                        : orderRepository.countByOrderStatus(pending);
+        int othersOffset = (int) Math.max(0, offset + rows.size() - pendingCount);
+        int limit = size - rows.size();
+        rows.addAll(filter.startDate() != null
+                ? orderRepository.listExcludingOrderStatusAndCreatedAtDate(pending, filter.startDate(), filter.endDate(), othersOffset, limit)
+                : orderRepository.listExcludingOrderStatus(pending, othersOffset, limit));
+        return rows;
+    }
 
-        if (orderStatus != null && startDate != null && endDate != null) {
+    @Override
+    public OrderScrollResponse scrollOrders(String status, String date, String cursor, int size) {
+        if (size < 1) size = 20;
+        if (size > 100) size = 100;
 
-            orderPage = orderRepository.findByOrderStatusAndCreatedAtDate(orderStatus, startDate, endDate, pageable);
-        } else if (orderStatus != null) {
+        OrderFilter filter = OrderFilter.parse(status, date);
+        OrderCursor after = cursor != null && !cursor.isBlank() ? OrderCursor.decode(cursor) : OrderCursor.FIRST;
+        // One extra row tells whether there is a next page without counting
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<OrderListRow> rows;
+        if (filter.status() != null && filter.startDate() != null) {
+            rows = orderRepository.scrollByOrderStatusAndCreatedAtDate(filter.status(), filter.startDate(), filter.endDate(),
+                    after.createdAt(), after.orderId(), limit);
+        } else if (filter.status() != null) {
+            rows = orderRepository.scrollByOrderStatus(filter.status(), after.createdAt(), after.orderId(), limit);
+        } else if (filter.startDate() != null) {
+            rows = orderRepository.scrollByCreatedAtDate(filter.startDate(), filter.endDate(), after.createdAt(), after.orderId(), limit);
+        } else {
+            rows = orderRepository.scrollAll(after.createdAt(), after.orderId(), limit);
+        }
 
-            orderPage = orderRepository.findByOrderStatus(orderStatus, pageable);
-        } else if (startDate != null && endDate != null) {
+        boolean hasNext = rows.size() > size;
+        if (hasNext) rows = rows.subList(0, size);
+        OrderListRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String nextCursor = hasNext ? new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode() : null;
+        List<OrderDto> orderDtos = rows.stream().map(OrderDto::fromListRow).collect(Collectors.toList());
+        return new OrderScrollResponse(orderDtos, size, countOrders(filter), hasNext, nextCursor);
+    }
 
-            orderPage = orderRepository.findByCreatedAtDate(startDate, endDate, pageable);
+    private long countOrders(OrderFilter filter) {
+        String key = filter.status() + "|" + filter.startDate();
+        long now = System.currentTimeMillis();
+        CachedCount cached = orderCounts.get(key);
+        if (cached != null && now - cached.countedAt() < countCacheMs) {
+            return cached.count();
+        }
+        long count;
+        if (filter.status() != null && filter.startDate() != null) {
+            count = orderRepository.countByOrderStatusAndCreatedAtRange(filter.status(), filter.startDate(), filter.endDate());
+        } else if (filter.status() != null) {
+            count = orderRepository.countByOrderStatus(filter.status());
+        } else if (filter.startDate() != null) {
+            count = orderRepository.countByCreatedAtRange(filter.startDate(), filter.endDate());
         } else {
+            count = orderRepository.count();
+        }
+        // Keys come from request parameters (any date); start over rather than grow without bound
+        if (orderCounts.size() >= MAX_CACHED_COUNTS) orderCounts.clear();
+        orderCounts.put(key, new CachedCount(count, now));
+        return count;
+    }
+
+    private record CachedCount(long count, long countedAt) {
+    }
 
-            orderPage = orderRepository.findAllWithRelations(pageable);
+    // Unknown statuses and unparseable dates are ignored, as the order list always did
+    private record OrderFilter(Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate) {
+        static OrderFilter parse(String status, String date) {
+            Order.OrderStatus orderStatus = null;
+            if (status != null && !status.trim().isEmpty()) {
+                try {
+                    orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    orderStatus = null;
+                }
+            }
+            LocalDateTime startDate = null;
+            LocalDateTime endDate = null;
+            if (date != null && !date.trim().isEmpty()) {
+                try {
+                    LocalDate filterDate = LocalDate.parse(date, DATE_FORMATTER);
+                    startDate = filterDate.atStartOfDay();
+                    endDate = filterDate.plusDays(1).atStartOfDay();
+                } catch (DateTimeParseException e) {
+                    startDate = null;
+                    endDate = null;
+                }
+            }
+            return new OrderFilter(orderStatus, startDate, endDate);
         }
+    }
 
+    // Position after the last row of a keyset page: "<createdAt>|<orderId>", base64url-encoded
+    private record OrderCursor(LocalDateTime createdAt, Integer orderId) {
+        static final OrderCursor FIRST = new OrderCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Integer.MAX_VALUE);
 
-        List<OrderDto> orderDtos = orderPage.getContent().stream()
-                .map(OrderDto::fromOrder)
-                .collect(Collectors.toList());
-        OrderListResponse response = new OrderListResponse();
-        response.setOrders(orderDtos);
-        response.setCurrentPage(orderPage.getNumber());
-        response.setPageSize(orderPage.getSize());
-        response.setTotalItems(orderPage.getTotalElements());
-        response.setTotalPages(orderPage.getTotalPages());
-        response.setHasNext(orderPage.hasNext());
-        response.setHasPrevious(orderPage.hasPrevious());
+        String encode() {
+            String raw = createdAt + "|" + orderId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
 
-        return response;
+        static OrderCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Integer.parseInt(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessRuleException("Invalid cursor");
+            }
+        }
     }
 
     @Override
@@ -232,151 +353,112 @@ public class OrderServiceImpl implements OrderService {
         Order orderWithRelations = orderRepository.findByIdWithRelations(savedOrder.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Failed to retrieve saved order"));
 
-        // Send notification to dispatchers about new order
-        try {
-            notificationService.notifyNewOrder(
-                savedOrder.getOrderId(),
-                request.getCustomerName(),
-                request.getPriorityLevel().name()
-            );
-
-            // Extra urgent haul alert (hard-coded rule)
-            if (request.getPriorityLevel() == Order.PriorityLevel.URGENT) {
-                notificationService.broadcastToAdmins(
-                    "URGENT_HAUL",
-                    "CRITICAL",
-                    "URGENT haul needs attention",
-                    "Order #" + savedOrder.getOrderId() + " (" + request.getCustomerName() + ") is URGENT. Please dispatch ASAP."
-                );
-            }
-        } catch (Exception e) {
-            // Log error but don't fail the order creation
-            log.error("Failed to send notification for new order: {}", e.getMessage());
-        }
+        notifyOrderCreated(savedOrder.getOrderId(), request.getCustomerName(), request.getPriorityLevel());
 
         return OrderDto.fromOrder(orderWithRelations);
     }
 
+    // Dispatcher/admin notifications are sent by the event bus after commit
+    private void notifyOrderCreated(Integer orderId, String customerName, Order.PriorityLevel priority) {
+        domainEventBus.publish(new DomainEvent.OrderCreated(orderId, customerName, priority != null ? priority.name() : null));
+    }
+
     @Override
     public OrderImportResponse importOrders(MultipartFile file, String username) {
-        User createdBy = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        OrderImportEngine.RowPreparer preparer = importRowPreparer(username);
 
-        List<OrderCreateRequest> requests = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
         String fileName = file.getOriginalFilename();
         String fileExtension = fileName != null && fileName.contains(".")
                 ? fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase()
                 : "";
 
+        InputStream inputStream;
         try {
-            if ("csv".equals(fileExtension)) {
-                requests = OrderFileParser.parseCSV(file.getInputStream());
-            } else if ("xlsx".equals(fileExtension) || "xls".equals(fileExtension)) {
-                requests = OrderFileParser.parseExcel(file.getInputStream());
-            } else {
-                throw new RuntimeException("Unsupported file format. Please use CSV or Excel (.xlsx, .xls)");
-            }
-        } catch (IOException | CsvException e) {
+            inputStream = file.getInputStream();
+        } catch (IOException e) {
+            List<String> errors = new ArrayList<>();
             errors.add("Error parsing file: " + e.getMessage());
             return new OrderImportResponse(0, 0, 0, new ArrayList<>(), errors);
         }
+        return orderImportEngine.run(inputStream, fileExtension, username, preparer);
+    }
 
-        int totalRows = requests.size();
-        int successCount = 0;
-        int failureCount = 0;
-        List<OrderDto> createdOrders = new ArrayList<>();
-
-        for (int i = 0; i < requests.size(); i++) {
-            OrderCreateRequest request = requests.get(i);
-            int rowNumber = i + 2; // +2 because row 1 is header, and we start from index 0
-
-            try {
-                if (request.getCustomerName() == null || request.getCustomerName().trim().isEmpty()) {
-                    errors.add("Row " + rowNumber + ": Customer name is required");
-                    failureCount++;
-                    continue;
-                }
-
-                if (request.getPickupAddress() == null || request.getPickupAddress().trim().isEmpty()) {
-                    errors.add("Row " + rowNumber + ": Pickup address is required");
-                    failureCount++;
-                    continue;
-                }
-
-                if (request.getDeliveryAddress() == null || request.getDeliveryAddress().trim().isEmpty()) {
-                    errors.add("Row " + rowNumber + ": Delivery address is required");
-                    failureCount++;
-                    continue;
-                }
+    @Override
+    public OrderImportEngine.RowPreparer importRowPreparer(String username) {
+        User createdBy = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        // Trip lookups are repeated across rows; remember them for this import
+        Map<Integer, Optional<Trip>> trips = new HashMap<>();
+        return (rowNumber, request) -> prepareImportedOrder(rowNumber, request, createdBy, trips);
+    }
 
-                if (request.getPriorityLevel() == null) {
-                    request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                }
+    private Order prepareImportedOrder(int rowNumber, OrderCreateRequest request, User createdBy,
+                                       Map<Integer, Optional<Trip>> trips) {
+        if (request.getCustomerName() == null || request.getCustomerName().trim().isEmpty()) {
+            throw new RuntimeException("Customer name is required");
+        }
+        if (request.getPickupAddress() == null || request.getPickupAddress().trim().isEmpty()) {
+            throw new RuntimeException("Pickup address is required");
+        }
+        if (request.getDeliveryAddress() == null || request.getDeliveryAddress().trim().isEmpty()) {
+            throw new RuntimeException("Delivery address is required");
+        }
+        if (request.getPriorityLevel() == null) {
+            request.setPriorityLevel(Order.PriorityLevel.NORMAL);
+        }
 
-                Order order = new Order();
-                order.setCustomerName(request.getCustomerName().trim());
-                order.setCustomerPhone(request.getCustomerPhone() != null ? request.getCustomerPhone().trim() : null);
-                order.setPickupAddress(request.getPickupAddress().trim());
-                order.setDeliveryAddress(request.getDeliveryAddress().trim());
-                order.setPackageDetails(request.getPackageDetails() != null ? request.getPackageDetails().trim() : null);
-                order.setPriorityLevel(request.getPriorityLevel());
-                order.setOrderStatus(Order.OrderStatus.PENDING);
-                order.setCreatedBy(createdBy);
-                order.setCreatedAt(LocalDateTime.now());
-
-                order.setDistanceKm(request.getDistanceKm());
-                order.setWeightTons(request.getWeightTons());
-                applyPickupInfo(order, request.getPickupType(), request.getContainerNumber(), request.getTerminalName(), request.getWarehouseName(), request.getDockNumber());
-                order.setPackageValue(request.getPackageValue());
-
-
-                if (order.getDistanceKm() == null && mapsService != null) {
-                    try {
-                        var distanceResult = mapsService.calculateDistance(
-                                request.getPickupAddress(),
-                                request.getDeliveryAddress()
-                        );
-                        if (distanceResult != null && distanceResult.getDistanceMeters() != null) {
-                            BigDecimal distanceKm = new BigDecimal(distanceResult.getDistanceMeters())
-                                    .divide(new BigDecimal("1000"), 2, RoundingMode.HALF_UP);
-                            order.setDistanceKm(distanceKm);
-                        }
-                    } catch (Exception e) {
-                        log.error("Row {}: Failed to calculate distance: {}", rowNumber, e.getMessage());
-                    }
-                }
+        Order order = new Order();
+        order.setCustomerName(request.getCustomerName().trim());
+        order.setCustomerPhone(request.getCustomerPhone() != null ? request.getCustomerPhone().trim() : null);
+        order.setPickupAddress(request.getPickupAddress().trim());
+        order.setDeliveryAddress(request.getDeliveryAddress().trim());
+        order.setPackageDetails(request.getPackageDetails() != null ? request.getPackageDetails().trim() : null);
+        order.setPriorityLevel(request.getPriorityLevel());
+        order.setOrderStatus(Order.OrderStatus.PENDING);
+        order.setCreatedBy(createdBy);
+        order.setCreatedAt(LocalDateTime.now());
 
+        order.setDistanceKm(request.getDistanceKm());
+        order.setWeightTons(request.getWeightTons());
+        applyPickupInfo(order, request.getPickupType(), request.getContainerNumber(), request.getTerminalName(), request.getWarehouseName(), request.getDockNumber());
+        order.setPackageValue(request.getPackageValue());
 
-                // Calculate shipping fee using weight in tons directly
-                BigDecimal shippingFee = shippingFeeCalculator.calculateShippingFee(
-                        order.getDistanceKm(),
-                        order.getWeightTons(),
-                        order.getPackageValue(),
-                        order.getPriorityLevel()
+        if (order.getDistanceKm() == null && mapsService != null) {
+            try {
+                var distanceResult = mapsService.calculateDistance(
+                        request.getPickupAddress(),
+                        request.getDeliveryAddress()
                 );
-                order.setShippingFee(shippingFee);
-
-                if (request.getTripId() != null) {
-                    Trip trip = tripRepository.findById(request.getTripId()).orElse(null);
-                    if (trip != null) {
-                        order.setTrip(trip);
-                    }
+                if (distanceResult != null && distanceResult.getDistanceMeters() != null) {
+                    BigDecimal distanceKm = new BigDecimal(distanceResult.getDistanceMeters())
+                            .divide(new BigDecimal("1000"), 2, RoundingMode.HALF_UP);
+                    order.setDistanceKm(distanceKm);
                 }
-
-                Order savedOrder = orderRepository.save(order);
-                Order orderWithRelations = orderRepository.findByIdWithRelations(savedOrder.getOrderId())
-                        .orElse(savedOrder);
-                createdOrders.add(OrderDto.fromOrder(orderWithRelations));
-                successCount++;
-
             } catch (Exception e) {
-                errors.add("Row " + rowNumber + ": " + e.getMessage());
-                failureCount++;
+                log.error("Row {}: Failed to calculate distance: {}", rowNumber, e.getMessage());
             }
         }
 
-        return new OrderImportResponse(totalRows, successCount, failureCount, createdOrders, errors);
+        // Calculate shipping fee using weight in tons directly
+        BigDecimal shippingFee = shippingFeeCalculator.calculateShippingFee(
+                order.getDistanceKm(),
+                order.getWeightTons(),
+                order.getPackageValue(),
+                order.getPriorityLevel()
+        );
+        order.setShippingFee(shippingFee);
+
+        if (request.getTripId() != null) {
+            Optional<Trip> trip = trips.get(request.getTripId());
+            if (trip == null) {
+                trip = tripRepository.findById(request.getTripId());
+                if (trips.size() < MAX_CACHED_IMPORT_TRIPS) {
+                    trips.put(request.getTripId(), trip);
+                }
+            }
+            trip.ifPresent(order::setTrip);
+        }
+        return order;
     }
 
     @Override
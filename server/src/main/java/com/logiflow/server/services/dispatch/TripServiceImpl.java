@@ -26,14 +26,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import com.logiflow.server.constants.AuditActions;
 import com.logiflow.server.constants.TripStatus;
 import com.logiflow.server.dtos.dispatch.TripCancelRequest;
 import com.logiflow.server.dtos.dispatch.TripRerouteRequest;
 import com.logiflow.server.services.dispatch.TripAssignmentMatchingService;
-import com.logiflow.server.services.admin.AuditLogService;
-import com.logiflow.server.websocket.NotificationService;
-import com.logiflow.server.services.payment.PaymentService;
+import com.logiflow.server.services.events.DomainEvent;
+import com.logiflow.server.services.events.DomainEventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,8 +39,6 @@ import org.slf4j.LoggerFactory;
 public class TripServiceImpl implements TripService {
 
     private static final Logger log = LoggerFactory.getLogger(TripServiceImpl.class);
-    private static final String SYSTEM_ACTOR = "system";
-    private static final String SYSTEM_ROLE = "SYSTEM";
 
     private final TripRepository tripRepository;
     private final VehicleRepository vehicleRepository;
@@ -53,9 +49,7 @@ public class TripServiceImpl implements TripService {
     private final DeliveryConfirmationRepository deliveryConfirmationRepository;
     private final TripProgressEventRepository tripProgressEventRepository;
     private final TripAssignmentMatchingService tripAssignmentMatchingService;
-    private final AuditLogService auditLogService;
-    private final NotificationService notificationService;
-    private final PaymentService paymentService;
+    private final DomainEventBus domainEventBus;
 
     public TripServiceImpl(
             TripRepository tripRepository,
@@ -67,9 +61,7 @@ public class TripServiceImpl implements TripService {
             DeliveryConfirmationRepository deliveryConfirmationRepository,
             TripProgressEventRepository tripProgressEventRepository,
             TripAssignmentMatchingService tripAssignmentMatchingService,
-            AuditLogService auditLogService,
-            NotificationService notificationService,
-            PaymentService paymentService) {
+            DomainEventBus domainEventBus) {
         this.tripRepository = tripRepository;
         this.vehicleRepository = vehicleRepository;
         this.routeRepository = routeRepository;
@@ -79,9 +71,7 @@ public class TripServiceImpl implements TripService {
         this.deliveryConfirmationRepository = deliveryConfirmationRepository;
         this.tripProgressEventRepository = tripProgressEventRepository;
         this.tripAssignmentMatchingService = tripAssignmentMatchingService;
-        this.auditLogService = auditLogService;
-        this.notificationService = notificationService;
-        this.paymentService = paymentService;
+        this.domainEventBus = domainEventBus;
     }
 
     @Override
@@ -287,32 +277,14 @@ public class TripServiceImpl implements TripService {
         }
         Trip saved = tripRepository.save(trip);
 
-        // Send notification to driver about assignment
-        try {
-            String message = "New trip assigned: #" + tripId +
-                           " - Vehicle: " + (vehicle != null ? vehicle.getLicensePlate() : "Unknown") +
-                           " - Scheduled: " + trip.getScheduledDeparture().toString();
-            notificationService.sendTripNotification(
-                driver.getDriverId(),
-                tripId,
-                AuditActions.TRIP_ASSIGNED,
-                message,
-                TripStatus.ASSIGNED
-            );
-        } catch (Exception e) {
-            log.error("Failed to send driver assignment notification: {}", e.getMessage());
-        }
-
-        // Audit the critical trip assignment operation
-        String driverUsername = driver.getUser() != null ? driver.getUser().getUsername() : "Unknown";
-        String vehiclePlate = vehicle != null ? vehicle.getLicensePlate() : "Unknown";
-        auditLogService.log(
-            AuditActions.TRIP_ASSIGNED,
-            SYSTEM_ACTOR,
-            SYSTEM_ROLE,
-            String.format("Trip #%d assigned to driver %s (%s) with vehicle %s",
-                tripId, driverUsername, driver.getDriverId(), vehiclePlate)
-        );
+        // Live fleet, driver notification and audit log run after commit on the event bus
+        domainEventBus.publish(new DomainEvent.TripAssigned(
+            tripId,
+            driver.getDriverId(),
+            vehicle != null ? vehicle.getLicensePlate() : null,
+            trip.getScheduledDeparture(),
+            saved.getStatus()
+        ));
 
         Trip tripWithRelations = tripRepository.findByIdWithRelations(saved.getTripId())
                 .orElseThrow(() -> new RuntimeException("Failed to retrieve updated trip"));
@@ -351,8 +323,12 @@ public class TripServiceImpl implements TripService {
             trip.setActualArrival(now);
         }
 
+        List<Integer> driverIds = new java.util.ArrayList<>();
         if (trip.getTripAssignments() != null && !trip.getTripAssignments().isEmpty()) {
             for (TripAssignment assignment : trip.getTripAssignments()) {
+                if (assignment.getDriver() != null) {
+                    driverIds.add(assignment.getDriver().getDriverId());
+                }
                 if (TripStatus.IN_PROGRESS.equalsIgnoreCase(newStatus)) {
                     assignment.setStatus(TripStatus.IN_PROGRESS);
                 } else if (TripStatus.COMPLETED.equalsIgnoreCase(newStatus)) {
@@ -380,24 +356,15 @@ public class TripServiceImpl implements TripService {
                     if (order.getOrderStatus() == Order.OrderStatus.ASSIGNED || 
                         order.getOrderStatus() == Order.OrderStatus.IN_TRANSIT) {
                         order.setOrderStatus(Order.OrderStatus.DELIVERED);
-                        
-                        // Send delivery notification to customer if customer is associated
-                        if (order.getCustomer() != null) {
-                            try {
-                                notificationService.notifyOrderDelivered(
-                                    order.getCustomer().getUserId(),
-                                    order.getOrderId(),
-                                    order.getCustomerName(),
-                                    order.getDeliveryAddress()
-                                );
-
-                                // Send payment request email with PayPal link
-                                paymentService.sendPaymentRequest(order.getOrderId());
-                            } catch (Exception e) {
-                                log.error("Failed to send delivery notification/payment request for order #{}: {}",
-                                    order.getOrderId(), e.getMessage());
-                            }
-                        }
+
+                        // Customer delivery notification and payment request email (with PayPal link) after commit
+                        domainEventBus.publish(new DomainEvent.OrderDelivered(
+                            order.getOrderId(),
+                            tripId,
+                            order.getCustomer() != null ? order.getCustomer().getUserId() : null,
+                            order.getCustomerName(),
+                            order.getDeliveryAddress()
+                        ));
                     }
                 }
                 orderRepository.saveAll(trip.getOrders());
@@ -424,6 +391,7 @@ public class TripServiceImpl implements TripService {
         Trip savedTrip = tripRepository.save(trip);
         tripRepository.flush();
         tripProgressEventRepository.flush();
+        domainEventBus.publish(new DomainEvent.TripStatusChanged(tripId, currentStatus, newStatus, driverIds));
 
         Trip tripWithRelations = tripRepository.findByIdWithRelations(savedTrip.getTripId())
                 .orElseThrow(() -> new RuntimeException("Failed to retrieve updated trip"));
@@ -480,10 +448,12 @@ public class TripServiceImpl implements TripService {
         trip.setStatus(TripStatus.CANCELLED);
 
         // Cancel assignments and release driver
+        List<Integer> driverIds = new java.util.ArrayList<>();
         if (trip.getTripAssignments() != null && !trip.getTripAssignments().isEmpty()) {
             for (TripAssignment assignment : trip.getTripAssignments()) {
                 assignment.setStatus(TripStatus.CANCELLED);
                 if (assignment.getDriver() != null) {
+                    driverIds.add(assignment.getDriver().getDriverId());
                     assignment.getDriver().setStatus("available");
                     driverRepository.save(assignment.getDriver());
                 }
@@ -492,6 +462,7 @@ public class TripServiceImpl implements TripService {
         }
 
         // Unassign orders back to PENDING
+        int ordersAffected = trip.getOrders() != null ? trip.getOrders().size() : 0;
         if (trip.getOrders() != null && !trip.getOrders().isEmpty()) {
             for (Order order : trip.getOrders()) {
                 if (order.getOrderStatus() == Order.OrderStatus.ASSIGNED ||
@@ -509,16 +480,8 @@ public class TripServiceImpl implements TripService {
 
         Trip savedTrip = tripRepository.save(trip);
 
-        // Audit the critical trip cancellation operation
-        auditLogService.log(
-            AuditActions.TRIP_CANCELLED,
-            SYSTEM_ACTOR,
-            SYSTEM_ROLE,
-            String.format("Trip #%d cancelled | Reason: %s | Orders affected: %d",
-                tripId,
-                request.getReason() != null ? request.getReason() : "No reason provided",
-                trip.getOrders() != null ? trip.getOrders().size() : 0)
-        );
+        // Live fleet release and the audit entry of this critical operation run after commit
+        domainEventBus.publish(new DomainEvent.TripCancelled(tripId, request.getReason(), ordersAffected, driverIds));
         tripRepository.flush();
         tripProgressEventRepository.flush();
 
@@ -10,6 +10,7 @@ import java.util.List;
 
 public interface DriverService {
     Driver getCurrentDriver(String authName);
+    Integer getCurrentDriverId(String authName);
     List<TripSummaryDto> getMyTrips(Integer driverId, String status);
     TripDetailDto getMyTripDetail(Integer driverId, Integer tripId);
     void updateMyLocation(Integer driverId, BigDecimal lat, BigDecimal lng);
@@ -14,8 +14,12 @@ import com.logiflow.server.websocket.NotificationService;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 import com.logiflow.server.services.maps.MapsService;
+import com.logiflow.server.services.tracking.LiveFleetService;
 import com.logiflow.server.services.admin.SystemSettingsService;
 import com.logiflow.server.services.payment.PaymentService;
+import com.logiflow.server.services.user.IdentityDirectory;
+import com.logiflow.server.services.events.DomainEvent;
+import com.logiflow.server.services.events.DomainEventBus;
 
 import java.math.BigDecimal;
 import org.slf4j.Logger;
@@ -43,6 +47,9 @@ public class DriverServiceImpl implements DriverService {
     private final DeliveryConfirmationRepository deliveryConfirmationRepository;
     private final SystemSettingsService systemSettingsService;
     private final PaymentService paymentService;
+    private final LiveFleetService liveFleetService;
+    private final IdentityDirectory identityDirectory;
+    private final DomainEventBus domainEventBus;
 
     public DriverServiceImpl(UserRepository userRepository,
                          DriverRepository driverRepository,
@@ -54,7 +61,10 @@ public class DriverServiceImpl implements DriverService {
                          NotificationService notificationService,
                          DeliveryConfirmationRepository deliveryConfirmationRepository,
                          SystemSettingsService systemSettingsService,
-                         PaymentService paymentService) {
+                         PaymentService paymentService,
+                         LiveFleetService liveFleetService,
+                         IdentityDirectory identityDirectory,
+                         DomainEventBus domainEventBus) {
         this.userRepository = userRepository;
         this.driverRepository = driverRepository;
         this.tripRepository = tripRepository;
@@ -66,14 +76,15 @@ public class DriverServiceImpl implements DriverService {
         this.deliveryConfirmationRepository = deliveryConfirmationRepository;
         this.systemSettingsService = systemSettingsService;
         this.paymentService = paymentService;
+        this.liveFleetService = liveFleetService;
+        this.identityDirectory = identityDirectory;
+        this.domainEventBus = domainEventBus;
     }
 
     private String resolveDriverUsername(Integer driverId) {
         if (driverId == null) return null;
         try {
-            return driverRepository.findById(driverId)
-                    .map(d -> d.getUser() != null ? d.getUser().getUsername() : null)
-                    .orElse(null);
+            return identityDirectory.usernameForDriver(driverId);
         } catch (Exception e) {
             return null;
         }
@@ -202,6 +213,7 @@ public class DriverServiceImpl implements DriverService {
         
         trip.setStatus(status);
         tripRepository.save(trip);
+        liveFleetService.onTripStatus(driverId, tripId, status);
         
         // Send notification to driver about status change
         String notificationMessage = "Trip #" + tripId + " status updated to " + status;
@@ -216,18 +228,25 @@ public class DriverServiceImpl implements DriverService {
     /** Lấy driver từ Authentication.getName() — có thể là số (userId) hoặc username */
     @Override
     public Driver getCurrentDriver(String authName) {
-        Optional<User> userOpt;
-        try {
-            Integer id = Integer.parseInt(authName);
-            userOpt = userRepository.findByIdWithRole(id); // đã có sẵn
-        } catch (NumberFormatException ex) {
-            userOpt = userRepository.findByUsernameWithRole(authName); // đã có sẵn
-        }
-        User user = userOpt.orElseThrow(() -> new RuntimeException("User not found"));
-        return driverRepository.findByUserId(user.getUserId())
+        return driverRepository.findById(getCurrentDriverId(authName))
                 .orElseThrow(() -> new RuntimeException("Driver not found for current user"));
     }
 
+    @Override
+    public Integer getCurrentDriverId(String authName) {
+        IdentityDirectory.Identity identity = identityDirectory.byAuthName(authName)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (identity.driverId() == null) {
+            // The driver profile may have been created after this identity was cached
+            identity = identityDirectory.reload(identity.userId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        if (identity.driverId() == null) {
+            throw new RuntimeException("Driver not found for current user");
+        }
+        return identity.driverId();
+    }
+
     @Override
     public List<TripSummaryDto> getMyTrips(Integer driverId, String status) {
         List<Trip> trips = tripRepository.findTripsByDriverAndStatus(driverId, status);
@@ -497,31 +516,14 @@ public class DriverServiceImpl implements DriverService {
         }
 
         // Only complete the trip if all orders are delivered
+        List<Integer> pendingPaymentOrders = List.of();
         if (allOrdersDelivered) {
-            // Send admin notification for delivered orders that need payment review
+            // Delivered orders that need payment review are announced to admins
             if (trip.getOrders() != null && !trip.getOrders().isEmpty()) {
-                List<Integer> pendingPaymentOrders = trip.getOrders().stream()
+                pendingPaymentOrders = trip.getOrders().stream()
                     .filter(order -> order.getPaymentStatus() == Order.PaymentStatus.PENDING)
                     .map(Order::getOrderId)
                     .toList();
-
-                if (!pendingPaymentOrders.isEmpty()) {
-                    String notificationMessage = String.format(
-                        "Orders delivered and ready for payment review: %s",
-                        String.join(", ", pendingPaymentOrders.stream().map(String::valueOf).toArray(String[]::new))
-                    );
-
-                    // Send broadcast notification to all admin users
-                    notificationService.broadcastToAdminsWithAction(
-                        "ORDERS_DELIVERED",
-                        "INFO",
-                        "Orders Delivered - Payment Review Needed",
-                        notificationMessage,
-                        "/admin/payment-handling",
-                        "Review Orders",
-                        tripId
-                    );
-                }
             }
 
             // Update trip status to completed
@@ -530,26 +532,12 @@ public class DriverServiceImpl implements DriverService {
 
             // Update assignment status to completed
             tripAssignmentRepository.updateStatusByDriverAndTrip(driverId, tripId, "completed");
-
-            // Send notification
-            notificationService.sendTripNotification(
-                    driverId,
-                    tripId,
-                    "DELIVERY_CONFIRMED",
-                    "Delivery for trip #" + tripId + " has been confirmed",
-                    "completed"
-            );
-        } else {
-            // Send notification that trip confirmation was received but not all orders are delivered
-            notificationService.sendTripNotification(
-                    driverId,
-                    tripId,
-                    "DELIVERY_CONFIRMED",
-                    "Trip confirmation received. Please ensure all orders are marked as delivered.",
-                    trip.getStatus()
-            );
         }
 
+        // Driver and admin notifications are sent after commit by the event bus
+        domainEventBus.publish(new DomainEvent.DeliveryConfirmed(
+                tripId, driverId, allOrdersDelivered, trip.getStatus(), pendingPaymentOrders));
+
         tripRepository.save(trip);
     }
 
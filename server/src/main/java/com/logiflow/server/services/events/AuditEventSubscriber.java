@@ -0,0 +1,62 @@
+package com.logiflow.server.services.events;
+
+import com.logiflow.server.constants.AuditActions;
+import com.logiflow.server.services.admin.AuditLogService;
+import com.logiflow.server.services.events.DomainEvent.TripAssigned;
+import com.logiflow.server.services.events.DomainEvent.TripCancelled;
+import com.logiflow.server.services.user.IdentityDirectory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audit log entries for critical trip operations.
+ */
+@Component
+public class AuditEventSubscriber implements DomainEventSubscriber {
+    private static final String SYSTEM_ACTOR = "system";
+    private static final String SYSTEM_ROLE = "SYSTEM";
+
+    private final AuditLogService auditLogService;
+    private final IdentityDirectory identityDirectory;
+
+    public AuditEventSubscriber(AuditLogService auditLogService, IdentityDirectory identityDirectory) {
+        this.auditLogService = auditLogService;
+        this.identityDirectory = identityDirectory;
+    }
+
+    @Override
+    public String name() {
+        return "audit";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof TripAssigned || event instanceof TripCancelled;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        switch (event) {
+            case TripAssigned e -> {
+                String driverUsername = identityDirectory.usernameForDriver(e.driverId());
+                auditLogService.log(
+                        AuditActions.TRIP_ASSIGNED,
+                        SYSTEM_ACTOR,
+                        SYSTEM_ROLE,
+                        String.format("Trip #%d assigned to driver %s (%s) with vehicle %s",
+                                e.tripId(),
+                                driverUsername != null ? driverUsername : "Unknown",
+                                e.driverId(),
+                                e.vehiclePlate() != null ? e.vehiclePlate() : "Unknown"));
+            }
+            case TripCancelled e -> auditLogService.log(
+                    AuditActions.TRIP_CANCELLED,
+                    SYSTEM_ACTOR,
+                    SYSTEM_ROLE,
+                    String.format("Trip #%d cancelled | Reason: %s | Orders affected: %d",
+                            e.tripId(),
+                            e.reason() != null ? e.reason() : "No reason provided",
+                            e.ordersAffected()));
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.logiflow.server.services.events;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Facts published by the write paths through {@link DomainEventBus} once their transaction commits.
+ *
+ * Events carry plain values (ids, names, statuses) rather than entities: they are handled on other
+ * threads after the persistence context is gone, and are serialized as JSON when dead-lettered.
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * Events with the same key are handled by each subscriber in publish order.
+     */
+    String aggregateKey();
+
+    record TripAssigned(Integer tripId, Integer driverId, String vehiclePlate,
+                        LocalDateTime scheduledDeparture, String tripStatus) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "trip:" + tripId;
+        }
+    }
+
+    record TripStatusChanged(Integer tripId, String fromStatus, String toStatus,
+                             List<Integer> driverIds) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "trip:" + tripId;
+        }
+    }
+
+    record TripCancelled(Integer tripId, String reason, int ordersAffected,
+                         List<Integer> driverIds) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "trip:" + tripId;
+        }
+    }
+
+    record DeliveryConfirmed(Integer tripId, Integer driverId, boolean tripCompleted, String tripStatus,
+                             List<Integer> ordersPendingPayment) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "trip:" + tripId;
+        }
+    }
+
+    record OrderCreated(Integer orderId, String customerName, String priority) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "order:" + orderId;
+        }
+    }
+
+    /**
+     * One committed chunk of a file import; imports announce chunks instead of every order.
+     */
+    record OrdersImported(String importedBy, int count, int urgentCount, Integer firstOrderId,
+                          Integer lastOrderId) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "import:" + importedBy;
+        }
+    }
+
+    /**
+     * An order reached DELIVERED as part of a trip completing; customerUserId is null for orders without an account.
+     */
+    record OrderDelivered(Integer orderId, Integer tripId, Integer customerUserId, String customerName,
+                          String deliveryAddress) implements DomainEvent {
+        @Override
+        public String aggregateKey() {
+            return "order:" + orderId;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.logiflow.server.services.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logiflow.server.models.DomainEventDeadLetter;
+import com.logiflow.server.repositories.event.DomainEventDeadLetterRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process, asynchronous domain event bus.
+ *
+ * {@link #publish} defers dispatch until the caller's transaction commits, so a rolled-back write never
+ * produces side effects and the request thread only pays for the primary write. Every subscriber owns a
+ * fixed number of lanes; a lane is a bounded ring buffer drained by one thread, and an event goes to the
+ * lane picked by its aggregate key, so events of one trip/order reach a subscriber in publish order.
+ *
+ * A failing handler is retried on its lane with exponential backoff (blocking only that lane); once the
+ * attempts are used up, or if the lane is full, the event is stored in domain_event_dead_letters from
+ * where an admin can replay it.
+ */
+@Component
+public class DomainEventBus {
+    private static final Logger log = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private final DomainEventDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final Map<String, SubscriberLanes> subscribers = new LinkedHashMap<>();
+
+    private final AtomicLong published = new AtomicLong();
+    private volatile boolean running = true;
+
+    public DomainEventBus(List<DomainEventSubscriber> subscribers,
+                          DomainEventDeadLetterRepository deadLetterRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${app.events.lanes-per-subscriber:2}") int lanesPerSubscriber,
+                          @Value("${app.events.lane-capacity:4096}") int laneCapacity,
+                          @Value("${app.events.max-attempts:4}") int maxAttempts,
+                          @Value("${app.events.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        for (DomainEventSubscriber subscriber : subscribers) {
+            this.subscribers.put(subscriber.name(),
+                    new SubscriberLanes(subscriber, Math.max(1, lanesPerSubscriber), laneCapacity));
+        }
+    }
+
+    /**
+     * Publish an event; subscribers see it only after the current transaction (if any) commits.
+     */
+    public void publish(DomainEvent event) {
+        if (event == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(DomainEvent event) {
+        published.incrementAndGet();
+        for (SubscriberLanes lanes : subscribers.values()) {
+            if (lanes.subscriber.supports(event)) {
+                lanes.offer(event);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.get());
+        stats.put("pendingDeadLetters", deadLetterRepository.countByReplayedAtIsNull());
+        Map<String, Object> bySubscriber = new LinkedHashMap<>();
+        subscribers.forEach((name, lanes) -> bySubscriber.put(name, lanes.stats()));
+        stats.put("subscribers", bySubscriber);
+        return stats;
+    }
+
+    public List<DomainEventDeadLetter> findDeadLetters(int limit) {
+        return deadLetterRepository.findPending(PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    /**
+     * Re-queue a dead-lettered event to the subscriber that failed it.
+     */
+    public void replay(Long deadLetterId) {
+        DomainEventDeadLetter deadLetter = deadLetterRepository.findById(deadLetterId)
+                .orElseThrow(() -> new RuntimeException("Dead letter not found with id: " + deadLetterId));
+        if (deadLetter.getReplayedAt() != null) {
+            throw new RuntimeException("Dead letter " + deadLetterId + " was already replayed");
+        }
+        SubscriberLanes lanes = subscribers.get(deadLetter.getSubscriber());
+        if (lanes == null) {
+            throw new RuntimeException("Unknown subscriber: " + deadLetter.getSubscriber());
+        }
+        DomainEvent event;
+        try {
+            Class<?> type = Class.forName(deadLetter.getEventType());
+            if (!DomainEvent.class.isAssignableFrom(type)) {
+                throw new RuntimeException("Not a domain event type: " + deadLetter.getEventType());
+            }
+            event = (DomainEvent) objectMapper.readValue(deadLetter.getPayload(), type);
+        } catch (ClassNotFoundException | com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new RuntimeException("Cannot read dead letter " + deadLetterId + ": " + e.getMessage());
+        }
+        deadLetter.setReplayedAt(LocalDateTime.now());
+        deadLetterRepository.save(deadLetter);
+        lanes.offer(event);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        // Lanes drain what is already queued before their threads exit
+        for (SubscriberLanes lanes : subscribers.values()) {
+            lanes.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void deadLetter(DomainEventSubscriber subscriber, DomainEvent event, int attempts, String error) {
+        try {
+            DomainEventDeadLetter deadLetter = new DomainEventDeadLetter();
+            deadLetter.setSubscriber(subscriber.name());
+            deadLetter.setEventType(event.getClass().getName());
+            deadLetter.setAggregateKey(event.aggregateKey());
+            deadLetter.setPayload(objectMapper.writeValueAsString(event));
+            deadLetter.setError(error);
+            deadLetter.setAttempts(attempts);
+            deadLetter.setFailedAt(LocalDateTime.now());
+            deadLetterRepository.save(deadLetter);
+            log.warn("Dead-lettered {} for {} after {} attempts: {}",
+                    event.getClass().getSimpleName(), subscriber.name(), attempts, error);
+        } catch (Exception e) {
+            log.error("Failed to dead-letter {} for {} (event lost): {} / {}",
+                    event, subscriber.name(), error, e.getMessage());
+        }
+    }
+
+    private final class SubscriberLanes {
+        private final DomainEventSubscriber subscriber;
+        private final Lane[] lanes;
+        private final AtomicLong handled = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong deadLettered = new AtomicLong();
+
+        private SubscriberLanes(DomainEventSubscriber subscriber, int laneCount, int capacity) {
+            this.subscriber = subscriber;
+            this.lanes = new Lane[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                lanes[i] = new Lane(this, capacity, "events-" + subscriber.name() + "-" + i);
+            }
+        }
+
+        private void offer(DomainEvent event) {
+            Lane lane = lanes[Math.floorMod(event.aggregateKey().hashCode(), lanes.length)];
+            if (!lane.ring.offer(event)) {
+                deadLettered.incrementAndGet();
+                deadLetter(subscriber, event, 0, "Lane queue full");
+            }
+        }
+
+        private void deliver(DomainEvent event) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    subscriber.handle(event);
+                    handled.incrementAndGet();
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        deadLettered.incrementAndGet();
+                        deadLetter(subscriber, event, attempt, e.getClass().getSimpleName() + ": " + e.getMessage());
+                        return;
+                    }
+                    retried.incrementAndGet();
+                    log.debug("{} failed {} (attempt {}): {}", subscriber.name(), event, attempt, e.getMessage());
+                    try {
+                        Thread.sleep(retryBackoffMs << (attempt - 1));
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        deadLettered.incrementAndGet();
+                        deadLetter(subscriber, event, attempt, "Interrupted during retry: " + e.getMessage());
+                        return;
+                    }
+                }
+            }
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            int queued = 0;
+            for (Lane lane : lanes) queued += lane.ring.size();
+            stats.put("lanes", lanes.length);
+            stats.put("queued", queued);
+            stats.put("handled", handled.get());
+            stats.put("retried", retried.get());
+            stats.put("deadLettered", deadLettered.get());
+            return stats;
+        }
+
+        private void join(long timeoutMs) {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            for (Lane lane : lanes) {
+                try {
+                    lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final SubscriberLanes owner;
+        private final BlockingQueue<DomainEvent> ring;
+        private final Thread thread;
+
+        private Lane(SubscriberLanes owner, int capacity, String threadName) {
+            this.owner = owner;
+            this.ring = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, threadName);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<DomainEvent> batch = new ArrayList<>();
+            while (running || !ring.isEmpty()) {
+                try {
+                    DomainEvent first = ring.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    ring.drainTo(batch, 255);
+                    for (DomainEvent event : batch) {
+                        owner.deliver(event);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Event lane {} failed: {}", thread.getName(), e.getMessage());
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
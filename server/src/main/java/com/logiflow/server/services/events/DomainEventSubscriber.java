@@ -0,0 +1,19 @@
+package com.logiflow.server.services.events;
+
+/**
+ * A consumer of domain events. Each subscriber gets its own queues and threads in {@link DomainEventBus},
+ * so a slow or failing subscriber (e.g. payment emails) never delays another (e.g. notifications).
+ *
+ * Handlers may be retried after an exception and must therefore tolerate seeing an event more than once.
+ */
+public interface DomainEventSubscriber {
+
+    /**
+     * Stable name, used for thread names, stats and dead letters.
+     */
+    String name();
+
+    boolean supports(DomainEvent event);
+
+    void handle(DomainEvent event) throws Exception;
+}
@@ -0,0 +1,43 @@
+package com.logiflow.server.services.events;
+
+import com.logiflow.server.constants.TripStatus;
+import com.logiflow.server.services.events.DomainEvent.TripAssigned;
+import com.logiflow.server.services.events.DomainEvent.TripCancelled;
+import com.logiflow.server.services.events.DomainEvent.TripStatusChanged;
+import com.logiflow.server.services.tracking.LiveFleetService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory live fleet view in step with trip assignment and status changes.
+ */
+@Component
+public class FleetEventSubscriber implements DomainEventSubscriber {
+
+    private final LiveFleetService liveFleetService;
+
+    public FleetEventSubscriber(LiveFleetService liveFleetService) {
+        this.liveFleetService = liveFleetService;
+    }
+
+    @Override
+    public String name() {
+        return "fleet";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof TripAssigned || event instanceof TripStatusChanged || event instanceof TripCancelled;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        switch (event) {
+            case TripAssigned e -> liveFleetService.onTripStatus(e.driverId(), e.tripId(), e.tripStatus());
+            case TripStatusChanged e -> e.driverIds().forEach(
+                    driverId -> liveFleetService.onTripStatus(driverId, e.tripId(), e.toStatus()));
+            case TripCancelled e -> e.driverIds().forEach(
+                    driverId -> liveFleetService.onTripStatus(driverId, e.tripId(), TripStatus.CANCELLED));
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.logiflow.server.services.events;
+
+import com.logiflow.server.constants.AuditActions;
+import com.logiflow.server.constants.TripStatus;
+import com.logiflow.server.services.events.DomainEvent.DeliveryConfirmed;
+import com.logiflow.server.services.events.DomainEvent.OrderCreated;
+import com.logiflow.server.services.events.DomainEvent.OrderDelivered;
+import com.logiflow.server.services.events.DomainEvent.OrdersImported;
+import com.logiflow.server.services.events.DomainEvent.TripAssigned;
+import com.logiflow.server.websocket.NotificationService;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+/**
+ * Driver, customer, dispatcher and admin notifications for trip and order events.
+ */
+@Component
+public class NotificationEventSubscriber implements DomainEventSubscriber {
+
+    private final NotificationService notificationService;
+
+    public NotificationEventSubscriber(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof TripAssigned
+                || event instanceof DeliveryConfirmed
+                || event instanceof OrderCreated
+                || event instanceof OrdersImported
+                || (event instanceof OrderDelivered delivered && delivered.customerUserId() != null);
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        switch (event) {
+            case TripAssigned e -> notificationService.sendTripNotification(
+                    e.driverId(),
+                    e.tripId(),
+                    AuditActions.TRIP_ASSIGNED,
+                    "New trip assigned: #" + e.tripId() +
+                            " - Vehicle: " + (e.vehiclePlate() != null ? e.vehiclePlate() : "Unknown") +
+                            " - Scheduled: " + e.scheduledDeparture(),
+                    TripStatus.ASSIGNED);
+            case DeliveryConfirmed e -> onDeliveryConfirmed(e);
+            case OrderCreated e -> onOrderCreated(e);
+            case OrdersImported e -> onOrdersImported(e);
+            case OrderDelivered e -> notificationService.notifyOrderDelivered(
+                    e.customerUserId(), e.orderId(), e.customerName(), e.deliveryAddress());
+            default -> { }
+        }
+    }
+
+    private void onDeliveryConfirmed(DeliveryConfirmed e) {
+        if (!e.tripCompleted()) {
+            notificationService.sendTripNotification(
+                    e.driverId(),
+                    e.tripId(),
+                    "DELIVERY_CONFIRMED",
+                    "Trip confirmation received. Please ensure all orders are marked as delivered.",
+                    e.tripStatus());
+            return;
+        }
+
+        if (e.ordersPendingPayment() != null && !e.ordersPendingPayment().isEmpty()) {
+            String orderIds = e.ordersPendingPayment().stream().map(String::valueOf).collect(Collectors.joining(", "));
+            notificationService.broadcastToAdminsWithAction(
+                    "ORDERS_DELIVERED",
+                    "INFO",
+                    "Orders Delivered - Payment Review Needed",
+                    "Orders delivered and ready for payment review: " + orderIds,
+                    "/admin/payment-handling",
+                    "Review Orders",
+                    e.tripId());
+        }
+        notificationService.sendTripNotification(
+                e.driverId(),
+                e.tripId(),
+                "DELIVERY_CONFIRMED",
+                "Delivery for trip #" + e.tripId() + " has been confirmed",
+                e.tripStatus());
+    }
+
+    // Dispatchers (and admins for URGENT orders); bursts, e.g. from an import, arrive as digests
+    private void onOrderCreated(OrderCreated e) {
+        notificationService.notifyNewOrder(e.orderId(), e.customerName(), e.priority());
+
+        // Extra urgent haul alert (hard-coded rule)
+        if ("URGENT".equalsIgnoreCase(e.priority())) {
+            notificationService.broadcastToAdmins(
+                    "URGENT_HAUL",
+                    "CRITICAL",
+                    "URGENT haul needs attention",
+                    "Order #" + e.orderId() + " (" + e.customerName() + ") is URGENT. Please dispatch ASAP.");
+        }
+    }
+
+    // One notification per imported chunk rather than one per order
+    private void onOrdersImported(OrdersImported e) {
+        notificationService.broadcastToDispatchers(
+                "NEW_ORDER",
+                e.urgentCount() > 0 ? "WARNING" : "INFO",
+                "Orders Imported",
+                e.count() + " new orders imported by " + e.importedBy()
+                        + " (#" + e.firstOrderId() + " - #" + e.lastOrderId() + ")",
+                "/dispatch/orders",
+                "View Orders",
+                null);
+
+        if (e.urgentCount() > 0) {
+            notificationService.broadcastToAdmins(
+                    "URGENT_HAUL",
+                    "CRITICAL",
+                    "URGENT hauls imported",
+                    e.urgentCount() + " URGENT orders were imported by " + e.importedBy() + ". Please dispatch ASAP.");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.logiflow.server.services.events;
+
+import com.logiflow.server.services.events.DomainEvent.OrderDelivered;
+import com.logiflow.server.services.payment.PaymentService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Payment request emails (with PayPal link) for delivered orders. Calls out to PayPal and SMTP, which is
+ * why it runs on its own lanes instead of inside the trip status update.
+ */
+@Component
+public class PaymentEventSubscriber implements DomainEventSubscriber {
+
+    private final PaymentService paymentService;
+
+    public PaymentEventSubscriber(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    @Override
+    public String name() {
+        return "payments";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof OrderDelivered delivered && delivered.customerUserId() != null;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        if (event instanceof OrderDelivered e) {
+            paymentService.sendPaymentRequest(e.orderId());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.logiflow.server.services.notification;
+
+import com.logiflow.server.dtos.admin.notification.NotificationDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface NotificationArchiveService {
+    /**
+     * Move read notifications past the retention age into the archive and drop expired archive partitions.
+     */
+    Map<String, Object> archive();
+
+    /**
+     * Archived notifications, newest first, keyset-paginated like the live feeds.
+     * A null targetUsername returns the admin audience (broadcasts and notifications targeted at admins or
+     * dispatchers), like the live admin feed.
+     */
+    List<NotificationDto> findArchived(String targetUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size);
+}
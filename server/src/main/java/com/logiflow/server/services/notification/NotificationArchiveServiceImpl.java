@@ -0,0 +1,258 @@
+package com.logiflow.server.services.notification;
+
+import com.logiflow.server.dtos.admin.notification.NotificationDto;
+import com.logiflow.server.repositories.notification.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retention for the notifications table.
+ *
+ * Read notifications older than {@code app.notifications.archive.after-days} are moved into
+ * {@code notifications_archive}, a PostgreSQL table range-partitioned by month of creation. The live
+ * table then only holds unread and recent rows, so the feed, count and mark-read queries stay small no
+ * matter how much history accumulates. Archive partitions store the message column lz4-compressed and
+ * are dropped entirely once older than {@code app.notifications.archive.drop-after-months} (0 keeps them).
+ */
+@Service
+public class NotificationArchiveServiceImpl implements NotificationArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationArchiveServiceImpl.class);
+
+    private static final String ARCHIVE_TABLE = "notifications_archive";
+    private static final Pattern PARTITION_NAME = Pattern.compile(ARCHIVE_TABLE + "_y(\\d{4})m(\\d{2})");
+
+    private static final String CREATE_ARCHIVE_TABLE =
+            "CREATE TABLE IF NOT EXISTS " + ARCHIVE_TABLE + " (" +
+            " notification_id BIGINT NOT NULL," +
+            " notification_type VARCHAR(255) NOT NULL," +
+            " severity VARCHAR(255) NOT NULL," +
+            " title VARCHAR(255) NOT NULL," +
+            " message TEXT," +
+            " action_url VARCHAR(255)," +
+            " action_text VARCHAR(255)," +
+            " related_entity_id INTEGER," +
+            " is_read BOOLEAN NOT NULL," +
+            " digest_count INTEGER," +
+            " digest_items TEXT," +
+            " created_at TIMESTAMP NOT NULL," +
+            " target_user_id INTEGER," +
+            " archived_at TIMESTAMP NOT NULL," +
+            " PRIMARY KEY (created_at, notification_id)" +
+            ") PARTITION BY RANGE (created_at)";
+
+    private static final String COLUMNS =
+            "notification_id, notification_type, severity, title, message, action_url, action_text, " +
+            "related_entity_id, is_read, created_at, digest_count, digest_items, target_user_id";
+
+    // One bounded batch: delete from the live table and insert the deleted rows into the archive atomically.
+    // There is no default partition, so a row without a monthly partition fails the batch instead of being lost.
+    private static final String MOVE_BATCH =
+            "WITH moved AS (" +
+            " DELETE FROM notifications WHERE notification_id IN (" +
+            "  SELECT notification_id FROM notifications WHERE is_read = true AND created_at < ?" +
+            "  ORDER BY created_at LIMIT ?)" +
+            " RETURNING " + COLUMNS + ")" +
+            " INSERT INTO " + ARCHIVE_TABLE + " (" + COLUMNS + ", archived_at)" +
+            " SELECT " + COLUMNS + ", now() FROM moved";
+
+    private static final String SELECT_ARCHIVED =
+            "SELECT a.notification_id, a.notification_type, a.severity, a.title, a.message, a.action_url," +
+            " a.action_text, a.related_entity_id, a.is_read, a.created_at, a.digest_count FROM " + ARCHIVE_TABLE + " a";
+
+    private static final RowMapper<NotificationDto> ROW_MAPPER = (rs, rowNum) -> {
+        NotificationDto dto = new NotificationDto();
+        dto.setNotificationId(rs.getLong("notification_id"));
+        dto.setNotificationType(rs.getString("notification_type"));
+        dto.setSeverity(rs.getString("severity"));
+        dto.setTitle(rs.getString("title"));
+        dto.setMessage(rs.getString("message"));
+        dto.setActionUrl(rs.getString("action_url"));
+        dto.setActionText(rs.getString("action_text"));
+        dto.setRelatedEntityId((Integer) rs.getObject("related_entity_id"));
+        dto.setIsRead(rs.getBoolean("is_read"));
+        dto.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        dto.setDigestCount((Integer) rs.getObject("digest_count"));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int dropAfterMonths;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean schemaReady;
+
+    public NotificationArchiveServiceImpl(JdbcTemplate jdbcTemplate,
+                                          @Value("${app.notifications.archive.enabled:true}") boolean enabled,
+                                          @Value("${app.notifications.archive.after-days:30}") int afterDays,
+                                          @Value("${app.notifications.archive.drop-after-months:0}") int dropAfterMonths,
+                                          @Value("${app.notifications.archive.batch-size:1000}") int batchSize,
+                                          @Value("${app.notifications.archive.max-batches-per-run:500}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.dropAfterMonths = dropAfterMonths;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSchema() {
+        if (!enabled) return;
+        try {
+            jdbcTemplate.execute(CREATE_ARCHIVE_TABLE);
+            // Columns added to notifications after the archive table was first created
+            jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " ADD COLUMN IF NOT EXISTS digest_count INTEGER");
+            jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " ADD COLUMN IF NOT EXISTS digest_items TEXT");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_notifications_archive_target_created_at_id ON "
+                    + ARCHIVE_TABLE + " (target_user_id, created_at, notification_id)");
+            schemaReady = true;
+        } catch (Exception e) {
+            log.error("Notification archive disabled, could not create {}: {}", ARCHIVE_TABLE, e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.notifications.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) archive();
+    }
+
+    @Override
+    public Map<String, Object> archive() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!schemaReady) {
+            result.put("status", "DISABLED");
+            return result;
+        }
+        if (!running.compareAndSet(false, true)) {
+            result.put("status", "ALREADY_RUNNING");
+            return result;
+        }
+        try {
+            LocalDateTime cutoff = LocalDate.now().minusDays(afterDays).atStartOfDay();
+            ensurePartitions(cutoff);
+
+            long moved = 0;
+            int batches = 0;
+            int count;
+            do {
+                count = jdbcTemplate.update(MOVE_BATCH, Timestamp.valueOf(cutoff), batchSize);
+                moved += count;
+                batches++;
+            } while (count == batchSize && batches < maxBatchesPerRun);
+
+            List<String> dropped = dropExpiredPartitions();
+            log.info("Archived {} notifications read before {} in {} batches; dropped partitions {}",
+                    moved, cutoff, batches, dropped);
+
+            result.put("status", "OK");
+            result.put("cutoff", cutoff);
+            result.put("archived", moved);
+            result.put("batches", batches);
+            result.put("droppedPartitions", dropped);
+            return result;
+        } catch (Exception e) {
+            log.error("Notification archival failed: {}", e.getMessage());
+            result.put("status", "FAILED");
+            result.put("error", e.getMessage());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public List<NotificationDto> findArchived(String targetUsername, LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        if (!schemaReady) return List.of();
+
+        StringBuilder sql = new StringBuilder(SELECT_ARCHIVED);
+        List<Object> args = new ArrayList<>();
+        List<String> where = new ArrayList<>();
+        if (targetUsername != null) {
+            sql.append(" JOIN users u ON u.user_id = a.target_user_id");
+            where.add("u.username = ?");
+            args.add(targetUsername);
+        } else {
+            // Same audience as the live admin feed: broadcasts plus notifications targeted at admins/dispatchers
+            sql.append(" LEFT JOIN users u ON u.user_id = a.target_user_id LEFT JOIN roles r ON r.role_id = u.role_id");
+            where.add("(a.target_user_id IS NULL OR r.role_name IN ('ADMIN', 'DISPATCHER'))");
+        }
+        if (beforeCreatedAt != null && beforeId != null) {
+            where.add("(a.created_at, a.notification_id) < (?, ?)");
+            args.add(Timestamp.valueOf(beforeCreatedAt));
+            args.add(beforeId);
+        }
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY a.created_at DESC, a.notification_id DESC LIMIT ?");
+        args.add(Math.min(Math.max(1, size), NotificationRepository.MAX_FEED_PAGE_SIZE));
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    // Monthly partitions from the oldest archivable row up to the cutoff month
+    private void ensurePartitions(LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM notifications WHERE is_read = true AND created_at < ?",
+                Timestamp.class, Timestamp.valueOf(cutoff));
+        if (oldest == null) return;
+        YearMonth last = YearMonth.from(cutoff);
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); !month.isAfter(last); month = month.plusMonths(1)) {
+            String partition = partitionName(month);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + ARCHIVE_TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')"
+                    + " WITH (toast_tuple_target = 256)");
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + partition + " ALTER COLUMN message SET COMPRESSION lz4");
+            } catch (Exception e) {
+                // Server built without lz4: the default (pglz) TOAST compression still applies
+                log.debug("lz4 compression unavailable for {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private List<String> dropExpiredPartitions() {
+        List<String> dropped = new ArrayList<>();
+        if (dropAfterMonths <= 0) return dropped;
+        YearMonth oldestKept = YearMonth.now().minusMonths(dropAfterMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, ARCHIVE_TABLE);
+        for (String partition : partitions) {
+            Matcher m = PARTITION_NAME.matcher(partition);
+            if (!m.matches()) continue;
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped.add(partition);
+            }
+        }
+        return dropped;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", ARCHIVE_TABLE, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,11 @@
+package com.logiflow.server.services.sync;
+
+import com.logiflow.server.dtos.sync.SyncResponseDto;
+
+public interface SyncService {
+    /**
+     * Trips, notifications and chat messages of the user created, updated or deleted after the cursor.
+     * Returns null when nothing changed.
+     */
+    SyncResponseDto sync(String username, String role, long cursor);
+}
@@ -0,0 +1,302 @@
+package com.logiflow.server.services.sync;
+
+import com.logiflow.server.dtos.admin.notification.NotificationDto;
+import com.logiflow.server.dtos.chat.ChatMessageDto;
+import com.logiflow.server.dtos.driver.DriverDtos.TripSummaryDto;
+import com.logiflow.server.dtos.sync.SyncResponseDto;
+import com.logiflow.server.dtos.sync.SyncResponseDto.Changes;
+import com.logiflow.server.exceptions.ResourceNotFoundException;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.models.ChatMessage;
+import com.logiflow.server.models.Notification;
+import com.logiflow.server.repositories.chat.ChatMessageRepository;
+import com.logiflow.server.repositories.notification.NotificationRepository;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.services.user.IdentityDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for the mobile app.
+ *
+ * Every insert or update of trips, trip_assignments, notifications and chat_messages is stamped by a database
+ * trigger with the next value of one global sequence (change_seq) and the stamp time (change_at); deletes leave
+ * a row in sync_tombstones. A client keeps the cursor of its last sync and only receives rows stamped after it.
+ *
+ * Sequence values are taken before commit, so a slow transaction can commit a value lower than one already
+ * synced. The cursor therefore only advances over rows stamped at least {@code app.sync.settle-ms} ago; younger
+ * rows are still returned and simply come again on the next sync (clients apply upserts idempotently).
+ */
+@Service
+public class SyncServiceImpl implements SyncService {
+    private static final Logger log = LoggerFactory.getLogger(SyncServiceImpl.class);
+
+    private static final List<String> STAMPED_TABLES = List.of("trips", "trip_assignments", "notifications", "chat_messages");
+
+    private static final String TRIP_CHANGES =
+            "SELECT 'trip' AS entity, t.trip_id AS id, MAX(GREATEST(t.change_seq, ta.change_seq)) AS seq," +
+            " BOOL_AND(GREATEST(t.change_at, ta.change_at) <= clock_timestamp() - ? * interval '1 millisecond') AS settled" +
+            " FROM trips t JOIN trip_assignments ta ON ta.trip_id = t.trip_id" +
+            " WHERE ta.driver_id = ? AND GREATEST(t.change_seq, ta.change_seq) > ?" +
+            " GROUP BY t.trip_id ORDER BY seq LIMIT ?";
+
+    private static final String NOTIFICATION_CHANGES =
+            "SELECT 'notification' AS entity, n.notification_id AS id, n.change_seq AS seq," +
+            " n.change_at <= clock_timestamp() - ? * interval '1 millisecond' AS settled" +
+            " FROM notifications n WHERE n.target_user_id = ? AND n.change_seq > ? ORDER BY n.change_seq LIMIT ?";
+
+    private static final String DRIVER_CHAT_CHANGES =
+            "SELECT 'chat' AS entity, m.message_id AS id, m.change_seq AS seq," +
+            " m.change_at <= clock_timestamp() - ? * interval '1 millisecond' AS settled" +
+            " FROM chat_messages m WHERE m.trip_id IN (SELECT ta.trip_id FROM trip_assignments ta WHERE ta.driver_id = ?)" +
+            " AND m.change_seq > ? ORDER BY m.change_seq LIMIT ?";
+
+    private static final String CUSTOMER_CHAT_CHANGES =
+            "SELECT 'chat' AS entity, m.message_id AS id, m.change_seq AS seq," +
+            " m.change_at <= clock_timestamp() - ? * interval '1 millisecond' AS settled" +
+            " FROM chat_messages m WHERE m.order_id IN (SELECT o.order_id FROM orders o WHERE o.customer_id = ?)" +
+            " AND m.change_seq > ? ORDER BY m.change_seq LIMIT ?";
+
+    private static final String TOMBSTONES =
+            "SELECT entity, entity_id AS id, change_seq AS seq," +
+            " change_at <= clock_timestamp() - ? * interval '1 millisecond' AS settled" +
+            " FROM sync_tombstones WHERE change_seq > ? AND (scope_user_id = ? OR (scope_user_id IS NULL AND ?))" +
+            " ORDER BY change_seq LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdentityDirectory identityDirectory;
+    private final TripRepository tripRepository;
+    private final NotificationRepository notificationRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final int pageSize;
+    private final long settleMs;
+    private final int tombstoneRetentionDays;
+
+    private volatile boolean schemaReady;
+
+    public SyncServiceImpl(JdbcTemplate jdbcTemplate,
+                           IdentityDirectory identityDirectory,
+                           TripRepository tripRepository,
+                           NotificationRepository notificationRepository,
+                           ChatMessageRepository chatMessageRepository,
+                           @Value("${app.sync.page-size:200}") int pageSize,
+                           @Value("${app.sync.settle-ms:5000}") long settleMs,
+                           @Value("${app.sync.tombstone-retention-days:30}") int tombstoneRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.identityDirectory = identityDirectory;
+        this.tripRepository = tripRepository;
+        this.notificationRepository = notificationRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.pageSize = pageSize;
+        this.settleMs = settleMs;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSchema() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS sync_change_seq");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sync_state (id INTEGER PRIMARY KEY, pruned_through BIGINT NOT NULL)");
+            jdbcTemplate.execute("INSERT INTO sync_state (id, pruned_through) VALUES (1, 0) ON CONFLICT (id) DO NOTHING");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sync_tombstones (" +
+                    " change_seq BIGINT PRIMARY KEY DEFAULT nextval('sync_change_seq')," +
+                    " change_at TIMESTAMP NOT NULL DEFAULT clock_timestamp()," +
+                    " entity VARCHAR(32) NOT NULL," +
+                    " entity_id BIGINT NOT NULL," +
+                    " scope_user_id INTEGER)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_sync_tombstones_change_at ON sync_tombstones (change_at)");
+            jdbcTemplate.execute("CREATE OR REPLACE FUNCTION sync_stamp() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN" +
+                    " NEW.change_seq := nextval('sync_change_seq'); NEW.change_at := clock_timestamp(); RETURN NEW; END $$");
+
+            for (String table : STAMPED_TABLES) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS change_seq BIGINT");
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS change_at TIMESTAMP");
+                jdbcTemplate.execute("CREATE OR REPLACE TRIGGER trg_" + table + "_sync_stamp BEFORE INSERT OR UPDATE ON "
+                        + table + " FOR EACH ROW EXECUTE FUNCTION sync_stamp()");
+                // Backfill rows written before the trigger existed (the trigger stamps them)
+                jdbcTemplate.update("UPDATE " + table + " SET change_seq = 0 WHERE change_seq IS NULL");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_change_seq ON " + table + " (change_seq)");
+            }
+
+            createTombstoneTrigger("notifications",
+                    "IF OLD.target_user_id IS NOT NULL THEN INSERT INTO sync_tombstones (entity, entity_id, scope_user_id)" +
+                    " VALUES ('notification', OLD.notification_id, OLD.target_user_id); END IF;");
+            // Tombstones are scoped to the users the row was synced to: the drivers assigned to the trip and the
+            // customers of its orders. Rows whose audience is already gone (e.g. assignments deleted first) are
+            // covered by the trip_assignments trigger below.
+            createTombstoneTrigger("chat_messages",
+                    "INSERT INTO sync_tombstones (entity, entity_id, scope_user_id)" +
+                    " SELECT 'chat', OLD.message_id, d.user_id FROM trip_assignments ta JOIN drivers d ON d.driver_id = ta.driver_id" +
+                    " WHERE ta.trip_id = OLD.trip_id" +
+                    " UNION SELECT 'chat', OLD.message_id, o.customer_id FROM orders o WHERE o.order_id = OLD.order_id;");
+            createTombstoneTrigger("trips",
+                    "INSERT INTO sync_tombstones (entity, entity_id, scope_user_id)" +
+                    " SELECT 'trip', OLD.trip_id, d.user_id FROM trip_assignments ta JOIN drivers d ON d.driver_id = ta.driver_id" +
+                    " WHERE ta.trip_id = OLD.trip_id" +
+                    " UNION SELECT 'trip', OLD.trip_id, o.customer_id FROM orders o WHERE o.trip_id = OLD.trip_id;");
+            createTombstoneTrigger("trip_assignments",
+                    "INSERT INTO sync_tombstones (entity, entity_id, scope_user_id)" +
+                    " SELECT 'trip', OLD.trip_id, d.user_id FROM drivers d WHERE d.driver_id = OLD.driver_id;");
+            schemaReady = true;
+        } catch (Exception e) {
+            log.error("Delta sync disabled, could not install change tracking: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncResponseDto sync(String username, String role, long cursor) {
+        if (!schemaReady) {
+            throw new ServiceBusyException("Sync is not available", 60);
+        }
+        IdentityDirectory.Identity identity = identityDirectory.byUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        boolean driver = "ROLE_DRIVER".equals(role) && identity.driverId() != null;
+        boolean customer = "ROLE_CUSTOMER".equals(role);
+        // Unscoped tombstones (written before deletes were scoped) only go to admins
+        boolean admin = "ROLE_ADMIN".equals(role);
+
+        long prunedThrough = jdbcTemplate.queryForObject("SELECT pruned_through FROM sync_state WHERE id = 1", Long.class);
+        boolean full = cursor <= 0 || cursor < prunedThrough;
+        long from = full ? 0 : cursor;
+
+        Window window = new Window(from, pageSize);
+        List<Change> trips = driver
+                ? window.take(jdbcTemplate.query(TRIP_CHANGES, Change.MAPPER, settleMs, identity.driverId(), from, pageSize))
+                : List.of();
+        List<Change> notifications = window.take(
+                jdbcTemplate.query(NOTIFICATION_CHANGES, Change.MAPPER, settleMs, identity.userId(), from, pageSize));
+        List<Change> chat = driver
+                ? window.take(jdbcTemplate.query(DRIVER_CHAT_CHANGES, Change.MAPPER, settleMs, identity.driverId(), from, pageSize))
+                : customer
+                ? window.take(jdbcTemplate.query(CUSTOMER_CHAT_CHANGES, Change.MAPPER, settleMs, identity.userId(), from, pageSize))
+                : List.of();
+        // A full resync starts from empty local state, so deletions before it are irrelevant
+        List<Change> tombstones = full ? List.of() : window.take(
+                jdbcTemplate.query(TOMBSTONES, Change.MAPPER, settleMs, from, identity.userId(), admin, pageSize));
+
+        if (!full && window.isEmpty()) {
+            return null;
+        }
+
+        SyncResponseDto response = new SyncResponseDto();
+        response.setCursor(window.cursor());
+        response.setFull(full);
+        response.setHasMore(window.truncated);
+        response.setTrips(changes(trips, tombstones, "trip", ids -> tripRepository.findAllById(ids.stream().map(Long::intValue).toList())
+                .stream().collect(Collectors.toMap(t -> t.getTripId().longValue(), TripSummaryDto::fromTrip))));
+        response.setNotifications(changes(notifications, tombstones, "notification", ids -> notificationRepository.findAllById(ids)
+                .stream().collect(Collectors.toMap(Notification::getNotificationId, NotificationDto::new))));
+        response.setChat(changes(chat, tombstones, "chat", ids -> chatMessageRepository.findAllById(ids)
+                .stream().collect(Collectors.toMap(ChatMessage::getMessageId, ChatMessageDto::fromEntity))));
+        return response;
+    }
+
+    /**
+     * Forget tombstones older than the retention period; clients whose cursor predates them get a full resync.
+     */
+    @Scheduled(cron = "${app.sync.tombstone-prune-cron:0 45 3 * * *}")
+    public void pruneTombstones() {
+        if (!schemaReady) return;
+        try {
+            Long through = jdbcTemplate.queryForObject(
+                    "SELECT MAX(change_seq) FROM sync_tombstones WHERE change_at < now() - ? * interval '1 day'",
+                    Long.class, tombstoneRetentionDays);
+            if (through == null) return;
+            jdbcTemplate.update("UPDATE sync_state SET pruned_through = GREATEST(pruned_through, ?) WHERE id = 1", through);
+            int removed = jdbcTemplate.update("DELETE FROM sync_tombstones WHERE change_seq <= ?", through);
+            log.info("Pruned {} sync tombstones through change {}", removed, through);
+        } catch (Exception e) {
+            log.error("Failed to prune sync tombstones: {}", e.getMessage());
+        }
+    }
+
+    private void createTombstoneTrigger(String table, String body) {
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION sync_tombstone_" + table + "() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN "
+                + body + " RETURN OLD; END $$");
+        jdbcTemplate.execute("CREATE OR REPLACE TRIGGER trg_" + table + "_sync_tombstone AFTER DELETE ON " + table
+                + " FOR EACH ROW EXECUTE FUNCTION sync_tombstone_" + table + "()");
+    }
+
+    private static <T> Changes<T> changes(List<Change> upserts, List<Change> tombstones, String entity,
+                                          Function<List<Long>, Map<Long, T>> loader) {
+        List<Long> deleted = tombstones.stream()
+                .filter(c -> entity.equals(c.entity()))
+                .map(Change::id)
+                .distinct()
+                .toList();
+        if (upserts.isEmpty() && deleted.isEmpty()) return null;
+
+        List<T> rows = new ArrayList<>();
+        if (!upserts.isEmpty()) {
+            Map<Long, T> byId = loader.apply(upserts.stream().map(Change::id).toList());
+            // Deleted after the change was read: the tombstone wins
+            upserts.stream()
+                    .sorted(Comparator.comparingLong(Change::seq))
+                    .map(c -> byId.get(c.id()))
+                    .filter(Objects::nonNull)
+                    .forEach(rows::add);
+        }
+        return new Changes<>(rows, deleted);
+    }
+
+    /**
+     * Tracks how far the cursor may advance over the changes read in this sync.
+     */
+    private static final class Window {
+        private final long from;
+        private final int pageSize;
+        private long settledMax;
+        private long cap = Long.MAX_VALUE;
+        private boolean truncated;
+        private boolean empty = true;
+
+        private Window(long from, int pageSize) {
+            this.from = from;
+            this.pageSize = pageSize;
+            this.settledMax = from;
+        }
+
+        private List<Change> take(List<Change> changes) {
+            if (!changes.isEmpty()) empty = false;
+            // A truncated list only covers changes up to its last row
+            if (!changes.isEmpty() && changes.size() >= pageSize) {
+                truncated = true;
+                cap = Math.min(cap, changes.get(changes.size() - 1).seq());
+            }
+            for (Change c : changes) {
+                if (c.settled()) settledMax = Math.max(settledMax, c.seq());
+            }
+            return changes;
+        }
+
+        private boolean isEmpty() {
+            return empty;
+        }
+
+        private long cursor() {
+            return Math.max(from, Math.min(settledMax, cap));
+        }
+    }
+
+    private record Change(String entity, long id, long seq, boolean settled) {
+        private static final RowMapper<Change> MAPPER = (rs, rowNum) -> new Change(
+                rs.getString("entity"), rs.getLong("id"), rs.getLong("seq"), rs.getBoolean("settled"));
+    }
+}
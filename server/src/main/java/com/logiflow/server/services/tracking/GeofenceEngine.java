@@ -0,0 +1,265 @@
+package com.logiflow.server.services.tracking;
+
+import com.logiflow.server.constants.TripStatus;
+import com.logiflow.server.dtos.dispatch.TripProgressEventDto;
+import com.logiflow.server.dtos.notification.DispatcherNotificationDto;
+import com.logiflow.server.models.TripProgressEvent;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.order.OrderStopCoordinates;
+import com.logiflow.server.repositories.trip.TripProgressEventRepository;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
+import com.logiflow.server.repositories.trip_assignment.TripDriverRow;
+import com.logiflow.server.websocket.NotificationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory geofence engine for pickup/delivery stops of active trips.
+ *
+ * Stops are indexed in a lat/lng grid whose cell size is at least the exit radius, so a GPS point only
+ * has to look at its own cell and the 8 neighbours. Entering the enter radius records an ARRIVED
+ * progress event; leaving the (larger) exit radius records DEPARTED. The gap between the two radii
+ * is the hysteresis that keeps GPS jitter at the fence edge from producing event storms.
+ *
+ * Only points from a driver assigned to the trip are evaluated, so a driver cannot record arrivals on
+ * somebody else's trip.
+ *
+ * The GPS hot path never touches the database: the index is rebuilt periodically from two projection
+ * queries, and transitions are persisted and pushed to dispatchers on a dedicated background thread.
+ */
+@Service
+public class GeofenceEngine {
+    private static final Logger log = LoggerFactory.getLogger(GeofenceEngine.class);
+
+    private static final List<String> ACTIVE_TRIP_STATUSES = List.of(
+            TripStatus.ASSIGNED, TripStatus.IN_PROGRESS, TripStatus.DELAYED, TripStatus.ARRIVED);
+    private static final double METERS_PER_DEGREE = 111_320d;
+
+    public enum StopType { PICKUP, DELIVERY }
+
+    private final OrderRepository orderRepository;
+    private final TripRepository tripRepository;
+    private final TripAssignmentRepository tripAssignmentRepository;
+    private final TripProgressEventRepository tripProgressEventRepository;
+    private final NotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final double enterRadiusMeters;
+    private final double exitRadiusMeters;
+    private final double cellSizeDegrees;
+
+    private final ExecutorService eventWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "geofence-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Index index = Index.EMPTY;
+    // Fences the driver of a trip is currently inside, checked for exits on every point of that trip
+    private final Map<Integer, Set<Geofence>> insideByTrip = new ConcurrentHashMap<>();
+
+    public GeofenceEngine(OrderRepository orderRepository,
+                          TripRepository tripRepository,
+                          TripAssignmentRepository tripAssignmentRepository,
+                          TripProgressEventRepository tripProgressEventRepository,
+                          NotificationService notificationService,
+                          SimpMessagingTemplate messagingTemplate,
+                          @Value("${app.geofence.enter-radius-m:150}") double enterRadiusMeters,
+                          @Value("${app.geofence.exit-radius-m:300}") double exitRadiusMeters) {
+        if (exitRadiusMeters < enterRadiusMeters) {
+            throw new IllegalArgumentException("app.geofence.exit-radius-m must be >= enter radius");
+        }
+        this.orderRepository = orderRepository;
+        this.tripRepository = tripRepository;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+        this.tripProgressEventRepository = tripProgressEventRepository;
+        this.notificationService = notificationService;
+        this.messagingTemplate = messagingTemplate;
+        this.enterRadiusMeters = enterRadiusMeters;
+        this.exitRadiusMeters = exitRadiusMeters;
+        // Cell edge >= exit radius (longitude cells shrink with latitude; fine below ~70 degrees)
+        this.cellSizeDegrees = Math.max(0.001, exitRadiusMeters * 2 / METERS_PER_DEGREE);
+    }
+
+    /**
+     * Evaluate one GPS point of a trip sent by the given driver. Called from the tracking ingest path; O(1) on
+     * average. Points from a driver who is not assigned to the trip are ignored.
+     */
+    public void onLocation(Integer tripId, Integer driverId, double lat, double lng) {
+        if (tripId == null || driverId == null) return;
+        Index current = index;
+        Set<Integer> drivers = current.drivers.get(tripId);
+        if (drivers == null || !drivers.contains(driverId)) return;
+
+        Set<Geofence> inside = insideByTrip.get(tripId);
+        if (inside != null) {
+            for (Geofence fence : inside) {
+                if (fence.distanceMeters(lat, lng) > exitRadiusMeters && fence.inside.compareAndSet(true, false)) {
+                    inside.remove(fence);
+                    emit(fence, TripProgressEvent.EventType.DEPARTED);
+                }
+            }
+        }
+
+        long cx = cell(lat);
+        long cy = cell(lng);
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                Geofence[] fences = current.cells.get(cellKey(cx + dx, cy + dy));
+                if (fences == null) continue;
+                for (Geofence fence : fences) {
+                    if (!fence.tripId.equals(tripId) || fence.inside.get()) continue;
+                    if (fence.distanceMeters(lat, lng) <= enterRadiusMeters && fence.inside.compareAndSet(false, true)) {
+                        insideByTrip.computeIfAbsent(tripId, k -> ConcurrentHashMap.newKeySet()).add(fence);
+                        emit(fence, TripProgressEvent.EventType.ARRIVED);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from the stops of all active trips. Enter/exit state of fences that survive
+     * the rebuild is carried over, so a reload never re-emits an arrival.
+     */
+    @Scheduled(fixedDelayString = "${app.geofence.refresh-ms:30000}")
+    public void reload() {
+        List<OrderStopCoordinates> stops;
+        Map<Integer, Set<Integer>> drivers;
+        try {
+            stops = orderRepository.findStopCoordinatesByTripStatuses(ACTIVE_TRIP_STATUSES);
+            drivers = TripDriverRow.byTrip(tripAssignmentRepository.findTripDriversByTripStatuses(ACTIVE_TRIP_STATUSES));
+        } catch (Exception e) {
+            log.error("Failed to reload geofences: {}", e.getMessage());
+            return;
+        }
+
+        Index previous = index;
+        Map<String, Geofence> byKey = new HashMap<>();
+        Map<Long, List<Geofence>> cells = new HashMap<>();
+        for (OrderStopCoordinates stop : stops) {
+            addFence(previous, byKey, cells, stop, StopType.PICKUP, stop.getPickupLat(), stop.getPickupLng());
+            addFence(previous, byKey, cells, stop, StopType.DELIVERY, stop.getDeliveryLat(), stop.getDeliveryLng());
+        }
+
+        Map<Long, Geofence[]> frozen = new HashMap<>(cells.size() * 2);
+        cells.forEach((k, v) -> frozen.put(k, v.toArray(new Geofence[0])));
+        index = new Index(frozen, byKey, drivers);
+
+        // Drop inside-state for fences that no longer exist (trip completed/cancelled, order removed)
+        insideByTrip.values().forEach(set -> set.removeIf(f -> !byKey.containsKey(f.key)));
+        insideByTrip.values().removeIf(Set::isEmpty);
+        log.debug("Geofence index rebuilt: {} fences in {} cells", byKey.size(), frozen.size());
+    }
+
+    public int size() {
+        return index.byKey.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventWriter.shutdown();
+    }
+
+    private void addFence(Index previous, Map<String, Geofence> byKey, Map<Long, List<Geofence>> cells,
+                          OrderStopCoordinates stop, StopType type, BigDecimal lat, BigDecimal lng) {
+        if (lat == null || lng == null || stop.getTripId() == null) return;
+        String key = stop.getTripId() + ":" + stop.getOrderId() + ":" + type;
+        Geofence existing = previous.byKey.get(key);
+        Geofence fence = new Geofence(key, stop.getTripId(), stop.getOrderId(), type,
+                lat.doubleValue(), lng.doubleValue(),
+                existing != null ? existing.inside : new AtomicBoolean(false));
+        byKey.put(key, fence);
+        cells.computeIfAbsent(cellKey(cell(fence.lat), cell(fence.lng)), k -> new ArrayList<>()).add(fence);
+    }
+
+    private void emit(Geofence fence, TripProgressEvent.EventType type) {
+        eventWriter.execute(() -> {
+            try {
+                boolean arrived = type == TripProgressEvent.EventType.ARRIVED;
+                String stopName = fence.type == StopType.PICKUP ? "pickup" : "delivery";
+                String message = (arrived ? "Arrived at " : "Departed from ") + stopName + " of order #" + fence.orderId;
+
+                TripProgressEvent event = new TripProgressEvent();
+                event.setTrip(tripRepository.getReferenceById(fence.tripId));
+                event.setEventType(type);
+                event.setMessage(message);
+                event.setMetadata("{\"orderId\":" + fence.orderId + ",\"stop\":\"" + fence.type + "\",\"source\":\"GEOFENCE\"}");
+                event.setCreatedAt(LocalDateTime.now());
+                TripProgressEvent saved = tripProgressEventRepository.save(event);
+
+                messagingTemplate.convertAndSend("/topic/trips/" + fence.tripId + "/progress",
+                        TripProgressEventDto.fromEntity(saved));
+                notificationService.sendDispatcherNotification(DispatcherNotificationDto.of(
+                        arrived ? "GEOFENCE_ARRIVAL" : "GEOFENCE_DEPARTURE",
+                        "INFO",
+                        "Trip #" + fence.tripId + (arrived ? " arrived" : " departed"),
+                        message,
+                        "/dispatch/trips/" + fence.tripId,
+                        "View Trip"));
+            } catch (Exception e) {
+                log.error("Failed to record geofence {} for trip #{}: {}", type, fence.tripId, e.getMessage());
+            }
+        });
+    }
+
+    private long cell(double degrees) {
+        return (long) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    private static final class Geofence {
+        private final String key;
+        private final Integer tripId;
+        private final Integer orderId;
+        private final StopType type;
+        private final double lat;
+        private final double lng;
+        private final double cosLat;
+        private final AtomicBoolean inside;
+
+        private Geofence(String key, Integer tripId, Integer orderId, StopType type,
+                         double lat, double lng, AtomicBoolean inside) {
+            this.key = key;
+            this.tripId = tripId;
+            this.orderId = orderId;
+            this.type = type;
+            this.lat = lat;
+            this.lng = lng;
+            this.cosLat = Math.cos(Math.toRadians(lat));
+            this.inside = inside;
+        }
+
+        // Equirectangular approximation: accurate to well under 1% at geofence distances
+        private double distanceMeters(double pointLat, double pointLng) {
+            double dy = (pointLat - lat) * METERS_PER_DEGREE;
+            double dx = (pointLng - lng) * METERS_PER_DEGREE * cosLat;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    private record Index(Map<Long, Geofence[]> cells, Map<String, Geofence> byKey, Map<Integer, Set<Integer>> drivers) {
+        private static final Index EMPTY = new Index(Map.of(), Map.of(), Map.of());
+    }
+}
@@ -0,0 +1,505 @@
+package com.logiflow.server.services.tracking;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logiflow.server.constants.TripStatus;
+import com.logiflow.server.dtos.dispatch.StopEtaDto;
+import com.logiflow.server.dtos.dispatch.TripEtaDto;
+import com.logiflow.server.dtos.maps.DirectionsResultDto;
+import com.logiflow.server.models.Order;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.order.TripOrderStatus;
+import com.logiflow.server.repositories.trip.ActiveTripRoute;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
+import com.logiflow.server.repositories.trip_assignment.TripDriverRow;
+import com.logiflow.server.services.maps.MapsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuous per-stop ETA for active trips, driven by the GPS stream.
+ *
+ * Each trip caches a routed polyline through its remaining stops (pickups/deliveries not yet done, in route
+ * order) together with cumulative distance and time profiles and the position of every stop on it. A GPS
+ * point is snapped to the polyline by searching a small window after the previous snap, and the remaining
+ * time to each stop is read off the profiles - no routing call per point. The route is only fetched again
+ * when the driver stays further than the deviation threshold from it or a stop is completed; legs between
+ * stops are cached, so a reroute only re-fetches the leg from the driver to the next stop. Updates are
+ * published to /topic/trips/{tripId}/eta when an ETA moves by at least the publish delta or a stop is passed.
+ * Only points from a driver assigned to the trip move its ETA.
+ */
+@Service
+public class LiveEtaService {
+    private static final Logger log = LoggerFactory.getLogger(LiveEtaService.class);
+
+    private static final List<String> ACTIVE_TRIP_STATUSES = List.of(
+            TripStatus.ASSIGNED, TripStatus.IN_PROGRESS, TripStatus.DELAYED, TripStatus.ARRIVED);
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final double DEFAULT_SECONDS_PER_METER = 1 / 11.1; // ~40 km/h when the router gives no duration
+    private static final int SNAP_WINDOW_SEGMENTS = 40;
+    private static final int OFF_ROUTE_POINTS_BEFORE_REROUTE = 2;
+
+    private final MapsService mapsService;
+    private final TripRepository tripRepository;
+    private final TripAssignmentRepository tripAssignmentRepository;
+    private final OrderRepository orderRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final double deviationMeters;
+    private final long publishDeltaSeconds;
+    private final long rerouteIntervalMs;
+
+    // Routing calls run off the GPS path; when the queue is full the request is rejected and retried on a later point
+    private final ThreadPoolExecutor routingExecutor = new ThreadPoolExecutor(
+            2, 2, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256),
+            r -> {
+                Thread t = new Thread(r, "live-eta-routing");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private volatile Map<Integer, Plan> plans = Map.of();
+    private volatile Map<Integer, Set<Integer>> drivers = Map.of();
+    private final Map<Integer, TripEtaState> states = new ConcurrentHashMap<>();
+
+    public LiveEtaService(MapsService mapsService,
+                          TripRepository tripRepository,
+                          TripAssignmentRepository tripAssignmentRepository,
+                          OrderRepository orderRepository,
+                          SimpMessagingTemplate messagingTemplate,
+                          @Value("${app.eta.deviation-m:150}") double deviationMeters,
+                          @Value("${app.eta.publish-delta-s:60}") long publishDeltaSeconds,
+                          @Value("${app.eta.reroute-interval-ms:60000}") long rerouteIntervalMs) {
+        this.mapsService = mapsService;
+        this.tripRepository = tripRepository;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+        this.orderRepository = orderRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.deviationMeters = deviationMeters;
+        this.publishDeltaSeconds = publishDeltaSeconds;
+        this.rerouteIntervalMs = rerouteIntervalMs;
+    }
+
+    /**
+     * Feed one GPS point of a trip sent by the given driver. Called from the tracking ingest path. Points from a
+     * driver who is not assigned to the trip are ignored.
+     */
+    public void onLocation(Integer tripId, Integer driverId, double lat, double lng, long timestamp) {
+        if (tripId == null || driverId == null) return;
+        Set<Integer> assigned = drivers.get(tripId);
+        if (assigned == null || !assigned.contains(driverId)) return;
+        Plan plan = plans.get(tripId);
+        if (plan == null) return;
+
+        TripEtaState state = states.computeIfAbsent(tripId, TripEtaState::new);
+        synchronized (state) {
+            state.lastLat = lat;
+            state.lastLng = lng;
+
+            RouteProfile profile = state.profile;
+            if (profile == null || !profile.plan.equals(plan)) {
+                requestRoute(state, plan, lat, lng);
+                return;
+            }
+
+            Snap snap = profile.snap(lat, lng, state.segment - 2, state.segment + SNAP_WINDOW_SEGMENTS);
+            if (snap.offsetMeters > deviationMeters) {
+                // Window miss is not necessarily a deviation (e.g. after a GPS gap); try the whole route once
+                snap = profile.snap(lat, lng, 0, profile.segmentCount());
+            }
+
+            boolean offRoute = snap.offsetMeters > deviationMeters;
+            if (offRoute) {
+                if (++state.offRoutePoints >= OFF_ROUTE_POINTS_BEFORE_REROUTE) {
+                    requestRoute(state, plan, lat, lng);
+                }
+            } else {
+                state.offRoutePoints = 0;
+                state.segment = snap.segment;
+            }
+
+            publishIfChanged(state, profile, snap, offRoute, timestamp);
+        }
+    }
+
+    /**
+     * Latest ETA of a trip, or null if the trip is not being tracked.
+     */
+    public TripEtaDto getEta(Integer tripId) {
+        TripEtaState state = tripId != null ? states.get(tripId) : null;
+        return state != null ? state.current : null;
+    }
+
+    /**
+     * Latest ETA of one stop of a trip ("pickup" or "delivery" of the order), or null if the trip is not being
+     * tracked or the stop is already done.
+     */
+    public StopEtaDto getStopEta(Integer tripId, Integer orderId, String stopType) {
+        TripEtaDto eta = getEta(tripId);
+        if (eta == null || eta.getStops() == null || orderId == null) return null;
+        for (StopEtaDto stop : eta.getStops()) {
+            if (orderId.equals(stop.getOrderId()) && stop.getStopType().equalsIgnoreCase(stopType)) {
+                return stop;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Refresh the remaining stops of every active trip and drop state of finished trips. Pickups of orders in
+     * transit and both stops of delivered/cancelled orders are done and left out.
+     */
+    @Scheduled(fixedDelayString = "${app.eta.refresh-ms:30000}")
+    public void refreshDestinations() {
+        List<ActiveTripRoute> routes;
+        Map<Integer, Set<Integer>> nextDrivers;
+        Map<Integer, Order.OrderStatus> orderStatuses = new HashMap<>();
+        try {
+            routes = tripRepository.findRoutesByStatuses(ACTIVE_TRIP_STATUSES);
+            nextDrivers = TripDriverRow.byTrip(tripAssignmentRepository.findTripDriversByTripStatuses(ACTIVE_TRIP_STATUSES));
+            for (TripOrderStatus row : orderRepository.findOrderStatusesByTripStatuses(ACTIVE_TRIP_STATUSES)) {
+                orderStatuses.put(row.getOrderId(), row.getOrderStatus());
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh live ETA destinations: {}", e.getMessage());
+            return;
+        }
+
+        Map<Integer, Plan> next = new HashMap<>();
+        for (ActiveTripRoute route : routes) {
+            List<Stop> remaining = new ArrayList<>();
+            for (Stop stop : parseStops(route.getWaypoints())) {
+                if (!isDone(stop, orderStatuses.get(stop.orderId))) {
+                    remaining.add(stop);
+                }
+            }
+            if (!remaining.isEmpty()) {
+                next.put(route.getTripId(), new Plan(List.copyOf(remaining)));
+            }
+        }
+        plans = next;
+        drivers = nextDrivers;
+        states.keySet().removeIf(tripId -> !next.containsKey(tripId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        routingExecutor.shutdownNow();
+    }
+
+    private static boolean isDone(Stop stop, Order.OrderStatus status) {
+        if (status == null || stop.orderId == null) return false;
+        return switch (status) {
+            case DELIVERED, CANCELLED -> true;
+            case IN_TRANSIT -> "pickup".equalsIgnoreCase(stop.type);
+            default -> false;
+        };
+    }
+
+    private void requestRoute(TripEtaState state, Plan plan, double lat, double lng) {
+        long now = System.currentTimeMillis();
+        // A new plan (stop completed) is routed right away; retries of the same plan wait for the interval
+        boolean newPlan = !plan.equals(state.requestedPlan);
+        if (state.routing || (!newPlan && now - state.lastRouteAt < rerouteIntervalMs)) {
+            return;
+        }
+        state.requestedPlan = plan;
+        state.routing = true;
+        state.lastRouteAt = now;
+        try {
+            routingExecutor.execute(() -> buildRoute(state, plan, lat, lng));
+        } catch (RejectedExecutionException e) {
+            state.routing = false; // Routing backlog full; retried on a later point
+        }
+    }
+
+    private void buildRoute(TripEtaState state, Plan plan, double lat, double lng) {
+        RouteProfile profile = null;
+        try {
+            List<DirectionsResultDto> legs = new ArrayList<>(plan.stops.size());
+            legs.add(route(lat, lng, plan.stops.get(0)));
+            for (int i = 1; i < plan.stops.size(); i++) {
+                Stop from = plan.stops.get(i - 1);
+                Stop to = plan.stops.get(i);
+                // Legs between stops don't depend on the driver's position; reuse them across reroutes
+                DirectionsResultDto leg = state.legs.get(from.legKey(to));
+                legs.add(leg != null ? leg : route(from.lat, from.lng, to));
+            }
+            if (legs.stream().allMatch(LiveEtaService::hasGeometry)) {
+                profile = RouteProfile.from(plan, legs);
+                Map<String, DirectionsResultDto> cached = new HashMap<>();
+                for (int i = 1; i < plan.stops.size(); i++) {
+                    cached.put(plan.stops.get(i - 1).legKey(plan.stops.get(i)), legs.get(i));
+                }
+                state.legs = cached;
+            }
+        } catch (Exception e) {
+            log.warn("Live ETA routing failed for trip #{}: {}", state.tripId, e.getMessage());
+        }
+
+        synchronized (state) {
+            state.routing = false;
+            if (profile == null) return;
+            state.profile = profile;
+            state.offRoutePoints = 0;
+            Snap snap = profile.snap(state.lastLat, state.lastLng, 0, SNAP_WINDOW_SEGMENTS);
+            state.segment = snap.segment;
+            publishIfChanged(state, profile, snap, false, System.currentTimeMillis());
+        }
+    }
+
+    private DirectionsResultDto route(double fromLat, double fromLng, Stop to) {
+        return mapsService.getDirections(
+                String.valueOf(fromLat), String.valueOf(fromLng),
+                String.valueOf(to.lat), String.valueOf(to.lng), true);
+    }
+
+    private static boolean hasGeometry(DirectionsResultDto directions) {
+        return directions != null && directions.getGeometry() != null && directions.getGeometry().size() >= 2;
+    }
+
+    private void publishIfChanged(TripEtaState state, RouteProfile profile, Snap snap, boolean offRoute, long timestamp) {
+        // Off route, the distance back to the route is added at the speed of the current segment
+        double extraMeters = offRoute ? snap.offsetMeters : 0;
+        double extraSeconds = extraMeters * profile.secondsPerMeter(snap.segment);
+        double secondsAlong = profile.secondsAt(snap);
+
+        ZoneId zone = ZoneId.systemDefault();
+        long nowSeconds = timestamp / 1000;
+        List<StopEtaDto> stops = new ArrayList<>(profile.plan.stops.size());
+        long finalEtaEpochSeconds = nowSeconds;
+        double finalSeconds = 0;
+        double finalMeters = 0;
+        for (int i = 0; i < profile.plan.stops.size(); i++) {
+            boolean last = i == profile.plan.stops.size() - 1;
+            double meters = profile.stopMeters[i] - snap.alongMeters;
+            if (meters <= 0 && !last) continue; // Passed on the route; its order status catches up on refresh
+            meters = Math.max(0, meters) + extraMeters;
+            double seconds = Math.max(0, profile.stopSeconds[i] - secondsAlong) + extraSeconds;
+            long etaEpochSeconds = nowSeconds + Math.round(seconds);
+            Stop stop = profile.plan.stops.get(i);
+            stops.add(new StopEtaDto(stop.orderId, stop.type,
+                    LocalDateTime.ofInstant(Instant.ofEpochSecond(etaEpochSeconds), zone),
+                    (int) Math.round(seconds), (int) Math.round(meters)));
+            if (last) {
+                finalEtaEpochSeconds = etaEpochSeconds;
+                finalSeconds = seconds;
+                finalMeters = meters;
+            }
+        }
+        long nextEtaEpochSeconds = nowSeconds + stops.get(0).getRemainingSeconds();
+
+        boolean changed = state.publishedEtaEpochSeconds < 0
+                || Math.abs(finalEtaEpochSeconds - state.publishedEtaEpochSeconds) >= publishDeltaSeconds
+                || Math.abs(nextEtaEpochSeconds - state.publishedNextEtaEpochSeconds) >= publishDeltaSeconds
+                || stops.size() != state.publishedStopCount
+                || (state.current != null && !Boolean.valueOf(offRoute).equals(state.current.getOffRoute()));
+
+        state.current = new TripEtaDto(
+                state.tripId,
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(finalEtaEpochSeconds), zone),
+                (int) Math.round(finalSeconds),
+                (int) Math.round(finalMeters),
+                offRoute,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone),
+                List.copyOf(stops));
+
+        if (changed) {
+            state.publishedEtaEpochSeconds = finalEtaEpochSeconds;
+            state.publishedNextEtaEpochSeconds = nextEtaEpochSeconds;
+            state.publishedStopCount = stops.size();
+            messagingTemplate.convertAndSend("/topic/trips/" + state.tripId + "/eta", state.current);
+        }
+    }
+
+    private List<Stop> parseStops(String waypointsJson) {
+        if (waypointsJson == null || waypointsJson.isBlank()) return List.of();
+        List<Stop> stops = new ArrayList<>();
+        try {
+            List<Map<String, Object>> waypoints = objectMapper.readValue(waypointsJson, new TypeReference<>() {});
+            for (Map<String, Object> waypoint : waypoints) {
+                Object lat = waypoint.get("lat");
+                Object lng = waypoint.get("lng");
+                if (lat == null || lng == null) continue;
+                Object orderId = waypoint.get("orderId");
+                Object type = waypoint.get("type");
+                stops.add(new Stop(
+                        orderId != null ? Integer.valueOf(orderId.toString()) : null,
+                        type != null ? type.toString() : "delivery",
+                        Double.parseDouble(lat.toString()),
+                        Double.parseDouble(lng.toString())));
+            }
+        } catch (Exception e) {
+            log.debug("Unparseable route waypoints: {}", e.getMessage());
+            return List.of();
+        }
+        return stops;
+    }
+
+    private record Stop(Integer orderId, String type, double lat, double lng) {
+        String legKey(Stop to) {
+            return lat + "," + lng + ">" + to.lat + "," + to.lng;
+        }
+    }
+
+    /** Remaining stops of a trip in route order; a new plan (stop done, route edited) triggers a reroute. */
+    private record Plan(List<Stop> stops) {}
+
+    private record Snap(int segment, double alongMeters, double offsetMeters) {}
+
+    private static final class TripEtaState {
+        private final Integer tripId;
+        private RouteProfile profile;
+        private Plan requestedPlan;
+        private Map<String, DirectionsResultDto> legs = Map.of();
+        private int segment;
+        private int offRoutePoints;
+        private boolean routing;
+        private long lastRouteAt;
+        private double lastLat;
+        private double lastLng;
+        private long publishedEtaEpochSeconds = -1;
+        private long publishedNextEtaEpochSeconds = -1;
+        private int publishedStopCount = -1;
+        private volatile TripEtaDto current;
+
+        private TripEtaState(Integer tripId) {
+            this.tripId = tripId;
+        }
+    }
+
+    /**
+     * Routed polyline through the remaining stops with cumulative distance and time per vertex. Each leg's
+     * duration is spread over its distance, so the time at any snapped position is one interpolation.
+     */
+    private static final class RouteProfile {
+        private final Plan plan;
+        private final double[] lats;
+        private final double[] lngs;
+        private final double[] cumulativeMeters;
+        private final double[] cumulativeSeconds;
+        private final double[] stopMeters;
+        private final double[] stopSeconds;
+
+        private RouteProfile(Plan plan, double[] lats, double[] lngs, double[] cumulativeMeters,
+                             double[] cumulativeSeconds, double[] stopMeters, double[] stopSeconds) {
+            this.plan = plan;
+            this.lats = lats;
+            this.lngs = lngs;
+            this.cumulativeMeters = cumulativeMeters;
+            this.cumulativeSeconds = cumulativeSeconds;
+            this.stopMeters = stopMeters;
+            this.stopSeconds = stopSeconds;
+        }
+
+        static RouteProfile from(Plan plan, List<DirectionsResultDto> legs) {
+            int n = 1;
+            for (DirectionsResultDto leg : legs) {
+                n += leg.getGeometry().size() - 1; // Each leg starts where the previous one ended
+            }
+            double[] lats = new double[n];
+            double[] lngs = new double[n];
+            double[] cumulativeMeters = new double[n];
+            double[] cumulativeSeconds = new double[n];
+            double[] stopMeters = new double[legs.size()];
+            double[] stopSeconds = new double[legs.size()];
+
+            int v = 0;
+            for (int l = 0; l < legs.size(); l++) {
+                DirectionsResultDto leg = legs.get(l);
+                List<List<Double>> geometry = leg.getGeometry(); // GeoJSON order: [lng, lat]
+                int legStart = v;
+                for (int i = l == 0 ? 0 : 1; i < geometry.size(); i++) {
+                    List<?> coordinate = geometry.get(i); // JSON numbers may arrive as Integer
+                    lngs[v] = ((Number) coordinate.get(0)).doubleValue();
+                    lats[v] = ((Number) coordinate.get(1)).doubleValue();
+                    if (v > 0) {
+                        cumulativeMeters[v] = cumulativeMeters[v - 1] + distance(lats[v - 1], lngs[v - 1], lats[v], lngs[v]);
+                    }
+                    v++;
+                }
+                int legEnd = v - 1;
+                int legFirst = l == 0 ? 0 : legStart - 1;
+                double legMeters = cumulativeMeters[legEnd] - cumulativeMeters[legFirst];
+                double legSeconds = leg.getDurationSeconds() != null ? leg.getDurationSeconds() : 0;
+                double secondsPerMeter = legMeters > 0 && legSeconds > 0 ? legSeconds / legMeters : DEFAULT_SECONDS_PER_METER;
+                for (int i = legFirst + 1; i <= legEnd; i++) {
+                    cumulativeSeconds[i] = cumulativeSeconds[i - 1]
+                            + (cumulativeMeters[i] - cumulativeMeters[i - 1]) * secondsPerMeter;
+                }
+                stopMeters[l] = cumulativeMeters[legEnd];
+                stopSeconds[l] = cumulativeSeconds[legEnd];
+            }
+            return new RouteProfile(plan, lats, lngs, cumulativeMeters, cumulativeSeconds, stopMeters, stopSeconds);
+        }
+
+        int segmentCount() {
+            return lats.length - 1;
+        }
+
+        double secondsPerMeter(int segment) {
+            double meters = cumulativeMeters[segment + 1] - cumulativeMeters[segment];
+            return meters > 0
+                    ? (cumulativeSeconds[segment + 1] - cumulativeSeconds[segment]) / meters
+                    : DEFAULT_SECONDS_PER_METER;
+        }
+
+        double secondsAt(Snap snap) {
+            return cumulativeSeconds[snap.segment]
+                    + (snap.alongMeters - cumulativeMeters[snap.segment]) * secondsPerMeter(snap.segment);
+        }
+
+        Snap snap(double lat, double lng, int fromSegment, int toSegment) {
+            int from = Math.max(0, fromSegment);
+            int to = Math.min(segmentCount(), toSegment);
+            double cosLat = Math.cos(Math.toRadians(lat));
+            Snap best = null;
+            for (int i = from; i < to; i++) {
+                // Project onto segment i in a local planar frame centred on the point
+                double ax = (lngs[i] - lng) * METERS_PER_DEGREE * cosLat;
+                double ay = (lats[i] - lat) * METERS_PER_DEGREE;
+                double bx = (lngs[i + 1] - lng) * METERS_PER_DEGREE * cosLat;
+                double by = (lats[i + 1] - lat) * METERS_PER_DEGREE;
+                double dx = bx - ax;
+                double dy = by - ay;
+                double lengthSquared = dx * dx + dy * dy;
+                double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+                double px = ax + t * dx;
+                double py = ay + t * dy;
+                double offset = Math.sqrt(px * px + py * py);
+                if (best == null || offset < best.offsetMeters) {
+                    double along = cumulativeMeters[i] + t * (cumulativeMeters[i + 1] - cumulativeMeters[i]);
+                    best = new Snap(i, along, offset);
+                }
+            }
+            return best != null ? best : new Snap(0, 0, distance(lat, lng, lats[0], lngs[0]));
+        }
+
+        private static double distance(double lat1, double lng1, double lat2, double lng2) {
+            double dy = (lat2 - lat1) * METERS_PER_DEGREE;
+            double dx = (lng2 - lng1) * METERS_PER_DEGREE * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+}
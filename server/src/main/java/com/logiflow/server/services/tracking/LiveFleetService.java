@@ -0,0 +1,274 @@
+package com.logiflow.server.services.tracking;
+
+import com.logiflow.server.constants.TripStatus;
+import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDeltaDto;
+import com.logiflow.server.dtos.admin.dashboard.ActiveDriverLocationDto;
+import com.logiflow.server.repositories.driver.DriverRepository;
+import com.logiflow.server.repositories.driver.FleetDriverRow;
+import com.logiflow.server.repositories.trip_assignment.ActiveAssignmentRow;
+import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live fleet map served from memory.
+ *
+ * Every driver has an immutable entry stamped with a global version number. GPS ingest and trip/driver
+ * status changes replace entries; a scheduled publisher freezes the current entries into an immutable
+ * {@link Snapshot} that readers pick up with a single volatile read, so map polling never hits the
+ * database. The snapshot version doubles as ETag, and {@link #changesSince(long)} returns only the
+ * entries newer than the version a client already has.
+ *
+ * A periodic reload from two projection queries reconciles names, assignments and drivers that were
+ * added or removed outside the hooks.
+ */
+@Service
+public class LiveFleetService {
+    private static final Logger log = LoggerFactory.getLogger(LiveFleetService.class);
+
+    private static final List<String> ACTIVE_TRIP_STATUSES = List.of(
+            TripStatus.ASSIGNED, TripStatus.IN_PROGRESS, TripStatus.DELAYED, TripStatus.ARRIVED);
+
+    private final DriverRepository driverRepository;
+    private final TripAssignmentRepository tripAssignmentRepository;
+    private final long tombstoneRetentionMs;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    // Drivers removed from the fleet, kept for a while so delta clients learn about the removal
+    private final Map<Integer, Tombstone> tombstones = new ConcurrentHashMap<>();
+    private volatile long deltaFloor;
+    private volatile boolean dirty;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public LiveFleetService(DriverRepository driverRepository,
+                            TripAssignmentRepository tripAssignmentRepository,
+                            @Value("${app.fleet.tombstone-retention-ms:600000}") long tombstoneRetentionMs) {
+        this.driverRepository = driverRepository;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+        this.tombstoneRetentionMs = tombstoneRetentionMs;
+    }
+
+    /**
+     * Latest published snapshot. Only drivers with a known position are included.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Entries changed after the given version. Falls back to the full fleet when removals older than
+     * the tombstone retention could have been missed.
+     */
+    public ActiveDriverLocationDeltaDto changesSince(long since) {
+        Snapshot current = snapshot;
+        if (since <= 0 || since < current.deltaFloor || since > current.version) {
+            return new ActiveDriverLocationDeltaDto(current.version, true, current.drivers, List.of());
+        }
+        List<ActiveDriverLocationDto> changed = new ArrayList<>();
+        for (Entry entry : current.entries) {
+            if (entry.version > since && entry.isVisible()) {
+                changed.add(entry.location);
+            }
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Map.Entry<Integer, Long> tombstone : current.tombstones.entrySet()) {
+            if (tombstone.getValue() > since) {
+                removed.add(tombstone.getKey());
+            }
+        }
+        return new ActiveDriverLocationDeltaDto(current.version, false, changed, removed);
+    }
+
+    /**
+     * GPS ingest hook: update the position of a driver.
+     */
+    public void onLocation(Integer driverId, double lat, double lng) {
+        if (driverId == null) return;
+        BigDecimal latitude = BigDecimal.valueOf(lat);
+        BigDecimal longitude = BigDecimal.valueOf(lng);
+        entries.compute(driverId, (id, current) -> {
+            ActiveDriverLocationDto.ActiveDriverLocationDtoBuilder builder = current != null
+                    ? current.location.toBuilder()
+                    : ActiveDriverLocationDto.builder().driverId(id);
+            return new Entry(builder.latitude(latitude).longitude(longitude).build(), versions.incrementAndGet());
+        });
+        dirty = true;
+    }
+
+    /**
+     * Trip/driver status hook. Applied after the surrounding transaction commits (immediately when
+     * there is none), so rolled-back changes never reach the map.
+     */
+    public void onTripStatus(Integer driverId, Integer tripId, String status) {
+        if (driverId == null || tripId == null || status == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyTripStatus(driverId, tripId, status);
+                }
+            });
+        } else {
+            applyTripStatus(driverId, tripId, status);
+        }
+    }
+
+    private void applyTripStatus(Integer driverId, Integer tripId, String status) {
+        boolean active = ACTIVE_TRIP_STATUSES.contains(status.toLowerCase());
+        entries.computeIfPresent(driverId, (id, current) -> {
+            ActiveDriverLocationDto location = current.location;
+            ActiveDriverLocationDto next;
+            if (active) {
+                boolean sameTrip = tripId.equals(location.getTripId());
+                next = location.toBuilder()
+                        .tripId(tripId)
+                        .tripStatus(status)
+                        // Vehicle/route of a newly assigned trip are filled in by the next reload
+                        .vehiclePlate(sameTrip ? location.getVehiclePlate() : null)
+                        .routeName(sameTrip ? location.getRouteName() : null)
+                        .build();
+            } else if (tripId.equals(location.getTripId())) {
+                // Completed/cancelled trips release the driver
+                next = location.toBuilder().tripId(null).tripStatus("available")
+                        .vehiclePlate(null).routeName(null).build();
+            } else {
+                return current;
+            }
+            return next.equals(location) ? current : new Entry(next, versions.incrementAndGet());
+        });
+        dirty = true;
+    }
+
+    /**
+     * Reconcile the in-memory fleet with the database. Positions already received over GPS win over
+     * the persisted ones; entries only get a new version when something actually changed.
+     */
+    @Scheduled(fixedDelayString = "${app.fleet.reload-ms:60000}")
+    public void reload() {
+        List<FleetDriverRow> drivers;
+        List<ActiveAssignmentRow> assignments;
+        try {
+            drivers = driverRepository.findFleetRows();
+            assignments = tripAssignmentRepository.findActiveAssignmentRows(ACTIVE_TRIP_STATUSES);
+        } catch (Exception e) {
+            log.error("Failed to reload live fleet: {}", e.getMessage());
+            return;
+        }
+
+        Map<Integer, ActiveAssignmentRow> assignmentByDriver = new HashMap<>();
+        for (ActiveAssignmentRow row : assignments) {
+            assignmentByDriver.put(row.getDriverId(), row); // ordered by assignedAt: latest wins
+        }
+
+        Map<Integer, Boolean> seen = new HashMap<>(drivers.size() * 2);
+        for (FleetDriverRow row : drivers) {
+            seen.put(row.getDriverId(), Boolean.TRUE);
+            ActiveAssignmentRow assignment = assignmentByDriver.get(row.getDriverId());
+            entries.compute(row.getDriverId(), (id, current) -> {
+                boolean hasLivePosition = current != null && current.location.getLatitude() != null;
+                ActiveDriverLocationDto next = ActiveDriverLocationDto.of(
+                        id,
+                        row.getFullName(),
+                        row.getPhone(),
+                        assignment != null ? assignment.getTripId() : null,
+                        assignment != null ? assignment.getTripStatus() : row.getStatus(),
+                        hasLivePosition ? current.location.getLatitude() : row.getLatitude(),
+                        hasLivePosition ? current.location.getLongitude() : row.getLongitude(),
+                        assignment != null ? assignment.getVehiclePlate() : null,
+                        assignment != null ? assignment.getRouteName() : null);
+                if (current != null && next.equals(current.location)) {
+                    return current;
+                }
+                dirty = true;
+                return new Entry(next, versions.incrementAndGet());
+            });
+        }
+
+        for (Integer driverId : new ArrayList<>(entries.keySet())) {
+            if (!seen.containsKey(driverId) && entries.remove(driverId) != null) {
+                tombstones.put(driverId, new Tombstone(versions.incrementAndGet(), System.currentTimeMillis()));
+                dirty = true;
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Freeze the current entries into a new snapshot if anything changed since the last publish.
+     */
+    @Scheduled(fixedDelayString = "${app.fleet.publish-ms:1000}")
+    public synchronized void publish() {
+        long now = System.currentTimeMillis();
+        tombstones.entrySet().removeIf(e -> {
+            if (now - e.getValue().removedAt < tombstoneRetentionMs) return false;
+            deltaFloor = Math.max(deltaFloor, e.getValue().version);
+            dirty = true;
+            return true;
+        });
+        if (!dirty) return;
+        dirty = false;
+
+        // Read the version before copying: entries stamped later are at worst sent again in the next delta
+        long version = versions.get();
+        Entry[] frozen = entries.values().toArray(new Entry[0]);
+        Arrays.sort(frozen, Comparator.comparing(e -> e.location.getDriverId()));
+        List<ActiveDriverLocationDto> visible = new ArrayList<>(frozen.length);
+        for (Entry entry : frozen) {
+            if (entry.isVisible()) visible.add(entry.location);
+        }
+        Map<Integer, Long> removed = new HashMap<>();
+        tombstones.forEach((id, t) -> removed.put(id, t.version));
+
+        snapshot = new Snapshot(version, deltaFloor, frozen, List.copyOf(visible), Map.copyOf(removed));
+    }
+
+    private record Entry(ActiveDriverLocationDto location, long version) {
+        boolean isVisible() {
+            return location.getLatitude() != null && location.getLongitude() != null;
+        }
+    }
+
+    private record Tombstone(long version, long removedAt) {}
+
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(0, 0, new Entry[0], List.of(), Map.of());
+
+        private final long version;
+        private final long deltaFloor;
+        private final Entry[] entries;
+        private final List<ActiveDriverLocationDto> drivers;
+        private final Map<Integer, Long> tombstones;
+
+        private Snapshot(long version, long deltaFloor, Entry[] entries,
+                         List<ActiveDriverLocationDto> drivers, Map<Integer, Long> tombstones) {
+            this.version = version;
+            this.deltaFloor = deltaFloor;
+            this.entries = entries;
+            this.drivers = drivers;
+            this.tombstones = tombstones;
+        }
+
+        public long getVersion() { return version; }
+        public List<ActiveDriverLocationDto> getDrivers() { return drivers; }
+
+        public String getETag() {
+            return "\"fleet-" + version + "\"";
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.logiflow.server.services.trip;
 
 import com.logiflow.server.models.Trip;
-import com.logiflow.server.models.TripAssignment;
 import com.logiflow.server.repositories.trip.TripRepository;
 import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
 import com.logiflow.server.websocket.NotificationService;
@@ -31,22 +30,8 @@ public class TripNotificationHelper {
         Trip trip = tripRepository.findByIdWithRelations(tripId).orElse(null);
         if (trip != null && driverId != null) {
             String message = "New trip assigned: " + (trip.getRoute() != null ? trip.getRoute().getRouteName() : "Trip #" + tripId);
-            String driverUsername = null;
-            if (trip.getTripAssignments() != null) {
-                var assignment = trip.getTripAssignments().stream()
-                        .filter(ta -> ta.getDriver() != null && driverId.equals(ta.getDriver().getDriverId()))
-                        .findFirst()
-                        .orElse(null);
-                if (assignment != null && assignment.getDriver().getUser() != null) {
-                    driverUsername = assignment.getDriver().getUser().getUsername();
-                }
-            }
-
-            if (driverUsername != null && !driverUsername.isBlank()) {
-                notificationService.sendTripNotificationByUsername(driverUsername, tripId, "TRIP_ASSIGNED", message, trip.getStatus());
-            } else {
-                notificationService.sendTripNotification(driverId, tripId, "TRIP_ASSIGNED", message, trip.getStatus());
-            }
+            // Driver username is resolved from the identity cache by NotificationService
+            notificationService.sendTripNotification(driverId, tripId, "TRIP_ASSIGNED", message, trip.getStatus());
         }
     }
 
@@ -55,23 +40,7 @@ public class TripNotificationHelper {
      */
     public void notifyTripRerouted(Integer tripId, Integer driverId, String newRoute) {
         String message = "Trip #" + tripId + " has been rerouted. New route: " + newRoute;
-        Trip trip = tripRepository.findByIdWithRelations(tripId).orElse(null);
-        String driverUsername = null;
-        if (trip != null && trip.getTripAssignments() != null) {
-            var assignment = trip.getTripAssignments().stream()
-                    .filter(ta -> ta.getDriver() != null && driverId.equals(ta.getDriver().getDriverId()))
-                    .findFirst()
-                    .orElse(null);
-            if (assignment != null && assignment.getDriver().getUser() != null) {
-                driverUsername = assignment.getDriver().getUser().getUsername();
-            }
-        }
-
-        if (driverUsername != null && !driverUsername.isBlank()) {
-            notificationService.sendTripNotificationByUsername(driverUsername, tripId, "TRIP_REROUTED", message, null);
-        } else {
-            notificationService.sendTripNotification(driverId, tripId, "TRIP_REROUTED", message, null);
-        }
+        notificationService.sendTripNotification(driverId, tripId, "TRIP_REROUTED", message, null);
     }
 
     /**
@@ -79,23 +48,7 @@ public class TripNotificationHelper {
      */
     public void notifyTripCancelledByDispatcher(Integer tripId, Integer driverId, String reason) {
         String message = "Trip #" + tripId + " has been cancelled" + (reason != null ? ": " + reason : "");
-        Trip trip = tripRepository.findByIdWithRelations(tripId).orElse(null);
-        String driverUsername = null;
-        if (trip != null && trip.getTripAssignments() != null) {
-            var assignment = trip.getTripAssignments().stream()
-                    .filter(ta -> ta.getDriver() != null && driverId.equals(ta.getDriver().getDriverId()))
-                    .findFirst()
-                    .orElse(null);
-            if (assignment != null && assignment.getDriver().getUser() != null) {
-                driverUsername = assignment.getDriver().getUser().getUsername();
-            }
-        }
-
-        if (driverUsername != null && !driverUsername.isBlank()) {
-            notificationService.sendTripNotificationByUsername(driverUsername, tripId, "TRIP_CANCELLED_BY_DISPATCHER", message, "cancelled");
-        } else {
-            notificationService.sendTripNotification(driverId, tripId, "TRIP_CANCELLED_BY_DISPATCHER", message, "cancelled");
-        }
+        notificationService.sendTripNotification(driverId, tripId, "TRIP_CANCELLED_BY_DISPATCHER", message, "cancelled");
     }
 
     /**
@@ -103,22 +56,6 @@ public class TripNotificationHelper {
      */
     public void notifyTripUpdated(Integer tripId, Integer driverId, String updateDetails) {
         String message = "Trip #" + tripId + " has been updated: " + updateDetails;
-        Trip trip = tripRepository.findByIdWithRelations(tripId).orElse(null);
-        String driverUsername = null;
-        if (trip != null && trip.getTripAssignments() != null) {
-            var assignment = trip.getTripAssignments().stream()
-                    .filter(ta -> ta.getDriver() != null && driverId.equals(ta.getDriver().getDriverId()))
-                    .findFirst()
-                    .orElse(null);
-            if (assignment != null && assignment.getDriver().getUser() != null) {
-                driverUsername = assignment.getDriver().getUser().getUsername();
-            }
-        }
-
-        if (driverUsername != null && !driverUsername.isBlank()) {
-            notificationService.sendTripNotificationByUsername(driverUsername, tripId, "TRIP_UPDATED", message, null);
-        } else {
-            notificationService.sendTripNotification(driverId, tripId, "TRIP_UPDATED", message, null);
-        }
+        notificationService.sendTripNotification(driverId, tripId, "TRIP_UPDATED", message, null);
     }
 }
@@ -0,0 +1,55 @@
+package com.logiflow.server.services.user;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cached resolution between usernames, user ids, driver ids and customer ids.
+ *
+ * Used on the authenticated driver/customer request paths and by notification delivery, which
+ * previously loaded User/Driver/Customer entities just to translate one id into another.
+ * Entries are bounded in number and age, and dropped when an account is updated or deactivated.
+ */
+public interface IdentityDirectory {
+
+    record Identity(Integer userId, String username, boolean active, Integer driverId, Integer customerId) {}
+
+    Optional<Identity> byUsername(String username);
+
+    Optional<Identity> byUserId(Integer userId);
+
+    Optional<Identity> byDriverId(Integer driverId);
+
+    Optional<Identity> byCustomerId(Integer customerId);
+
+    /**
+     * Resolve Authentication.getName(): a numeric value is treated as a user id, anything else as a username.
+     */
+    Optional<Identity> byAuthName(String authName);
+
+    /**
+     * Username of the driver's account, or null if the driver does not exist.
+     */
+    String usernameForDriver(Integer driverId);
+
+    /**
+     * Batch lookup keyed by driver id; drivers that do not exist are missing from the result.
+     */
+    Map<Integer, Identity> byDriverIds(Collection<Integer> driverIds);
+
+    /**
+     * Batch lookup keyed by user id; users that do not exist are missing from the result.
+     */
+    Map<Integer, Identity> byUserIds(Collection<Integer> userIds);
+
+    /**
+     * Bypass the cache and reload one account, e.g. after its driver or customer profile was created.
+     */
+    Optional<Identity> reload(Integer userId);
+
+    /**
+     * Drop the cached identity of this user now and again when the current transaction commits.
+     */
+    void invalidate(Integer userId);
+}
@@ -0,0 +1,237 @@
+package com.logiflow.server.services.user;
+
+import com.logiflow.server.repositories.user.UserIdentity;
+import com.logiflow.server.repositories.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * LRU identity cache keyed by user id, with username/driver/customer indexes pointing into it.
+ *
+ * All four maps are guarded by one lock so an evicted or invalidated entry never leaves a dangling
+ * index key. Database loads happen outside the lock; a load that raced with an invalidation is
+ * returned to its caller but not cached.
+ */
+@Service
+public class IdentityDirectoryImpl implements IdentityDirectory {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<Integer, Entry> entries;
+    private final Map<String, Integer> userIdByUsername = new HashMap<>();
+    private final Map<Integer, Integer> userIdByDriverId = new HashMap<>();
+    private final Map<Integer, Integer> userIdByCustomerId = new HashMap<>();
+    // Bumped by every invalidation; loads that started before the bump are not cached
+    private long generation;
+
+    public IdentityDirectoryImpl(UserRepository userRepository,
+                                 @Value("${app.identity.cache-size:10000}") int maxEntries,
+                                 @Value("${app.identity.cache-ttl-ms:900000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= maxEntries) return false;
+                unindex(eldest.getValue().identity());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Identity> byUsername(String username) {
+        if (username == null || username.isBlank()) return Optional.empty();
+        return lookup(userIdByUsername, username, () -> userRepository.findIdentityByUsername(username));
+    }
+
+    @Override
+    public Optional<Identity> byUserId(Integer userId) {
+        if (userId == null) return Optional.empty();
+        synchronized (lock) {
+            Identity cached = fresh(userId);
+            if (cached != null) return Optional.of(cached);
+        }
+        return load(() -> userRepository.findIdentityById(userId));
+    }
+
+    @Override
+    public Optional<Identity> byDriverId(Integer driverId) {
+        if (driverId == null) return Optional.empty();
+        return lookup(userIdByDriverId, driverId, () -> userRepository.findIdentityByDriverId(driverId));
+    }
+
+    @Override
+    public Optional<Identity> byCustomerId(Integer customerId) {
+        if (customerId == null) return Optional.empty();
+        return lookup(userIdByCustomerId, customerId, () -> userRepository.findIdentityByCustomerId(customerId));
+    }
+
+    @Override
+    public Optional<Identity> byAuthName(String authName) {
+        if (authName == null) return Optional.empty();
+        try {
+            return byUserId(Integer.parseInt(authName));
+        } catch (NumberFormatException ex) {
+            return byUsername(authName);
+        }
+    }
+
+    @Override
+    public String usernameForDriver(Integer driverId) {
+        return byDriverId(driverId).map(Identity::username).orElse(null);
+    }
+
+    @Override
+    public Map<Integer, Identity> byDriverIds(Collection<Integer> driverIds) {
+        Map<Integer, Identity> result = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        collectCached(driverIds, userIdByDriverId, result, missing);
+        if (!missing.isEmpty()) {
+            loadAll(() -> userRepository.findIdentitiesByDriverIds(missing))
+                    .forEach(identity -> result.put(identity.driverId(), identity));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, Identity> byUserIds(Collection<Integer> userIds) {
+        Map<Integer, Identity> result = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        synchronized (lock) {
+            for (Integer userId : userIds) {
+                if (userId == null || result.containsKey(userId)) continue;
+                Identity cached = fresh(userId);
+                if (cached != null) result.put(userId, cached);
+                else missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadAll(() -> userRepository.findIdentitiesByIds(missing))
+                    .forEach(identity -> result.put(identity.userId(), identity));
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Identity> reload(Integer userId) {
+        if (userId == null) return Optional.empty();
+        evict(userId);
+        return load(() -> userRepository.findIdentityById(userId));
+    }
+
+    @Override
+    public void invalidate(Integer userId) {
+        if (userId == null) return;
+        evict(userId);
+        // A concurrent request may re-cache the pre-commit row before this transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private <K> Optional<Identity> lookup(Map<K, Integer> index, K key, Supplier<Optional<UserIdentity>> loader) {
+        synchronized (lock) {
+            Integer userId = index.get(key);
+            Identity cached = userId != null ? fresh(userId) : null;
+            if (cached != null) return Optional.of(cached);
+        }
+        return load(loader);
+    }
+
+    private <K> void collectCached(Collection<K> keys, Map<K, Integer> index, Map<K, Identity> result, Set<K> missing) {
+        synchronized (lock) {
+            for (K key : keys) {
+                if (key == null || result.containsKey(key)) continue;
+                Integer userId = index.get(key);
+                Identity cached = userId != null ? fresh(userId) : null;
+                if (cached != null) result.put(key, cached);
+                else missing.add(key);
+            }
+        }
+    }
+
+    private Optional<Identity> load(Supplier<Optional<UserIdentity>> loader) {
+        long startedAt = currentGeneration();
+        Optional<Identity> loaded = loader.get().map(IdentityDirectoryImpl::toIdentity);
+        loaded.ifPresent(identity -> cache(identity, startedAt));
+        return loaded;
+    }
+
+    private List<Identity> loadAll(Supplier<List<UserIdentity>> loader) {
+        long startedAt = currentGeneration();
+        List<Identity> loaded = loader.get().stream().map(IdentityDirectoryImpl::toIdentity).toList();
+        loaded.forEach(identity -> cache(identity, startedAt));
+        return loaded;
+    }
+
+    // Caller holds the lock
+    private Identity fresh(Integer userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) return null;
+        if (System.currentTimeMillis() - entry.loadedAt() > ttlMs) {
+            entries.remove(userId);
+            unindex(entry.identity());
+            return null;
+        }
+        return entry.identity();
+    }
+
+    private void cache(Identity identity, long loadGeneration) {
+        synchronized (lock) {
+            if (loadGeneration != generation) return;
+            Entry previous = entries.put(identity.userId(), new Entry(identity, System.currentTimeMillis()));
+            if (previous != null) unindex(previous.identity());
+            userIdByUsername.put(identity.username(), identity.userId());
+            if (identity.driverId() != null) userIdByDriverId.put(identity.driverId(), identity.userId());
+            if (identity.customerId() != null) userIdByCustomerId.put(identity.customerId(), identity.userId());
+        }
+    }
+
+    private void evict(Integer userId) {
+        synchronized (lock) {
+            generation++;
+            Entry entry = entries.remove(userId);
+            if (entry != null) unindex(entry.identity());
+        }
+    }
+
+    // Caller holds the lock; only removes index keys that still point at this user
+    private void unindex(Identity identity) {
+        userIdByUsername.remove(identity.username(), identity.userId());
+        if (identity.driverId() != null) userIdByDriverId.remove(identity.driverId(), identity.userId());
+        if (identity.customerId() != null) userIdByCustomerId.remove(identity.customerId(), identity.userId());
+    }
+
+    private long currentGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    private static Identity toIdentity(UserIdentity row) {
+        return new Identity(row.getUserId(), row.getUsername(), Boolean.TRUE.equals(row.getIsActive()),
+                row.getDriverId(), row.getCustomerId());
+    }
+
+    private record Entry(Identity identity, long loadedAt) {}
+}
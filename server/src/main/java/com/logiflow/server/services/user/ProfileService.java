@@ -1,5 +1,6 @@
 package com.logiflow.server.services.user;
 
+import com.logiflow.server.dtos.auth.AuthResponse;
 import com.logiflow.server.dtos.user.ProfileDto;
 
 public interface ProfileService {
@@ -10,5 +11,8 @@ public interface ProfileService {
 
     ProfileDto updateProfile(String username, com.logiflow.server.dtos.user.ProfileUpdateDto profileUpdateDto);
 
-    void changePassword(String username, String currentPassword, String newPassword);
+    /**
+     * Change the password and revoke every token issued before; returns a fresh token for the caller.
+     */
+    AuthResponse changePassword(String username, String currentPassword, String newPassword);
 }
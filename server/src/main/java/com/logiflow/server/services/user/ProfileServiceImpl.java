@@ -1,6 +1,7 @@
 package com.logiflow.server.services.user;
 
 import com.logiflow.server.constants.AuditActions;
+import com.logiflow.server.dtos.auth.AuthResponse;
 import com.logiflow.server.dtos.user.ProfileDto;
 import com.logiflow.server.models.Driver;
 import com.logiflow.server.models.User;
@@ -13,10 +14,13 @@ import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository
 import com.logiflow.server.repositories.user.UserRepository;
 import com.logiflow.server.services.file.FileStorageService;
 import com.logiflow.server.services.admin.AuditLogService;
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
+import com.logiflow.server.utils.JwtUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
@@ -30,6 +34,8 @@ public class ProfileServiceImpl implements ProfileService {
     private final OrderRepository orderRepository;
     private final AuditLogService auditLogService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final JwtUtils jwtUtils;
 
     public ProfileServiceImpl(
             UserRepository userRepository,
@@ -39,7 +45,9 @@ public class ProfileServiceImpl implements ProfileService {
             DriverWorkLogRepository driverWorkLogRepository,
             OrderRepository orderRepository,
             AuditLogService auditLogService,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            TokenRevocationRegistry tokenRevocationRegistry,
+            JwtUtils jwtUtils) {
         this.userRepository = userRepository;
         this.fileStorageService = fileStorageService;
         this.driverRepository = driverRepository;
@@ -48,6 +56,8 @@ public class ProfileServiceImpl implements ProfileService {
         this.orderRepository = orderRepository;
         this.auditLogService = auditLogService;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.jwtUtils = jwtUtils;
     }
 
     @Override
@@ -171,7 +181,7 @@ public class ProfileServiceImpl implements ProfileService {
     }
 
     @Override
-    public void changePassword(String username, String currentPassword, String newPassword) {
+    public AuthResponse changePassword(String username, String currentPassword, String newPassword) {
         User user = userRepository.findByUsernameWithRole(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -185,16 +195,24 @@ public class ProfileServiceImpl implements ProfileService {
             throw new BusinessRuleException("New password must be at least 6 characters long");
         }
 
-        // Update password
+        // Update password; tokens issued with the old one (every session, this one included) stop working,
+        // so the caller gets a fresh token issued at the new cut-off
+        LocalDateTime now = LocalDateTime.now();
         user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setTokensValidAfter(now);
         userRepository.save(user);
+        tokenRevocationRegistry.revokeIssuedBefore(username, now);
 
+        String role = user.getRole() != null ? user.getRole().getRoleName() : "";
         // Audit log the password change
         auditLogService.log(
             AuditActions.PASSWORD_CHANGE,
             username,
-            user.getRole() != null ? user.getRole().getRoleName() : "",
+            role,
             "User changed password"
         );
+
+        String token = jwtUtils.generateToken(username, role, TokenRevocationRegistry.firstValidIssuedAt(now));
+        return new AuthResponse(token, username, role, user.getProfilePictureUrl(), "Password changed");
     }
 }
@@ -1,52 +1,156 @@
 package com.logiflow.server.utils;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Issues and verifies the API's HS-signed JWTs.
+ *
+ * The signing key and parser are built once (both are immutable and thread-safe). {@link #verify} parses and
+ * checks a token once and returns all claims the callers need; successfully verified tokens are remembered,
+ * keyed by a SHA-256 digest of the token, until they expire, so repeat requests with the same token skip
+ * the base64/JSON/HMAC work entirely.
+ */
 @Component
 public class JwtUtils {
-    private final String secret;
+
+    /**
+     * Claims of a token whose signature and expiry have been checked.
+     */
+    public record VerifiedToken(String username, String role, long issuedAtMs, long expiresAtMs) {
+        public boolean isExpired(long nowMs) {
+            return nowMs >= expiresAtMs;
+        }
+    }
+
+    private final SecretKey key;
+    private final JwtParser parser;
     private final long expirationMs;
+    private final int maxCachedTokens;
+    private final Map<TokenDigest, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
 
     public JwtUtils(@Value("${app.jwt.secret}") String secret,
-                    @Value("${app.jwt.expiration-ms}") long expirationMs) {
+                    @Value("${app.jwt.expiration-ms}") long expirationMs,
+                    @Value("${app.jwt.verified-cache-size:20000}") int maxCachedTokens) {
         if (secret == null || secret.length() < 32) {
             throw new IllegalArgumentException("JWT_SECRET must contain at least 32 characters");
         }
-        this.secret = secret;
+        this.key = secretToKey(secret);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.expirationMs = expirationMs;
+        this.maxCachedTokens = maxCachedTokens;
     }
 
     public String generateToken(String username, String role){
+        return generateToken(username, role, Instant.now());
+    }
+
+    /**
+     * Token with an explicit issue time, e.g. the first second a fresh revocation cut-off still accepts.
+     */
+    public String generateToken(String username, String role, Instant issuedAt) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(secretToKey(secret))
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(new Date(issuedAt.toEpochMilli() + expirationMs))
+                .signWith(key)
                 .compact();
     }
-    
+
+    /**
+     * Verify signature and expiry of a token and return its claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with, expired or has no subject/expiry
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new JwtException("Invalid token");
+        }
+        long now = System.currentTimeMillis();
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verified.remove(digest);
+            throw new JwtException("Token expired");
+        }
+
+        VerifiedToken claims = parse(token);
+        if (maxCachedTokens > 0) {
+            if (verified.size() >= maxCachedTokens) {
+                evict(now);
+            }
+            verified.put(digest, claims);
+        }
+        return claims;
+    }
+
+    public String extractUsername(String token) {
+        return verify(token).username();
+    }
+
     public String extractRole(String token) {
+        return verify(token).role();
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims body;
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretToKey(secret))
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .get("role", String.class);
-        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
-            throw new io.jsonwebtoken.JwtException("Invalid token", e);
+            body = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new JwtException("Invalid token", e);
+        }
+        if (body.getSubject() == null || body.getExpiration() == null) {
+            throw new JwtException("Invalid token");
+        }
+        Date issuedAt = body.getIssuedAt();
+        return new VerifiedToken(
+                body.getSubject(),
+                body.get("role", String.class),
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                body.getExpiration().getTime());
+    }
+
+    // Drop expired tokens first; if the cache is still full, drop an arbitrary tenth of it
+    private void evict(long now) {
+        verified.values().removeIf(t -> t.isExpired(now));
+        int excess = verified.size() - maxCachedTokens + Math.max(1, maxCachedTokens / 10);
+        Iterator<TokenDigest> it = verified.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
         }
     }
-    private SecretKey secretToKey(String secret){
+
+    private static SecretKey secretToKey(String secret){
         var  bytes = secret.getBytes(StandardCharsets.UTF_8);
         try{
              var key = Keys.hmacShaKeyFor(bytes);
@@ -56,35 +160,13 @@ public class JwtUtils {
          }
 
     }
-    public String extractUsername(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretToKey(secret))
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
-            throw new io.jsonwebtoken.JwtException("Invalid token", e);
-        }
-    }
-    public boolean isTokenExpired(String token){
-        return extractExpiration(token).before(new Date());
 
-    }
-    public Date extractExpiration(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretToKey(secret))
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getExpiration();
-        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
-            throw new io.jsonwebtoken.JwtException("Invalid token", e);
+    // First 128 bits of SHA-256(token): small, and not worth forging (a second preimage is needed)
+    private record TokenDigest(long high, long low) {
+        private static TokenDigest of(String token) {
+            MessageDigest sha = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(sha.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(hash.getLong(), hash.getLong());
         }
     }
-    public boolean validateToken(String token, String username){
-        return (username.equals(extractUsername(token)) && !isTokenExpired(token));
-    }
 }
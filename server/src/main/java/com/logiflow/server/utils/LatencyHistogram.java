@@ -0,0 +1,68 @@
+package com.logiflow.server.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two millisecond buckets (0-1ms, 1-2ms, 2-4ms ... 2^30ms).
+ *
+ * Percentiles are reported as the upper bound of the bucket they fall in, which is accurate enough
+ * for dashboards and load tests and costs one atomic increment per sample.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMs = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    public void record(long millis) {
+        long ms = Math.max(0, millis);
+        int bucket = ms == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(ms));
+        counts.incrementAndGet(bucket);
+        totalMs.add(ms);
+        samples.increment();
+    }
+
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    public long count() {
+        return samples.sum();
+    }
+
+    /**
+     * Upper bound in ms of the bucket holding the given quantile (0 when nothing was recorded).
+     */
+    public long percentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return 1L << i;
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    public Map<String, Object> summary() {
+        long n = samples.sum();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", n);
+        summary.put("meanMs", n == 0 ? 0 : totalMs.sum() / n);
+        summary.put("p50Ms", percentile(0.50));
+        summary.put("p95Ms", percentile(0.95));
+        summary.put("p99Ms", percentile(0.99));
+        return summary;
+    }
+}
@@ -0,0 +1,143 @@
+package com.logiflow.server.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder for the compact batched location frames sent by the mobile app to /app/tracking/batch.
+ *
+ * Frame layout (big-endian):
+ * <pre>
+ *   u8   version        (currently 1)
+ *   i32  tripId
+ *   i32  streamId       random per tracking session on the device
+ *   i32  firstSeq       sequence number of the first point in this frame
+ *   i64  baseTimeMs     epoch millis of the first point
+ *   u16  count
+ *   count x point:
+ *     zigzag varint  latitude delta  (degrees * 1e6)
+ *     zigzag varint  longitude delta (degrees * 1e6)
+ *     varint         time delta in ms
+ * </pre>
+ * Deltas are relative to the previous point; the first point is relative to (0, 0, baseTimeMs).
+ * Point i carries sequence number firstSeq + i.
+ */
+public class LocationFrameCodec {
+
+    public static final int VERSION = 1;
+    public static final int MAX_POINTS_PER_FRAME = 512;
+    private static final double COORDINATE_SCALE = 1_000_000d;
+
+    public record LocationPoint(long seq, double latitude, double longitude, long timestamp) {}
+
+    public record LocationFrame(int tripId, int streamId, long firstSeq, List<LocationPoint> points) {
+        public long lastSeq() {
+            return firstSeq + points.size() - 1;
+        }
+    }
+
+    public static LocationFrame decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Empty location frame");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported location frame version: " + version);
+            }
+            int tripId = buffer.getInt();
+            int streamId = buffer.getInt();
+            long firstSeq = buffer.getInt() & 0xFFFFFFFFL;
+            long timestamp = buffer.getLong();
+            int count = buffer.getShort() & 0xFFFF;
+            if (count == 0 || count > MAX_POINTS_PER_FRAME) {
+                throw new IllegalArgumentException("Invalid point count in location frame: " + count);
+            }
+
+            List<LocationPoint> points = new ArrayList<>(count);
+            long latE6 = 0;
+            long lngE6 = 0;
+            for (int i = 0; i < count; i++) {
+                latE6 += zigZagDecode(readVarLong(buffer));
+                lngE6 += zigZagDecode(readVarLong(buffer));
+                timestamp += readVarLong(buffer);
+                double lat = latE6 / COORDINATE_SCALE;
+                double lng = lngE6 / COORDINATE_SCALE;
+                if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+                    throw new IllegalArgumentException("Coordinate out of range in location frame");
+                }
+                points.add(new LocationPoint(firstSeq + i, lat, lng, timestamp));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes in location frame");
+            }
+            return new LocationFrame(tripId, streamId, firstSeq, points);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated location frame", e);
+        }
+    }
+
+    public static byte[] encode(int tripId, int streamId, long firstSeq, List<LocationPoint> points) {
+        if (points.isEmpty() || points.size() > MAX_POINTS_PER_FRAME) {
+            throw new IllegalArgumentException("Invalid point count: " + points.size());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(23 + points.size() * 30);
+        long baseTime = points.get(0).timestamp();
+        buffer.put((byte) VERSION);
+        buffer.putInt(tripId);
+        buffer.putInt(streamId);
+        buffer.putInt((int) firstSeq);
+        buffer.putLong(baseTime);
+        buffer.putShort((short) points.size());
+
+        long prevLat = 0;
+        long prevLng = 0;
+        long prevTime = baseTime;
+        for (LocationPoint point : points) {
+            long lat = Math.round(point.latitude() * COORDINATE_SCALE);
+            long lng = Math.round(point.longitude() * COORDINATE_SCALE);
+            writeVarLong(buffer, zigZagEncode(lat - prevLat));
+            writeVarLong(buffer, zigZagEncode(lng - prevLng));
+            writeVarLong(buffer, Math.max(0, point.timestamp() - prevTime));
+            prevLat = lat;
+            prevLng = lng;
+            prevTime = Math.max(prevTime, point.timestamp());
+        }
+
+        byte[] result = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(result);
+        return result;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in location frame");
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -2,335 +2,238 @@ package com.logiflow.server.utils;
 
 import com.logiflow.server.dtos.dispatch.OrderCreateRequest;
 import com.logiflow.server.models.Order;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
-
+import com.opencsv.exceptions.CsvValidationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
 
 public class OrderFileParser {
 
-    public static List<OrderCreateRequest> parseCSV(InputStream inputStream) throws IOException, CsvException {
-        List<OrderCreateRequest> requests = new ArrayList<>();
-        
-        try (CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-            List<String[]> rows = reader.readAll();
+    // Columns of the import template, see toRequest
+    private static final int COLUMN_COUNT = 14;
 
-            for (int i = 1; i < rows.size(); i++) {
-                String[] row = rows.get(i);
+    /**
+     * Receives parsed rows one at a time; {@code rowNumber} is the 1-based spreadsheet row (the header is row 1).
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(int rowNumber, OrderCreateRequest request);
+    }
 
-                if (row.length == 0 || (row.length == 1 && (row[0] == null || row[0].trim().isEmpty()))) {
+    /**
+     * Stream a CSV file row by row: only the current record is held in memory, so the file size does not
+     * matter. Blank rows are skipped.
+     *
+     * @return the number of rows handed to the handler
+     */
+    public static int readCSV(InputStream inputStream, RowHandler handler) throws IOException, CsvValidationException {
+        int rows = 0;
+        try (CSVReader reader = new CSVReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)))) {
+            // Header
+            if (reader.readNext() == null) {
+                return 0;
+            }
+            int rowNumber = 1;
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rowNumber++;
+                if (isBlank(row)) {
                     continue;
                 }
-                
-                OrderCreateRequest request = new OrderCreateRequest();
-                
-
-                if (row.length > 0 && row[0] != null && !row[0].trim().isEmpty()) {
-                    request.setCustomerName(row[0].trim());
-                }
-                
-                if (row.length > 1 && row[1] != null && !row[1].trim().isEmpty()) {
-                    request.setCustomerPhone(row[1].trim());
-                }
-                
-                if (row.length > 2 && row[2] != null && !row[2].trim().isEmpty()) {
-                    request.setPickupAddress(row[2].trim());
-                }
-                
-                if (row.length > 3 && row[3] != null && !row[3].trim().isEmpty()) {
-                    request.setDeliveryAddress(row[3].trim());
-                }
-                
-                if (row.length > 4 && row[4] != null && !row[4].trim().isEmpty()) {
-                    request.setPackageDetails(row[4].trim());
-                }
-                
-                if (row.length > 5 && row[5] != null && !row[5].trim().isEmpty()) {
-                    try {
-                        request.setPriorityLevel(Order.PriorityLevel.valueOf(row[5].trim().toUpperCase()));
-                    } catch (IllegalArgumentException e) {
-                        request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                    }
-                } else {
-                    request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                }
-                
-                // Distance (km) - column 6
-                if (row.length > 6 && row[6] != null && !row[6].trim().isEmpty()) {
-                    try {
-                        request.setDistanceKm(new java.math.BigDecimal(row[6].trim()));
-                    } catch (NumberFormatException e) {
-                        request.setDistanceKm(null);
-                    }
-                }
-
-                // Weight (tons) - column 7
-                if (row.length > 7 && row[7] != null && !row[7].trim().isEmpty()) {
-                    try {
-                        request.setWeightTons(new java.math.BigDecimal(row[7].trim()));
-                    } catch (NumberFormatException e) {
-                        request.setWeightTons(null);
-                    }
-                }
-
-                // Pickup Type - column 8
-                if (row.length > 8 && row[8] != null && !row[8].trim().isEmpty()) {
-                    try {
-                        request.setPickupType(Order.PickupType.valueOf(row[8].trim().toUpperCase()));
-                    } catch (IllegalArgumentException e) {
-                        request.setPickupType(null);
-                    }
-                }
-
-                // Container Number - column 9
-                if (row.length > 9 && row[9] != null && !row[9].trim().isEmpty()) {
-                    request.setContainerNumber(row[9].trim());
-                }
-
-                // Warehouse Name - column 10
-                if (row.length > 10 && row[10] != null && !row[10].trim().isEmpty()) {
-                    request.setWarehouseName(row[10].trim());
-                }
-
-                // Dock Number - column 11
-                if (row.length > 11 && row[11] != null && !row[11].trim().isEmpty()) {
-                    request.setDockNumber(row[11].trim());
-                }
-
-                // Package Value - column 12
-                if (row.length > 11 && row[11] != null && !row[11].trim().isEmpty()) {
-                    try {
-                        request.setPackageValue(new java.math.BigDecimal(row[11].trim()));
-                    } catch (NumberFormatException e) {
-                        request.setPackageValue(null);
-                    }
-                }
-
-                // Trip ID - column 12
-                if (row.length > 12 && row[12] != null && !row[12].trim().isEmpty()) {
-                    try {
-                        request.setTripId(Integer.parseInt(row[12].trim()));
-                    } catch (NumberFormatException e) {
-                        request.setTripId(null);
-                    }
-                }
-                
-                requests.add(request);
+                handler.accept(rowNumber, toRequest(row));
+                rows++;
             }
         }
-        
-        return requests;
+        return rows;
     }
 
-    public static List<OrderCreateRequest> parseExcel(InputStream inputStream) throws IOException {
-        List<OrderCreateRequest> requests = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(inputStream)) {
-            Sheet sheet = workbook.getSheetAt(0);
-
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                
-                if (row == null) {
-                    continue;
-                }
+    /**
+     * Map one row of the import template to a request. Both file formats use the same columns:
+     * 0 customer name, 1 phone, 2 pickup address, 3 delivery address, 4 package details, 5 priority,
+     * 6 distance (km), 7 weight (tons), 8 pickup type, 9 container number, 10 warehouse name (the terminal
+     * name for PORT_TERMINAL pickups), 11 dock number, 12 package value, 13 trip id.
+     */
+    public static OrderCreateRequest toRequest(String[] row) {
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setCustomerName(cell(row, 0));
+        request.setCustomerPhone(cell(row, 1));
+        request.setPickupAddress(cell(row, 2));
+        request.setDeliveryAddress(cell(row, 3));
+        request.setPackageDetails(cell(row, 4));
+
+        String priority = cell(row, 5);
+        request.setPriorityLevel(Order.PriorityLevel.NORMAL);
+        if (priority != null) {
+            try {
+                request.setPriorityLevel(Order.PriorityLevel.valueOf(priority.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Unknown priority: keep NORMAL
+            }
+        }
 
-                if (isRowEmpty(row)) {
-                    continue;
-                }
-                
-                OrderCreateRequest request = new OrderCreateRequest();
+        request.setDistanceKm(decimal(cell(row, 6)));
+        request.setWeightTons(decimal(cell(row, 7)));
 
-                Cell cell0 = row.getCell(0);
-                if (cell0 != null && getCellValueAsString(cell0) != null && !getCellValueAsString(cell0).trim().isEmpty()) {
-                    request.setCustomerName(getCellValueAsString(cell0).trim());
-                }
-                
-                Cell cell1 = row.getCell(1);
-                if (cell1 != null) {
-                    String value = getCellValueAsString(cell1);
-                    if (value != null && !value.trim().isEmpty()) {
-                        request.setCustomerPhone(value.trim());
-                    }
-                }
-                
-                Cell cell2 = row.getCell(2);
-                if (cell2 != null && getCellValueAsString(cell2) != null && !getCellValueAsString(cell2).trim().isEmpty()) {
-                    request.setPickupAddress(getCellValueAsString(cell2).trim());
-                }
-                
-                Cell cell3 = row.getCell(3);
-                if (cell3 != null && getCellValueAsString(cell3) != null && !getCellValueAsString(cell3).trim().isEmpty()) {
-                    request.setDeliveryAddress(getCellValueAsString(cell3).trim());
-                }
-                
-                Cell cell4 = row.getCell(4);
-                if (cell4 != null) {
-                    String value = getCellValueAsString(cell4);
-                    if (value != null && !value.trim().isEmpty()) {
-                        request.setPackageDetails(value.trim());
-                    }
-                }
-                
-                Cell cell5 = row.getCell(5);
-                if (cell5 != null) {
-                    String value = getCellValueAsString(cell5);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setPriorityLevel(Order.PriorityLevel.valueOf(value.trim().toUpperCase()));
-                        } catch (IllegalArgumentException e) {
-                            request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                        }
-                    } else {
-                        request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                    }
-                } else {
-                    request.setPriorityLevel(Order.PriorityLevel.NORMAL);
-                }
-                
-                // Distance (km) - column 6
-                Cell cell6 = row.getCell(6);
-                if (cell6 != null) {
-                    String value = getCellValueAsString(cell6);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setDistanceKm(new java.math.BigDecimal(value.trim()));
-                        } catch (NumberFormatException e) {
-                            request.setDistanceKm(null);
-                        }
-                    }
-                }
+        String pickupType = cell(row, 8);
+        if (pickupType != null) {
+            try {
+                request.setPickupType(Order.PickupType.valueOf(pickupType.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                request.setPickupType(null);
+            }
+        }
 
-                // Weight (tons) - column 7
-                Cell cell7 = row.getCell(7);
-                if (cell7 != null) {
-                    String value = getCellValueAsString(cell7);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setWeightTons(new java.math.BigDecimal(value.trim()));
-                        } catch (NumberFormatException e) {
-                            request.setWeightTons(null);
-                        }
-                    }
-                }
+        request.setContainerNumber(cell(row, 9));
+        String warehouseOrTerminal = cell(row, 10);
+        if (request.getPickupType() == Order.PickupType.PORT_TERMINAL) {
+            request.setTerminalName(warehouseOrTerminal);
+        } else {
+            request.setWarehouseName(warehouseOrTerminal);
+        }
+        request.setDockNumber(cell(row, 11));
+        request.setPackageValue(decimal(cell(row, 12)));
 
-                // Pickup Type - column 8
-                Cell cell8 = row.getCell(8);
-                if (cell8 != null) {
-                    String value = getCellValueAsString(cell8);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setPickupType(Order.PickupType.valueOf(value.trim().toUpperCase()));
-                        } catch (IllegalArgumentException e) {
-                            request.setPickupType(null);
-                        }
-                    }
-                }
+        BigDecimal tripId = decimal(cell(row, 13));
+        request.setTripId(tripId != null ? tripId.intValue() : null);
+        return request;
+    }
 
-                // Container Number - column 9
-                Cell cell9 = row.getCell(9);
-                if (cell9 != null) {
-                    String value = getCellValueAsString(cell9);
-                    if (value != null && !value.trim().isEmpty()) {
-                        request.setContainerNumber(value.trim());
-                    }
-                }
+    private static String cell(String[] row, int index) {
+        if (index >= row.length || row[index] == null) {
+            return null;
+        }
+        String value = row[index].trim();
+        return value.isEmpty() ? null : value;
+    }
 
-                // Warehouse Name - column 10
-                Cell cell10 = row.getCell(10);
-                if (cell10 != null) {
-                    String value = getCellValueAsString(cell10);
-                    if (value != null && !value.trim().isEmpty()) {
-                        request.setWarehouseName(value.trim());
-                    }
-                }
+    private static BigDecimal decimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-                // Dock Number - column 11
-                Cell cell11 = row.getCell(11);
-                if (cell11 != null) {
-                    String value = getCellValueAsString(cell11);
-                    if (value != null && !value.trim().isEmpty()) {
-                        request.setDockNumber(value.trim());
-                    }
-                }
+    private static boolean isBlank(String[] row) {
+        for (String value : row) {
+            if (value != null && !value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                // Package Value - column 12
-                Cell cell12 = row.getCell(12);
-                if (cell12 != null) {
-                    String value = getCellValueAsString(cell12);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setPackageValue(new java.math.BigDecimal(value.trim()));
-                        } catch (NumberFormatException e) {
-                            request.setPackageValue(null);
-                        }
-                    }
-                }
+    /**
+     * Stream the first sheet of an .xlsx file with POI's event API, with the same columns as {@link #readCSV}.
+     *
+     * The upload is spooled to a temp file so the zip is read from disk rather than buffered in memory; sheet
+     * XML is parsed with SAX, and only the current row's cell values are kept. Numeric cells (and formulas'
+     * cached results) are read as their raw value whatever their number format, see {@link RawNumberFormatter}.
+     *
+     * @return the number of rows handed to the handler
+     */
+    public static int readExcel(InputStream inputStream, RowHandler handler) throws IOException {
+        Path spool = Files.createTempFile("order-import-", ".xlsx");
+        try {
+            Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(spool.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return 0;
+                }
+                SheetRowCollector collector = new SheetRowCollector(handler);
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, collector, new RawNumberFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+                return collector.rows;
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Invalid Excel file: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
 
-                // Trip ID - column 13
-                Cell cell13 = row.getCell(13);
-                if (cell13 != null) {
-                    String value = getCellValueAsString(cell13);
-                    if (value != null && !value.trim().isEmpty()) {
-                        try {
-                            request.setTripId((int) Double.parseDouble(value.trim()));
-                        } catch (NumberFormatException e) {
-                            request.setTripId(null);
-                        }
-                    }
-                }
-                
-                requests.add(request);
+    // Numbers keep their stored value: formatting them as displayed would turn "#,##0" 500000 into "500,000",
+    // which does not parse, and "0.0" 12.345 into "12.3". Dates still read as displayed.
+    private static final class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
             }
+            return NumberToTextConverter.toText(value);
         }
-        
-        return requests;
     }
 
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
+    // Collects one row's cells at a time and hands non-blank data rows (below the header) to the handler
+    private static final class SheetRowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private final String[] values = new String[COLUMN_COUNT];
+        private int nextColumn;
+        private int rows;
+
+        private SheetRowCollector(RowHandler handler) {
+            this.handler = handler;
         }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, null);
+            nextColumn = 0;
         }
-    }
 
-    private static boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < COLUMN_COUNT) {
+                values[column] = formattedValue;
+            }
         }
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && getCellValueAsString(cell) != null && !getCellValueAsString(cell).trim().isEmpty()) {
-                return false;
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || isBlank(values)) {
+                return;
             }
+            handler.accept(rowNum + 1, toRequest(values));
+            rows++;
         }
-        return true;
     }
 }
@@ -0,0 +1,104 @@
+package com.logiflow.server.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string, spread over independent stripes so that idle eviction and the size cap
+ * work one stripe at a time without a global lock.
+ *
+ * Each bucket is a single {@link AtomicLong}: the upper 24 bits hold the token count in thousandths, the lower
+ * 40 bits the time of the last refill in ms since this instance was created. Acquiring is a read, a bit of
+ * arithmetic and one CAS; with the key and the map node an entry costs roughly 100-150 bytes, so tens of
+ * thousands of active keys stay within a few MB. Rates are whole tokens per second, bursts at most 16,000.
+ */
+public class StripedTokenBuckets {
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_MILLI_TOKENS = (1L << (64 - TIME_BITS)) - 1;
+    public static final int MAX_BURST = 16_000;
+
+    private final Map<String, AtomicLong>[] stripes;
+    private final int maxKeysPerStripe;
+    private final long epochMs = System.currentTimeMillis();
+
+    @SuppressWarnings("unchecked")
+    public StripedTokenBuckets(int stripeCount, int maxKeys) {
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Map[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxKeysPerStripe = Math.max(1, maxKeys / count);
+    }
+
+    /**
+     * Take one token from the key's bucket, creating it full if needed.
+     *
+     * @return 0 when the token was granted, otherwise the ms until one will be available;
+     *         -1 when the key could not be tracked because its stripe is full (callers should let it through)
+     */
+    public long tryAcquire(String key, int ratePerSecond, int burst) {
+        long now = now();
+        long capacity = Math.min((long) burst * 1000, MAX_MILLI_TOKENS);
+        Map<String, AtomicLong> stripe = stripeOf(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                return -1;
+            }
+            // New buckets start full minus the token taken now
+            bucket = stripe.putIfAbsent(key, new AtomicLong(pack(capacity - 1000, now)));
+            if (bucket == null) return 0;
+        }
+        while (true) {
+            long state = bucket.get();
+            long last = state & TIME_MASK;
+            long elapsed = Math.max(0, now - last);
+            long tokens = Math.min(capacity, (state >>> TIME_BITS) + elapsed * ratePerSecond);
+            if (tokens >= 1000) {
+                if (bucket.compareAndSet(state, pack(tokens - 1000, now))) return 0;
+            } else {
+                return Math.max(1, (1000 - tokens + ratePerSecond - 1) / Math.max(1, ratePerSecond));
+            }
+        }
+    }
+
+    /**
+     * Drop buckets that have not granted a token for {@code idleMs}. Callers pick an idle time at least as
+     * long as the slowest bucket takes to refill, so a dropped bucket was full and is recreated identically.
+     */
+    public int evictIdle(long idleMs) {
+        long cutoff = now() - idleMs;
+        int evicted = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            int before = stripe.size();
+            stripe.values().removeIf(bucket -> (bucket.get() & TIME_MASK) < cutoff);
+            evicted += before - stripe.size();
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Map<String, AtomicLong> stripeOf(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private long now() {
+        return (System.currentTimeMillis() - epochMs) & TIME_MASK;
+    }
+
+    private static long pack(long milliTokens, long time) {
+        return (milliTokens << TIME_BITS) | time;
+    }
+}
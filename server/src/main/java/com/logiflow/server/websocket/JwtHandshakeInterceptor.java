@@ -1,5 +1,8 @@
 package com.logiflow.server.websocket;
 
+import com.logiflow.server.repositories.user.UserIdentity;
+import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
 import com.logiflow.server.utils.JwtUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +18,17 @@ import java.util.Map;
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
     private static final Logger logger = LoggerFactory.getLogger(JwtHandshakeInterceptor.class);
     private final JwtUtils jwtUtils;
+    private final UserRepository userRepository;
+    private final SessionIdentityRegistry sessionIdentityRegistry;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
-    public JwtHandshakeInterceptor(JwtUtils jwtUtils) {
+    public JwtHandshakeInterceptor(JwtUtils jwtUtils, UserRepository userRepository,
+                                   SessionIdentityRegistry sessionIdentityRegistry,
+                                   TokenRevocationRegistry tokenRevocationRegistry) {
         this.jwtUtils = jwtUtils;
+        this.userRepository = userRepository;
+        this.sessionIdentityRegistry = sessionIdentityRegistry;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     @Override
@@ -34,11 +45,25 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
         }
         if (token != null && !token.isEmpty()) {
             try {
-                String userId = jwtUtils.extractUsername(token);
-                String role = jwtUtils.extractRole(token);
+                JwtUtils.VerifiedToken claims = jwtUtils.verify(token);
+                String userId = claims.username();
+                String role = claims.role();
+                if (tokenRevocationRegistry.isRevoked(userId, claims.issuedAtMs())) {
+                    logger.warn("WebSocket handshake rejected for revoked token: {}", userId);
+                    return false;
+                }
                 // Allow both DRIVER and CUSTOMER roles for WebSocket connections
                 if (userId != null && role != null &&
                     (role.equalsIgnoreCase("DRIVER") || role.equalsIgnoreCase("CUSTOMER"))) {
+                    // Resolve numeric ids once per session; per-message handlers read them from the session
+                    UserIdentity account = userRepository.findIdentityByUsername(userId).orElse(null);
+                    if (account == null || !Boolean.TRUE.equals(account.getIsActive())) {
+                        logger.warn("WebSocket handshake rejected for unknown or inactive user: {}", userId);
+                        return false;
+                    }
+                    SessionIdentity identity = new SessionIdentity(account.getUserId(), userId, role, account.getDriverId());
+                    sessionIdentityRegistry.register(identity);
+                    attributes.put(SessionIdentity.ATTRIBUTE, identity);
                     attributes.put("userId", userId);
                     attributes.put("userRole", role);
                     return true;
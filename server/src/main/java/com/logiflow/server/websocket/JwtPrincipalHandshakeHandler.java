@@ -0,0 +1,52 @@
+package com.logiflow.server.websocket;
+
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
+import com.logiflow.server.utils.JwtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Names web sessions after the user of the {@code token} query parameter, so messages sent with
+ * {@code convertAndSendToUser} reach that user's sessions only. Sessions without a valid token stay
+ * anonymous: they still receive the role topics, but no {@code /user} destination.
+ */
+@Component
+public class JwtPrincipalHandshakeHandler extends DefaultHandshakeHandler {
+    private static final Logger logger = LoggerFactory.getLogger(JwtPrincipalHandshakeHandler.class);
+
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    public JwtPrincipalHandshakeHandler(JwtUtils jwtUtils, TokenRevocationRegistry tokenRevocationRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+    }
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                      Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            JwtUtils.VerifiedToken claims = jwtUtils.verify(token);
+            String username = claims.username();
+            if (username == null || tokenRevocationRegistry.isRevoked(username, claims.issuedAtMs())) {
+                return null;
+            }
+            return () -> username;
+        } catch (Exception e) {
+            logger.debug("Ignoring invalid JWT in WebSocket handshake: {}", e.getMessage());
+            return null;
+        }
+    }
+}
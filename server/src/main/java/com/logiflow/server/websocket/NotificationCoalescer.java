@@ -0,0 +1,253 @@
+package com.logiflow.server.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logiflow.server.dtos.notification.AdminNotificationDto;
+import com.logiflow.server.dtos.notification.DispatcherNotificationDto;
+import com.logiflow.server.models.Notification;
+import com.logiflow.server.websocket.NotificationOutbox.PendingNotification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses bursts of role-wide notifications into digests.
+ *
+ * Notifications are grouped by audience (admins, dispatchers) and type. The first one of a group is
+ * delivered at once and opens a window of {@code app.notifications.coalesce.window-ms}; whatever else
+ * arrives for the group inside the window is held back and delivered at the end of it as a single
+ * WebSocket message and a single persisted row ("37 new orders, 5 URGENT"). The digest row keeps every
+ * item in digest_items, so per-entity detail stays retrievable. While a burst lasts, the group emits at
+ * most one digest per window; a lone notification is delivered exactly as before.
+ */
+@Component
+public class NotificationCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    public enum Audience {
+        ADMINS("/topic/admin/notifications"),
+        DISPATCHERS("/topic/dispatcher/notifications");
+
+        private final String destination;
+
+        Audience(String destination) {
+            this.destination = destination;
+        }
+    }
+
+    private static final Map<String, Integer> SEVERITY_RANK = Map.of(
+            "INFO", 1, "WARNING", 2, "ERROR", 3, "CRITICAL", 4);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationOutbox notificationOutbox;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxDigestItems;
+
+    private final Map<String, Group> groups = new HashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "notification-coalescer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong digests = new AtomicLong();
+
+    public NotificationCoalescer(SimpMessagingTemplate messagingTemplate,
+                                 NotificationOutbox notificationOutbox,
+                                 @Value("${app.notifications.coalesce.enabled:true}") boolean enabled,
+                                 @Value("${app.notifications.coalesce.window-ms:2000}") long windowMs,
+                                 @Value("${app.notifications.coalesce.max-digest-items:500}") int maxDigestItems) {
+        this.messagingTemplate = messagingTemplate;
+        this.notificationOutbox = notificationOutbox;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxDigestItems = maxDigestItems;
+    }
+
+    /**
+     * Deliver (push + persist) a role-wide notification, coalescing it with others of the same type.
+     * {@code type} is the type shown to WebSocket clients; it may be finer than the persisted enum.
+     */
+    public void submit(Audience audience, String type, PendingNotification notification) {
+        submitted.incrementAndGet();
+        if (!enabled || windowMs <= 0) {
+            deliver(audience, type, notification);
+            return;
+        }
+        String key = audience.name() + ":" + type;
+        synchronized (groups) {
+            Group group = groups.get(key);
+            if (group != null) {
+                group.pending.add(notification);
+                return;
+            }
+            groups.put(key, new Group());
+        }
+        deliver(audience, type, notification);
+        scheduleFlush(audience, type, key);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("windowMs", windowMs);
+        stats.put("submitted", submitted.get());
+        stats.put("delivered", delivered.get());
+        stats.put("digests", digests.get());
+        synchronized (groups) {
+            stats.put("openGroups", groups.size());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        // Deliver what is still held back instead of losing it
+        Map<String, Group> remaining;
+        synchronized (groups) {
+            remaining = new HashMap<>(groups);
+            groups.clear();
+        }
+        remaining.forEach((key, group) -> {
+            String[] parts = key.split(":", 2);
+            emit(Audience.valueOf(parts[0]), parts[1], group.pending);
+        });
+    }
+
+    private void scheduleFlush(Audience audience, String type, String key) {
+        flusher.schedule(() -> flush(audience, type, key), windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(Audience audience, String type, String key) {
+        List<PendingNotification> batch;
+        synchronized (groups) {
+            Group group = groups.get(key);
+            if (group == null) return;
+            if (group.pending.isEmpty()) {
+                // Quiet window: close the group, the next notification is delivered immediately again
+                groups.remove(key);
+                return;
+            }
+            batch = group.pending;
+            group.pending = new ArrayList<>();
+        }
+        try {
+            emit(audience, type, batch);
+        } finally {
+            // Still bursting: keep the window open for another period
+            scheduleFlush(audience, type, key);
+        }
+    }
+
+    private void emit(Audience audience, String type, List<PendingNotification> batch) {
+        if (batch.isEmpty()) return;
+        if (batch.size() == 1) {
+            deliver(audience, type, batch.get(0));
+            return;
+        }
+        try {
+            deliverDigest(audience, type, batch);
+        } catch (Exception e) {
+            logger.error("Failed to build {} digest for {}, delivering individually: {}", type, audience, e.getMessage());
+            batch.forEach(n -> deliver(audience, type, n));
+        }
+    }
+
+    private void deliver(Audience audience, String type, PendingNotification n) {
+        delivered.incrementAndGet();
+        push(audience, type, n, null);
+        notificationOutbox.enqueue(n);
+    }
+
+    private void deliverDigest(Audience audience, String type, List<PendingNotification> batch) throws Exception {
+        PendingNotification first = batch.get(0);
+        String severity = first.severity();
+        int urgent = 0;
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (PendingNotification n : batch) {
+            if (rank(n.severity()) > rank(severity)) severity = n.severity();
+            if (rank(n.severity()) > rank("INFO")) urgent++;
+            if (items.size() < maxDigestItems) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("relatedEntityId", n.relatedEntityId());
+                item.put("severity", n.severity());
+                item.put("title", n.title());
+                item.put("message", n.message());
+                item.put("actionUrl", n.actionUrl());
+                item.put("createdAt", n.createdAt().toString());
+                items.add(item);
+            }
+        }
+
+        String title;
+        String message;
+        String actionUrl;
+        if (first.type() == Notification.NotificationType.NEW_ORDER) {
+            title = batch.size() + " new orders received";
+            message = batch.size() + " new orders" + (urgent > 0 ? ", " + urgent + " URGENT" : "");
+            actionUrl = "/dispatch/orders";
+        } else {
+            title = first.title() + " (" + batch.size() + ")";
+            message = batch.size() + " " + type + " notifications" + (urgent > 0 ? ", " + urgent + " " + severity : "");
+            actionUrl = audience == Audience.DISPATCHERS ? "/dispatch/notifications" : "/admin/notifications";
+        }
+
+        PendingNotification digest = PendingNotification.of(first.type(), severity, title, message,
+                actionUrl, "View All", null).withDigest(batch.size(), objectMapper.writeValueAsString(items));
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("digest", true);
+        metadata.put("count", batch.size());
+        metadata.put("items", items);
+
+        digests.incrementAndGet();
+        delivered.incrementAndGet();
+        push(audience, type, digest, metadata);
+        notificationOutbox.enqueue(digest);
+    }
+
+    private void push(Audience audience, String type, PendingNotification n, Object metadata) {
+        Object payload;
+        if (audience == Audience.DISPATCHERS) {
+            DispatcherNotificationDto dto = DispatcherNotificationDto.of(
+                    type, n.severity(), n.title(), n.message(), n.actionUrl(), n.actionText());
+            dto.setMetadata(metadata);
+            payload = dto;
+        } else {
+            AdminNotificationDto dto = AdminNotificationDto.of(
+                    type, n.severity(), n.title(), n.message(), n.actionUrl(), n.actionText());
+            dto.setMetadata(metadata);
+            payload = dto;
+        }
+        try {
+            messagingTemplate.convertAndSend(audience.destination, payload);
+        } catch (Exception e) {
+            logger.error("Failed to push notification to {}: {}", audience.destination, e.getMessage());
+        }
+    }
+
+    private static int rank(String severity) {
+        return SEVERITY_RANK.getOrDefault(severity, 0);
+    }
+
+    private static final class Group {
+        private List<PendingNotification> pending = new ArrayList<>();
+    }
+}
@@ -0,0 +1,281 @@
+package com.logiflow.server.websocket;
+
+import com.logiflow.server.models.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write-behind outbox for persisted notifications.
+ *
+ * Producers (request threads) only offer a small immutable record to a bounded queue; a single writer
+ * thread drains it and inserts rows in JDBC batches. Target users are resolved inside the INSERT
+ * (by id or username), so producers never look users up either.
+ *
+ * Backpressure: when the queue is full a producer waits up to {@code enqueue-timeout-ms}; after that
+ * the overflow policy applies: CALLER_RUNS persists the record on the calling thread (no loss), DROP
+ * discards it and counts the drop. On shutdown the writer stops and whatever is still queued is flushed.
+ */
+@Component
+public class NotificationOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO notifications (notification_type, severity, title, message, action_url, action_text, " +
+            "related_entity_id, is_read, created_at, digest_count, digest_items, target_user_id) ";
+    private static final String INSERT_BROADCAST = INSERT_COLUMNS + "VALUES (?, ?, ?, ?, ?, ?, ?, false, ?, ?, ?, NULL)";
+    // Parameters in a SELECT list need explicit types, otherwise NULL values cannot be resolved
+    private static final String SELECT_VALUES =
+            "SELECT CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS TEXT), " +
+            "CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS INTEGER), false, CAST(? AS TIMESTAMP), " +
+            "CAST(? AS INTEGER), CAST(? AS TEXT), u.user_id ";
+    private static final String INSERT_FOR_USER_ID = INSERT_COLUMNS + SELECT_VALUES +
+            "FROM users u WHERE u.user_id = ?";
+    private static final String INSERT_FOR_USERNAME = INSERT_COLUMNS + SELECT_VALUES +
+            "FROM users u WHERE u.username = ?";
+
+    public enum OverflowPolicy { CALLER_RUNS, DROP }
+
+    /**
+     * A notification row waiting to be written. At most one of targetUserId / targetUsername is set;
+     * neither means a broadcast (admin/dispatcher) notification, which is what {@link #of} creates.
+     */
+    public record PendingNotification(Notification.NotificationType type, String severity, String title,
+                                      String message, String actionUrl, String actionText,
+                                      Integer relatedEntityId, Integer targetUserId, String targetUsername,
+                                      LocalDateTime createdAt, Integer digestCount, String digestItems) {
+
+        public static PendingNotification of(Notification.NotificationType type, String severity, String title,
+                                             String message, String actionUrl, String actionText,
+                                             Integer relatedEntityId) {
+            return new PendingNotification(type, severity, title, message, actionUrl, actionText,
+                    relatedEntityId, null, null, LocalDateTime.now(), null, null);
+        }
+
+        public PendingNotification forUserId(Integer userId) {
+            return new PendingNotification(type, severity, title, message, actionUrl, actionText,
+                    relatedEntityId, userId, null, createdAt, digestCount, digestItems);
+        }
+
+        public PendingNotification forUsername(String username) {
+            return new PendingNotification(type, severity, title, message, actionUrl, actionText,
+                    relatedEntityId, null, username, createdAt, digestCount, digestItems);
+        }
+
+        /**
+         * A digest standing for {@code count} coalesced notifications, itemised in {@code itemsJson}.
+         */
+        public PendingNotification withDigest(int count, String itemsJson) {
+            return new PendingNotification(type, severity, title, message, actionUrl, actionText,
+                    relatedEntityId, targetUserId, targetUsername, createdAt, count, itemsJson);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadNotificationCounters unreadCounters;
+    private final BlockingQueue<PendingNotification> queue;
+    private final int batchSize;
+    private final long enqueueTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate,
+                              UnreadNotificationCounters unreadCounters,
+                              @Value("${app.notifications.outbox.capacity:10000}") int capacity,
+                              @Value("${app.notifications.outbox.batch-size:200}") int batchSize,
+                              @Value("${app.notifications.outbox.enqueue-timeout-ms:50}") long enqueueTimeoutMs,
+                              @Value("${app.notifications.outbox.overflow:CALLER_RUNS}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadCounters = unreadCounters;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::runWriter, "notification-outbox");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void enqueue(PendingNotification notification) {
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(notification, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (accepted) {
+            enqueued.incrementAndGet();
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.DROP && running) {
+            long total = dropped.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                logger.warn("Notification outbox full, dropped {} notifications so far", total);
+            }
+            return;
+        }
+        callerRuns.incrementAndGet();
+        write(List.of(notification));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("remainingCapacity", queue.remainingCapacity());
+        stats.put("enqueued", enqueued.get());
+        stats.put("persisted", persisted.get());
+        stats.put("batches", batches.get());
+        stats.put("failed", failed.get());
+        stats.put("dropped", dropped.get());
+        stats.put("callerRuns", callerRuns.get());
+        stats.put("overflowPolicy", overflowPolicy.name());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Flush anything the writer did not get to
+        List<PendingNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            write(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+        }
+        if (!remaining.isEmpty()) {
+            logger.info("Notification outbox flushed {} queued notifications on shutdown", remaining.size());
+        }
+    }
+
+    private void runWriter() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingNotification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (Exception e) {
+                logger.error("Notification outbox writer error: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingNotification> batch) {
+        List<PendingNotification> broadcast = new ArrayList<>();
+        List<PendingNotification> byUserId = new ArrayList<>();
+        List<PendingNotification> byUsername = new ArrayList<>();
+        for (PendingNotification n : batch) {
+            if (n.targetUserId() != null) {
+                byUserId.add(n);
+            } else if (n.targetUsername() != null) {
+                byUsername.add(n);
+            } else {
+                broadcast.add(n);
+            }
+        }
+        List<PendingNotification> written = new ArrayList<>(batch.size());
+        insert(INSERT_BROADCAST, broadcast, n -> params(n, null), written);
+        insert(INSERT_FOR_USER_ID, byUserId, n -> params(n, n.targetUserId()), written);
+        insert(INSERT_FOR_USERNAME, byUsername, n -> params(n, n.targetUsername()), written);
+        // Only rows that reached the table count as unread; failed rows and unknown targets do not
+        unreadCounters.onPersisted(written);
+    }
+
+    /**
+     * Insert the notifications and add those that produced a row to {@code written}.
+     */
+    private void insert(String sql, List<PendingNotification> notifications,
+                        Function<PendingNotification, Object[]> params, List<PendingNotification> written) {
+        if (notifications.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(notifications.size());
+        for (PendingNotification n : notifications) {
+            rows.add(params.apply(n));
+        }
+        try {
+            int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+            batches.incrementAndGet();
+            for (int i = 0; i < counts.length; i++) {
+                // 0 = INSERT ... SELECT found no target user; SUCCESS_NO_INFO (rewritten batches) counts as written
+                if (counts[i] != 0) {
+                    written.add(notifications.get(i));
+                    persisted.incrementAndGet();
+                }
+            }
+        } catch (Exception batchError) {
+            // Retry row by row so one bad notification does not take the whole batch with it
+            logger.warn("Notification batch insert failed ({} rows), retrying individually: {}",
+                    rows.size(), batchError.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    if (jdbcTemplate.update(sql, rows.get(i)) > 0) {
+                        written.add(notifications.get(i));
+                        persisted.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    logger.error("Failed to persist notification '{}': {}", rows.get(i)[2], e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Object[] params(PendingNotification n, Object target) {
+        List<Object> values = new ArrayList<>(11);
+        values.add(n.type().name());
+        values.add(n.severity());
+        values.add(n.title());
+        values.add(n.message());
+        values.add(n.actionUrl());
+        values.add(n.actionText());
+        values.add(n.relatedEntityId());
+        values.add(Timestamp.valueOf(n.createdAt()));
+        values.add(n.digestCount());
+        values.add(n.digestItems());
+        if (target != null) values.add(target);
+        return values.toArray();
+    }
+}
@@ -3,38 +3,89 @@ package com.logiflow.server.websocket;
 import com.logiflow.server.dtos.notification.AdminNotificationDto;
 import com.logiflow.server.dtos.notification.DispatcherNotificationDto;
 import com.logiflow.server.dtos.notification.TripNotificationDto;
-import com.logiflow.server.repositories.driver.DriverRepository;
 import com.logiflow.server.models.Notification;
-import com.logiflow.server.models.User;
-import com.logiflow.server.repositories.notification.NotificationRepository;
-import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.user.IdentityDirectory;
+import com.logiflow.server.websocket.NotificationCoalescer.Audience;
+import com.logiflow.server.websocket.NotificationOutbox.PendingNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Real-time (WebSocket) and persisted notifications.
+ *
+ * Both the WebSocket push and the database row are deferred until the caller's transaction commits,
+ * so a rolled-back order or trip update never notifies anyone. Rows are written by {@link NotificationOutbox}
+ * off the request thread; role-wide (admin/dispatcher) notifications go through {@link NotificationCoalescer}
+ * so bursts arrive as digests.
+ */
 @Service
 public class NotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
-    private final DriverRepository driverRepository;
+    private final NotificationOutbox notificationOutbox;
+    private final NotificationCoalescer notificationCoalescer;
+    private final IdentityDirectory identityDirectory;
 
     public NotificationService(
             SimpMessagingTemplate messagingTemplate,
-            NotificationRepository notificationRepository,
-            UserRepository userRepository,
-            DriverRepository driverRepository) {
+            NotificationOutbox notificationOutbox,
+            NotificationCoalescer notificationCoalescer,
+            IdentityDirectory identityDirectory) {
         this.messagingTemplate = messagingTemplate;
-        this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
-        this.driverRepository = driverRepository;
+        this.notificationOutbox = notificationOutbox;
+        this.notificationCoalescer = notificationCoalescer;
+        this.identityDirectory = identityDirectory;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void send(String destination, Object payload) {
+        afterCommit(() -> {
+            try {
+                messagingTemplate.convertAndSend(destination, payload);
+            } catch (Exception e) {
+                logger.error("Failed to push notification to {}: {}", destination, e.getMessage());
+            }
+        });
+    }
+
+    private void persist(PendingNotification notification) {
+        afterCommit(() -> notificationOutbox.enqueue(notification));
+    }
+
+    // Role-wide notifications: pushed and persisted through the coalescer, which digests bursts
+    private void publish(Audience audience, String type, PendingNotification notification) {
+        afterCommit(() -> notificationCoalescer.submit(audience, type, notification));
+    }
+
+    private static Notification.NotificationType notificationType(String type) {
+        try {
+            return Notification.NotificationType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            return Notification.NotificationType.SYSTEM_EVENT; // Default fallback
+        }
     }
 
     private String resolveDriverUsername(Integer driverId) {
         if (driverId == null) return null;
         try {
-            return driverRepository.findById(driverId)
-                    .map(d -> d.getUser() != null ? d.getUser().getUsername() : null)
-                    .orElse(null);
+            return identityDirectory.usernameForDriver(driverId);
         } catch (Exception e) {
             return null;
         }
@@ -55,7 +106,7 @@ public class NotificationService {
         TripNotificationDto notification = new TripNotificationDto();
         notification.setType(type);
         notification.setMessage(message);
-        messagingTemplate.convertAndSend(destination, notification);
+        send(destination, notification);
     }
 
     public void sendTripNotification(Integer driverId, Integer tripId, String type, String message, String tripStatus) {
@@ -71,30 +122,25 @@ public class NotificationService {
     public void sendTripNotificationByUsername(String username, Integer tripId, String type, String message, String tripStatus) {
         String destination = "/topic/driver/" + username;
         TripNotificationDto notification = new TripNotificationDto(type, message, tripId, tripStatus);
-        messagingTemplate.convertAndSend(destination, notification);
-
-        // Persist notification for this user so it survives app restarts
-        User user = userRepository.findByUsername(username).orElse(null);
-        if (user != null) {
-            String title = switch (type) {
-                case "DELAY_RESPONSE" -> "Delay response for Trip #" + tripId;
-                case "TRIP_ASSIGNED" -> "New trip assigned";
-                case "TRIP_STATUS_UPDATE" -> "Trip status updated";
-                default -> "Trip notification";
-            };
-
-            Notification dbNotification = new Notification(
-                Notification.NotificationType.DRIVER_TRIP_EVENT,
-                "INFO",
-                title,
-                message,
-                null,                // actionUrl (mobile uses tripId directly)
-                null,                // actionText
-                tripId,              // relatedEntityId = tripId
-                user                 // target user (driver)
-            );
-            notificationRepository.save(dbNotification);
-        }
+        send(destination, notification);
+
+        // Persist notification for this user so it survives app restarts (user resolved by the outbox insert)
+        String title = switch (type) {
+            case "DELAY_RESPONSE" -> "Delay response for Trip #" + tripId;
+            case "TRIP_ASSIGNED" -> "New trip assigned";
+            case "TRIP_STATUS_UPDATE" -> "Trip status updated";
+            default -> "Trip notification";
+        };
+
+        persist(PendingNotification.of(
+            Notification.NotificationType.DRIVER_TRIP_EVENT,
+            "INFO",
+            title,
+            message,
+            null,                // actionUrl (mobile uses tripId directly)
+            null,                // actionText
+            tripId               // relatedEntityId = tripId
+        ).forUsername(username)); // target user (driver)
     }
 
     public void sendTripNotificationWithData(Integer driverId, TripNotificationDto notification) {
@@ -108,7 +154,7 @@ public class NotificationService {
 
     public void sendTripNotificationWithDataByUsername(String username, TripNotificationDto notification) {
         String destination = "/topic/driver/" + username;
-        messagingTemplate.convertAndSend(destination, notification);
+        send(destination, notification);
     }
 
     // ===== Dispatcher Notifications =====
@@ -117,7 +163,7 @@ public class NotificationService {
      * Send notification to all dispatcher users
      */
     public void sendDispatcherNotification(DispatcherNotificationDto notification) {
-        messagingTemplate.convertAndSend("/topic/dispatcher/notifications", notification);
+        send("/topic/dispatcher/notifications", notification);
     }
 
     /**
@@ -125,31 +171,15 @@ public class NotificationService {
      */
     public void broadcastToDispatchers(String type, String severity, String title, String message,
                                        String actionUrl, String actionText, Integer relatedEntityId) {
-        // Determine NotificationType enum value
-        Notification.NotificationType notificationType;
-        try {
-            notificationType = Notification.NotificationType.valueOf(type);
-        } catch (IllegalArgumentException e) {
-            notificationType = Notification.NotificationType.SYSTEM_EVENT; // Default fallback
-        }
-
-        DispatcherNotificationDto websocketNotification = DispatcherNotificationDto.of(
-            type, severity, title, message, actionUrl, actionText
-        );
-        sendDispatcherNotification(websocketNotification);
-
-        // Store in database for persistence
-        Notification dbNotification = new Notification(
-            notificationType,
+        publish(Audience.DISPATCHERS, type, PendingNotification.of(
+            notificationType(type),
             severity,
             title,
             message,
             actionUrl,
             actionText,
-            relatedEntityId,
-            null // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(dbNotification);
+            relatedEntityId
+        ));
     }
 
     // ===== Admin Notifications =====
@@ -158,30 +188,22 @@ public class NotificationService {
      * Send notification to all admin users
      */
     public void sendAdminNotification(AdminNotificationDto notification) {
-        messagingTemplate.convertAndSend("/topic/admin/notifications", notification);
+        send("/topic/admin/notifications", notification);
     }
 
     /**
      * Broadcast system-wide notification to all admins (both websocket + database)
      */
     public void broadcastToAdmins(String type, String severity, String title, String message) {
-        AdminNotificationDto notification = AdminNotificationDto.of(
-            type, severity, title, message, null, null
-        );
-        sendAdminNotification(notification);
-
-        // Also store in database for persistence
-        Notification delayNotification = new Notification(
-            Notification.NotificationType.valueOf(type),
+        publish(Audience.ADMINS, type, PendingNotification.of(
+            notificationType(type),
             severity,
             title,
             message,
             null,  // actionUrl
             null,  // actionText
-            null,  // relatedEntityId (set later)
-            null   // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(delayNotification);
+            null   // relatedEntityId (set later)
+        ));
     }
 
     /**
@@ -189,31 +211,15 @@ public class NotificationService {
      */
     public void broadcastToAdminsWithAction(String type, String severity, String title, String message,
                                           String actionUrl, String actionText, Integer relatedEntityId) {
-        // Determine NotificationType enum value
-        Notification.NotificationType notificationType;
-        try {
-            notificationType = Notification.NotificationType.valueOf(type);
-        } catch (IllegalArgumentException e) {
-            notificationType = Notification.NotificationType.SYSTEM_EVENT; // Default fallback
-        }
-
-        AdminNotificationDto websocketNotification = AdminNotificationDto.of(
-            type, severity, title, message, actionUrl, actionText
-        );
-        sendAdminNotification(websocketNotification);
-
-        // Store in database for persistence
-        Notification dbNotification = new Notification(
-            notificationType,
+        publish(Audience.ADMINS, type, PendingNotification.of(
+            notificationType(type),
             severity,
             title,
             message,
             actionUrl,
             actionText,
-            relatedEntityId,
-            null // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(dbNotification);
+            relatedEntityId
+        ));
     }
 
     /**
@@ -226,118 +232,66 @@ public class NotificationService {
             ? "New driver application from: " + username
             : "New " + role + " registration from: " + username;
 
-        AdminNotificationDto websocketNotification = AdminNotificationDto.of(
-            "REGISTRATION_REQUEST",
-            "INFO",
-            title,
-            message,
-            "/admin/registration-requests/" + requestId,
-            "Review Request"
-        );
-        sendAdminNotification(websocketNotification);
-
-        // Store in database for persistence (following driver report pattern)
-        Notification dbNotification = new Notification(
+        publish(Audience.ADMINS, "REGISTRATION_REQUEST", PendingNotification.of(
             Notification.NotificationType.REGISTRATION_REQUEST,
             "INFO",
             title,
             message,
             "/admin/registration-requests/" + requestId,
             "Review Request",
-            requestId,  // relatedEntityId = requestId
-            null        // targetAdminUser (broadcast to all admins)
-        );
-        notificationRepository.save(dbNotification);
+            requestId   // relatedEntityId = requestId (broadcast to all admins)
+        ));
     }
 
     /**
      * Send compliance alert notification (websocket + database)
      */
     public void notifyComplianceAlert(String alertType, String severity, String message, String actionUrl) {
-        AdminNotificationDto websocketNotification = AdminNotificationDto.of(
-            "COMPLIANCE_ALERT",
-            severity,
-            "Compliance Alert",
-            message,
-            actionUrl,
-            "View Details"
-        );
-        sendAdminNotification(websocketNotification);
-
-        // Store in database for persistence
-        Notification dbNotification = new Notification(
+        publish(Audience.ADMINS, "COMPLIANCE_ALERT", PendingNotification.of(
             Notification.NotificationType.COMPLIANCE_ALERT,
             severity,
             "Compliance Alert",
             message,
             actionUrl,
             "View Details",
-            null,  // relatedEntityId
-            null   // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(dbNotification);
+            null   // relatedEntityId
+        ));
     }
 
     /**
      * Send system event notification (websocket + database)
      */
     public void notifySystemEvent(String title, String message, String severity) {
-        AdminNotificationDto websocketNotification = AdminNotificationDto.of(
-            "SYSTEM_EVENT",
-            severity,
-            title,
-            message,
-            "/admin/dashboard",
-            "View Dashboard"
-        );
-        sendAdminNotification(websocketNotification);
-
-        // Store in database for persistence
-        Notification dbNotification = new Notification(
+        publish(Audience.ADMINS, "SYSTEM_EVENT", PendingNotification.of(
             Notification.NotificationType.SYSTEM_EVENT,
             severity,
             title,
             message,
             "/admin/dashboard",
             "View Dashboard",
-            null,  // relatedEntityId
-            null   // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(dbNotification);
+            null   // relatedEntityId
+        ));
     }
 
     /**
      * Send notification about new order to all dispatchers
      */
     public void notifyNewOrder(Integer orderId, String customerName, String priority) {
-        DispatcherNotificationDto notification = DispatcherNotificationDto.of(
-            "NEW_ORDER",
-            "URGENT".equalsIgnoreCase(priority) ? "WARNING" : "INFO",
-            "New Order Received",
-            "New " + priority + " order from " + customerName,
-            "/dispatch/orders/" + orderId,
-            "View Order"
-        );
-        sendDispatcherNotification(notification);
-
-        // Store in database for persistence
-        Notification dbNotification = new Notification(
+        publish(Audience.DISPATCHERS, "NEW_ORDER", PendingNotification.of(
             Notification.NotificationType.NEW_ORDER,
             "URGENT".equalsIgnoreCase(priority) ? "WARNING" : "INFO",
             "New Order Received",
             "New " + priority + " order from " + customerName,
             "/dispatch/orders/" + orderId,
             "View Order",
-            orderId,
-            null // targetAdminUser (broadcast to all)
-        );
-        notificationRepository.save(dbNotification);
+            orderId
+        ));
     }
 
     public void sendOrderNotification(Integer customerId, Integer orderId, String type, String message, String orderStatus) {
         String destination = "/topic/customer/" + customerId;
         TripNotificationDto notification = new TripNotificationDto(type, message, orderId, orderStatus);
-        messagingTemplate.convertAndSend(destination, notification);
+        send(destination, notification);
     }
 
     /**
@@ -349,20 +303,15 @@ public class NotificationService {
             "Your order #" + orderId + " has been delivered to " + deliveryAddress, 
             "DELIVERED");
 
-        // Store in database for persistence
-        User customer = userRepository.findById(customerId).orElse(null);
-        if (customer != null) {
-            Notification dbNotification = new Notification(
-                Notification.NotificationType.ORDER_DELIVERED,
-                "INFO",
-                "Order Delivered",
-                "Your order #" + orderId + " has been successfully delivered to " + deliveryAddress,
-                "/customer/orders/" + orderId,
-                "View Order",
-                orderId,
-                customer
-            );
-            notificationRepository.save(dbNotification);
-        }
+        // Store in database for persistence (skipped by the outbox insert if the user does not exist)
+        persist(PendingNotification.of(
+            Notification.NotificationType.ORDER_DELIVERED,
+            "INFO",
+            "Order Delivered",
+            "Your order #" + orderId + " has been successfully delivered to " + deliveryAddress,
+            "/customer/orders/" + orderId,
+            "View Order",
+            orderId
+        ).forUserId(customerId));
     }
 }
@@ -0,0 +1,184 @@
+package com.logiflow.server.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how many outbound STOMP messages are queued per WebSocket session and disconnects sessions
+ * that fall too far behind, so one client on a bad network cannot fill the shared outbound executor.
+ *
+ * Registered both as an interceptor on the client outbound channel (counts messages from hand-off to
+ * the executor until they are handled) and as a handler decorator (knows the live sessions so it can
+ * close them). A session is evicted when its queue depth exceeds {@code max-session-depth}, or when
+ * it has pending messages but nothing was delivered to it for {@code max-session-lag-ms}.
+ */
+@Component
+public class OutboundLagMonitor implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundLagMonitor.class);
+
+    private final int maxSessionDepth;
+    private final long maxSessionLagMs;
+
+    private final Map<String, SessionLag> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ws-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicInteger maxObservedDepth = new AtomicInteger();
+
+    public OutboundLagMonitor(@Value("${app.websocket.outbound.max-session-depth:500}") int maxSessionDepth,
+                              @Value("${app.websocket.outbound.max-session-lag-ms:15000}") long maxSessionLagMs) {
+        this.maxSessionDepth = maxSessionDepth;
+        this.maxSessionLagMs = maxSessionLagMs;
+    }
+
+    // ===== Outbound channel interceptor =====
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SessionLag lag = lagOf(message);
+        if (lag == null) return message;
+
+        if (lag.evicted) {
+            droppedMessages.incrementAndGet();
+            return null;
+        }
+        int depth = lag.pending.incrementAndGet();
+        maxObservedDepth.accumulateAndGet(depth, Math::max);
+
+        long now = System.currentTimeMillis();
+        if (depth == 1) {
+            lag.progressAt = now; // queue was empty: the lag clock starts now, not at the last delivery
+        }
+        long stalledFor = now - lag.progressAt;
+        if (depth > maxSessionDepth || (depth > 1 && stalledFor > maxSessionLagMs)) {
+            lag.pending.decrementAndGet();
+            droppedMessages.incrementAndGet();
+            evict(lag, depth, stalledFor);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor (queue full): the message will never be handled
+        if (!sent || ex != null) {
+            SessionLag lag = lagOf(message);
+            if (lag != null) lag.pending.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        SessionLag lag = lagOf(message);
+        if (lag != null) {
+            lag.pending.decrementAndGet();
+            lag.progressAt = System.currentTimeMillis();
+        }
+    }
+
+    // ===== Session tracking =====
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionLag(session));
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public Map<String, Object> getStats() {
+        int totalPending = 0;
+        int deepest = 0;
+        for (SessionLag lag : sessions.values()) {
+            int pending = Math.max(0, lag.pending.get());
+            totalPending += pending;
+            deepest = Math.max(deepest, pending);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("pendingOutbound", totalPending);
+        stats.put("deepestSessionQueue", deepest);
+        stats.put("maxObservedDepth", maxObservedDepth.get());
+        stats.put("evictions", evictions.get());
+        stats.put("droppedMessages", droppedMessages.get());
+        stats.put("maxSessionDepth", maxSessionDepth);
+        stats.put("maxSessionLagMs", maxSessionLagMs);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdown();
+    }
+
+    private SessionLag lagOf(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private void evict(SessionLag lag, int depth, long stalledFor) {
+        synchronized (lag) {
+            if (lag.evicted) return;
+            lag.evicted = true;
+        }
+        evictions.incrementAndGet();
+        logger.warn("Disconnecting slow WebSocket session {} (queued={}, no delivery for {} ms)",
+                lag.session.getId(), depth, stalledFor);
+        // Closing may block on a stuck socket, so never do it on a channel thread
+        evictor.execute(() -> {
+            try {
+                lag.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (Exception e) {
+                logger.debug("Error closing slow WebSocket session {}: {}", lag.session.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private static final class SessionLag {
+        private final WebSocketSession session;
+        private final AtomicInteger pending = new AtomicInteger();
+        // Last delivery to the session, or the moment its queue became non-empty
+        private volatile long progressAt = System.currentTimeMillis();
+        private volatile boolean evicted;
+
+        private SessionLag(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
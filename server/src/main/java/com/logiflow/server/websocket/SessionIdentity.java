@@ -0,0 +1,47 @@
+package com.logiflow.server.websocket;
+
+import java.util.Map;
+
+/**
+ * Identity of an authenticated WebSocket session, resolved once at handshake and stored in the
+ * session attributes under {@link #ATTRIBUTE}. Message handlers read it instead of looking the
+ * user/driver up again for every frame.
+ *
+ * The instance is shared with {@link SessionIdentityRegistry}, which revokes it when the account
+ * is deactivated so already-open sessions stop being trusted without a database check.
+ */
+public final class SessionIdentity {
+    public static final String ATTRIBUTE = "identity";
+
+    private final Integer userId;
+    private final String username;
+    private final String role;
+    private final Integer driverId;
+    private volatile boolean revoked;
+
+    public SessionIdentity(Integer userId, String username, String role, Integer driverId) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.driverId = driverId;
+    }
+
+    public Integer getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getRole() { return role; }
+    public Integer getDriverId() { return driverId; }
+
+    public boolean isRevoked() { return revoked; }
+
+    void revoke() {
+        this.revoked = true;
+    }
+
+    public static SessionIdentity from(Map<String, Object> sessionAttributes) {
+        if (sessionAttributes == null) return null;
+        Object identity = sessionAttributes.get(ATTRIBUTE);
+        return identity instanceof SessionIdentity sessionIdentity && !sessionIdentity.isRevoked()
+                ? sessionIdentity
+                : null;
+    }
+}
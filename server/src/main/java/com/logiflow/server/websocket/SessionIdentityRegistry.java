@@ -0,0 +1,52 @@
+package com.logiflow.server.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the identities of open WebSocket sessions by user id, so account changes
+ * (e.g. an admin deactivating a driver) can revoke the identity cached in those sessions.
+ */
+@Component
+public class SessionIdentityRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SessionIdentityRegistry.class);
+
+    private final Map<Integer, Set<SessionIdentity>> identitiesByUser = new ConcurrentHashMap<>();
+
+    public void register(SessionIdentity identity) {
+        identitiesByUser.computeIfAbsent(identity.getUserId(), k -> ConcurrentHashMap.newKeySet()).add(identity);
+    }
+
+    /**
+     * Revoke the cached identity of every open session of this user. Handlers then ignore
+     * messages from those sessions; the client has to reconnect, which re-checks the account.
+     */
+    public void invalidateUser(Integer userId) {
+        if (userId == null) return;
+        Set<SessionIdentity> identities = identitiesByUser.remove(userId);
+        if (identities != null) {
+            identities.forEach(SessionIdentity::revoke);
+            logger.info("Revoked {} WebSocket session identities of user {}", identities.size(), userId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+        if (attributes == null) return;
+        if (attributes.get(SessionIdentity.ATTRIBUTE) instanceof SessionIdentity identity) {
+            identitiesByUser.computeIfPresent(identity.getUserId(), (k, set) -> {
+                set.remove(identity);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.logiflow.server.websocket;
+
+import com.logiflow.server.models.Notification;
+import com.logiflow.server.repositories.notification.NotificationRepository;
+import com.logiflow.server.repositories.notification.UnreadCountRow;
+import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.repositories.user.UserRoleRow;
+import com.logiflow.server.websocket.NotificationOutbox.PendingNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory unread notification counts per audience: admins, dispatchers and every targeted user.
+ *
+ * Audiences match the repository count queries: admins see broadcasts and notifications targeted at
+ * admin/dispatcher users, dispatchers see NEW_ORDER broadcasts and dispatcher-targeted ones, a user
+ * sees notifications targeted at them. Counts go up when the outbox has written a batch and go down
+ * when notifications are marked read; every change is pushed to
+ * {@code /topic/admin/notifications/unread-count}, {@code /topic/dispatcher/notifications/unread-count}
+ * or {@code /topic/user/{username}/unread-count}. The counts are seeded from the database at startup
+ * and reconciled periodically, so the count endpoints are plain map reads.
+ */
+@Component
+public class UnreadNotificationCounters {
+    private static final Logger logger = LoggerFactory.getLogger(UnreadNotificationCounters.class);
+
+    private static final String ADMIN_TOPIC = "/topic/admin/notifications/unread-count";
+    private static final String DISPATCHER_TOPIC = "/topic/dispatcher/notifications/unread-count";
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final AtomicLong admins = new AtomicLong();
+    private final AtomicLong dispatchers = new AtomicLong();
+    private final Map<String, AtomicLong> users = new ConcurrentHashMap<>();
+    // Target user id -> username/role, only touched by the outbox writer thread
+    private final Map<Integer, UserRoleRow> usersById = new ConcurrentHashMap<>();
+    private final Map<String, UserRoleRow> usersByName = new ConcurrentHashMap<>();
+
+    public UnreadNotificationCounters(NotificationRepository notificationRepository,
+                                      UserRepository userRepository,
+                                      SimpMessagingTemplate messagingTemplate) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public long adminUnread() {
+        return admins.get();
+    }
+
+    public long dispatcherUnread() {
+        return dispatchers.get();
+    }
+
+    public long userUnread(String username) {
+        AtomicLong count = users.get(username);
+        return count != null ? count.get() : 0L;
+    }
+
+    /**
+     * Called by {@link NotificationOutbox} after a batch of notifications has been written.
+     */
+    void onPersisted(List<PendingNotification> batch) {
+        long adminDelta = 0;
+        long dispatcherDelta = 0;
+        Map<String, Long> userDeltas = new HashMap<>();
+        for (PendingNotification n : batch) {
+            boolean newOrder = n.type() == Notification.NotificationType.NEW_ORDER;
+            if (n.targetUserId() == null && n.targetUsername() == null) {
+                adminDelta++;
+                if (newOrder) dispatcherDelta++;
+                continue;
+            }
+            UserRoleRow target = resolveTarget(n);
+            if (target == null) continue; // the outbox insert skipped it as well
+            userDeltas.merge(target.getUsername(), 1L, Long::sum);
+            String role = target.getRoleName();
+            if ("ADMIN".equalsIgnoreCase(role) || "DISPATCHER".equalsIgnoreCase(role)) adminDelta++;
+            if ("DISPATCHER".equalsIgnoreCase(role) && newOrder) dispatcherDelta++;
+        }
+        if (adminDelta != 0) push(ADMIN_TOPIC, admins.addAndGet(adminDelta));
+        if (dispatcherDelta != 0) push(DISPATCHER_TOPIC, dispatchers.addAndGet(dispatcherDelta));
+        userDeltas.forEach((username, delta) ->
+                push(userTopic(username), users.computeIfAbsent(username, k -> new AtomicLong()).addAndGet(delta)));
+    }
+
+    /**
+     * A single notification was marked read.
+     */
+    public void onRead(Notification notification) {
+        if (notification.getTargetUser() == null) {
+            push(ADMIN_TOPIC, decrement(admins));
+            if (notification.getNotificationType() == Notification.NotificationType.NEW_ORDER) {
+                push(DISPATCHER_TOPIC, decrement(dispatchers));
+            }
+            return;
+        }
+        onUserRead(notification.getTargetUser().getUsername());
+        String role = notification.getTargetUser().getRole() != null
+                ? notification.getTargetUser().getRole().getRoleName() : null;
+        if ("ADMIN".equalsIgnoreCase(role) || "DISPATCHER".equalsIgnoreCase(role)) {
+            recountShared();
+        }
+    }
+
+    /**
+     * A single notification targeted at this user was marked read.
+     */
+    public void onUserRead(String username) {
+        AtomicLong count = users.get(username);
+        if (count != null) push(userTopic(username), decrement(count));
+    }
+
+    /**
+     * All notifications of this user were marked read.
+     */
+    public void onUserReadAll(String username) {
+        AtomicLong previous = users.remove(username);
+        if (previous != null && previous.get() != 0) push(userTopic(username), 0L);
+    }
+
+    /**
+     * Several admin/dispatcher notifications were marked read at once. Which audiences they belonged
+     * to is not known here, so both shared counts are recounted (user-initiated, so rare).
+     */
+    public void recountShared() {
+        long adminCount = notificationRepository.countUnreadForAdmins();
+        long dispatcherCount = notificationRepository.countUnreadForDispatchers();
+        if (admins.getAndSet(adminCount) != adminCount) push(ADMIN_TOPIC, adminCount);
+        if (dispatchers.getAndSet(dispatcherCount) != dispatcherCount) push(DISPATCHER_TOPIC, dispatcherCount);
+    }
+
+    /**
+     * Seed at startup and periodically correct drift (e.g. rows changed directly in the database).
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.unread.reconcile-ms:600000}")
+    public void reconcile() {
+        try {
+            recountShared();
+            List<UnreadCountRow> rows = notificationRepository.countUnreadPerUser();
+            Set<String> seen = new HashSet<>();
+            for (UnreadCountRow row : rows) {
+                seen.add(row.getUsername());
+                long value = row.getUnread();
+                AtomicLong count = users.computeIfAbsent(row.getUsername(), k -> new AtomicLong());
+                if (count.getAndSet(value) != value) push(userTopic(row.getUsername()), value);
+            }
+            users.keySet().removeIf(username -> !seen.contains(username));
+            // Roles can change; re-resolve lazily
+            usersById.clear();
+            usersByName.clear();
+            logger.debug("Unread counters reconciled: admins={}, dispatchers={}, users={}",
+                    admins.get(), dispatchers.get(), users.size());
+        } catch (Exception e) {
+            logger.error("Failed to reconcile unread notification counters: {}", e.getMessage());
+        }
+    }
+
+    private UserRoleRow resolveTarget(PendingNotification n) {
+        try {
+            if (n.targetUserId() != null) {
+                UserRoleRow cached = usersById.get(n.targetUserId());
+                if (cached != null) return cached;
+                UserRoleRow row = userRepository.findRoleRowById(n.targetUserId()).orElse(null);
+                if (row != null) usersById.put(row.getUserId(), row);
+                return row;
+            }
+            UserRoleRow cached = usersByName.get(n.targetUsername());
+            if (cached != null) return cached;
+            UserRoleRow row = userRepository.findRoleRowByUsername(n.targetUsername()).orElse(null);
+            if (row != null) usersByName.put(row.getUsername(), row);
+            return row;
+        } catch (Exception e) {
+            logger.warn("Could not resolve notification target for unread counters: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long decrement(AtomicLong count) {
+        return count.updateAndGet(v -> v > 0 ? v - 1 : 0);
+    }
+
+    private static String userTopic(String username) {
+        return "/topic/user/" + username + "/unread-count";
+    }
+
+    private void push(String destination, long unreadCount) {
+        try {
+            messagingTemplate.convertAndSend(destination, Map.of("unreadCount", unreadCount));
+        } catch (Exception e) {
+            logger.debug("Failed to push unread count to {}: {}", destination, e.getMessage());
+        }
+    }
+}
@@ -1,24 +1,131 @@
 package com.logiflow.server.websocket;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
 
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final JwtPrincipalHandshakeHandler jwtPrincipalHandshakeHandler;
+    private final OutboundLagMonitor outboundLagMonitor;
 
-    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor) {
+    // "simple" = in-process broker (single node), "relay" = external STOMP broker shared by all nodes
+    @Value("${app.websocket.broker:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${app.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.message-size-limit:131072}")
+    private int messageSizeLimit;
+
+    public WebSocketConfig(JwtHandshakeInterceptor jwtHandshakeInterceptor,
+                           JwtPrincipalHandshakeHandler jwtPrincipalHandshakeHandler,
+                           OutboundLagMonitor outboundLagMonitor) {
         this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+        this.jwtPrincipalHandshakeHandler = jwtPrincipalHandshakeHandler;
+        this.outboundLagMonitor = outboundLagMonitor;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // GPS frames and client commands; bounded so a flood cannot grow the queue without limit
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundLagMonitor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose send blocks longer than the time limit, or whose unsent buffer grows past
+        // the size limit, is closed by Spring instead of holding an outbound thread
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(outboundLagMonitor);
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue"); // For broadcasting to clients and personal queues
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // Every node forwards /topic and /queue traffic to the shared broker, so a client receives
+            // messages published on any node without sticky sessions.
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(10000)
+                    .setSystemHeartbeatReceiveInterval(10000);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            // Share user sessions between nodes so /user destinations resolve on whichever node holds the session
+            relay.setUserDestinationBroadcast("/topic/unresolved-user-destination");
+            relay.setUserRegistryBroadcast("/topic/simp-user-registry");
+            logger.info("WebSocket messaging uses STOMP broker relay at {}:{}", relayHost, relayPort);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue"); // For broadcasting to clients and personal queues
+        }
         config.setApplicationDestinationPrefixes("/app"); // For client-to-server messages
         config.setUserDestinationPrefix("/user"); // For user-specific destinations
     }
@@ -31,9 +138,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .addInterceptors(jwtHandshakeInterceptor)
                 .withSockJS();
 
-        // Admin notifications endpoint - Enable SockJS for web clients
+        // Admin notifications endpoint - Enable SockJS for web clients; an optional token names the session's user
         registry.addEndpoint("/ws/notifications")
                 .setAllowedOriginPatterns("*")
+                .setHandshakeHandler(jwtPrincipalHandshakeHandler)
                 .withSockJS();
 
         // Native WebSocket endpoint for mobile clients (non-SockJS)
@@ -1,6 +1,7 @@
 package com.logiflow.server.controllers.auth;
 
 import com.logiflow.server.services.auth.AuthService;
+import com.logiflow.server.services.auth.LoginExecutor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -21,6 +22,9 @@ class AuthControllerValidationTest {
     @MockitoBean
     private AuthService authService;
 
+    @MockitoBean
+    private LoginExecutor loginExecutor;
+
     @Test
     void loginReturnsStructuredValidationErrorsForBlankCredentials() throws Exception {
         mockMvc.perform(post("/api/auth/login")
@@ -0,0 +1,35 @@
+package com.logiflow.server.controllers.dispatch;
+
+import com.logiflow.server.exceptions.BusinessRuleException;
+import com.logiflow.server.services.dispatch.OrderImportJobService;
+import com.logiflow.server.services.dispatch.OrderSearchService;
+import com.logiflow.server.services.dispatch.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerScrollTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new OrderController(orderService, mock(OrderImportJobService.class), mock(OrderSearchService.class))).build();
+
+    @Test
+    void invalidCursorIsBadRequest() throws Exception {
+        when(orderService.scrollOrders(isNull(), isNull(), eq("garbage"), anyInt()))
+                .thenThrow(new BusinessRuleException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/dispatch/orders/scroll").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.logiflow.server.controllers.dispatch;
+
+import com.logiflow.server.exceptions.GlobalExceptionHandler;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.services.dispatch.OrderImportJobService;
+import com.logiflow.server.services.dispatch.OrderSearchService;
+import com.logiflow.server.services.dispatch.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerSearchTest {
+
+    private final OrderSearchService orderSearchService = mock(OrderSearchService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new OrderController(mock(OrderService.class), mock(OrderImportJobService.class), orderSearchService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void unavailableSearchIsServiceUnavailableWithRetryAfter() throws Exception {
+        when(orderSearchService.search(eq("nguyen"), anyInt(), anyInt()))
+                .thenThrow(new ServiceBusyException("Order search is not available", 60));
+
+        mockMvc.perform(get("/api/dispatch/orders/search").param("q", "nguyen"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "60"))
+                .andExpect(jsonPath("$.error").value("Order search is not available"));
+    }
+
+    @Test
+    void otherFailuresAreServerErrors() throws Exception {
+        when(orderSearchService.search(eq("nguyen"), anyInt(), anyInt()))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+        mockMvc.perform(get("/api/dispatch/orders/search").param("q", "nguyen"))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,150 @@
+package com.logiflow.server.services.auth;
+
+import com.logiflow.server.utils.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shift-change login storm against a running server: {@code drivers} clients each log in {@code rounds}
+ * times, all released at once, while a probe keeps polling a cheap authenticated driver endpoint (standing
+ * in for GPS/dispatch traffic). Prints login outcomes and latency, and the probe latency before and during
+ * the storm; with the login pool the probe latency should stay close to its baseline.
+ *
+ * Uses the seeded accounts (password {@code 123}). Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.logiflow.server.services.auth.LoginStormLoadTest
+ *     -Dexec.args="http://localhost:8080 300 3"
+ */
+public class LoginStormLoadTest {
+
+    private static final String[] DRIVERS = {
+            "sarah.driver", "mike.driver", "carl.driver2", "david.driver3",
+            "emma.driver4", "bob.driver5", "frank.driver6", "grace.driver7"
+    };
+    private static final String PASSWORD = "123";
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int drivers = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.min(drivers, 512)))
+                .build();
+
+        String probeToken = extractToken(login(http, baseUrl, DRIVERS[0]).body());
+        if (probeToken == null) {
+            throw new IllegalStateException("Could not log in " + DRIVERS[0] + " for the probe");
+        }
+
+        LatencyHistogram baseline = new LatencyHistogram();
+        probe(http, baseUrl, probeToken, baseline, new AtomicBoolean(true), 50);
+
+        LatencyHistogram loginLatency = new LatencyHistogram();
+        LatencyHistogram duringStorm = new LatencyHistogram();
+        LongAdder ok = new LongAdder();
+        LongAdder busy = new LongAdder();
+        LongAdder failed = new LongAdder();
+        AtomicBoolean storming = new AtomicBoolean(true);
+
+        Thread prober = new Thread(() -> probe(http, baseUrl, probeToken, duringStorm, storming, Integer.MAX_VALUE));
+        prober.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(drivers);
+        long started = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            CountDownLatch gate = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(drivers);
+            for (int i = 0; i < drivers; i++) {
+                String username = DRIVERS[i % DRIVERS.length];
+                clients.execute(() -> {
+                    try {
+                        gate.await();
+                        long t0 = System.nanoTime();
+                        HttpResponse<String> response = login(http, baseUrl, username);
+                        loginLatency.recordSince(t0);
+                        if (response.statusCode() == 200) ok.increment();
+                        else if (response.statusCode() == 503) busy.increment();
+                        else failed.increment();
+                    } catch (Exception e) {
+                        failed.increment();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            gate.countDown();
+            done.await(5, TimeUnit.MINUTES);
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        storming.set(false);
+        prober.join();
+        clients.shutdown();
+
+        System.out.printf("Logins: %d ok, %d busy (503), %d failed in %d ms (%.1f/s)%n",
+                ok.sum(), busy.sum(), failed.sum(), elapsedMs, ok.sum() * 1000.0 / Math.max(1, elapsedMs));
+        System.out.println("Login latency:        " + loginLatency.summary());
+        System.out.println("Probe latency before: " + baseline.summary());
+        System.out.println("Probe latency during: " + duringStorm.summary());
+        System.exit(0);
+    }
+
+    private static HttpResponse<String> login(HttpClient http, String baseUrl, String username) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void probe(HttpClient http, String baseUrl, String token, LatencyHistogram histogram,
+                              AtomicBoolean running, int maxRequests) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/driver/me/profile"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        List<Integer> errors = new ArrayList<>();
+        for (int i = 0; i < maxRequests && running.get(); i++) {
+            long t0 = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) errors.add(response.statusCode());
+            } catch (Exception e) {
+                errors.add(-1);
+            }
+            histogram.recordSince(t0);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!errors.isEmpty()) {
+            System.out.println("Probe errors: " + errors.size() + " (first status " + errors.get(0) + ")");
+        }
+    }
+
+    private static String extractToken(String body) {
+        Matcher m = TOKEN.matcher(body);
+        return m.find() ? m.group(1) : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.logiflow.server.services.auth;
+
+import com.logiflow.server.repositories.user.RevokedSubjectRepository;
+import com.logiflow.server.repositories.user.TokenCutoffRow;
+import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.utils.JwtUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test";
+
+    private final RevokedSubjectRepository revokedSubjectRepository = mock(RevokedSubjectRepository.class);
+    private final TokenRevocationRegistry registry =
+            new TokenRevocationRegistry(mock(UserRepository.class), revokedSubjectRepository, 60_000L);
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000L, 0);
+
+    @Test
+    void passwordChangeRevokesOlderTokensButNotTheOneIssuedWithIt() {
+        JwtUtils.VerifiedToken before = jwtUtils.verify(jwtUtils.generateToken("driver1", "DRIVER"));
+
+        LocalDateTime changedAt = LocalDateTime.now();
+        registry.revokeIssuedBefore("driver1", changedAt);
+        JwtUtils.VerifiedToken fresh = jwtUtils.verify(jwtUtils.generateToken("driver1", "DRIVER",
+                TokenRevocationRegistry.firstValidIssuedAt(changedAt)));
+
+        assertTrue(registry.isRevoked("driver1", before.issuedAtMs()));
+        assertFalse(registry.isRevoked("driver1", fresh.issuedAtMs()));
+        assertFalse(registry.isRevoked("driver2", before.issuedAtMs()));
+    }
+
+    @Test
+    void disabledAccountsAreRevokedWhateverTheIssueTime() {
+        registry.accountDisabled("driver1", LocalDateTime.now());
+
+        assertTrue(registry.isRevoked("driver1", System.currentTimeMillis() + 60_000));
+    }
+
+    @Test
+    void oldNameOfARenamedAccountStaysRevokedAfterARestart() {
+        String token = jwtUtils.generateToken("driver1", "DRIVER");
+        LocalDateTime renamedAt = LocalDateTime.now();
+        // What subjectRenamed stored; a fresh registry (restart, other instance) only has the database
+        TokenCutoffRow row = mock(TokenCutoffRow.class);
+        when(row.getUsername()).thenReturn("driver1");
+        when(row.getTokensValidAfter()).thenReturn(renamedAt);
+        when(revokedSubjectRepository.findCutoffsSince(any())).thenReturn(List.of(row));
+
+        TokenRevocationRegistry restarted =
+                new TokenRevocationRegistry(mock(UserRepository.class), revokedSubjectRepository, 60_000L);
+        restarted.reconcile();
+
+        assertTrue(restarted.isRevoked("driver1", jwtUtils.verify(token).issuedAtMs()));
+    }
+}
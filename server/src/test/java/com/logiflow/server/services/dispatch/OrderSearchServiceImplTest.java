@@ -0,0 +1,191 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.configs.OrderSearchSchema;
+import com.logiflow.server.dtos.dispatch.OrderDto;
+import com.logiflow.server.dtos.dispatch.OrderSearchResponse;
+import com.logiflow.server.exceptions.ServiceBusyException;
+import com.logiflow.server.repositories.order.OrderListRow;
+import com.logiflow.server.repositories.order.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderSearchServiceImplTest {
+    private static final int MAX_CANDIDATES = 3;
+    private static final int RECENT_WINDOW = 50;
+
+    private final FakeJdbcTemplate jdbc = new FakeJdbcTemplate();
+    private final OrderSearchSchema schema = mock(OrderSearchSchema.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderSearchServiceImpl service =
+            new OrderSearchServiceImpl(jdbc, orderRepository, schema, MAX_CANDIDATES, RECENT_WINDOW, 0.3);
+
+    @BeforeEach
+    void setUp() {
+        when(schema.isSearchReady()).thenReturn(true);
+        when(schema.isFuzzyReady()).thenReturn(true);
+        // The repository returns rows in no particular order
+        when(orderRepository.listByIds(anyList())).thenAnswer(invocation -> {
+            List<Integer> ids = new ArrayList<>(invocation.<List<Integer>>getArgument(0));
+            ids.sort(null);
+            List<OrderListRow> rows = new ArrayList<>();
+            for (Integer id : ids) {
+                OrderListRow row = mock(OrderListRow.class);
+                when(row.getOrderId()).thenReturn(id);
+                rows.add(row);
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void termsKeepLettersAndDigitsOnly() {
+        assertEquals(List.of("nguyễn", "0912", "345"), OrderSearchServiceImpl.terms("  Nguyễn, 0912-345 "));
+        assertEquals(List.of("mscu1234567", "dock", "b"), OrderSearchServiceImpl.terms("MSCU1234567 & dock:*B|!"));
+        assertEquals(List.of(), OrderSearchServiceImpl.terms("'&|!():* "));
+        assertEquals(List.of(), OrderSearchServiceImpl.terms(null));
+    }
+
+    @Test
+    void termsAreCapped() {
+        assertEquals(8, OrderSearchServiceImpl.terms("a b c d e f g h i j").size());
+    }
+
+    @Test
+    void broadQueriesAreServedFromTheNewestOrders() {
+        jdbc.recent.put("ho:* & chi:* & minh:*", List.of(9, 4, 7));
+
+        OrderSearchResponse response = service.search("Ho Chi Minh", 0, 20);
+
+        assertEquals(List.of(9, 4, 7), orderIds(response));
+        assertTrue(response.isMoreMatches());
+        assertEquals(1, jdbc.searches.size());
+        assertTrue(jdbc.searches.get(0).contains(Integer.valueOf(RECENT_WINDOW)));
+        assertTrue(jdbc.corrected.isEmpty());
+    }
+
+    @Test
+    void selectiveQueriesFallBackToTheIndex() {
+        // Too few candidates among the newest orders: the older ones are searched too, the candidates stay the newest
+        jdbc.recent.put("nguyen:* & tuan:*", List.of(8));
+        jdbc.all.put("nguyen:* & tuan:*", List.of(2, 8));
+
+        OrderSearchResponse response = service.search("nguyen tuan", 0, 20);
+
+        assertEquals(List.of(2, 8), orderIds(response));
+        assertEquals(2, response.getTotalMatches());
+        assertFalse(response.isMoreMatches());
+        assertEquals(2, jdbc.searches.size());
+        assertTrue(jdbc.corrected.isEmpty());
+    }
+
+    @Test
+    void misspeltWordsAreSearchedAsTheirNearestKnownWords() {
+        jdbc.nearest.put("nguyn", List.of("nguyen", "nguy"));
+        // A word that starts with the term means it was spelt right, and its neighbours are not added
+        jdbc.nearest.put("tuan", List.of("tuan", "xuan"));
+        jdbc.all.put("(nguyn:* | nguyen | nguy) & tuan:*", List.of(5, 3));
+
+        OrderSearchResponse response = service.search("Nguyn Tuan", 0, 20);
+
+        assertEquals(List.of(5, 3), orderIds(response));
+        assertEquals(List.of("nguyn", "tuan"), jdbc.corrected);
+    }
+
+    @Test
+    void numbersAreFoundInsideWordsWhenNothingStartsWithThem() {
+        jdbc.all.put("%6454572%", List.of(12));
+
+        OrderSearchResponse response = service.search("6454572", 0, 20);
+
+        assertEquals(List.of(12), orderIds(response));
+        assertTrue(jdbc.corrected.isEmpty());
+    }
+
+    @Test
+    void anEmptyPagePastTheResultsIsNotCorrected() {
+        jdbc.anyMatch = true;
+
+        OrderSearchResponse response = service.search("nguyen", 1, 2);
+
+        assertTrue(response.getOrders().isEmpty());
+        assertTrue(jdbc.corrected.isEmpty());
+    }
+
+    @Test
+    void failsAsUnavailableWithoutTheSearchIndexes() {
+        when(schema.isSearchReady()).thenReturn(false);
+
+        ServiceBusyException e = assertThrows(ServiceBusyException.class, () -> service.search("nguyen", 0, 20));
+        assertEquals(60, e.getRetryAfterSeconds());
+    }
+
+    private static List<Integer> orderIds(OrderSearchResponse response) {
+        return response.getOrders().stream().map(OrderDto::getOrderId).toList();
+    }
+
+    /**
+     * Answers the search's statements from canned matches, keyed by the tsquery (or the fragment when there is
+     * none): ranked ids per query, best first, separately for the newest-orders window and for all orders.
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+        final Map<String, List<Integer>> recent = new HashMap<>();
+        final Map<String, List<Integer>> all = new HashMap<>();
+        final Map<String, List<String>> nearest = new HashMap<>();
+        final List<List<Object>> searches = new ArrayList<>();
+        final List<String> corrected = new ArrayList<>();
+        boolean anyMatch;
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            searches.add(Arrays.asList(args));
+            // The statement ends with the candidate cap, the page size and the offset
+            List<Object> head = Arrays.asList(args).subList(0, args.length - 3);
+            boolean window = head.contains(RECENT_WINDOW);
+            String key = head.stream().filter(String.class::isInstance).map(String.class::cast).findFirst().orElse("");
+            int offset = (Integer) args[args.length - 1];
+            int size = (Integer) args[args.length - 2];
+            List<Integer> ranked = (window ? recent : all).getOrDefault(key, List.of());
+            for (Integer id : ranked.subList(Math.min(offset, ranked.size()), Math.min(offset + size, ranked.size()))) {
+                ResultSet rs = mock(ResultSet.class);
+                try {
+                    when(rs.getInt("order_id")).thenReturn(id);
+                    when(rs.getLong("matches")).thenReturn((long) ranked.size());
+                    rch.processRow(rs);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            corrected.add((String) args[0]);
+            return (List<T>) nearest.getOrDefault((String) args[0], List.of());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            return (T) Boolean.valueOf(anyMatch);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.dtos.dispatch.OrderDto;
+import com.logiflow.server.models.Order;
+import com.logiflow.server.repositories.order.OrderListRow;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.events.DomainEventBus;
+import com.logiflow.server.services.payment.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceImplListTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 8, 0);
+    private static final Comparator<OrderListRow> NEWEST_FIRST =
+            Comparator.comparing(OrderListRow::getCreatedAt).thenComparing(OrderListRow::getOrderId).reversed();
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderServiceImpl service = new OrderServiceImpl(orderRepository, mock(UserRepository.class),
+            mock(TripRepository.class), mock(ShippingFeeCalculator.class), null, mock(DomainEventBus.class),
+            mock(PaymentService.class), mock(OrderImportEngine.class), 30_000);
+
+    @Test
+    void pagesListPendingOrdersFirstWithoutSkippingOrRepeatingRows() {
+        // Twelve orders, one a minute; every third one is still pending
+        List<OrderListRow> table = new ArrayList<>();
+        for (int id = 1; id <= 12; id++) {
+            table.add(row(id, T0.plusMinutes(id), id % 3 == 0 ? Order.OrderStatus.PENDING : Order.OrderStatus.DELIVERED));
+        }
+        // The repository filters and orders the way the queries do
+        when(orderRepository.listByOrderStatus(eq(Order.OrderStatus.PENDING), any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            return table.stream().filter(r -> r.getOrderStatus() == Order.OrderStatus.PENDING).sorted(NEWEST_FIRST)
+                    .skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+        });
+        when(orderRepository.listExcludingOrderStatus(eq(Order.OrderStatus.PENDING), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int offset = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return table.stream().filter(r -> r.getOrderStatus() != Order.OrderStatus.PENDING).sorted(NEWEST_FIRST)
+                    .skip(offset).limit(limit).toList();
+        });
+        when(orderRepository.countByOrderStatus(Order.OrderStatus.PENDING)).thenReturn(4);
+        when(orderRepository.count()).thenReturn(12L);
+
+        List<Integer> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            service.getOrders(null, null, page, 5).getOrders().stream().map(OrderDto::getOrderId).forEach(seen::add);
+        }
+
+        assertEquals(List.of(12, 9, 6, 3, 11, 10, 8, 7, 5, 4, 2, 1), seen);
+    }
+
+    @Test
+    void aPageOfPendingOrdersOnlyReadsNothingElse() {
+        List<OrderListRow> rows = List.of(row(9, T0, Order.OrderStatus.PENDING), row(8, T0, Order.OrderStatus.PENDING));
+        when(orderRepository.listByOrderStatus(eq(Order.OrderStatus.PENDING), any())).thenReturn(rows);
+
+        service.getOrders(null, null, 0, 2);
+
+        verify(orderRepository, never()).listExcludingOrderStatus(any(), anyInt(), anyInt());
+        verify(orderRepository, never()).countByOrderStatus(any());
+    }
+
+    private static OrderListRow row(int orderId, LocalDateTime createdAt, Order.OrderStatus status) {
+        OrderListRow row = mock(OrderListRow.class);
+        when(row.getOrderId()).thenReturn(orderId);
+        when(row.getCreatedAt()).thenReturn(createdAt);
+        when(row.getOrderStatus()).thenReturn(status);
+        return row;
+    }
+}
@@ -0,0 +1,131 @@
+package com.logiflow.server.services.dispatch;
+
+import com.logiflow.server.dtos.dispatch.OrderDto;
+import com.logiflow.server.dtos.dispatch.OrderScrollResponse;
+import com.logiflow.server.exceptions.BusinessRuleException;
+import com.logiflow.server.repositories.order.OrderListRow;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.user.UserRepository;
+import com.logiflow.server.services.events.DomainEventBus;
+import com.logiflow.server.services.payment.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceImplScrollTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_456_000);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderServiceImpl service = new OrderServiceImpl(orderRepository, mock(UserRepository.class),
+            mock(TripRepository.class), mock(ShippingFeeCalculator.class), null, mock(DomainEventBus.class),
+            mock(PaymentService.class), mock(OrderImportEngine.class), 30_000);
+
+    @Test
+    void pagesThroughTiedTimestampsWithoutSkippingOrRepeatingRows() {
+        // Ten orders, created in pairs sharing a timestamp (an import commits a chunk with one clock reading)
+        List<OrderListRow> table = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            table.add(row(id, T0.plusSeconds((id - 1) / 2)));
+        }
+        // The repository evaluates the keyset predicate and order the way the query does
+        when(orderRepository.scrollAll(any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime beforeCreatedAt = invocation.getArgument(0);
+            Integer beforeOrderId = invocation.getArgument(1);
+            Pageable limit = invocation.getArgument(2);
+            return table.stream()
+                    .filter(r -> r.getCreatedAt().isBefore(beforeCreatedAt)
+                            || (r.getCreatedAt().equals(beforeCreatedAt) && r.getOrderId() < beforeOrderId))
+                    .sorted(Comparator.comparing(OrderListRow::getCreatedAt).thenComparing(OrderListRow::getOrderId).reversed())
+                    .limit(limit.getPageSize())
+                    .toList();
+        });
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderScrollResponse page = service.scrollOrders(null, null, cursor, 3);
+            page.getOrders().stream().map(OrderDto::getOrderId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasNext());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 9, 8, 7, 6, 5, 4, 3, 2, 1), seen);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void asksForOneExtraRowAndDropsIt() {
+        List<OrderListRow> rows = List.of(row(3, T0), row(2, T0), row(1, T0));
+        when(orderRepository.scrollAll(any(), any(), any())).thenReturn(rows);
+
+        OrderScrollResponse page = service.scrollOrders(null, null, null, 2);
+
+        assertEquals(List.of(3, 2), page.getOrders().stream().map(OrderDto::getOrderId).toList());
+        assertTrue(page.isHasNext());
+        verify(orderRepository).scrollAll(any(), any(), argThat(p -> p.getPageSize() == 3));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        List<OrderListRow> rows = List.of(row(2, T0), row(1, T0));
+        when(orderRepository.scrollAll(any(), any(), any())).thenReturn(rows);
+
+        OrderScrollResponse page = service.scrollOrders(null, null, null, 2);
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorRoundTripsTheLastRowsPositionExactly() {
+        List<OrderListRow> rows = List.of(row(8, T0), row(7, T0));
+        when(orderRepository.scrollAll(any(), any(), any())).thenReturn(rows);
+        String cursor = service.scrollOrders(null, null, null, 1).getNextCursor();
+
+        service.scrollOrders(null, null, cursor, 1);
+
+        // Microseconds survive, so rows sharing the second are not skipped
+        verify(orderRepository).scrollAll(eq(T0), eq(8), any());
+    }
+
+    @Test
+    void rejectsUnreadableCursors() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2026-03-01T08:30".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().encodeToString("yesterday|5".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not base64!", noSeparator, badDate)) {
+            BusinessRuleException e = assertThrows(BusinessRuleException.class,
+                    () -> service.scrollOrders(null, null, cursor, 20));
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    private static OrderListRow row(int orderId, LocalDateTime createdAt) {
+        OrderListRow row = mock(OrderListRow.class);
+        when(row.getOrderId()).thenReturn(orderId);
+        when(row.getCreatedAt()).thenReturn(createdAt);
+        return row;
+    }
+}
@@ -0,0 +1,144 @@
+package com.logiflow.server.services.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logiflow.server.models.DomainEventDeadLetter;
+import com.logiflow.server.repositories.event.DomainEventDeadLetterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DomainEventBusTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DomainEventDeadLetterRepository deadLetterRepository = mock(DomainEventDeadLetterRepository.class);
+    private final StubSubscriber subscriber = new StubSubscriber();
+    private final DomainEventBus bus = new DomainEventBus(List.of(subscriber), deadLetterRepository, new ObjectMapper(),
+            2, 1024, MAX_ATTEMPTS, 1);
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void eventsOfOneKeyAreHandledInPublishOrder() {
+        // Four orders spread over two lanes; the customer name carries the publish sequence per order
+        for (int seq = 0; seq < 100; seq++) {
+            for (int orderId = 1; orderId <= 4; orderId++) {
+                bus.publish(new DomainEvent.OrderCreated(orderId, String.valueOf(seq), "NORMAL"));
+            }
+        }
+        awaitHandled(400);
+
+        Map<Integer, List<Integer>> seqByOrder = new HashMap<>();
+        for (DomainEvent event : subscriber.handled) {
+            DomainEvent.OrderCreated created = (DomainEvent.OrderCreated) event;
+            seqByOrder.computeIfAbsent(created.orderId(), k -> new ArrayList<>()).add(Integer.valueOf(created.customerName()));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int seq = 0; seq < 100; seq++) expected.add(seq);
+        for (int orderId = 1; orderId <= 4; orderId++) {
+            assertEquals(expected, seqByOrder.get(orderId), "order " + orderId);
+        }
+    }
+
+    @Test
+    void aHandlerThatKeepsFailingIsDeadLetteredAfterMaxAttempts() throws Exception {
+        subscriber.failing = true;
+        DomainEvent.OrderCreated event = new DomainEvent.OrderCreated(7, "Nguyen", "URGENT");
+
+        bus.publish(event);
+
+        DomainEventDeadLetter deadLetter = awaitDeadLetter();
+        assertEquals(MAX_ATTEMPTS, subscriber.attempts.get());
+        assertEquals(MAX_ATTEMPTS, deadLetter.getAttempts());
+        assertEquals("stub", deadLetter.getSubscriber());
+        assertEquals("order:7", deadLetter.getAggregateKey());
+        assertEquals(DomainEvent.OrderCreated.class.getName(), deadLetter.getEventType());
+        assertTrue(deadLetter.getError().contains("handler down"));
+        assertEquals(event, new ObjectMapper().readValue(deadLetter.getPayload(), DomainEvent.OrderCreated.class));
+        // No further attempts once dead-lettered
+        verify(deadLetterRepository, after(100).times(1)).save(any());
+        assertEquals(MAX_ATTEMPTS, subscriber.attempts.get());
+    }
+
+    @Test
+    void replayRedeliversTheStoredEventOnce() {
+        subscriber.failing = true;
+        DomainEvent.OrderCreated event = new DomainEvent.OrderCreated(9, "Tran", "NORMAL");
+        bus.publish(event);
+        DomainEventDeadLetter deadLetter = awaitDeadLetter();
+        deadLetter.setDeadLetterId(1L);
+        when(deadLetterRepository.findById(1L)).thenReturn(Optional.of(deadLetter));
+
+        subscriber.failing = false;
+        bus.replay(1L);
+
+        awaitHandled(1);
+        assertEquals(List.of(event), subscriber.handled);
+        assertNotNull(deadLetter.getReplayedAt());
+        assertThrows(RuntimeException.class, () -> bus.replay(1L));
+    }
+
+    private DomainEventDeadLetter awaitDeadLetter() {
+        ArgumentCaptor<DomainEventDeadLetter> saved = ArgumentCaptor.forClass(DomainEventDeadLetter.class);
+        verify(deadLetterRepository, timeout(2000)).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private void awaitHandled(int expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.handled.size() < expected && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertEquals(expected, subscriber.handled.size());
+    }
+
+    private static final class StubSubscriber implements DomainEventSubscriber {
+        private final List<DomainEvent> handled = new CopyOnWriteArrayList<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public String name() {
+            return "stub";
+        }
+
+        @Override
+        public boolean supports(DomainEvent event) {
+            return true;
+        }
+
+        @Override
+        public void handle(DomainEvent event) {
+            attempts.incrementAndGet();
+            if (failing) throw new IllegalStateException("handler down");
+            handled.add(event);
+        }
+    }
+}
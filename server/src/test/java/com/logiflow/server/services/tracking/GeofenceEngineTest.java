@@ -0,0 +1,117 @@
+package com.logiflow.server.services.tracking;
+
+import com.logiflow.server.models.TripProgressEvent;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.order.OrderStopCoordinates;
+import com.logiflow.server.repositories.trip.TripProgressEventRepository;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
+import com.logiflow.server.repositories.trip_assignment.TripDriverRow;
+import com.logiflow.server.websocket.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeofenceEngineTest {
+    private static final int TRIP_ID = 7;
+    private static final int DRIVER_ID = 5;
+    private static final double STOP_LAT = 10.0;
+    private static final double STOP_LNG = 106.0;
+    // Roughly 111 m per 0.001 degree of latitude
+    private static final double METERS = 1 / 111_320d;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final TripProgressEventRepository eventRepository = mock(TripProgressEventRepository.class);
+    private GeofenceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        OrderStopCoordinates stop = mock(OrderStopCoordinates.class);
+        when(stop.getOrderId()).thenReturn(42);
+        when(stop.getTripId()).thenReturn(TRIP_ID);
+        when(stop.getPickupLat()).thenReturn(BigDecimal.valueOf(STOP_LAT));
+        when(stop.getPickupLng()).thenReturn(BigDecimal.valueOf(STOP_LNG));
+        when(orderRepository.findStopCoordinatesByTripStatuses(anyList())).thenReturn(List.of(stop));
+        TripDriverRow driver = mock(TripDriverRow.class);
+        when(driver.getTripId()).thenReturn(TRIP_ID);
+        when(driver.getDriverId()).thenReturn(DRIVER_ID);
+        TripAssignmentRepository tripAssignmentRepository = mock(TripAssignmentRepository.class);
+        when(tripAssignmentRepository.findTripDriversByTripStatuses(anyList())).thenReturn(List.of(driver));
+        when(eventRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        engine = new GeofenceEngine(orderRepository, mock(TripRepository.class), tripAssignmentRepository, eventRepository,
+                mock(NotificationService.class), mock(SimpMessagingTemplate.class), 150, 300);
+        engine.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void entersDwellsAndExitsWithOneEventEach() {
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 1000 * METERS, STOP_LNG); // approaching, outside
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 50 * METERS, STOP_LNG);   // enter
+        verify(eventRepository, timeout(2000).times(1)).save(any());
+
+        // Dwell: jitter inside the fence and in the hysteresis band, plus a reload, emit nothing
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 10 * METERS, STOP_LNG);
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 200 * METERS, STOP_LNG);
+        engine.reload();
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 120 * METERS, STOP_LNG);
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 280 * METERS, STOP_LNG);
+
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 400 * METERS, STOP_LNG);  // exit
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT + 500 * METERS, STOP_LNG);
+
+        assertEquals(List.of(TripProgressEvent.EventType.ARRIVED, TripProgressEvent.EventType.DEPARTED),
+                savedEventTypes(2));
+    }
+
+    @Test
+    void ignoresOtherTripsAndReentersAfterExit() {
+        engine.onLocation(TRIP_ID + 1, DRIVER_ID, STOP_LAT, STOP_LNG); // same spot, different trip
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT, STOP_LNG);
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT - 400 * METERS, STOP_LNG);
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT - 100 * METERS, STOP_LNG);
+
+        assertEquals(List.of(TripProgressEvent.EventType.ARRIVED, TripProgressEvent.EventType.DEPARTED,
+                TripProgressEvent.EventType.ARRIVED), savedEventTypes(3));
+    }
+
+    @Test
+    void ignoresPointsFromDriversNotOnTheTrip() {
+        engine.onLocation(TRIP_ID, DRIVER_ID + 1, STOP_LAT, STOP_LNG); // spoofed trip id
+        engine.onLocation(TRIP_ID, null, STOP_LAT, STOP_LNG);
+        verify(eventRepository, after(200).never()).save(any());
+
+        engine.onLocation(TRIP_ID, DRIVER_ID, STOP_LAT, STOP_LNG);
+        assertEquals(List.of(TripProgressEvent.EventType.ARRIVED), savedEventTypes(1));
+    }
+
+    private List<TripProgressEvent.EventType> savedEventTypes(int expected) {
+        ArgumentCaptor<TripProgressEvent> saved = ArgumentCaptor.forClass(TripProgressEvent.class);
+        // Events are written on the engine's background thread; wait, then make sure no extra ones follow
+        verify(eventRepository, timeout(2000).times(expected)).save(any());
+        verify(eventRepository, after(200).times(expected)).save(any());
+        verify(eventRepository, times(expected)).save(saved.capture());
+        return saved.getAllValues().stream().map(TripProgressEvent::getEventType).toList();
+    }
+}
@@ -0,0 +1,153 @@
+package com.logiflow.server.services.tracking;
+
+import com.logiflow.server.dtos.dispatch.StopEtaDto;
+import com.logiflow.server.dtos.dispatch.TripEtaDto;
+import com.logiflow.server.dtos.maps.DirectionsResultDto;
+import com.logiflow.server.models.Order;
+import com.logiflow.server.repositories.order.OrderRepository;
+import com.logiflow.server.repositories.order.TripOrderStatus;
+import com.logiflow.server.repositories.trip.ActiveTripRoute;
+import com.logiflow.server.repositories.trip.TripRepository;
+import com.logiflow.server.repositories.trip_assignment.TripAssignmentRepository;
+import com.logiflow.server.repositories.trip_assignment.TripDriverRow;
+import com.logiflow.server.services.maps.MapsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveEtaServiceTest {
+    private static final int TRIP_ID = 3;
+    private static final int DRIVER_ID = 11;
+    private static final double LNG = 106.0;
+    // Stops every 0.01 degree of latitude (~1113 m) north of the start; the fake router drives 10 m/s
+    private static final String WAYPOINTS = "["
+            + "{\"lat\":10.01,\"lng\":106.0,\"type\":\"pickup\",\"orderId\":1},"
+            + "{\"lat\":10.02,\"lng\":106.0,\"type\":\"delivery\",\"orderId\":1},"
+            + "{\"lat\":10.03,\"lng\":106.0,\"type\":\"pickup\",\"orderId\":2},"
+            + "{\"lat\":10.04,\"lng\":106.0,\"type\":\"delivery\",\"orderId\":2}]";
+
+    private LiveEtaService service;
+
+    @BeforeEach
+    void setUp() {
+        MapsService mapsService = mock(MapsService.class);
+        when(mapsService.getDirections(anyString(), anyString(), anyString(), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> straightLine(
+                        Double.parseDouble(invocation.getArgument(0)), Double.parseDouble(invocation.getArgument(1)),
+                        Double.parseDouble(invocation.getArgument(2)), Double.parseDouble(invocation.getArgument(3))));
+
+        ActiveTripRoute route = mock(ActiveTripRoute.class);
+        when(route.getTripId()).thenReturn(TRIP_ID);
+        when(route.getWaypoints()).thenReturn(WAYPOINTS);
+        TripRepository tripRepository = mock(TripRepository.class);
+        when(tripRepository.findRoutesByStatuses(anyList())).thenReturn(List.of(route));
+
+        TripDriverRow driver = mock(TripDriverRow.class);
+        when(driver.getTripId()).thenReturn(TRIP_ID);
+        when(driver.getDriverId()).thenReturn(DRIVER_ID);
+        TripAssignmentRepository tripAssignmentRepository = mock(TripAssignmentRepository.class);
+        when(tripAssignmentRepository.findTripDriversByTripStatuses(anyList())).thenReturn(List.of(driver));
+
+        // Order 1 is picked up, so its pickup stop is done
+        TripOrderStatus inTransit = mock(TripOrderStatus.class);
+        when(inTransit.getOrderId()).thenReturn(1);
+        when(inTransit.getOrderStatus()).thenReturn(Order.OrderStatus.IN_TRANSIT);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findOrderStatusesByTripStatuses(anyList())).thenReturn(List.of(inTransit));
+
+        service = new LiveEtaService(mapsService, tripRepository, tripAssignmentRepository, orderRepository,
+                mock(SimpMessagingTemplate.class), 150, 60, 60_000);
+        service.refreshDestinations();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void estimatesEveryRemainingStopAlongTheRoute() {
+        TripEtaDto eta = awaitEta(10.0);
+
+        assertEquals(List.of("1:delivery", "2:pickup", "2:delivery"),
+                eta.getStops().stream().map(s -> s.getOrderId() + ":" + s.getStopType()).toList());
+        assertRemaining(2 * 1113, eta.getStops().get(0));
+        assertRemaining(3 * 1113, eta.getStops().get(1));
+        assertRemaining(4 * 1113, eta.getStops().get(2));
+        // Trip-level fields describe the final stop; a customer gets their own delivery stop
+        assertEquals(eta.getStops().get(2).getRemainingSeconds(), eta.getRemainingSeconds());
+        assertEquals(eta.getStops().get(0), service.getStopEta(TRIP_ID, 1, "delivery"));
+        assertNull(service.getStopEta(TRIP_ID, 1, "pickup"));
+    }
+
+    @Test
+    void dropsStopsTheDriverHasPassed() {
+        awaitEta(10.0);
+        service.onLocation(TRIP_ID, DRIVER_ID, 10.025, LNG, System.currentTimeMillis());
+
+        TripEtaDto eta = service.getEta(TRIP_ID);
+        assertEquals(2, eta.getStops().size());
+        assertNull(service.getStopEta(TRIP_ID, 1, "delivery"));
+        assertRemaining((int) (1.5 * 1113), service.getStopEta(TRIP_ID, 2, "delivery"));
+    }
+
+    @Test
+    void ignoresPointsFromDriversNotOnTheTrip() {
+        awaitEta(10.0);
+        TripEtaDto before = service.getEta(TRIP_ID);
+
+        service.onLocation(TRIP_ID, DRIVER_ID + 1, 10.025, LNG, System.currentTimeMillis());
+        service.onLocation(TRIP_ID, null, 10.025, LNG, System.currentTimeMillis());
+
+        assertSame(before, service.getEta(TRIP_ID));
+        assertEquals(3, service.getEta(TRIP_ID).getStops().size());
+    }
+
+    private TripEtaDto awaitEta(double lat) {
+        // The first point triggers routing on a background thread; later points read the cached route
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            service.onLocation(TRIP_ID, DRIVER_ID, lat, LNG, System.currentTimeMillis());
+            TripEtaDto eta = service.getEta(TRIP_ID);
+            if (eta != null) {
+                assertNotNull(eta.getStops());
+                return eta;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return fail("No ETA computed");
+    }
+
+    private static void assertRemaining(int expectedMeters, StopEtaDto stop) {
+        assertTrue(Math.abs(stop.getRemainingMeters() - expectedMeters) < 20,
+                "remaining meters " + stop.getRemainingMeters() + " vs " + expectedMeters);
+        assertTrue(Math.abs(stop.getRemainingSeconds() - expectedMeters / 10) < 3,
+                "remaining seconds " + stop.getRemainingSeconds() + " vs " + expectedMeters / 10);
+    }
+
+    private static DirectionsResultDto straightLine(double fromLat, double fromLng, double toLat, double toLng) {
+        double meters = Math.hypot((toLat - fromLat) * 111_320d,
+                (toLng - fromLng) * 111_320d * Math.cos(Math.toRadians(fromLat)));
+        List<List<Double>> geometry = List.of(List.of(fromLng, fromLat), List.of(toLng, toLat));
+        return new DirectionsResultDto(null, (int) meters, null, (int) Math.round(meters / 10), geometry, null);
+    }
+}
@@ -0,0 +1,35 @@
+package com.logiflow.server.utils;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test";
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000L, 100);
+        String token = jwtUtils.generateToken("driver1", "DRIVER");
+
+        JwtUtils.VerifiedToken first = jwtUtils.verify(token);
+        assertEquals("driver1", first.username());
+        assertEquals("DRIVER", first.role());
+        assertSame(first, jwtUtils.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 60_000L, 100);
+        String token = jwtUtils.generateToken("driver1", "DRIVER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtUtils.verify(tampered));
+
+        JwtUtils expiring = new JwtUtils(SECRET, -1_000L, 100);
+        assertThrows(JwtException.class, () -> expiring.verify(expiring.generateToken("driver1", "DRIVER")));
+    }
+}
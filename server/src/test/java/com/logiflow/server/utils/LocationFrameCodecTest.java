@@ -0,0 +1,39 @@
+package com.logiflow.server.utils;
+
+import com.logiflow.server.utils.LocationFrameCodec.LocationFrame;
+import com.logiflow.server.utils.LocationFrameCodec.LocationPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocationFrameCodecTest {
+
+    @Test
+    void roundTripsDeltaEncodedPoints() {
+        List<LocationPoint> points = List.of(
+                new LocationPoint(41, 10.762622, 106.660172, 1_700_000_000_000L),
+                new LocationPoint(42, 10.762910, 106.660501, 1_700_000_010_000L),
+                new LocationPoint(43, 10.761002, 106.658880, 1_700_000_020_500L));
+
+        byte[] payload = LocationFrameCodec.encode(7, 1234, 41, points);
+        LocationFrame frame = LocationFrameCodec.decode(payload);
+
+        assertEquals(7, frame.tripId());
+        assertEquals(1234, frame.streamId());
+        assertEquals(43, frame.lastSeq());
+        assertEquals(points, frame.points());
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        byte[] payload = LocationFrameCodec.encode(7, 1, 0,
+                List.of(new LocationPoint(0, 10.5, 106.5, 1_700_000_000_000L)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationFrameCodec.decode(Arrays.copyOf(payload, payload.length - 1)));
+    }
+}
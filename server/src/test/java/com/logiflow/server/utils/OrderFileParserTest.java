@@ -0,0 +1,125 @@
+package com.logiflow.server.utils;
+
+import com.logiflow.server.dtos.dispatch.OrderCreateRequest;
+import com.logiflow.server.models.Order;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderFileParserTest {
+
+    @Test
+    void streamsCsvRowsWithTemplateColumnsAndSkipsBlankRows() throws Exception {
+        String csv = "Customer Name,Customer Phone,Pickup Address,Delivery Address,Package Details,Priority Level,"
+                + "Distance (km),Weight (tons),Pickup Type,Container Number,Warehouse Name,Dock Number,Package Value (VND),Trip ID\n"
+                + "Nguyen Van A,+84-912,Cat Lai Port,District 1,Bulk,urgent,10.5,12.5,PORT_TERMINAL,CONT-001,Cat Lai Terminal,,500000,7\n"
+                + ",,,,,,,,,,,,,\n"
+                + "Tran B,,Depot,District 3,,bogus,,,WAREHOUSE,,WH-2,D4,,\n";
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<OrderCreateRequest> rows = new ArrayList<>();
+
+        int count = OrderFileParser.readCSV(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), (rowNumber, request) -> {
+            rowNumbers.add(rowNumber);
+            rows.add(request);
+        });
+
+        assertEquals(2, count);
+        assertEquals(List.of(2, 4), rowNumbers);
+
+        OrderCreateRequest port = rows.get(0);
+        assertEquals(Order.PriorityLevel.URGENT, port.getPriorityLevel());
+        assertEquals(Order.PickupType.PORT_TERMINAL, port.getPickupType());
+        assertEquals("Cat Lai Terminal", port.getTerminalName());
+        assertNull(port.getDockNumber());
+        assertEquals(new BigDecimal("500000"), port.getPackageValue());
+        assertEquals(7, port.getTripId());
+
+        OrderCreateRequest warehouse = rows.get(1);
+        assertEquals(Order.PriorityLevel.NORMAL, warehouse.getPriorityLevel());
+        assertEquals("WH-2", warehouse.getWarehouseName());
+        assertEquals("D4", warehouse.getDockNumber());
+        assertNull(warehouse.getTripId());
+    }
+
+    @Test
+    void streamsXlsxRowsWithTheSameColumnsAsCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Orders");
+            sheet.createRow(0).createCell(0).setCellValue("Customer Name");
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue("Nguyen Van A");
+            row.createCell(2).setCellValue("Cat Lai Port");
+            row.createCell(3).setCellValue("District 1");
+            row.createCell(6).setCellValue(10.5);
+            row.createCell(8).setCellValue("WAREHOUSE");
+            row.createCell(10).setCellValue("WH-1");
+            row.createCell(11).setCellValue("D2");
+            row.createCell(13).setCellValue(7);
+            workbook.write(out);
+        }
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<OrderCreateRequest> rows = new ArrayList<>();
+
+        int count = OrderFileParser.readExcel(new ByteArrayInputStream(out.toByteArray()), (rowNumber, request) -> {
+            rowNumbers.add(rowNumber);
+            rows.add(request);
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(3), rowNumbers);
+        OrderCreateRequest request = rows.get(0);
+        assertEquals("Nguyen Van A", request.getCustomerName());
+        assertNull(request.getCustomerPhone());
+        assertEquals(new BigDecimal("10.5"), request.getDistanceKm());
+        assertEquals("WH-1", request.getWarehouseName());
+        assertEquals("D2", request.getDockNumber());
+        assertEquals(7, request.getTripId());
+    }
+
+    @Test
+    void readsXlsxNumbersAsStoredWhateverTheirFormat() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Orders");
+            sheet.createRow(0).createCell(0).setCellValue("Customer Name");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("Nguyen Van A");
+            // Displayed as "12.3"
+            Cell weight = row.createCell(7);
+            weight.setCellValue(12.345);
+            weight.setCellStyle(style(workbook, "0.0"));
+            // Displayed as "1,250,000"
+            Cell value = row.createCell(12);
+            value.setCellValue(1_250_000);
+            value.setCellStyle(style(workbook, "#,##0"));
+            workbook.write(out);
+        }
+        List<OrderCreateRequest> rows = new ArrayList<>();
+
+        OrderFileParser.readExcel(new ByteArrayInputStream(out.toByteArray()), (rowNumber, request) -> rows.add(request));
+
+        assertEquals(1, rows.size());
+        assertEquals(new BigDecimal("12.345"), rows.get(0).getWeightTons());
+        assertEquals(new BigDecimal("1250000"), rows.get(0).getPackageValue());
+    }
+
+    private static CellStyle style(XSSFWorkbook workbook, String format) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat(format));
+        return style;
+    }
+}
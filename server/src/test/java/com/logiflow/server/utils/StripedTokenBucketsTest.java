@@ -0,0 +1,33 @@
+package com.logiflow.server.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedTokenBucketsTest {
+
+    @Test
+    void grantsBurstThenAsksToWait() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 1000);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("driver1 driver/me/trips", 1, 5));
+        }
+        long waitMs = buckets.tryAcquire("driver1 driver/me/trips", 1, 5);
+        assertTrue(waitMs > 0 && waitMs <= 1000, "wait was " + waitMs);
+        // Other keys have their own buckets
+        assertEquals(0, buckets.tryAcquire("driver2 driver/me/trips", 1, 5));
+    }
+
+    @Test
+    void fullStripesLetUntrackedKeysThroughAndIdleBucketsAreEvicted() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 2);
+        assertEquals(0, buckets.tryAcquire("a", 1, 1));
+        assertEquals(0, buckets.tryAcquire("b", 1, 1));
+        assertEquals(-1, buckets.tryAcquire("c", 1, 1));
+
+        assertEquals(0, buckets.evictIdle(60_000));
+        assertEquals(2, buckets.evictIdle(-1));
+        assertEquals(0, buckets.size());
+    }
+}
@@ -0,0 +1,170 @@
+package com.logiflow.server.websocket;
+
+import com.logiflow.server.services.auth.TokenRevocationRegistry;
+import com.logiflow.server.utils.JwtUtils;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two application nodes in relay mode (profile {@code relay-test}) share an in-VM Artemis STOMP broker: a message
+ * published on node A must reach a WebSocket subscriber connected to node B.
+ */
+class BrokerRelayFanOutTest {
+    @TempDir
+    Path brokerDir;
+
+    private EmbeddedActiveMQ broker;
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int brokerPort = freePort();
+        Configuration config = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJournalDirectory(brokerDir.resolve("journal").toString())
+                .setBindingsDirectory(brokerDir.resolve("bindings").toString())
+                .setLargeMessagesDirectory(brokerDir.resolve("large").toString())
+                .setPagingDirectory(brokerDir.resolve("paging").toString())
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + brokerPort
+                        + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ().setConfiguration(config);
+        broker.start();
+
+        nodeA = startNode(brokerPort);
+        nodeB = startNode(brokerPort);
+
+        stompClient = new WebSocketStompClient(new SockJsClient(
+                List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new StringMessageConverter());
+        ThreadPoolTaskScheduler receiptScheduler = new ThreadPoolTaskScheduler();
+        receiptScheduler.initialize();
+        stompClient.setTaskScheduler(receiptScheduler);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stompClient != null) stompClient.stop();
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+        if (broker != null) broker.stop();
+    }
+
+    @Test
+    void messagePublishedOnOneNodeReachesSubscriberOnAnother() throws Exception {
+        int portB = ((ServletWebServerApplicationContext) nodeB).getWebServer().getPort();
+        StompSession session = stompClient
+                .connectAsync("ws://127.0.0.1:" + portB + "/ws/notifications", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        session.setAutoReceipt(true);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe("/topic/relay-test", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        }).addReceiptTask(subscribed::countDown);
+        // The receipt comes back from the broker, so the subscription is registered there
+        assertTrue(subscribed.await(10, TimeUnit.SECONDS), "subscription not confirmed by the broker");
+
+        nodeA.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class)
+                .convertAndSend("/topic/relay-test", "published on node A");
+
+        assertEquals("published on node A", received.poll(10, TimeUnit.SECONDS));
+    }
+
+    private static ConfigurableApplicationContext startNode(int brokerPort) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RelayNode.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("relay-test")
+                // Arguments, not default properties: those would lose to application.properties
+                .run("--server.port=0", "--app.websocket.relay.port=" + brokerPort);
+        // The relay's system session connects asynchronously; publishing before that drops the message
+        StompBrokerRelayMessageHandler relay = context.getBean(StompBrokerRelayMessageHandler.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(relay.isBrokerAvailable(), "node did not connect to the broker");
+        return context;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Only the WebSocket/STOMP slice of the application: no database, security or other services. */
+    @org.springframework.context.annotation.Configuration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            WebSocketMessagingAutoConfiguration.class})
+    @Import({WebSocketConfig.class, OutboundLagMonitor.class})
+    static class RelayNode {
+        @Bean
+        JwtHandshakeInterceptor jwtHandshakeInterceptor() {
+            return mock(JwtHandshakeInterceptor.class); // Only guards the tracking/native endpoints, unused here
+        }
+
+        @Bean
+        JwtPrincipalHandshakeHandler jwtPrincipalHandshakeHandler() {
+            // The subscriber connects without a token, so its session stays anonymous
+            return new JwtPrincipalHandshakeHandler(mock(JwtUtils.class), mock(TokenRevocationRegistry.class));
+        }
+    }
+}